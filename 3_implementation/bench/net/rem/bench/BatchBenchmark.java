@@ -0,0 +1,331 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.bench;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import net.hudup.core.Util;
+import net.hudup.core.alg.Alg;
+import net.hudup.core.alg.AlgExtAbstract;
+import net.hudup.core.data.Fetcher;
+import net.hudup.core.data.Profile;
+import net.hudup.core.logistic.LogUtil;
+import net.rem.em.EMAbstract;
+
+/**
+ * This class is headless macro-benchmark which trains every algorithm on every training set listed in batch scripts such as <code>datasets/*&#47;batch-sample.script</code>.
+ * For every pair of algorithm and training set, it records wall time, iterations to convergence, allocated bytes, allocation rate and peak heap, and writes them as JSON.
+ * Usage: <code>BatchBenchmark [-warmup n] [-repeat n] [-out file] [script...]</code>. If no script is specified, all batch scripts in <code>datasets</code> directory are used.
+ * Allocated bytes are measured on the training thread, so allocation of helper threads (for example, multi-start initialization) is not counted.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class BatchBenchmark {
+
+
+	/**
+	 * Default number of warm-up runs.
+	 */
+	public final static int WARMUP_DEFAULT = 1;
+
+
+	/**
+	 * Default number of measured runs.
+	 */
+	public final static int REPEAT_DEFAULT = 3;
+
+
+	/**
+	 * Default output file.
+	 */
+	public final static String OUTPUT_DEFAULT = "working/bench/batch-result.json";
+
+
+	/**
+	 * This class represents measurement of one training run.
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 */
+	public static class Run {
+
+		/**
+		 * Wall time in milliseconds.
+		 */
+		public double wallMillis = 0;
+
+		/**
+		 * Iterations to convergence. It is -1 if the algorithm is not EM algorithm, for example, clustered mixture model.
+		 */
+		public int iterations = -1;
+
+		/**
+		 * Allocated bytes on the training thread. It is -1 if not supported.
+		 */
+		public long allocatedBytes = -1;
+
+		/**
+		 * Peak used heap in bytes.
+		 */
+		public long peakHeapBytes = 0;
+
+		/**
+		 * Flag to indicate whether training is successful.
+		 */
+		public boolean success = false;
+
+		/**
+		 * Getting allocation rate in megabytes per second.
+		 * @return allocation rate in megabytes per second. Return -1 if not supported.
+		 */
+		public double allocationRate() {
+			if (allocatedBytes < 0 || wallMillis <= 0) return -1;
+			return (allocatedBytes / (1024.0 * 1024.0)) / (wallMillis / 1000.0);
+		}
+
+	}
+
+
+	/**
+	 * Training specified algorithm on specified sample once and measuring the run.
+	 * @param algName algorithm name.
+	 * @param sample training sample.
+	 * @return measurement of the run.
+	 */
+	public static Run run(String algName, Fetcher<Profile> sample) {
+		Run run = new Run();
+		Alg alg = BenchmarkUtil.createAlg(algName);
+		if (alg == null || !(alg instanceof AlgExtAbstract)) {
+			LogUtil.error("Unknown algorithm " + algName);
+			return run;
+		}
+		AlgExtAbstract algExt = (AlgExtAbstract)alg;
+
+		System.gc();
+		List<MemoryPoolMXBean> heapPools = Util.newList();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				pool.resetPeakUsage();
+				heapPools.add(pool);
+			}
+		}
+		long allocated0 = allocatedBytes();
+		long time0 = System.nanoTime();
+		try {
+			algExt.setup(sample);
+			run.success = algExt.getParameter() != null;
+			if (alg instanceof EMAbstract) run.iterations = ((EMAbstract)alg).getCurrentIteration();
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		run.wallMillis = (System.nanoTime() - time0) / 1e6;
+		long allocated1 = allocatedBytes();
+		run.allocatedBytes = allocated0 < 0 || allocated1 < 0 ? -1 : allocated1 - allocated0;
+		for (MemoryPoolMXBean pool : heapPools) run.peakHeapBytes += pool.getPeakUsage().getUsed();
+
+		try {
+			algExt.unsetup();
+		} catch (Throwable e) {LogUtil.trace(e);}
+
+		return run;
+	}
+
+
+	/**
+	 * Getting allocated bytes of the current thread.
+	 * @return allocated bytes of the current thread. Return -1 if not supported.
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) return -1;
+		com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean)bean;
+		if (!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled()) return -1;
+		return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+
+	/**
+	 * Running all algorithms on all training sets of specified script and writing results as JSON array elements.
+	 * @param script batch script file.
+	 * @param warmup number of warm-up runs.
+	 * @param repeat number of measured runs.
+	 * @param writer writer of JSON.
+	 * @param first flag to indicate whether no result is written before.
+	 * @return true if at least one result is written.
+	 * @throws Exception if any error raises.
+	 */
+	protected static boolean runScript(File script, int warmup, int repeat, Writer writer, boolean first) throws Exception {
+		List<List<String>> content = null;
+		try (Reader reader = new FileReader(script)) {
+			content = BenchmarkUtil.readScript(reader);
+		}
+		if (content == null) {
+			LogUtil.error("Invalid batch script " + script);
+			return false;
+		}
+
+		boolean written = false;
+		for (String trainingPath : content.get(1)) {
+			File trainingFile = new File(trainingPath);
+			if (!trainingFile.exists()) {
+				LogUtil.error("Training set " + trainingPath + " not found");
+				continue;
+			}
+			Fetcher<Profile> sample = BenchmarkUtil.loadSample(trainingFile);
+			int rows = sample.getMetadata().getSize();
+
+			for (String algName : content.get(0)) {
+				if (BenchmarkUtil.createAlg(algName) == null) {
+					LogUtil.error("Unknown algorithm " + algName);
+					continue;
+				}
+
+				for (int i = 0; i < warmup; i++) run(algName, sample);
+				List<Run> runs = Util.newList(repeat);
+				for (int i = 0; i < repeat; i++) runs.add(run(algName, sample));
+
+				if (!first || written) writer.write(",\n");
+				writeResult(writer, script.getPath(), algName, trainingPath, rows, warmup, runs);
+				writer.flush();
+				written = true;
+
+				Run last = runs.get(runs.size() - 1);
+				System.out.println(String.format(Locale.ROOT, "%s on %s: %.1f ms, %d iterations", algName, trainingPath, last.wallMillis, last.iterations));
+			}
+
+			sample.close();
+		}
+
+		return written;
+	}
+
+
+	/**
+	 * Writing result of algorithm on training set as JSON object.
+	 * @param writer writer of JSON.
+	 * @param script script path.
+	 * @param algName algorithm name.
+	 * @param trainingPath training set path.
+	 * @param rows number of rows of training set.
+	 * @param warmup number of warm-up runs.
+	 * @param runs measured runs.
+	 * @throws Exception if any error raises.
+	 */
+	private static void writeResult(Writer writer, String script, String algName, String trainingPath, int rows, int warmup, List<Run> runs) throws Exception {
+		double[] walls = new double[runs.size()];
+		for (int i = 0; i < runs.size(); i++) walls[i] = runs.get(i).wallMillis;
+		Arrays.sort(walls);
+		double median = walls.length == 0 ? 0 : (walls[(walls.length - 1) / 2] + walls[walls.length / 2]) / 2;
+
+		writer.write("    {");
+		writer.write("\"script\": " + quote(script));
+		writer.write(", \"algorithm\": " + quote(algName));
+		writer.write(", \"trainingSet\": " + quote(trainingPath));
+		writer.write(", \"rows\": " + rows);
+		writer.write(", \"warmups\": " + warmup);
+		writer.write(", \"medianWallMillis\": " + format(median));
+		writer.write(", \"runs\": [");
+		for (int i = 0; i < runs.size(); i++) {
+			Run run = runs.get(i);
+			if (i > 0) writer.write(", ");
+			writer.write("{\"success\": " + run.success);
+			writer.write(", \"wallMillis\": " + format(run.wallMillis));
+			writer.write(", \"iterations\": " + run.iterations);
+			writer.write(", \"allocatedBytes\": " + run.allocatedBytes);
+			writer.write(", \"allocationRateMBs\": " + format(run.allocationRate()));
+			writer.write(", \"peakHeapBytes\": " + run.peakHeapBytes + "}");
+		}
+		writer.write("]}");
+	}
+
+
+	/**
+	 * Quoting text as JSON string.
+	 * @param text specified text.
+	 * @return JSON string.
+	 */
+	private static String quote(String text) {
+		return "\"" + text.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+
+
+	/**
+	 * Formatting real number as JSON number.
+	 * @param value real number.
+	 * @return JSON number.
+	 */
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.3f", value);
+	}
+
+
+	/**
+	 * Main method.
+	 * @param args arguments <code>[-warmup n] [-repeat n] [-out file] [script...]</code>.
+	 * @throws Exception if any error raises.
+	 */
+	public static void main(String[] args) throws Exception {
+		int warmup = WARMUP_DEFAULT, repeat = REPEAT_DEFAULT;
+		String output = OUTPUT_DEFAULT;
+		List<File> scripts = Util.newList();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-warmup") && i + 1 < args.length)
+				warmup = Integer.parseInt(args[++i]);
+			else if (args[i].equals("-repeat") && i + 1 < args.length)
+				repeat = Math.max(1, Integer.parseInt(args[++i]));
+			else if (args[i].equals("-out") && i + 1 < args.length)
+				output = args[++i];
+			else
+				scripts.add(new File(args[i]));
+		}
+
+		if (scripts.size() == 0) {
+			File[] datasets = new File(BenchmarkUtil.DATASETS_HOME).listFiles();
+			if (datasets != null) {
+				Arrays.sort(datasets);
+				for (File dataset : datasets) {
+					File script = new File(dataset, "batch-sample.script");
+					if (script.exists()) scripts.add(script);
+				}
+			}
+		}
+
+		File outputFile = new File(output);
+		if (outputFile.getParentFile() != null) outputFile.getParentFile().mkdirs();
+		try (Writer writer = new FileWriter(outputFile)) {
+			writer.write("{\n");
+			writer.write("  \"javaVersion\": " + quote(System.getProperty("java.version")) + ",\n");
+			writer.write("  \"processors\": " + Runtime.getRuntime().availableProcessors() + ",\n");
+			writer.write("  \"maxHeapBytes\": " + Runtime.getRuntime().maxMemory() + ",\n");
+			writer.write("  \"timestamp\": " + System.currentTimeMillis() + ",\n");
+			writer.write("  \"results\": [\n");
+			boolean first = true;
+			for (File script : scripts) {
+				if (runScript(script, warmup, repeat, writer, first)) first = false;
+			}
+			writer.write("\n  ]\n}\n");
+		}
+
+		System.out.println("Results are written to " + outputFile.getPath());
+	}
+
+
+}
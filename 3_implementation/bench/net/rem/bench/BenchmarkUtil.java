@@ -0,0 +1,187 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+import java.util.Properties;
+
+import net.hudup.core.Util;
+import net.hudup.core.alg.Alg;
+import net.hudup.core.data.Attribute;
+import net.hudup.core.data.Attribute.Type;
+import net.hudup.core.data.AttributeList;
+import net.hudup.core.data.Fetcher;
+import net.hudup.core.data.MemFetcher;
+import net.hudup.core.data.Profile;
+import net.hudup.core.logistic.LogUtil;
+import net.rem.regression.DefaultMixtureRM;
+import net.rem.regression.em.DefaultMixtureREM;
+import net.rem.regression.em.REMImpl;
+import net.rem.regression.em.REMPrior;
+import net.rem.regression.em.REMRobust;
+import net.rem.regression.em.SemiMixtureREM;
+import net.rem.regression.em.WeightedMixtureREM;
+
+/**
+ * This utility class provides methods shared by benchmarks, such as loading bundled samples and batch scripts without Hudup plug-in environment.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public final class BenchmarkUtil {
+
+
+	/**
+	 * Default directory of datasets, relative to the implementation directory.
+	 */
+	public final static String DATASETS_HOME = "datasets";
+
+
+	/**
+	 * Bundled datasets used by benchmarks.
+	 */
+	public final static String[] DATASETS = {"ccpp-0.5", "roadnet-0.5", "xclara-0.5"};
+
+
+	/**
+	 * Missing rates of bundled training sets. Rate 0 indicates the complete training set.
+	 */
+	public final static String[] MISSING_RATES = {"0.0", "0.1", "0.2", "0.3", "0.4", "0.5", "0.6", "0.7", "0.8", "0.9"};
+
+
+	/**
+	 * Private constructor.
+	 */
+	private BenchmarkUtil() {
+
+	}
+
+
+	/**
+	 * Getting training file of bundled dataset at specified missing rate.
+	 * @param datasetsHome directory of datasets.
+	 * @param dataset name of dataset such as ccpp-0.5.
+	 * @param missingRate missing rate such as 0.3. Rate 0 indicates the complete training set.
+	 * @return training file of bundled dataset at specified missing rate.
+	 */
+	public static File getTrainingFile(String datasetsHome, String dataset, String missingRate) {
+		double rate = Double.parseDouble(missingRate);
+		String fileName = rate <= 0 ? "hdp_sample.base" : "hdp_sample.base." + missingRate + ".miss";
+		return new File(new File(datasetsHome, dataset), fileName);
+	}
+
+
+	/**
+	 * Loading sample from text file whose first line is header of attributes such as <code>AT~real~0~false~false,V~real</code>
+	 * and other lines are comma-separated real values. Empty or quoted empty value is missing value.
+	 * @param file specified text file.
+	 * @return sample as memory fetcher of profiles.
+	 * @throws IOException if any error raises.
+	 */
+	public static Fetcher<Profile> loadSample(File file) throws IOException {
+		try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+			String header = reader.readLine();
+			if (header == null) return new MemFetcher<>(Util.<Profile>newList());
+
+			AttributeList attList = new AttributeList();
+			for (String field : header.split(",")) {
+				String name = field.split("~")[0].trim();
+				attList.add(new Attribute(name, Type.real));
+			}
+
+			List<Profile> profiles = Util.newList();
+			String line = null;
+			while ((line = reader.readLine()) != null) {
+				if (line.trim().isEmpty()) continue;
+				String[] values = line.split(",", -1);
+				Profile profile = new Profile(attList);
+				for (int j = 0; j < attList.size(); j++) {
+					String value = j < values.length ? values[j].replace("\"", "").trim() : "";
+					if (value.isEmpty())
+						profile.setMissing(j);
+					else
+						profile.setValue(j, Double.parseDouble(value));
+				}
+				profiles.add(profile);
+			}
+
+			return new MemFetcher<>(profiles);
+		}
+	}
+
+
+	/**
+	 * Reading batch script such as <code>datasets/ccpp-0.5/batch-sample.script</code>.
+	 * @param reader reader of batch script.
+	 * @return pair of algorithm names (first element) and training file paths (second element). Return null if reading is failed.
+	 */
+	public static List<List<String>> readScript(Reader reader) {
+		Properties properties = new Properties();
+		try {
+			properties.load(reader);
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			return null;
+		}
+
+		String algorithms = properties.getProperty("algorithms");
+		String trainingSets = properties.getProperty("trainingsets");
+		if (algorithms == null || trainingSets == null) return null;
+
+		List<String> algNames = Util.newList();
+		for (String algName : algorithms.split(",")) {
+			if (!algName.trim().isEmpty()) algNames.add(algName.trim());
+		}
+
+		List<String> trainingPaths = Util.newList();
+		for (String trainingSet : trainingSets.split(",")) {
+			String path = trainingSet.trim().split("#")[0].trim();
+			if (!path.isEmpty()) trainingPaths.add(path);
+		}
+
+		List<List<String>> result = Util.newList(2);
+		result.add(algNames);
+		result.add(trainingPaths);
+		return result;
+	}
+
+
+	/**
+	 * Creating algorithm by name. Both names returned by algorithms and old names in batch scripts (such as default_mixrem) are accepted.
+	 * @param algName algorithm name.
+	 * @return algorithm of specified name. Return null if there is no such algorithm.
+	 */
+	public static Alg createAlg(String algName) {
+		if (algName.equals("default_mixrem"))
+			return new DefaultMixtureREM();
+		else if (algName.equals("semi_mixrem"))
+			return new SemiMixtureREM();
+		else if (algName.equals("weighted_mixrem"))
+			return new WeightedMixtureREM();
+		else if (algName.equals("prior_rem"))
+			return new REMPrior();
+		else if (algName.equals("cluster_mixrm"))
+			return new DefaultMixtureRM();
+
+		Alg[] algs = {new REMImpl(), new REMPrior(), new REMRobust(), new DefaultMixtureREM(), new SemiMixtureREM(), new WeightedMixtureREM(), new DefaultMixtureRM()};
+		for (Alg alg : algs) {
+			if (alg.getName().equals(algName)) return alg;
+		}
+
+		return null;
+	}
+
+
+}
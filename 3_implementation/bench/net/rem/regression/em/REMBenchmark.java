@@ -0,0 +1,314 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.hudup.core.Util;
+import net.hudup.core.data.AttributeList;
+import net.hudup.core.data.Fetcher;
+import net.hudup.core.data.Profile;
+import net.rem.bench.BenchmarkUtil;
+import net.rem.regression.Indices;
+import net.rem.regression.LargeStatistics;
+import net.rem.regression.MathAdapter;
+import net.rem.regression.RMAbstract;
+
+/**
+ * This class is JMH benchmark of hot paths of regression expectation maximization (REM) on bundled datasets at every missing rate.
+ * It is in the same package as {@link REMImpl} so that protected methods can be measured directly.
+ * Run it by the Ant target <code>bench</code>. The directory of datasets can be changed by the system property <code>rem.datasets</code>.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class REMBenchmark {
+
+
+	/**
+	 * Name of bundled dataset.
+	 */
+	@Param({"ccpp-0.5", "roadnet-0.5", "xclara-0.5"})
+	public String dataset;
+
+
+	/**
+	 * Missing rate of training set. Rate 0 indicates the complete training set.
+	 */
+	@Param({"0.0", "0.1", "0.2", "0.3", "0.4", "0.5", "0.6", "0.7", "0.8", "0.9"})
+	public String missingRate;
+
+
+	/**
+	 * Training sample.
+	 */
+	protected Fetcher<Profile> sample = null;
+
+
+	/**
+	 * Trained REM model whose internal data is kept.
+	 */
+	protected REMImpl rem = null;
+
+
+	/**
+	 * Estimated parameter of trained model.
+	 */
+	protected ExchangedParameter parameter = null;
+
+
+	/**
+	 * List of two components used to measure conditional probabilities.
+	 */
+	protected List<ExchangedParameter> parameterList = Util.newList();
+
+
+	/**
+	 * Sufficient statistics produced by expectation step.
+	 */
+	protected LargeStatistics statistics = null;
+
+
+	/**
+	 * Response values of sufficient statistics.
+	 */
+	protected List<Double> z = Util.newList();
+
+
+	/**
+	 * Matrix X'X of normal equations.
+	 */
+	protected List<double[]> A = Util.newList();
+
+
+	/**
+	 * Vector X'z of normal equations.
+	 */
+	protected List<Double> b = Util.newList();
+
+
+	/**
+	 * Mean of regressors.
+	 */
+	protected List<Double> xMean = Util.newList();
+
+
+	/**
+	 * Covariance matrix of regressors.
+	 */
+	protected List<double[]> xVariance = Util.newList();
+
+
+	/**
+	 * Attribute list of sample.
+	 */
+	protected AttributeList attList = null;
+
+
+	/**
+	 * Indices of regressors with mathematical expressions.
+	 */
+	protected List<Object[]> expressionIndices = Util.newList();
+
+
+	/**
+	 * Setting up trial by training model on the selected training set.
+	 * @throws Exception if any error raises.
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		String datasetsHome = System.getProperty("rem.datasets", BenchmarkUtil.DATASETS_HOME);
+		sample = BenchmarkUtil.loadSample(BenchmarkUtil.getTrainingFile(datasetsHome, dataset, missingRate));
+
+		rem = new REMImpl();
+		rem.setup(sample);
+		parameter = (ExchangedParameter)rem.getCurrentParameter();
+		if (parameter == null)
+			throw new IllegalStateException("Cannot train REM on dataset " + dataset + " at missing rate " + missingRate);
+
+		for (int k = 0; k < 2; k++) {
+			ExchangedParameter component = (ExchangedParameter)parameter.clone();
+			component.setCoeff(0.5);
+			parameterList.add(component);
+		}
+
+		statistics = (LargeStatistics)rem.expectation(parameter);
+		List<double[]> X = statistics.getXData();
+		int N = X.size(), n = X.get(0).length;
+		for (double[] zVector : statistics.getZData()) z.add(zVector[1]);
+
+		for (int i = 0; i < n; i++) {
+			double[] row = new double[n];
+			double sum = 0;
+			for (int k = 0; k < N; k++) {
+				double[] x = X.get(k);
+				for (int j = 0; j < n; j++) row[j] += x[i] * x[j];
+				sum += x[i] * z.get(k);
+			}
+			A.add(row);
+			b.add(sum);
+		}
+
+		for (int i = 1; i < n; i++) xMean.add(A.get(0)[i] / N);
+		for (int i = 1; i < n; i++) {
+			double[] row = new double[n - 1];
+			for (int j = 1; j < n; j++)
+				row[j - 1] = A.get(i)[j] / N - xMean.get(i - 1) * xMean.get(j - 1);
+			xVariance.add(row);
+		}
+
+		attList = rem.attList;
+		expressionIndices.add(new Object[] {Integer.valueOf(-1)});
+		for (int j = 0; j < attList.size() - 1; j++) {
+			String name = RMAbstract.VAR_INDEX_SPECIAL_CHAR + attList.get(j).getName();
+			expressionIndices.add(new Object[] {"(" + name + " + 1)^2 + log(abs(" + name + ") + 1)"});
+		}
+	}
+
+
+	/**
+	 * Tearing down trial.
+	 * @throws Exception if any error raises.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		if (rem != null) rem.unsetup();
+		if (sample != null) sample.close();
+	}
+
+
+	/**
+	 * Measuring expectation step on the whole training set.
+	 * @return sufficient statistics.
+	 * @throws Exception if any error raises.
+	 */
+	@Benchmark
+	public Object expectation() throws Exception {
+		return rem.expectation(parameter);
+	}
+
+
+	/**
+	 * Measuring maximization step on sufficient statistics.
+	 * @return estimated parameter.
+	 * @throws Exception if any error raises.
+	 */
+	@Benchmark
+	public Object maximization() throws Exception {
+		return rem.maximization(statistics);
+	}
+
+
+	/**
+	 * Measuring calculation of regression coefficients.
+	 * @return regression coefficients.
+	 */
+	@Benchmark
+	public Object calcCoeffs() {
+		return REMAbstract.calcCoeffs(statistics.getXData(), z);
+	}
+
+
+	/**
+	 * Measuring solving normal equations.
+	 * @return solution of normal equations.
+	 */
+	@Benchmark
+	public Object solve() {
+		return MathAdapter.solve(A, b);
+	}
+
+
+	/**
+	 * Measuring multivariate normal density over all regressor vectors.
+	 * @return sum of densities.
+	 */
+	@Benchmark
+	public double normalPDF() {
+		double sum = 0;
+		List<Double> value = Util.newList(xMean.size());
+		for (double[] x : statistics.getXData()) {
+			value.clear();
+			for (int j = 1; j < x.length; j++) value.add(x[j]);
+			sum += ExchangedParameter.normalPDF(value, xMean, xVariance);
+		}
+		return sum;
+	}
+
+
+	/**
+	 * Measuring conditional probabilities of two components over all records.
+	 * @return sum of conditional probabilities of the first component.
+	 */
+	@Benchmark
+	public double normalZCondProbs() {
+		double sum = 0;
+		List<double[]> X = statistics.getXData(), Z = statistics.getZData();
+		for (int i = 0; i < X.size(); i++)
+			sum += ExchangedParameter.normalZCondProbs(parameterList, X.get(i), Z.get(i)).get(0);
+		return sum;
+	}
+
+
+	/**
+	 * Measuring extraction of data from sample.
+	 * @return extracted data.
+	 */
+	@Benchmark
+	public Object extractData() {
+		return Indices.extractData(sample, attList, rem.xIndices, rem.zIndices);
+	}
+
+
+	/**
+	 * Measuring extraction of variable values from sample with mathematical expressions.
+	 * @return sum of extracted values.
+	 * @throws Exception if any error raises.
+	 */
+	@Benchmark
+	public double extractVariableValue() throws Exception {
+		double sum = 0;
+		try {
+			while (sample.next()) {
+				Profile profile = sample.pick();
+				for (int j = 1; j < expressionIndices.size(); j++) {
+					double value = RMAbstract.extractVariableValue(profile, attList, expressionIndices, j);
+					if (Util.isUsed(value)) sum += value;
+				}
+			}
+		}
+		finally {
+			sample.reset();
+		}
+		return sum;
+	}
+
+
+}
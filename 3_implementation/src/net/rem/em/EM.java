@@ -38,6 +38,72 @@ public interface EM extends EMRemoteTask, ExecutableAlg {
 	final static boolean EM_EPSILON_RATIO_MODE = true;
 
 	
+	/**
+	 * Default value for collecting per-iteration metrics. It is off because a collector is registered in {@link EMMetricsRegistry} until its algorithm is unset up.
+	 */
+	final static boolean EM_METRICS = false;
+
+	
+	/**
+	 * Default value for measuring log-likelihood in per-iteration metrics, which costs one more pass over data per iteration.
+	 */
+	final static boolean EM_METRICS_LIKELIHOOD = false;
+
+
+	/**
+	 * Event detail level in which learning events carry only iteration and metrics. Done events still carry estimated parameter.
+	 */
+	final static String EM_EVENT_DETAIL_SUMMARY = "summary";
+
+	
+	/**
+	 * Event detail level in which learning events carry current parameter and estimated parameter but not sufficient statistics.
+	 */
+	final static String EM_EVENT_DETAIL_PARAMETERS = "parameters";
+
+	
+	/**
+	 * Event detail level in which learning events carry sufficient statistics, current parameter, and estimated parameter.
+	 */
+	final static String EM_EVENT_DETAIL_FULL = "full";
+
+	
+	/**
+	 * Default event detail level, which keeps the payload of events before detail levels were introduced.
+	 */
+	final static String EM_EVENT_DETAIL = EM_EVENT_DETAIL_FULL;
+
+	
+	/**
+	 * Default minimum interval in milliseconds between two doing events delivered to remote listeners. Done events are always delivered.
+	 */
+	final static long EM_EVENT_REMOTE_INTERVAL = 1000;
+
+	
+	/**
+	 * Maximum time in milliseconds to wait for pending events to be delivered after the final done event.
+	 */
+	final static long EM_EVENT_FLUSH_TIMEOUT = 5000;
+
+
+	/**
+	 * Default checkpoint file. Empty file name means that checkpoint is disabled.
+	 */
+	final static String EM_CHECKPOINT_FILE = "";
+
+	
+	/**
+	 * Default number of iterations between two checkpoints.
+	 */
+	final static int EM_CHECKPOINT_INTERVAL = 10;
+
+	
+	/**
+	 * Default value for resuming learning from checkpoint file if it exists.
+	 */
+	final static boolean EM_RESUME = true;
+
+	
 	/**
 	 * Getting current iteration.
 	 * @return current iteration. Return 0 if the algorithm does not run yet or run failed. 
@@ -7,18 +7,30 @@
  */
 package net.rem.em;
 
+import java.io.File;
+import java.io.Serializable;
+import java.lang.reflect.Proxy;
 import java.rmi.RemoteException;
+import java.rmi.server.RemoteObject;
+import java.rmi.server.RemoteObjectInvocationHandler;
+import java.rmi.server.RemoteServer;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
+import net.hudup.core.Constants;
+import net.hudup.core.Util;
 import net.hudup.core.alg.ExecutableAlgAbstract;
 import net.hudup.core.alg.MemoryBasedAlg;
 import net.hudup.core.alg.MemoryBasedAlgRemote;
 import net.hudup.core.alg.SetupAlgEvent;
+import net.hudup.core.alg.SetupAlgListener;
 import net.hudup.core.alg.SetupAlgEvent.Type;
 import net.hudup.core.data.DataConfig;
 import net.hudup.core.data.Dataset;
 import net.hudup.core.data.Fetcher;
+import net.hudup.core.logistic.LogUtil;
 
 /**
  * <code>AbstractEM</code> is the most abstract class for expectation maximization (EM) algorithm.
@@ -55,6 +67,48 @@ public abstract class EMAbstract extends ExecutableAlgAbstract implements EM, EM
 	public final static String EM_EPSILON_RATIO_MODE_FIELD = "em_epsilon_ratio_mode";
 
 	
+	/**
+	 * Name of field for collecting per-iteration metrics.
+	 */
+	public final static String EM_METRICS_FIELD = "em_metrics";
+
+	
+	/**
+	 * Name of field for measuring log-likelihood in per-iteration metrics.
+	 */
+	public final static String EM_METRICS_LIKELIHOOD_FIELD = "em_metrics_likelihood";
+
+
+	/**
+	 * Name of field for event detail level, which is one of {@link #EM_EVENT_DETAIL_SUMMARY}, {@link #EM_EVENT_DETAIL_PARAMETERS}, and {@link #EM_EVENT_DETAIL_FULL}.
+	 */
+	public final static String EM_EVENT_DETAIL_FIELD = "em_event_detail";
+
+	
+	/**
+	 * Name of field for minimum interval in milliseconds between two doing events delivered to remote listeners.
+	 */
+	public final static String EM_EVENT_REMOTE_INTERVAL_FIELD = "em_event_remote_interval";
+
+
+	/**
+	 * Name of field for checkpoint file. Empty file name means that checkpoint is disabled.
+	 */
+	public final static String EM_CHECKPOINT_FILE_FIELD = "em_checkpoint_file";
+
+	
+	/**
+	 * Name of field for number of iterations between two checkpoints.
+	 */
+	public final static String EM_CHECKPOINT_INTERVAL_FIELD = "em_checkpoint_interval";
+
+	
+	/**
+	 * Name of field for resuming learning from checkpoint file if it exists.
+	 */
+	public final static String EM_RESUME_FIELD = "em_resume";
+
+	
 	/**
 	 * Current iteration.
 	 */
@@ -85,6 +139,48 @@ public abstract class EMAbstract extends ExecutableAlgAbstract implements EM, EM
 	protected Object statistics = null;
 
 	
+	/**
+	 * Collector of per-iteration metrics. It is null if metrics are not collected.
+	 */
+	protected transient EMMetrics metrics = null;
+
+
+	/**
+	 * Time of the last event delivered to remote listeners.
+	 */
+	protected transient long lastRemoteEventTime = 0;
+
+
+	/**
+	 * Dispatcher of setup events, which delivers events asynchronously.
+	 */
+	protected transient SetupEventDispatcher eventDispatcher = new SetupEventDispatcher();
+
+
+	/**
+	 * Checkpoint loaded at setting up, which is resumed by learning process instead of initializing parameter.
+	 */
+	protected transient EMCheckpoint resumeCheckpoint = null;
+
+
+	/**
+	 * Warm parameter which is resumed by the next learning process instead of initializing parameter if there is no checkpoint, for example, parameter learned from whole sample for folds of cross-validation.
+	 */
+	protected transient Object warmParameter = null;
+
+
+	/**
+	 * Sequence of versions of learned models, which makes versions of all models in this virtual machine distinct.
+	 */
+	private final static AtomicLong modelVersionSequence = new AtomicLong(0);
+
+
+	/**
+	 * Version of the learned model, which changes whenever this algorithm is set up or unset up.
+	 */
+	protected transient volatile long modelVersion = 0;
+
+	
 	/**
 	 * Default constructor.
 	 */
@@ -109,11 +205,13 @@ public abstract class EMAbstract extends ExecutableAlgAbstract implements EM, EM
 		
 		this.estimatedParameter = this.currentParameter = this.previousParameter = this.statistics = null;
 		this.currentIteration = 0;
+		this.resumeCheckpoint = loadCheckpoint();
 		
 		if (info != null)
 			learnStart(info);
 		else
 			learnStart();
+		modelVersion = modelVersionSequence.incrementAndGet();
 		
 		SetupAlgEvent evt = new SetupAlgEvent(
 				this,
@@ -122,6 +220,7 @@ public abstract class EMAbstract extends ExecutableAlgAbstract implements EM, EM
 				dataset,
 				" (t = " + this.getCurrentIteration() + ") learned models: " + this.getDescription());
 		fireSetupEvent(evt);
+		flushEvents();
 	}
 
 	
@@ -230,6 +329,14 @@ public abstract class EMAbstract extends ExecutableAlgAbstract implements EM, EM
 	}
 	
 	
+	/**
+	 * Notifying that parameters and iteration counter are resumed from checkpoint instead of initialized.
+	 */
+	protected void resumeNotify() {
+		
+	}
+
+	
 	/**
 	 * Notifying finish in learning process.
 	 */
@@ -269,6 +376,429 @@ public abstract class EMAbstract extends ExecutableAlgAbstract implements EM, EM
 	}
 	
 	
+	@Override
+	public void unsetup() throws RemoteException {
+		flushEvents(); //Flushing without holding the lock so that listeners calling synchronized methods of this algorithm do not wait for the flush timeout.
+		synchronized (this) {
+			super.unsetup();
+			if (metrics != null) EMMetricsRegistry.unregister(getMetricsKey());
+			metrics = null;
+			modelVersion = modelVersionSequence.incrementAndGet();
+		}
+	}
+
+
+	/**
+	 * Getting version of the learned model, which changes whenever this algorithm is set up or unset up.
+	 * @return version of the learned model.
+	 * @throws RemoteException if any error raises.
+	 */
+	public long getModelVersion() throws RemoteException {
+		return modelVersion;
+	}
+
+
+	/**
+	 * Getting collector of per-iteration metrics of the current or last run.
+	 * @return collector of per-iteration metrics. Return null if metrics are not collected.
+	 */
+	public synchronized EMMetrics getMetrics() {
+		return metrics;
+	}
+
+
+	/**
+	 * Getting key of collector of metrics in {@link EMMetricsRegistry}, which is unique for every algorithm instance.
+	 * @return key of collector of metrics.
+	 */
+	public String getMetricsKey() {
+		return getName() + "#" + Integer.toHexString(System.identityHashCode(this));
+	}
+
+
+	/**
+	 * Starting collecting metrics of a new run if the configuration allows.
+	 * The collector is registered in {@link EMMetricsRegistry} until this algorithm is unset up.
+	 * @return collector of metrics. Return null if metrics are not collected.
+	 */
+	protected EMMetrics metricsStart() {
+		DataConfig config = getConfig();
+		boolean enabled = config.containsKey(EM_METRICS_FIELD) ? config.getAsBoolean(EM_METRICS_FIELD) : EM_METRICS;
+		if (!enabled) {
+			if (metrics != null) EMMetricsRegistry.unregister(getMetricsKey());
+			metrics = null;
+			return null;
+		}
+		
+		if (metrics == null) metrics = new EMMetrics(getName());
+		metrics.start();
+		EMMetricsRegistry.register(getMetricsKey(), metrics);
+		return metrics;
+	}
+
+	
+	/**
+	 * Recording metrics of the current iteration after maximization step.
+	 * Log-likelihood, parameter delta, and imputed rows are measured after allocation is measured so that they do not distort allocated bytes.
+	 * @param metrics collector of metrics. It can be null.
+	 * @param expectationNanos time of expectation step in nanoseconds.
+	 * @param maximizationNanos time of maximization step in nanoseconds.
+	 * @param allocatedBytes0 allocated bytes of the current thread before expectation step, or -1 if it is not supported.
+	 * Allocations of other threads such as threads of parallel expectation are not counted.
+	 */
+	protected void metricsRecord(EMMetrics metrics, long expectationNanos, long maximizationNanos, long allocatedBytes0) {
+		if (metrics == null) return;
+		
+		EMMetrics.Iteration iteration = new EMMetrics.Iteration();
+		iteration.iteration = this.currentIteration;
+		iteration.expectationNanos = expectationNanos;
+		iteration.maximizationNanos = maximizationNanos;
+		long allocatedBytes1 = allocatedBytes0 < 0 ? -1 : EMMetrics.allocatedBytes();
+		iteration.allocatedBytes = allocatedBytes1 < 0 ? -1 : allocatedBytes1 - allocatedBytes0;
+		
+		try {
+			DataConfig config = getConfig();
+			boolean likelihood = config.containsKey(EM_METRICS_LIKELIHOOD_FIELD) ? config.getAsBoolean(EM_METRICS_LIKELIHOOD_FIELD) : EM_METRICS_LIKELIHOOD;
+			if (likelihood)
+				iteration.logLikelihood = logLikelihood(this.estimatedParameter, this.statistics);
+			iteration.parameterDelta = parameterDelta(this.estimatedParameter, this.currentParameter);
+			iteration.imputedRows = imputedRows(this.statistics);
+		}
+		catch (Throwable e) {LogUtil.trace(e);}
+		
+		metrics.record(iteration);
+	}
+
+	
+	/**
+	 * Finishing collecting metrics of the current run.
+	 * @param metrics collector of metrics. It can be null.
+	 */
+	protected void metricsFinish(EMMetrics metrics) {
+		if (metrics != null) metrics.finish();
+	}
+
+	
+	/**
+	 * Firing learning event of the current iteration. The event is only built if there are listeners, and its content depends on event detail level.
+	 * Local listeners receive every event whereas doing events are coalesced for remote listeners so that at most one doing event is delivered per remote interval.
+	 * Events are delivered asynchronously by {@link SetupEventDispatcher}, so that learning never blocks on listeners.
+	 * Therefore, parameters are copied when the event is built so that later iterations do not change the event while it is pending.
+	 * Statistics are passed by reference because every expectation step creates new statistics instead of changing the current ones, and remote listeners receive a serialized copy anyway.
+	 * Done events are always delivered because they carry the final result.
+	 * @param type event type.
+	 * @param maxIteration maximum iteration.
+	 */
+	protected void fireLearningEvent(SetupAlgEvent.Type type, int maxIteration) {
+		SetupAlgListener[] listeners = getSetupListeners();
+		if (listeners == null || listeners.length == 0) return;
+		
+		DataConfig config = getConfig();
+		String detail = config.containsKey(EM_EVENT_DETAIL_FIELD) ? config.getAsString(EM_EVENT_DETAIL_FIELD) : EM_EVENT_DETAIL;
+		detail = detail != null ? detail : EM_EVENT_DETAIL;
+		long interval = config.containsKey(EM_EVENT_REMOTE_INTERVAL_FIELD) ? config.getAsInt(EM_EVENT_REMOTE_INTERVAL_FIELD) : EM_EVENT_REMOTE_INTERVAL;
+		long now = System.currentTimeMillis();
+		boolean remoteDue = type == Type.done || interval <= 0 || now - lastRemoteEventTime >= interval;
+
+		boolean summary = detail.equals(EM_EVENT_DETAIL_SUMMARY);
+		Serializable statistics = detail.equals(EM_EVENT_DETAIL_FULL) ? toSerializable(this.statistics) : null;
+		Serializable currentParameter = summary ? null : snapshot(this.currentParameter);
+		Serializable estimatedParameter = summary && type != Type.done ? null
+			: (this.estimatedParameter == this.currentParameter && currentParameter != null ? currentParameter : snapshot(this.estimatedParameter));
+		EMMetrics.Iteration iteration = this.metrics != null ? this.metrics.getLast() : null;
+		EMLearningEvent evt = new EMLearningEvent(this, type, this.dataset,
+			this.currentIteration, maxIteration,
+			statistics, currentParameter, estimatedParameter, iteration);
+		
+		List<SetupAlgListener> localListeners = Util.newList(listeners.length);
+		List<SetupAlgListener> remoteListeners = Util.newList(listeners.length);
+		for (SetupAlgListener listener : listeners) {
+			if (isRemote(listener))
+				remoteListeners.add(listener);
+			else
+				localListeners.add(listener);
+		}
+		
+		SetupEventDispatcher dispatcher = getEventDispatcher();
+		if (localListeners.size() > 0)
+			dispatcher.dispatch(localListeners.toArray(new SetupAlgListener[] {}), evt);
+		if (remoteListeners.size() > 0 && remoteDue) {
+			try {
+				dispatcher.dispatch(remoteListeners.toArray(new SetupAlgListener[] {}), evt.transferForRemote());
+				lastRemoteEventTime = now;
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+			}
+		}
+	}
+	
+	
+	@Override
+	public void fireSetupEvent(SetupAlgEvent evt) throws RemoteException {
+		getEventDispatcher().dispatch(getSetupListeners(), evt);
+	}
+	
+	
+	/**
+	 * Waiting at most {@link #EM_EVENT_FLUSH_TIMEOUT} milliseconds until pending events of this algorithm are delivered.
+	 * It is called after the final done event so that listeners receive all events before the algorithm returns or is unset up.
+	 */
+	protected void flushEvents() {
+		SetupEventDispatcher dispatcher = eventDispatcher;
+		if (dispatcher != null && !dispatcher.flush(EM_EVENT_FLUSH_TIMEOUT))
+			LogUtil.warn("Pending setup events of " + getName() + " are not delivered in " + EM_EVENT_FLUSH_TIMEOUT + " ms");
+	}
+
+
+	/**
+	 * Getting dispatcher of setup events.
+	 * @return dispatcher of setup events.
+	 */
+	protected SetupEventDispatcher getEventDispatcher() {
+		if (eventDispatcher == null) eventDispatcher = new SetupEventDispatcher();
+		return eventDispatcher;
+	}
+	
+	
+	/**
+	 * Taking snapshot of specified payload of learning event. Cloneable objects are cloned, lists are copied element by element, and other serializable objects are cloned by serialization.
+	 * @param object specified payload.
+	 * @return serializable snapshot of specified payload. Return null if the payload is not serializable.
+	 */
+	private static Serializable snapshot(Object object) {
+		if (object == null)
+			return null;
+		else if (object instanceof net.hudup.core.Cloneable)
+			return toSerializable(((net.hudup.core.Cloneable)object).clone());
+		else if (object instanceof List<?>) {
+			List<?> list = (List<?>)object;
+			List<Object> copy = Util.newList(list.size());
+			for (Object element : list) copy.add(snapshot(element));
+			return toSerializable(copy);
+		}
+		else if (object instanceof Serializable)
+			return toSerializable(Util.cloneBySerialize(object));
+		else
+			return null;
+	}
+
+
+	/**
+	 * Converting specified object to serializable object.
+	 * @param object specified object.
+	 * @return serializable object. Return null if the object is not serializable.
+	 */
+	private static Serializable toSerializable(Object object) {
+		return object instanceof Serializable ? (Serializable)object : null;
+	}
+
+	
+	/**
+	 * Testing whether specified listener is remote stub, whose delivery costs serialization over network.
+	 * @param listener specified listener.
+	 * @return true if specified listener is remote stub.
+	 */
+	private static boolean isRemote(SetupAlgListener listener) {
+		if (listener == null)
+			return false;
+		else if (Proxy.isProxyClass(listener.getClass()))
+			return Proxy.getInvocationHandler(listener) instanceof RemoteObjectInvocationHandler;
+		else
+			return (listener instanceof RemoteObject) && !(listener instanceof RemoteServer);
+	}
+
+	
+	/**
+	 * Getting checkpoint file.
+	 * @return checkpoint file. Return null if checkpoint is disabled.
+	 */
+	protected File getCheckpointFile() {
+		DataConfig config = getConfig();
+		String fileName = config.containsKey(EM_CHECKPOINT_FILE_FIELD) ? config.getAsString(EM_CHECKPOINT_FILE_FIELD) : null;
+		return fileName == null || fileName.trim().isEmpty() ? null : new File(fileName.trim());
+	}
+
+	
+	/**
+	 * Getting signature of this algorithm and its training data, which prevents checkpoint from being resumed by unrelated learning process.
+	 * The signature includes values of configuration fields given by {@link #getCheckpointConfigFields()}.
+	 * Derived class can add more information such as indices of variables and fingerprint of training data.
+	 * @return signature of this algorithm and its training data.
+	 */
+	protected String getCheckpointSignature() {
+		String signature = getName();
+		try {
+			if (sample instanceof Fetcher<?>)
+				signature += ":" + ((Fetcher<?>)sample).getMetadata().getSize();
+			else if (sample instanceof Collection<?>)
+				signature += ":" + ((Collection<?>)sample).size();
+		}
+		catch (Throwable e) {LogUtil.trace(e);}
+		
+		DataConfig config = getConfig();
+		for (String field : getCheckpointConfigFields())
+			signature += ":" + field + "=" + config.get(field);
+		return signature;
+	}
+
+	
+	/**
+	 * Getting names of configuration fields which change the learning process, whose values are included in checkpoint signature.
+	 * @return names of configuration fields included in checkpoint signature.
+	 */
+	protected List<String> getCheckpointConfigFields() {
+		return Util.newList();
+	}
+
+	
+	/**
+	 * Loading checkpoint to be resumed if checkpoint is enabled and resuming is allowed. Its signature is verified later when learning process resumes because training data is prepared at that time.
+	 * @return checkpoint to be resumed. Return null if there is no checkpoint.
+	 */
+	protected EMCheckpoint loadCheckpoint() {
+		File file = getCheckpointFile();
+		DataConfig config = getConfig();
+		boolean resume = config.containsKey(EM_RESUME_FIELD) ? config.getAsBoolean(EM_RESUME_FIELD) : EM_RESUME;
+		if (file == null || !resume || !file.exists()) return null;
+		
+		try {
+			return EMCheckpoint.load(file);
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		return null;
+	}
+
+	
+	/**
+	 * Resuming parameters and iteration counter from the checkpoint loaded at setting up. The checkpoint is consumed by this method.
+	 * @return true if learning process is resumed, false if parameter must be initialized.
+	 */
+	protected boolean resume() {
+		EMCheckpoint checkpoint = this.resumeCheckpoint;
+		this.resumeCheckpoint = null;
+		if (checkpoint == null || checkpoint.getCurrentParameter() == null) return resumeWarm();
+		if (!checkpoint.getSignature().equals(getCheckpointSignature())) {
+			LogUtil.info("Checkpoint " + checkpoint + " does not match algorithm " + getCheckpointSignature() + " and so it is ignored");
+			return resumeWarm();
+		}
+		
+		this.estimatedParameter = this.currentParameter = checkpoint.getCurrentParameter();
+		this.previousParameter = checkpoint.getPreviousParameter();
+		this.currentIteration = Math.max(1, checkpoint.getIteration());
+		resumeNotify();
+		LogUtil.info("Algorithm " + getName() + " resumes from checkpoint at iteration " + this.currentIteration);
+		return true;
+	}
+
+	
+	/**
+	 * Resuming parameter from the warm parameter set by {@link #setWarmParameter(Object)}. The warm parameter is consumed by this method.
+	 * @return true if learning process is resumed, false if parameter must be initialized.
+	 */
+	private boolean resumeWarm() {
+		Object parameter = this.warmParameter;
+		this.warmParameter = null;
+		if (parameter == null || !acceptWarmParameter(parameter)) return false;
+		
+		this.estimatedParameter = this.currentParameter = parameter;
+		this.previousParameter = null;
+		this.currentIteration = 1;
+		resumeNotify();
+		LogUtil.info("Algorithm " + getName() + " resumes from warm parameter");
+		return true;
+	}
+
+
+	/**
+	 * Setting warm parameter which is resumed by the next learning process instead of initializing parameter if there is no checkpoint.
+	 * The warm parameter is used as it is, so it should be cloned if it is shared. It is ignored if it is not accepted by {@link #acceptWarmParameter(Object)}.
+	 * @param warmParameter warm parameter. It can be null to cancel warm start.
+	 */
+	public void setWarmParameter(Object warmParameter) {
+		this.warmParameter = warmParameter;
+	}
+
+
+	/**
+	 * Checking whether specified warm parameter fits the training data prepared by learning process. This method returns false by default, which disables warm start.
+	 * @param parameter specified warm parameter.
+	 * @return whether specified warm parameter fits the training data.
+	 */
+	protected boolean acceptWarmParameter(Object parameter) {
+		return false;
+	}
+
+
+	/**
+	 * Saving checkpoint of the current iteration if checkpoint is enabled and the iteration reaches checkpoint interval.
+	 * @param force flag to save checkpoint regardless of checkpoint interval.
+	 */
+	protected void checkpoint(boolean force) {
+		File file = getCheckpointFile();
+		if (file == null) return;
+		DataConfig config = getConfig();
+		int interval = config.containsKey(EM_CHECKPOINT_INTERVAL_FIELD) ? config.getAsInt(EM_CHECKPOINT_INTERVAL_FIELD) : EM_CHECKPOINT_INTERVAL;
+		if (!force && (interval <= 0 || this.currentIteration % interval != 0)) return;
+		
+		try {
+			new EMCheckpoint(getCheckpointSignature(), this.currentIteration,
+				toSerializable(this.currentParameter), toSerializable(this.previousParameter), null).save(file);
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+	}
+
+	
+	/**
+	 * Finishing checkpoint when learning process ends. Checkpoint file is deleted if learning process completes, otherwise it is kept for resuming.
+	 * @param completed flag to indicate whether learning process completes, namely, it is not stopped by user or errors.
+	 */
+	protected void checkpointFinish(boolean completed) {
+		File file = getCheckpointFile();
+		if (file == null) return;
+		if (completed)
+			EMCheckpoint.delete(file);
+		else
+			checkpoint(true);
+	}
+
+	
+	/**
+	 * Calculating log-likelihood of estimated parameter given sufficient statistics for metrics. Derived class should override this method.
+	 * @param estimatedParameter estimated parameter.
+	 * @param statistics sufficient statistics.
+	 * @return log-likelihood of estimated parameter. Return NaN if it is not supported.
+	 */
+	protected double logLikelihood(Object estimatedParameter, Object statistics) {
+		return Constants.UNUSED;
+	}
+
+	
+	/**
+	 * Calculating delta between estimated parameter and current parameter for metrics. Derived class should override this method.
+	 * @param estimatedParameter estimated parameter.
+	 * @param currentParameter current parameter.
+	 * @return delta between estimated parameter and current parameter. Return NaN if it is not supported.
+	 */
+	protected double parameterDelta(Object estimatedParameter, Object currentParameter) {
+		return Constants.UNUSED;
+	}
+
+	
+	/**
+	 * Counting rows whose values are imputed in sufficient statistics for metrics. Derived class should override this method.
+	 * @param statistics sufficient statistics.
+	 * @return number of imputed rows. Return -1 if it is not supported.
+	 */
+	protected long imputedRows(Object statistics) {
+		return -1;
+	}
+
+	
 	@Override
 	public String[] getBaseRemoteInterfaceNames() throws RemoteException {
 		return new String[] {EMRemote.class.getName()};
@@ -281,6 +811,13 @@ public abstract class EMAbstract extends ExecutableAlgAbstract implements EM, EM
 		config.put(EM_EPSILON_FIELD, EM_EPSILON);
 		config.put(EM_EPSILON_RATIO_MODE_FIELD, EM_EPSILON_RATIO_MODE);
 		config.put(EM_MAX_ITERATION_FIELD, EM_MAX_ITERATION);
+		config.put(EM_METRICS_FIELD, EM_METRICS);
+		config.put(EM_METRICS_LIKELIHOOD_FIELD, EM_METRICS_LIKELIHOOD);
+		config.put(EM_EVENT_DETAIL_FIELD, EM_EVENT_DETAIL);
+		config.put(EM_EVENT_REMOTE_INTERVAL_FIELD, EM_EVENT_REMOTE_INTERVAL);
+		config.put(EM_CHECKPOINT_FILE_FIELD, EM_CHECKPOINT_FILE);
+		config.put(EM_CHECKPOINT_INTERVAL_FIELD, EM_CHECKPOINT_INTERVAL);
+		config.put(EM_RESUME_FIELD, EM_RESUME);
 		return config;
 	}
 
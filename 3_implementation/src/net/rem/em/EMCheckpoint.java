@@ -0,0 +1,250 @@
+/**
+ * SIM: MACHINE LEARNING ALGORITHMS FRAMEWORK
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.em;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * This class represents checkpoint of a long learning process, which consists of iteration counter, current parameter, previous parameter, and search progress.
+ * Checkpoint is stored in compact binary format: a fixed header (magic number, version, signature, iteration, and time stamp) followed by deflated serialized parameters and progress.
+ * Checkpoint file is replaced atomically so that a process killed while saving never leaves a corrupted checkpoint.
+ * The signature identifies the algorithm and its training data so that a checkpoint is not resumed by unrelated learning process.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class EMCheckpoint implements Serializable {
+
+
+	/**
+	 * Serial version UID for serializable class.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Magic number of checkpoint file, which is "EMCK" in ASCII.
+	 */
+	public final static int MAGIC = 0x454D434B;
+
+
+	/**
+	 * Version of checkpoint format.
+	 */
+	public final static short VERSION = 1;
+
+
+	/**
+	 * Signature of algorithm and training data.
+	 */
+	protected String signature = "";
+
+
+	/**
+	 * Iteration counter.
+	 */
+	protected int iteration = 0;
+
+
+	/**
+	 * Time stamp in milliseconds.
+	 */
+	protected long timestamp = 0;
+
+
+	/**
+	 * Current parameter.
+	 */
+	protected Serializable currentParameter = null;
+
+
+	/**
+	 * Previous parameter.
+	 */
+	protected Serializable previousParameter = null;
+
+
+	/**
+	 * Search progress such as cache of evaluated models. It can be null.
+	 */
+	protected Serializable progress = null;
+
+
+	/**
+	 * Constructor with signature, iteration counter, parameters, and progress.
+	 * @param signature signature of algorithm and training data.
+	 * @param iteration iteration counter.
+	 * @param currentParameter current parameter.
+	 * @param previousParameter previous parameter.
+	 * @param progress search progress. It can be null.
+	 */
+	public EMCheckpoint(String signature, int iteration, Serializable currentParameter, Serializable previousParameter, Serializable progress) {
+		this.signature = signature != null ? signature : "";
+		this.iteration = iteration;
+		this.timestamp = System.currentTimeMillis();
+		this.currentParameter = currentParameter;
+		this.previousParameter = previousParameter;
+		this.progress = progress;
+	}
+
+
+	/**
+	 * Getting signature.
+	 * @return signature of algorithm and training data.
+	 */
+	public String getSignature() {
+		return signature;
+	}
+
+
+	/**
+	 * Getting iteration counter.
+	 * @return iteration counter.
+	 */
+	public int getIteration() {
+		return iteration;
+	}
+
+
+	/**
+	 * Getting time stamp.
+	 * @return time stamp in milliseconds.
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+
+	/**
+	 * Getting current parameter.
+	 * @return current parameter.
+	 */
+	public Serializable getCurrentParameter() {
+		return currentParameter;
+	}
+
+
+	/**
+	 * Getting previous parameter.
+	 * @return previous parameter.
+	 */
+	public Serializable getPreviousParameter() {
+		return previousParameter;
+	}
+
+
+	/**
+	 * Getting search progress.
+	 * @return search progress. Return null if there is no progress.
+	 */
+	public Serializable getProgress() {
+		return progress;
+	}
+
+
+	/**
+	 * Saving this checkpoint to specified file. The file is replaced atomically if the file system supports.
+	 * @param file specified file.
+	 * @throws IOException if any error raises.
+	 */
+	public void save(File file) throws IOException {
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.exists()) parent.mkdirs();
+		File temp = new File(file.getPath() + ".tmp");
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeUTF(signature);
+			out.writeInt(iteration);
+			out.writeLong(timestamp);
+			out.flush();
+
+			DeflaterOutputStream deflater = new DeflaterOutputStream(out);
+			ObjectOutputStream objects = new ObjectOutputStream(deflater);
+			objects.writeObject(currentParameter);
+			objects.writeObject(previousParameter);
+			objects.writeObject(progress);
+			objects.flush();
+			deflater.finish();
+		}
+
+		try {
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+
+	/**
+	 * Loading checkpoint from specified file.
+	 * @param file specified file.
+	 * @return checkpoint loaded from specified file. Return null if the file does not exist.
+	 * @throws IOException if the file is not valid checkpoint or any error raises.
+	 */
+	public static EMCheckpoint load(File file) throws IOException {
+		if (file == null || !file.exists()) return null;
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC) throw new IOException("Invalid checkpoint file " + file);
+			short version = in.readShort();
+			if (version > VERSION) throw new IOException("Unsupported checkpoint version " + version);
+			String signature = in.readUTF();
+			int iteration = in.readInt();
+			long timestamp = in.readLong();
+
+			ObjectInputStream objects = new ObjectInputStream(new InflaterInputStream(in));
+			Serializable currentParameter = (Serializable)objects.readObject();
+			Serializable previousParameter = (Serializable)objects.readObject();
+			Serializable progress = (Serializable)objects.readObject();
+
+			EMCheckpoint checkpoint = new EMCheckpoint(signature, iteration, currentParameter, previousParameter, progress);
+			checkpoint.timestamp = timestamp;
+			return checkpoint;
+		}
+		catch (ClassNotFoundException | ClassCastException e) {
+			throw new IOException(e);
+		}
+	}
+
+
+	/**
+	 * Deleting checkpoint file.
+	 * @param file checkpoint file.
+	 * @return true if the file is deleted.
+	 */
+	public static boolean delete(File file) {
+		return file != null && file.exists() && file.delete();
+	}
+
+
+	@Override
+	public String toString() {
+		return signature + " at iteration " + iteration;
+	}
+
+
+}
@@ -59,6 +59,12 @@ public class EMLearningEvent extends SetupAlgEvent implements Simplify {
 	protected Serializable estimatedParameter = null;
 
 	
+	/**
+	 * Metrics of current iteration. It can be null if metrics are not collected.
+	 */
+	protected EMMetrics.Iteration metrics = null;
+
+	
 	/**
 	 * Constructor with some important parameters.
 	 * @param em the EM algorithm as the source of this event. This EM algorithm is invalid in remote call because the source is transient variable.
@@ -99,6 +105,27 @@ public class EMLearningEvent extends SetupAlgEvent implements Simplify {
 		this.estimatedParameter = estimatedParameter;
 	}
 
+
+	/**
+	 * Constructor with some important parameters and metrics.
+	 * @param em the EM algorithm as the source of this event. This EM algorithm is invalid in remote call because the source is transient variable.
+	 * @param type event type.
+	 * @param trainingDataset training dataset.
+	 * @param currentIteration current iteration.
+	 * @param maxIteration maximum iteration.
+	 * @param currentStatistics current sufficient statistic. It can be null according to event detail level.
+	 * @param currentParameter current parameter. It can be null according to event detail level.
+	 * @param estimatedParameter estimated parameter of algorithm as setup result. It can be null according to event detail level.
+	 * @param metrics metrics of current iteration. It can be null.
+	 */
+	public EMLearningEvent(EM em, Type type, Dataset trainingDataset,
+			int currentIteration, int maxIteration, Serializable currentStatistics,
+			Serializable currentParameter, Serializable estimatedParameter, EMMetrics.Iteration metrics) {
+		this(em, type, -1, trainingDataset, currentIteration, maxIteration, currentStatistics, currentParameter, estimatedParameter);
+		this.metrics = metrics;
+	}
+
+
 	
 	@Override
 	public SetupAlgEvent transferForRemote() {
@@ -112,6 +139,7 @@ public class EMLearningEvent extends SetupAlgEvent implements Simplify {
 				this.currentStatistics,
 				this.currentParameter,
 				this.estimatedParameter);
+		evt.metrics = this.metrics;
 		if (this.trainingDataset == null) return evt;
 		
 		if (this.trainingDatasetId < 0)
@@ -132,6 +160,24 @@ public class EMLearningEvent extends SetupAlgEvent implements Simplify {
 	}
 
 
+	/**
+	 * Getting current iteration.
+	 * @return current iteration.
+	 */
+	public int getCurrentIteration() {
+		return currentIteration;
+	}
+
+	
+	/**
+	 * Getting metrics of current iteration.
+	 * @return metrics of current iteration. Return null if metrics are not collected.
+	 */
+	public EMMetrics.Iteration getMetrics() {
+		return metrics;
+	}
+
+	
 	/**
 	 * Getting source as EM algorithm. This method cannot be called remotely because the source is transient variable.
 	 * @return source as EM algorithm.
@@ -202,6 +248,11 @@ public class EMLearningEvent extends SetupAlgEvent implements Simplify {
 				buffer.append("\nEstimated parameter:");
 				buffer.append("\n  " + em.parameterToShownText(estimatedParameter));
 			}
+			
+			if (metrics != null) {
+				buffer.append("\nMetrics:");
+				buffer.append("\n  " + metrics.toString());
+			}
 		}
 		catch (Throwable e) {
 			LogUtil.trace(e);
@@ -0,0 +1,309 @@
+/**
+ * SIM: MACHINE LEARNING ALGORITHMS FRAMEWORK
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.em;
+
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import net.hudup.core.Constants;
+import net.hudup.core.Util;
+
+/**
+ * This class collects per-iteration metrics of an expectation maximization (EM) algorithm, such as times of expectation step (E-step) and maximization step (M-step),
+ * log-likelihood, parameter delta, number of imputed rows, and allocated bytes. Metrics of the current or last run are kept until the next run starts.
+ * Every collector is exposed through JMX by {@link EMMetricsMBean} and can be pulled from {@link EMMetricsRegistry}.
+ * Recording is done by the learning thread whereas reading can be done by any thread.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class EMMetrics implements EMMetricsMBean, Serializable {
+
+
+	/**
+	 * Serial version UID for serializable class.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Maximum number of iterations kept in history. Older iterations are discarded but still counted in totals.
+	 */
+	public final static int HISTORY_MAX = 10000;
+
+
+	/**
+	 * This class represents metrics of one iteration.
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 */
+	public static class Iteration implements Serializable {
+
+		/**
+		 * Serial version UID for serializable class.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Iteration index.
+		 */
+		public int iteration = 0;
+
+		/**
+		 * Time of expectation step in nanoseconds.
+		 */
+		public long expectationNanos = 0;
+
+		/**
+		 * Time of maximization step in nanoseconds.
+		 */
+		public long maximizationNanos = 0;
+
+		/**
+		 * Log-likelihood of estimated parameter. It is NaN if it is not measured.
+		 */
+		public double logLikelihood = Constants.UNUSED;
+
+		/**
+		 * Delta between estimated parameter and current parameter. It is NaN if it is not measured.
+		 */
+		public double parameterDelta = Constants.UNUSED;
+
+		/**
+		 * Number of rows whose values are imputed. It is -1 if it is not measured.
+		 */
+		public long imputedRows = -1;
+
+		/**
+		 * Allocated bytes of learning thread during expectation and maximization steps. It is -1 if it is not supported.
+		 * Allocations of other threads, for example, threads of parallel expectation, are not counted, so this is a lower bound when expectation runs in parallel.
+		 */
+		public long allocatedBytes = -1;
+
+		@Override
+		public String toString() {
+			return "t=" + iteration + ", e-step=" + (expectationNanos / 1e6) + "ms, m-step=" + (maximizationNanos / 1e6) + "ms"
+				+ ", log-likelihood=" + logLikelihood + ", delta=" + parameterDelta
+				+ ", imputed rows=" + imputedRows + ", allocated bytes=" + allocatedBytes;
+		}
+
+	}
+
+
+	/**
+	 * Name of the EM algorithm.
+	 */
+	protected String algName = null;
+
+
+	/**
+	 * Flag to indicate whether the EM algorithm is learning.
+	 */
+	protected boolean learning = false;
+
+
+	/**
+	 * History of iterations.
+	 */
+	protected Deque<Iteration> history = new ArrayDeque<>();
+
+
+	/**
+	 * Number of recorded iterations.
+	 */
+	protected int iterations = 0;
+
+
+	/**
+	 * Total time of expectation steps in nanoseconds.
+	 */
+	protected long totalExpectationNanos = 0;
+
+
+	/**
+	 * Total time of maximization steps in nanoseconds.
+	 */
+	protected long totalMaximizationNanos = 0;
+
+
+	/**
+	 * Total allocated bytes.
+	 */
+	protected long totalAllocatedBytes = 0;
+
+
+	/**
+	 * Constructor with name of the EM algorithm.
+	 * @param algName name of the EM algorithm.
+	 */
+	public EMMetrics(String algName) {
+		this.algName = algName;
+	}
+
+
+	/**
+	 * Resetting metrics when a new run starts.
+	 */
+	public synchronized void start() {
+		history.clear();
+		iterations = 0;
+		totalExpectationNanos = totalMaximizationNanos = totalAllocatedBytes = 0;
+		learning = true;
+	}
+
+
+	/**
+	 * Recording metrics of one iteration.
+	 * @param iteration metrics of one iteration.
+	 */
+	public synchronized void record(Iteration iteration) {
+		if (iteration == null) return;
+
+		history.add(iteration);
+		if (history.size() > HISTORY_MAX) history.poll();
+		iterations++;
+		totalExpectationNanos += iteration.expectationNanos;
+		totalMaximizationNanos += iteration.maximizationNanos;
+		if (iteration.allocatedBytes < 0 || totalAllocatedBytes < 0)
+			totalAllocatedBytes = -1;
+		else
+			totalAllocatedBytes += iteration.allocatedBytes;
+	}
+
+
+	/**
+	 * Marking that the current run finishes.
+	 */
+	public synchronized void finish() {
+		learning = false;
+	}
+
+
+	/**
+	 * Getting history of iterations, from oldest to latest.
+	 * @return history of iterations.
+	 */
+	public synchronized List<Iteration> getHistory() {
+		List<Iteration> list = Util.newList(history.size());
+		list.addAll(history);
+		return list;
+	}
+
+
+	/**
+	 * Getting metrics of the last iteration.
+	 * @return metrics of the last iteration. Return null if there is no iteration.
+	 */
+	public synchronized Iteration getLast() {
+		return history.peekLast();
+	}
+
+
+	@Override
+	public String getAlgName() {
+		return algName;
+	}
+
+
+	@Override
+	public synchronized boolean isLearning() {
+		return learning;
+	}
+
+
+	@Override
+	public synchronized int getIterations() {
+		return iterations;
+	}
+
+
+	@Override
+	public synchronized double getTotalExpectationMillis() {
+		return totalExpectationNanos / 1e6;
+	}
+
+
+	@Override
+	public synchronized double getTotalMaximizationMillis() {
+		return totalMaximizationNanos / 1e6;
+	}
+
+
+	@Override
+	public synchronized double getLastExpectationMillis() {
+		Iteration last = getLast();
+		return last != null ? last.expectationNanos / 1e6 : 0;
+	}
+
+
+	@Override
+	public synchronized double getLastMaximizationMillis() {
+		Iteration last = getLast();
+		return last != null ? last.maximizationNanos / 1e6 : 0;
+	}
+
+
+	@Override
+	public synchronized double getLastLogLikelihood() {
+		Iteration last = getLast();
+		return last != null ? last.logLikelihood : Constants.UNUSED;
+	}
+
+
+	@Override
+	public synchronized double getLastParameterDelta() {
+		Iteration last = getLast();
+		return last != null ? last.parameterDelta : Constants.UNUSED;
+	}
+
+
+	@Override
+	public synchronized long getLastImputedRows() {
+		Iteration last = getLast();
+		return last != null ? last.imputedRows : -1;
+	}
+
+
+	@Override
+	public synchronized long getTotalAllocatedBytes() {
+		return iterations > 0 ? totalAllocatedBytes : 0;
+	}
+
+
+	@Override
+	public synchronized String toString() {
+		return algName + ": iterations=" + iterations + ", e-step total=" + getTotalExpectationMillis() + "ms"
+			+ ", m-step total=" + getTotalMaximizationMillis() + "ms, allocated bytes=" + getTotalAllocatedBytes()
+			+ (history.isEmpty() ? "" : ", last: " + history.peekLast());
+	}
+
+
+	/**
+	 * Getting allocated bytes of the current thread.
+	 * @return allocated bytes of the current thread. Return -1 if it is not supported.
+	 */
+	public static long allocatedBytes() {
+		try {
+			ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if (!(bean instanceof com.sun.management.ThreadMXBean)) return -1;
+			com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean)bean;
+			if (!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled()) return -1;
+			return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		catch (Throwable e) {
+			return -1;
+		}
+	}
+
+
+}
@@ -0,0 +1,98 @@
+/**
+ * SIM: MACHINE LEARNING ALGORITHMS FRAMEWORK
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.em;
+
+/**
+ * This interface is the JMX management interface of {@link EMMetrics}. All attributes are read-only.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public interface EMMetricsMBean {
+
+
+	/**
+	 * Getting name of the EM algorithm.
+	 * @return name of the EM algorithm.
+	 */
+	String getAlgName();
+
+
+	/**
+	 * Checking whether the EM algorithm is learning.
+	 * @return true if the EM algorithm is learning.
+	 */
+	boolean isLearning();
+
+
+	/**
+	 * Getting number of recorded iterations of the current or last run.
+	 * @return number of recorded iterations.
+	 */
+	int getIterations();
+
+
+	/**
+	 * Getting total time of expectation steps in milliseconds.
+	 * @return total time of expectation steps in milliseconds.
+	 */
+	double getTotalExpectationMillis();
+
+
+	/**
+	 * Getting total time of maximization steps in milliseconds.
+	 * @return total time of maximization steps in milliseconds.
+	 */
+	double getTotalMaximizationMillis();
+
+
+	/**
+	 * Getting time of the last expectation step in milliseconds.
+	 * @return time of the last expectation step in milliseconds.
+	 */
+	double getLastExpectationMillis();
+
+
+	/**
+	 * Getting time of the last maximization step in milliseconds.
+	 * @return time of the last maximization step in milliseconds.
+	 */
+	double getLastMaximizationMillis();
+
+
+	/**
+	 * Getting log-likelihood at the last iteration.
+	 * @return log-likelihood at the last iteration. Return NaN if it is not measured.
+	 */
+	double getLastLogLikelihood();
+
+
+	/**
+	 * Getting parameter delta at the last iteration.
+	 * @return parameter delta at the last iteration. Return NaN if it is not measured.
+	 */
+	double getLastParameterDelta();
+
+
+	/**
+	 * Getting number of rows whose values are imputed at the last iteration.
+	 * @return number of imputed rows at the last iteration. Return -1 if it is not measured.
+	 */
+	long getLastImputedRows();
+
+
+	/**
+	 * Getting total allocated bytes of learning thread during expectation and maximization steps.
+	 * Allocations of other threads are not counted, so this is a lower bound when expectation runs in parallel.
+	 * @return total allocated bytes. Return -1 if it is not supported.
+	 */
+	long getTotalAllocatedBytes();
+
+
+}
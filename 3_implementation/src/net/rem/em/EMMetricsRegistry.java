@@ -0,0 +1,140 @@
+/**
+ * SIM: MACHINE LEARNING ALGORITHMS FRAMEWORK
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.em;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import net.hudup.core.Util;
+import net.hudup.core.logistic.LogUtil;
+
+/**
+ * This utility class is pull-style registry of metrics of expectation maximization (EM) algorithms which are learning or have learned.
+ * Every registered collector is also registered to the platform MBean server under the object name <code>net.rem.em:type=EMMetrics,name=&lt;key&gt;</code>
+ * so that it can be watched by JMX tools such as JConsole.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public final class EMMetricsRegistry {
+
+
+	/**
+	 * JMX domain of metrics.
+	 */
+	public final static String JMX_DOMAIN = "net.rem.em";
+
+
+	/**
+	 * Registered collectors of metrics by keys.
+	 */
+	private final static Map<String, EMMetrics> metricsMap = new ConcurrentHashMap<>();
+
+
+	/**
+	 * Private constructor.
+	 */
+	private EMMetricsRegistry() {
+
+	}
+
+
+	/**
+	 * Registering collector of metrics with specified key. Old collector of the same key is replaced.
+	 * @param key specified key.
+	 * @param metrics collector of metrics.
+	 */
+	public static void register(String key, EMMetrics metrics) {
+		if (key == null || metrics == null) return;
+		EMMetrics old = metricsMap.put(key, metrics);
+		if (old == metrics) return;
+
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = toObjectName(key);
+			if (server.isRegistered(name)) server.unregisterMBean(name);
+			server.registerMBean(metrics, name);
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+	}
+
+
+	/**
+	 * Unregistering collector of metrics with specified key.
+	 * @param key specified key.
+	 * @return unregistered collector. Return null if there is no collector of specified key.
+	 */
+	public static EMMetrics unregister(String key) {
+		if (key == null) return null;
+		EMMetrics metrics = metricsMap.remove(key);
+		if (metrics == null) return null;
+
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = toObjectName(key);
+			if (server.isRegistered(name)) server.unregisterMBean(name);
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		return metrics;
+	}
+
+
+	/**
+	 * Getting collector of metrics with specified key.
+	 * @param key specified key.
+	 * @return collector of metrics with specified key. Return null if there is no collector of specified key.
+	 */
+	public static EMMetrics get(String key) {
+		return key != null ? metricsMap.get(key) : null;
+	}
+
+
+	/**
+	 * Getting keys of all registered collectors.
+	 * @return keys of all registered collectors.
+	 */
+	public static List<String> getKeys() {
+		List<String> keys = Util.newList(metricsMap.size());
+		keys.addAll(metricsMap.keySet());
+		return keys;
+	}
+
+
+	/**
+	 * Getting all registered collectors.
+	 * @return all registered collectors.
+	 */
+	public static List<EMMetrics> getAll() {
+		List<EMMetrics> list = Util.newList(metricsMap.size());
+		list.addAll(metricsMap.values());
+		return list;
+	}
+
+
+	/**
+	 * Converting key to JMX object name.
+	 * @param key specified key.
+	 * @return JMX object name.
+	 * @throws Exception if any error raises.
+	 */
+	private static ObjectName toObjectName(String key) throws Exception {
+		return new ObjectName(JMX_DOMAIN + ":type=EMMetrics,name=" + ObjectName.quote(key));
+	}
+
+
+}
@@ -7,7 +7,6 @@
  */
 package net.rem.em;
 
-import java.io.Serializable;
 import java.rmi.RemoteException;
 
 import net.hudup.core.alg.SetupAlgEvent.Type;
@@ -69,12 +68,16 @@ public abstract class ExponentialEM extends EMAbstract {
 
 		this.estimatedParameter = this.currentParameter = this.previousParameter = this.statistics = null;
 		this.currentIteration = 0;
-		this.estimatedParameter = this.currentParameter = initializeParameter();
+		EMMetrics metrics = metricsStart();
+		boolean resumed = resume(); //Resuming from checkpoint instead of initializing parameter if checkpoint exists.
+		if (!resumed)
+			this.estimatedParameter = this.currentParameter = initializeParameter();
 		initializeNotify();
 		if (this.estimatedParameter == null) {
 			synchronized (this) {
 				learnStarted = false;
 				learnPaused = false;
+				metricsFinish(metrics);
 
 				finishNotify();
 				
@@ -83,34 +86,38 @@ public abstract class ExponentialEM extends EMAbstract {
 			}
 		}
 		
-		this.currentIteration = 1;
+		if (!resumed) this.currentIteration = 1;
 		int maxIteration = getMaxIteration();
+		boolean completed = false;
 		while (learnStarted && (maxIteration <= 0 || this.currentIteration < maxIteration)) {
+			long allocatedBytes0 = metrics != null ? EMMetrics.allocatedBytes() : -1;
+			long time0 = System.nanoTime();
 			Object tempStatistics = expectation(this.currentParameter);
 			if (tempStatistics == null)
 				break;
 			
+			long time1 = System.nanoTime();
 			this.statistics = tempStatistics;
 			this.estimatedParameter = maximization(this.statistics);
 			if (this.estimatedParameter == null)
 				break;
 			
-			//Firing setup doing event
-			try {
-				fireSetupEvent(new EMLearningEvent(this, Type.doing, this.dataset,
-					this.currentIteration, maxIteration, (Serializable)this.statistics,
-					(Serializable)this.currentParameter, (Serializable)this.estimatedParameter));
-			}
-			catch (Throwable e) {LogUtil.trace(e);}
+			metricsRecord(metrics, time1 - time0, System.nanoTime() - time1, allocatedBytes0);
+			
+			//Firing setup doing event only if there are listeners
+			fireLearningEvent(Type.doing, maxIteration);
 			
 			boolean terminated = terminatedCondition(this.estimatedParameter, this.currentParameter, this.previousParameter);
-			if (terminated)
+			if (terminated) {
+				completed = true;
 				break;
+			}
 			else {
 				this.previousParameter = this.currentParameter;
 				this.currentParameter = this.estimatedParameter;
 				this.currentIteration++;
 				permuteNotify();
+				checkpoint(false);
 			}
 			
 			synchronized (this) {
@@ -123,6 +130,8 @@ public abstract class ExponentialEM extends EMAbstract {
 			}
 			
 		} //End while
+		completed = completed || (learnStarted && maxIteration > 0 && this.currentIteration >= maxIteration);
+		checkpointFinish(completed);
 		
 		if (this.estimatedParameter != null)
 			this.currentParameter = this.estimatedParameter;
@@ -132,19 +141,16 @@ public abstract class ExponentialEM extends EMAbstract {
 		synchronized (this) {
 			learnStarted = false;
 			learnPaused = false;
+			metricsFinish(metrics);
 
 			//Firing setup done event
-			try {
-				fireSetupEvent(new EMLearningEvent(this, Type.done, this.dataset,
-					this.currentIteration, this.currentIteration, (Serializable)this.statistics,
-					(Serializable)this.currentParameter, (Serializable)this.estimatedParameter));
-			}
-			catch (Throwable e) {LogUtil.trace(e);}
+			fireLearningEvent(Type.done, this.currentIteration);
 	
 			finishNotify();
 			
 			notifyAll();
 		}
+		flushEvents();
 		
 		return this.estimatedParameter;
 	}
@@ -7,7 +7,6 @@
  */
 package net.rem.em;
 
-import java.io.Serializable;
 import java.rmi.RemoteException;
 
 import net.hudup.core.alg.SetupAlgEvent.Type;
@@ -56,12 +55,16 @@ public abstract class GEM extends EMAbstract {
 
 		this.estimatedParameter = this.currentParameter = this.previousParameter = this.statistics = null;
 		this.currentIteration = 0;
-		this.estimatedParameter = this.currentParameter = initializeParameter();
+		EMMetrics metrics = metricsStart();
+		boolean resumed = resume(); //Resuming from checkpoint instead of initializing parameter if checkpoint exists.
+		if (!resumed)
+			this.estimatedParameter = this.currentParameter = initializeParameter();
 		initializeNotify();
 		if (this.estimatedParameter == null) {
 			synchronized (this) {
 				learnStarted = false;
 				learnPaused = false;
+				metricsFinish(metrics);
 
 				finishNotify();
 				
@@ -70,29 +73,33 @@ public abstract class GEM extends EMAbstract {
 			}
 		}
 		
-		this.currentIteration = 1;
+		if (!resumed) this.currentIteration = 1;
 		int maxIteration = getMaxIteration();
+		boolean completed = false;
 		while (learnStarted && this.currentIteration < maxIteration) {
+			long allocatedBytes0 = metrics != null ? EMMetrics.allocatedBytes() : -1;
+			long time0 = System.nanoTime();
 			this.estimatedParameter = argmaxQ(this.currentParameter);
 			if (this.estimatedParameter == null)
 				break;
 			
-			//Firing doing event
-			try {
-				fireSetupEvent(new EMLearningEvent(this, Type.doing, this.dataset,
-					this.currentIteration, maxIteration, null,
-					(Serializable)this.currentParameter, (Serializable)this.estimatedParameter));
-			}
-			catch (Throwable e) {LogUtil.trace(e);}
+			//Expectation and maximization are fused in maximizing Q function, so its time is counted as maximization time.
+			metricsRecord(metrics, 0, System.nanoTime() - time0, allocatedBytes0);
+			
+			//Firing setup doing event only if there are listeners
+			fireLearningEvent(Type.doing, maxIteration);
 			
 			boolean terminated = terminatedCondition(this.estimatedParameter, this.currentParameter, this.previousParameter);
-			if (terminated)
+			if (terminated) {
+				completed = true;
 				break;
+			}
 			else {
 				this.previousParameter = this.currentParameter;
 				this.currentParameter = this.estimatedParameter;
 				this.currentIteration++;
 				permuteNotify();
+				checkpoint(false);
 			}
 			
 			synchronized (this) {
@@ -105,6 +112,8 @@ public abstract class GEM extends EMAbstract {
 			}
 			
 		} //End while
+		completed = completed || (learnStarted && maxIteration > 0 && this.currentIteration >= maxIteration);
+		checkpointFinish(completed);
 		
 		if (this.estimatedParameter != null)
 			this.currentParameter = this.estimatedParameter;
@@ -114,19 +123,16 @@ public abstract class GEM extends EMAbstract {
 		synchronized (this) {
 			learnStarted = false;
 			learnPaused = false;
+			metricsFinish(metrics);
 
-			//Firing done event
-			try {
-				fireSetupEvent(new EMLearningEvent(this, Type.done, this.dataset,
-					this.currentIteration, this.currentIteration, null,
-					(Serializable)this.currentParameter, (Serializable)this.estimatedParameter));
-			}
-			catch (Throwable e) {LogUtil.trace(e);}
+			//Firing setup done event
+			fireLearningEvent(Type.done, this.currentIteration);
 	
 			finishNotify();
 			
 			notifyAll();
 		}
+		flushEvents();
 		
 		return this.estimatedParameter;
 	}
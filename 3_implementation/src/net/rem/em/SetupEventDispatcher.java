@@ -0,0 +1,265 @@
+/**
+ * SIM: MACHINE LEARNING ALGORITHMS FRAMEWORK
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.em;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.hudup.core.alg.SetupAlgEvent;
+import net.hudup.core.alg.SetupAlgEvent.Type;
+import net.hudup.core.alg.SetupAlgListener;
+import net.hudup.core.logistic.LogUtil;
+
+/**
+ * This class dispatches setup events of an algorithm to listeners asynchronously so that the training thread never blocks on listeners such as Swing user interface or remote listeners.
+ * Every algorithm has its own dispatcher whose events are queued in a bounded queue and delivered in order by threads of a shared daemon pool.
+ * If the queue is full, the oldest pending doing event is dropped because later doing events supersede it. Done events are never dropped.
+ * Asynchronous dispatch can be turned off by the system property <code>rem.event.async=false</code>, in which case events are delivered in the calling thread.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class SetupEventDispatcher {
+
+
+	/**
+	 * Default capacity of the queue.
+	 */
+	public final static int CAPACITY_DEFAULT = 64;
+
+
+	/**
+	 * Flag to indicate whether events are dispatched asynchronously.
+	 */
+	public final static boolean ASYNC = !"false".equalsIgnoreCase(System.getProperty("rem.event.async"));
+
+
+	/**
+	 * This class represents a pending event with its listeners.
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 */
+	private static class Pending {
+
+		/**
+		 * Listeners.
+		 */
+		SetupAlgListener[] listeners = null;
+
+		/**
+		 * Event.
+		 */
+		SetupAlgEvent evt = null;
+
+		/**
+		 * Constructor with listeners and event.
+		 * @param listeners listeners.
+		 * @param evt event.
+		 */
+		Pending(SetupAlgListener[] listeners, SetupAlgEvent evt) {
+			this.listeners = listeners;
+			this.evt = evt;
+		}
+
+	}
+
+
+	/**
+	 * Shared pool of daemon threads delivering events.
+	 */
+	private final static ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactory() {
+
+		/**
+		 * Thread counter.
+		 */
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "rem-setup-event-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	});
+
+
+	/**
+	 * Queue of pending events.
+	 */
+	protected Deque<Pending> queue = new ArrayDeque<>();
+
+
+	/**
+	 * Capacity of the queue.
+	 */
+	protected int capacity = CAPACITY_DEFAULT;
+
+
+	/**
+	 * Flag to indicate whether a delivery task is scheduled.
+	 */
+	protected boolean scheduled = false;
+
+
+	/**
+	 * Number of dropped doing events.
+	 */
+	protected long dropped = 0;
+
+
+	/**
+	 * Default constructor.
+	 */
+	public SetupEventDispatcher() {
+
+	}
+
+
+	/**
+	 * Constructor with capacity.
+	 * @param capacity capacity of the queue.
+	 */
+	public SetupEventDispatcher(int capacity) {
+		this.capacity = capacity > 0 ? capacity : CAPACITY_DEFAULT;
+	}
+
+
+	/**
+	 * Dispatching specified event to specified listeners. This method never blocks on listeners when dispatch is asynchronous.
+	 * @param listeners specified listeners.
+	 * @param evt specified event.
+	 */
+	public void dispatch(SetupAlgListener[] listeners, SetupAlgEvent evt) {
+		if (listeners == null || listeners.length == 0 || evt == null) return;
+		if (!ASYNC) {
+			deliver(new Pending(listeners, evt));
+			return;
+		}
+
+		synchronized (queue) {
+			if (queue.size() >= capacity && evt.getType() != Type.done) {
+				Iterator<Pending> iterator = queue.iterator();
+				while (iterator.hasNext()) {
+					if (iterator.next().evt.getType() != Type.done) {
+						iterator.remove();
+						dropped++;
+						break;
+					}
+				}
+			}
+			queue.add(new Pending(listeners, evt));
+
+			if (scheduled) return;
+			scheduled = true;
+		}
+
+		try {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					drain();
+				}
+			});
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			drain();
+		}
+	}
+
+
+	/**
+	 * Delivering all pending events in order.
+	 */
+	private void drain() {
+		while (true) {
+			Pending pending = null;
+			synchronized (queue) {
+				pending = queue.poll();
+				if (pending == null) {
+					scheduled = false;
+					queue.notifyAll();
+					return;
+				}
+			}
+
+			deliver(pending);
+		}
+	}
+
+
+	/**
+	 * Delivering pending event to its listeners.
+	 * @param pending pending event.
+	 */
+	private static void deliver(Pending pending) {
+		for (SetupAlgListener listener : pending.listeners) {
+			try {
+				listener.receivedSetup(pending.evt);
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+			}
+		}
+	}
+
+
+	/**
+	 * Waiting until all pending events are delivered.
+	 * @param timeout maximum waiting time in milliseconds. Non-positive timeout means waiting without time limit.
+	 * @return true if all pending events are delivered.
+	 */
+	public boolean flush(long timeout) {
+		long deadline = System.currentTimeMillis() + timeout;
+		synchronized (queue) {
+			while (scheduled || !queue.isEmpty()) {
+				long remain = timeout > 0 ? deadline - System.currentTimeMillis() : 0;
+				if (timeout > 0 && remain <= 0) return false;
+				try {
+					queue.wait(remain);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Getting number of pending events.
+	 * @return number of pending events.
+	 */
+	public int getPendingCount() {
+		synchronized (queue) {
+			return queue.size();
+		}
+	}
+
+
+	/**
+	 * Getting number of dropped doing events.
+	 * @return number of dropped doing events.
+	 */
+	public long getDroppedCount() {
+		synchronized (queue) {
+			return dropped;
+		}
+	}
+
+
+}
@@ -0,0 +1,590 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import net.hudup.core.Constants;
+import net.hudup.core.Util;
+import net.hudup.core.alg.AlgExtAbstract;
+import net.hudup.core.data.AttributeList;
+import net.hudup.core.data.Fetcher;
+import net.hudup.core.data.FetcherMetadata;
+import net.hudup.core.data.Profile;
+import net.hudup.core.logistic.LogUtil;
+
+/**
+ * This class stores attributes of a sample in columns, which are extracted from the sample in one pass per request.
+ * Many regression models sharing the same sample, for example, sub-models of semi-mixture model, can parse their indices and extract their data from this columnar storage
+ * instead of scanning the sample again. Missing values are stored as {@link Constants#UNUSED} and they are also marked in missing bitmaps of columns.
+ * Columnar data obtained by {@link #of(Fetcher)} is shared by reference across all models built on the same sample in this Java virtual machine.
+ * Its columns are extracted lazily, so that only attributes used by models are kept in memory. Columns requested together, for example, by {@link #load(List, List)}, are extracted in one pass.
+ * The shared data is softly referenced, so that it can be released under memory pressure, and it is created again if the fingerprint of the sample is changed.
+ * A view created by {@link #view(int[])} selects rows by their indices and shares columns with its columnar data, for example, folds of cross-validation.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class ColumnarData implements Serializable {
+
+
+	/**
+	 * Serial version UID for serializable class.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Attribute list of the sample.
+	 */
+	protected AttributeList attList = null;
+
+
+	/**
+	 * Number of rows of the first part of the sample whose values are included in fingerprint of the sample.
+	 */
+	public final static int PROBE_SIZE = 16;
+
+
+	/**
+	 * Columns of real values, each of which is for one attribute. A column is null until it is extracted.
+	 */
+	protected AtomicReferenceArray<double[]> columns = null;
+
+
+	/**
+	 * Missing bitmaps of columns, in which the bit of a row is set if the value of the row is missing. A bitmap is set before its column.
+	 */
+	protected AtomicReferenceArray<BitSet> missing = null;
+
+
+	/**
+	 * Number of rows.
+	 */
+	protected int size = 0;
+
+
+	/**
+	 * Number of rows of shared columns, which can be larger than number of rows of a view.
+	 */
+	protected int length = 0;
+
+
+	/**
+	 * Indices of rows of columns which are selected by this view. It is null if this columnar data is not a view.
+	 */
+	protected int[] rows = null;
+
+
+	/**
+	 * Sample from which columns are extracted lazily. It is weakly referenced so that shared columnar data does not keep its sample alive. It is null if all columns are given.
+	 */
+	private transient Reference<Fetcher<Profile>> sample = null;
+
+
+	/**
+	 * Fingerprint of the sample when this columnar data was created, see {@link #fingerprint(Fetcher, int)}.
+	 */
+	private transient long fingerprint = 0;
+
+
+	/**
+	 * Columnar data shared by samples. Samples are weakly referenced so that their columnar data is released when they are no longer used.
+	 */
+	private static final Map<Fetcher<Profile>, Reference<ColumnarData>> shared = new WeakHashMap<Fetcher<Profile>, Reference<ColumnarData>>();
+
+
+	/**
+	 * Constructor with attribute list and columns. Missing bitmaps are built from missing values {@link Constants#UNUSED} of columns.
+	 * @param attList attribute list.
+	 * @param columns columns of real values, each of which is for one attribute.
+	 * @param size number of rows.
+	 */
+	public ColumnarData(AttributeList attList, double[][] columns, int size) {
+		this.attList = attList;
+		this.size = this.length = size;
+		this.columns = new AtomicReferenceArray<double[]>(columns.length);
+		this.missing = new AtomicReferenceArray<BitSet>(columns.length);
+		for (int j = 0; j < columns.length; j++) {
+			this.missing.set(j, missingOf(columns[j], size));
+			this.columns.set(j, columns[j]);
+		}
+	}
+
+
+	/**
+	 * Constructor of columnar data whose columns are extracted lazily from specified sample.
+	 * @param attList attribute list of specified sample.
+	 * @param size number of rows of specified sample.
+	 * @param sample specified sample.
+	 * @param fingerprint fingerprint of specified sample.
+	 */
+	private ColumnarData(AttributeList attList, int size, Fetcher<Profile> sample, long fingerprint) {
+		this.attList = attList;
+		this.size = this.length = size;
+		this.columns = new AtomicReferenceArray<double[]>(attList.size());
+		this.missing = new AtomicReferenceArray<BitSet>(attList.size());
+		this.sample = new WeakReference<Fetcher<Profile>>(sample);
+		this.fingerprint = fingerprint;
+	}
+
+
+	/**
+	 * Constructor of view of specified columnar data with specified indices of rows. Columns and missing bitmaps are shared.
+	 * @param data specified columnar data.
+	 * @param rows indices of rows of specified columnar data.
+	 */
+	protected ColumnarData(ColumnarData data, int[] rows) {
+		this.attList = data.attList;
+		this.columns = data.columns;
+		this.missing = data.missing;
+		this.sample = data.sample;
+		this.length = data.length;
+		this.size = rows.length;
+		if (data.rows == null)
+			this.rows = rows;
+		else {
+			this.rows = new int[rows.length];
+			for (int i = 0; i < rows.length; i++) this.rows[i] = data.rows[rows[i]];
+		}
+	}
+
+
+	/**
+	 * Getting attribute list.
+	 * @return attribute list.
+	 */
+	public AttributeList getAttributeList() {
+		return attList;
+	}
+
+
+	/**
+	 * Getting number of rows.
+	 * @return number of rows.
+	 */
+	public int size() {
+		return size;
+	}
+
+
+	/**
+	 * Getting column of specified attribute. The column of a view is copied from shared column.
+	 * @param column index of specified attribute.
+	 * @return column of specified attribute.
+	 */
+	public double[] getColumn(int column) {
+		double[] shared = column(column);
+		if (rows == null) return shared;
+		
+		double[] values = new double[size];
+		for (int i = 0; i < size; i++) values[i] = shared[rows[i]];
+		return values;
+	}
+
+
+	/**
+	 * Getting value at specified row and column.
+	 * @param row specified row.
+	 * @param column specified column.
+	 * @return value at specified row and column, which is {@link Constants#UNUSED} if it is missing.
+	 */
+	public double getValue(int row, int column) {
+		return column(column)[index(row)];
+	}
+
+
+	/**
+	 * Checking whether value at specified row and column is missing.
+	 * @param row specified row.
+	 * @param column specified column.
+	 * @return whether value at specified row and column is missing.
+	 */
+	public boolean isMissing(int row, int column) {
+		column(column);
+		return missing.get(column).get(index(row));
+	}
+
+
+	/**
+	 * Getting missing bitmap of specified column, which should not be changed. The missing bitmap of a view is created from shared missing bitmap.
+	 * @param column specified column.
+	 * @return missing bitmap of specified column, in which the bit of a row is set if the value of the row is missing.
+	 */
+	public BitSet getMissing(int column) {
+		column(column);
+		BitSet shared = missing.get(column);
+		if (rows == null) return shared;
+		
+		BitSet bitmap = new BitSet(size);
+		for (int i = 0; i < size; i++) {
+			if (shared.get(rows[i])) bitmap.set(i);
+		}
+		return bitmap;
+	}
+
+
+	/**
+	 * Getting all values of specified row.
+	 * @param row specified row.
+	 * @return all values of specified row.
+	 */
+	public double[] getRow(int row) {
+		int n = columns.length();
+		if (!isLoaded()) load(null);
+		double[] values = new double[n];
+		int index = index(row);
+		for (int j = 0; j < n; j++) values[j] = columns.get(j)[index];
+		return values;
+	}
+
+
+	/**
+	 * Extracting value of variable at specified row like {@link RMAbstract#extractVariableValue(Object, AttributeList, List, int)}.
+	 * Index of attribute is read directly from column and expression is evaluated with values of the row.
+	 * @param row specified row.
+	 * @param indices specified list of indices.
+	 * @param index specified index. Index 0 always indicate to value 1.
+	 * @return value of variable at specified row.
+	 */
+	public double extractVariableValue(int row, List<Object[]> indices, int index) {
+		if (index == 0) return 1.0;
+
+		Object item = indices.get(index)[0]; //Currently, only use the first element of the index.
+		if (item instanceof Number) {
+			int column = ((Number)item).intValue();
+			return column >= 0 && column < columns.length() ? column(column)[index(row)] : Constants.UNUSED;
+		}
+		else
+			return RMAbstract.extractVariableValue(getRow(row), attList, indices, index);
+	}
+
+
+	/**
+	 * Extracting columns used by specified indices in one pass if they are not extracted yet. All columns are extracted if an index is an expression.
+	 * @param xIndices indices for X data, which can be null.
+	 * @param zIndices indices for Z data, which can be null.
+	 */
+	public void load(List<Object[]> xIndices, List<Object[]> zIndices) {
+		BitSet used = new BitSet(columns.length());
+		if (!addUsedColumns(xIndices, used) || !addUsedColumns(zIndices, used))
+			load(null);
+		else
+			load(used);
+	}
+
+
+	/**
+	 * Adding columns used by specified indices to specified bitmap. The first index pointing to value 1 is ignored.
+	 * @param indices specified indices, which can be null.
+	 * @param used bitmap of used columns.
+	 * @return false if an index is an expression which can use any column.
+	 */
+	private boolean addUsedColumns(List<Object[]> indices, BitSet used) {
+		if (indices == null) return true;
+		for (int index = 1; index < indices.size(); index++) {
+			Object item = indices.get(index)[0];
+			if (!(item instanceof Number)) return false;
+			int column = ((Number)item).intValue();
+			if (column >= 0 && column < columns.length()) used.set(column);
+		}
+		return true;
+	}
+
+
+	/**
+	 * Checking whether specified column is extracted.
+	 * @param column specified column.
+	 * @return whether specified column is extracted.
+	 */
+	public boolean isLoaded(int column) {
+		return columns.get(column) != null;
+	}
+
+
+	/**
+	 * Checking whether all columns are extracted.
+	 * @return whether all columns are extracted.
+	 */
+	public boolean isLoaded() {
+		for (int j = 0; j < columns.length(); j++) {
+			if (columns.get(j) == null) return false;
+		}
+		return true;
+	}
+
+
+	/**
+	 * Getting shared column of specified attribute, which is extracted if it is not extracted yet.
+	 * @param column index of specified attribute.
+	 * @return shared column of specified attribute.
+	 */
+	private double[] column(int column) {
+		double[] values = columns.get(column);
+		if (values != null) return values;
+		
+		BitSet requested = new BitSet(columns.length());
+		requested.set(column);
+		load(requested);
+		return columns.get(column);
+	}
+
+
+	/**
+	 * Extracting specified columns from the sample in one pass if they are not extracted yet.
+	 * If the sample is released or its number of rows is changed, values which cannot be extracted are missing and the change is logged.
+	 * @param requested bitmap of requested columns. All columns are requested if it is null.
+	 */
+	private void load(BitSet requested) {
+		Fetcher<Profile> sample = this.sample != null ? this.sample.get() : null;
+		synchronized (sample != null ? sample : columns) {
+			int n = columns.length();
+			int[] needed = new int[n];
+			int count = 0;
+			for (int j = 0; j < n; j++) {
+				if (columns.get(j) == null && (requested == null || requested.get(j))) needed[count++] = j;
+			}
+			if (count == 0) return;
+			
+			int N = length;
+			double[][] values = new double[count][N];
+			for (double[] value : values) Arrays.fill(value, Constants.UNUSED);
+			if (sample == null)
+				LogUtil.error("Sample of columnar data is released before its columns are extracted");
+			else {
+				int row = 0;
+				try {
+					while (sample.next()) {
+						Profile profile = sample.pick();
+						if (profile == null) continue;
+						
+						for (int k = 0; row < N && k < count; k++) values[k][row] = profile.getValueAsReal(needed[k]);
+						row++;
+					}
+				}
+				catch (Throwable e) {
+					LogUtil.trace(e);
+				}
+				finally {
+					try {
+						sample.reset();
+					} catch (Throwable e) {LogUtil.trace(e);}
+				}
+				
+				if (row != N)
+					LogUtil.error("Sample is changed after its columnar data was created, " + row + " rows instead of " + N);
+			}
+			
+			for (int k = 0; k < count; k++) {
+				missing.set(needed[k], missingOf(values[k], N));
+				columns.set(needed[k], values[k]);
+			}
+		}
+	}
+
+
+	/**
+	 * Creating view of this columnar data with specified indices of rows, which does not copy values.
+	 * @param rows specified indices of rows of this columnar data.
+	 * @return view of this columnar data with specified indices of rows.
+	 */
+	public ColumnarData view(int[] rows) {
+		return new ColumnarData(this, rows);
+	}
+
+
+	/**
+	 * Getting index of specified row in columns.
+	 * @param row specified row.
+	 * @return index of specified row in columns.
+	 */
+	private int index(int row) {
+		return rows != null ? rows[row] : row;
+	}
+
+
+	/**
+	 * Creating bitmap of missing values of specified column.
+	 * @param column specified column.
+	 * @param size number of rows.
+	 * @return bitmap of missing values of specified column.
+	 */
+	private static BitSet missingOf(double[] column, int size) {
+		BitSet bitmap = new BitSet(size);
+		for (int i = 0; i < size; i++) {
+			if (!Util.isUsed(column[i])) bitmap.set(i);
+		}
+		return bitmap;
+	}
+
+
+	/**
+	 * Extracting all columns before this columnar data is serialized because the sample is not serialized.
+	 * @param out output stream.
+	 * @throws IOException if any error raises.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		if (!isLoaded()) load(null);
+		out.defaultWriteObject();
+	}
+
+
+	/**
+	 * Getting columnar data of specified sample, which is created at the first time and shared by reference later. Its columns are extracted when they are used.
+	 * The shared data is created again if the fingerprint of the sample is changed, see {@link #fingerprint(Fetcher, int)}.
+	 * @param sample specified sample.
+	 * @return columnar data of specified sample. Return null if the sample has no attribute.
+	 */
+	public static ColumnarData of(Fetcher<Profile> sample) {
+		if (sample == null) return null;
+		if (sample instanceof ColumnarFetcher) return ((ColumnarFetcher)sample).getData();
+		
+		synchronized (shared) {
+			Reference<ColumnarData> reference = shared.get(sample);
+			ColumnarData data = reference != null ? reference.get() : null;
+			if (data != null && data.isExtractedFrom(sample)) return data;
+			
+			data = create(sample);
+			if (data != null)
+				shared.put(sample, new SoftReference<ColumnarData>(data));
+			else
+				shared.remove(sample);
+			return data;
+		}
+	}
+
+
+	/**
+	 * Checking whether this columnar data is still created from specified sample by comparing their fingerprints.
+	 * @param sample specified sample.
+	 * @return whether this columnar data is still created from specified sample.
+	 */
+	private boolean isExtractedFrom(Fetcher<Profile> sample) {
+		return this.sample != null && this.sample.get() == sample && fingerprint(sample, columns.length()) == fingerprint;
+	}
+
+
+	/**
+	 * Creating columnar data of specified sample without extracting columns. The sample is scanned once to count its rows.
+	 * @param sample specified sample.
+	 * @return columnar data of specified sample whose columns are extracted lazily. Return null if the sample has no attribute.
+	 */
+	private static ColumnarData create(Fetcher<Profile> sample) {
+		AttributeList attList = AlgExtAbstract.getSampleAttributeList(sample);
+		if (attList == null || attList.size() == 0) return null;
+
+		int N = 0;
+		synchronized (sample) {
+			try {
+				while (sample.next()) {
+					if (sample.pick() != null) N++;
+				}
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+			}
+			finally {
+				try {
+					sample.reset();
+				} catch (Throwable e) {LogUtil.trace(e);}
+			}
+		}
+		
+		return new ColumnarData(attList, N, sample, fingerprint(sample, attList.size()));
+	}
+
+
+	/**
+	 * Calculating fingerprint of specified sample, which is a hash of the size in metadata of the sample, number of attributes, and all values of the first {@link #PROBE_SIZE} rows.
+	 * It is cheap to calculate because the sample is not scanned entirely, so a sample whose size is unchanged but whose first rows are changed is detected.
+	 * @param sample specified sample.
+	 * @param n number of attributes.
+	 * @return fingerprint of specified sample.
+	 */
+	private static long fingerprint(Fetcher<Profile> sample, int n) {
+		long hash = 17;
+		synchronized (sample) {
+			try {
+				FetcherMetadata metadata = sample.getMetadata();
+				hash = 31 * hash + (metadata != null ? metadata.getSize() : -1);
+				hash = 31 * hash + n;
+				int row = 0;
+				while (row < PROBE_SIZE && sample.next()) {
+					Profile profile = sample.pick();
+					if (profile == null) continue;
+					
+					hash = 31 * hash + profile.getAttCount();
+					for (int j = 0; j < n && j < profile.getAttCount(); j++) hash = 31 * hash + Double.doubleToLongBits(profile.getValueAsReal(j));
+					row++;
+				}
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+			}
+			finally {
+				try {
+					sample.reset();
+				} catch (Throwable e) {LogUtil.trace(e);}
+			}
+		}
+		
+		return hash;
+	}
+
+
+	/**
+	 * Extracting columnar data from specified sample in one pass.
+	 * @param sample specified sample.
+	 * @return columnar data extracted from specified sample. Return null if the sample has no attribute.
+	 */
+	public static ColumnarData extract(Fetcher<Profile> sample) {
+		AttributeList attList = sample != null ? AlgExtAbstract.getSampleAttributeList(sample) : null;
+		if (attList == null || attList.size() == 0) return null;
+
+		int n = attList.size();
+		int N = 0;
+		double[][] columns = new double[n][1024];
+		try {
+			while (sample.next()) {
+				Profile profile = sample.pick();
+				if (profile == null) continue;
+
+				if (N == columns[0].length) {
+					for (int j = 0; j < n; j++) columns[j] = Arrays.copyOf(columns[j], 2*N);
+				}
+				for (int j = 0; j < n; j++) columns[j][N] = profile.getValueAsReal(j);
+				N++;
+			}
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		finally {
+			try {
+				sample.reset();
+			} catch (Throwable e) {LogUtil.trace(e);}
+		}
+
+		for (int j = 0; j < n; j++) columns[j] = Arrays.copyOf(columns[j], N);
+		return new ColumnarData(attList, columns, N);
+	}
+
+
+}
@@ -0,0 +1,149 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression;
+
+import java.util.List;
+
+import net.hudup.core.Util;
+import net.hudup.core.data.Fetcher;
+import net.hudup.core.data.FetcherMetadata;
+import net.hudup.core.data.MemFetcher;
+import net.hudup.core.data.Profile;
+
+/**
+ * This class is a fetcher of profiles over rows of columnar data {@link ColumnarData}, for example, a view of rows of a fold of cross-validation.
+ * Profiles are created when they are picked, so rows are not copied. Models built on this fetcher obtain its columnar data directly by {@link ColumnarData#of(Fetcher)}.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class ColumnarFetcher implements Fetcher<Profile> {
+
+
+	/**
+	 * Serial version UID for serializable class.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Columnar data over which this fetcher iterates.
+	 */
+	protected ColumnarData data = null;
+
+
+	/**
+	 * Current row. It is -1 before the first row.
+	 */
+	protected int row = -1;
+
+
+	/**
+	 * Meta-data of this fetcher.
+	 */
+	protected FetcherMetadata metadata = null;
+
+
+	/**
+	 * Constructor with specified columnar data.
+	 * @param data specified columnar data.
+	 */
+	public ColumnarFetcher(ColumnarData data) {
+		update(data);
+	}
+
+
+	/**
+	 * Initializing this fetcher from specified columnar data.
+	 * @param data specified columnar data.
+	 */
+	protected void update(ColumnarData data) {
+		this.data = data;
+		this.row = -1;
+		this.metadata = new FetcherMetadata();
+		this.metadata.setSize(data != null ? data.size() : 0);
+	}
+
+
+	/**
+	 * Getting columnar data.
+	 * @return columnar data over which this fetcher iterates.
+	 */
+	public ColumnarData getData() {
+		return data;
+	}
+
+
+	@Override
+	public boolean next() {
+		if (data == null) return false;
+		if (row < data.size()) row++;
+		return row < data.size();
+	}
+
+
+	@Override
+	public Profile pick() {
+		if (data == null || row < 0 || row >= data.size()) return null;
+
+		Profile profile = new Profile(data.getAttributeList());
+		int n = data.getAttributeList().size();
+		for (int j = 0; j < n; j++) {
+			if (!data.isMissing(row, j)) profile.setValue(j, data.getValue(row, j));
+		}
+		return profile;
+	}
+
+
+	@Override
+	public void reset() {
+		row = -1;
+	}
+
+
+	@Override
+	public FetcherMetadata getMetadata() {
+		return metadata;
+	}
+
+
+	@Override
+	public void close() {
+		data = null;
+		row = -1;
+		metadata = null;
+	}
+
+
+	@Override
+	public String toText() {
+		int size = data != null ? data.size() : 0;
+		List<Profile> profiles = Util.newList(size);
+		int current = row;
+		try {
+			for (row = 0; row < size; row++) profiles.add(pick());
+		}
+		finally {
+			row = current;
+		}
+
+		return new MemFetcher<Profile>(profiles).toText();
+	}
+
+
+	@Override
+	public void parseText(String spec) {
+		MemFetcher<Profile> fetcher = new MemFetcher<Profile>();
+		fetcher.parseText(spec);
+		update(ColumnarData.extract(fetcher));
+		fetcher.close();
+	}
+
+
+}
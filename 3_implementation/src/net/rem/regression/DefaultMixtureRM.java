@@ -40,6 +40,7 @@ import net.hudup.core.logistic.xURI;
 import net.rem.regression.em.DefaultMixtureREM;
 import net.rem.regression.em.ExchangedParameter;
 import net.rem.regression.ui.graph.Graph;
+import net.rem.em.SetupEventDispatcher;
 
 /**
  * This class represents the default mixture regression model.
@@ -76,6 +77,12 @@ public class DefaultMixtureRM extends ExecutableAlgAbstract implements RM, RMRem
 	 */
 	public final static int COMP_MAX_NUMBER_DEFAULT = 10;
 
+
+	/**
+	 * Dispatcher of setup events, which delivers events asynchronously so that learning never blocks on listeners.
+	 */
+	protected transient SetupEventDispatcher eventDispatcher = new SetupEventDispatcher();
+
 	
 	@Override
 	protected Object fetchSample(Dataset dataset) {
@@ -472,10 +479,59 @@ public class DefaultMixtureRM extends ExecutableAlgAbstract implements RM, RMRem
 	}
 
 
+	@Override
+	public List<Object> executeBatch(List<?> inputs) throws RemoteException {
+		return RMAbstract.executeBatch(this, inputs);
+	}
+
+
+	@Override
+	public double[] executeByXStatisticBatch(List<double[]> xStatistics) throws RemoteException {
+		if (mixREM != null)
+			return mixREM.executeByXStatisticBatch(xStatistics);
+		else
+			return RMAbstract.executeByXStatisticBatch(this, xStatistics);
+	}
+
+
+	@Override
+	public double[][] extractRegressorValuesBatch(List<?> inputs) throws RemoteException {
+		if (mixREM != null)
+			return mixREM.extractRegressorValuesBatch(inputs);
+		else
+			return RMAbstract.extractRegressorValuesBatch(this, inputs);
+	}
+
+
+	@Override
+	public RMMetrics calcMetrics() throws RemoteException {
+		if (mixREM != null)
+			return mixREM.calcMetrics();
+		else
+			return null;
+	}
+
+
+	@Override
+	public long getModelVersion() throws RemoteException {
+		if (mixREM != null)
+			return mixREM.getModelVersion();
+		else
+			return 0;
+	}
+
+
 	@Override
 	public void receivedSetup(SetupAlgEvent evt) throws RemoteException {
 		fireSetupEvent(evt);
 	}
 
 
+	@Override
+	public void fireSetupEvent(SetupAlgEvent evt) throws RemoteException {
+		if (eventDispatcher == null) eventDispatcher = new SetupEventDispatcher();
+		eventDispatcher.dispatch(getSetupListeners(), evt);
+	}
+
+
 }
@@ -8,13 +8,11 @@
 package net.rem.regression;
 
 import java.io.Serializable;
-import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
 
 import net.hudup.core.Constants;
 import net.hudup.core.Util;
-import net.hudup.core.alg.AlgExtAbstract;
 import net.hudup.core.data.AttributeList;
 import net.hudup.core.data.Fetcher;
 import net.hudup.core.data.Profile;
@@ -104,13 +102,36 @@ public class Indices implements Serializable {
 	 */
 	public static Indices parse(String cfgIndices, Fetcher<Profile> sample, int[] xIndicesUsed, int[] zIndicesUsed) {
 		if (sample == null) return null;
+		return parse(cfgIndices, ColumnarData.of(sample), xIndicesUsed, zIndicesUsed); //Sample is scanned once and shared by all models built on it.
+	}
+	
+	
+	/**
+	 * Parsing indices data from columnar data, which does not scan the sample again.
+	 * @param cfgIndices configuration indices text. It can be null, which is for default regression model, y = a0 + a1x1 + a2x2 +... + a(n-1)x(n-1).
+	 * @param data columnar data extracted from sample.
+	 * @return X and Y indices.
+	 */
+	public static Indices parse(String cfgIndices, ColumnarData data) {
+		return parse(cfgIndices, data, null, null);
+	}
+	
+	
+	/**
+	 * Parsing indices data from columnar data, which does not scan the sample again.
+	 * @param cfgIndices configuration indices text. It can be null, which is for default regression model, y = a0 + a1x1 + a2x2 +... + a(n-1)x(n-1).
+	 * @param data columnar data extracted from sample.
+	 * @param xIndicesUsed indicator of used X indices (xIndices). Please see {@link #parse(String, Fetcher, int[], int[])}.
+	 * @param zIndicesUsed indicator of used Z indices. Please see {@link #parse(String, Fetcher, int[], int[])}.
+	 * @return X and Y indices.
+	 */
+	public static Indices parse(String cfgIndices, ColumnarData data, int[] xIndicesUsed, int[] zIndicesUsed) {
+		if (data == null) return null;
 		Indices indices = new Indices();
-		indices.attList = AlgExtAbstract.getSampleAttributeList(sample);
+		indices.attList = data.getAttributeList();
 		if (indices.attList == null || indices.attList.size() < 2) return null;
-
+		
 		//Begin parsing indices
-		if (indices.xIndices == null) indices.xIndices = Util.newList();
-		if (indices.zIndices == null) indices.zIndices = Util.newList();
 		if (!parseIndices(cfgIndices, indices.attList.size(), indices.xIndices, indices.zIndices)) //parsing indices
 			return null;
 		//End parsing indices
@@ -125,44 +146,36 @@ public class Indices implements Serializable {
 		//End adjusting indices
 		
 		//Begin checking existence of values.
-		boolean zExists = false;
-		boolean[] xExists = new boolean[indices.xIndices.size() - 1]; //profile = (x1, x2,..., x(n-1), z)
-		Arrays.fill(xExists, false);
-		try {
-			while (sample.next()) {
-				Profile profile = sample.pick(); //profile = (x1, x2,..., x(n-1), z)
-				if (profile == null) continue;
-				
-				double lastValue = RMAbstract.extractNumber(extractResponseValue(profile, indices.attList, indices.zIndices));
-				if (Util.isUsed(lastValue)) zExists = zExists || true; 
-				
-				for (int j = 1; j < indices.xIndices.size(); j++) {
-					double value = extractRegressorValue(profile, j, indices.attList, indices.xIndices);
-					if (Util.isUsed(value)) xExists[j - 1] = xExists[j - 1] || true;
-				}
-			}
-		}
-		catch (Throwable e) {LogUtil.trace(e);}
-		finally {
-			try {
-				if (sample != null) sample.reset();
-			} catch (Throwable e) {LogUtil.trace(e);}
-		}
-		
+		data.load(indices.xIndices, indices.zIndices); //Only used columns are extracted, in one pass.
+		if (!existsValue(data, indices.zIndices, 1)) return null;
 		List<Object[]> xIndicesTemp = Util.newList();
 		xIndicesTemp.add(indices.xIndices.get(0)); //adding -1
 		for (int j = 1; j < indices.xIndices.size(); j++) {
-			if (xExists[j - 1])
+			if (existsValue(data, indices.xIndices, j))
 				xIndicesTemp.add(indices.xIndices.get(j)); //only use variables having at least one value.
 		}
-		if (!zExists || xIndicesTemp.size() < 2) //Please pay attention here.
-			return null;
+		if (xIndicesTemp.size() < 2) return null;
 		indices.xIndices = xIndicesTemp;
 		//End checking existence of values.
 		
 		return indices;
 	}
 	
+	
+	/**
+	 * Checking whether the indexed variable has at least one value in columnar data.
+	 * @param data columnar data.
+	 * @param indices list of indices.
+	 * @param index specified index.
+	 * @return whether the indexed variable has at least one value in columnar data.
+	 */
+	private static boolean existsValue(ColumnarData data, List<Object[]> indices, int index) {
+		for (int i = 0; i < data.size(); i++) {
+			if (Util.isUsed(data.extractVariableValue(i, indices, index))) return true;
+		}
+		return false;
+	}
+	
     /**
 	 * Splitting the specified string into list of indices.
 	 * @param cfgIndices specified string.
@@ -361,50 +374,62 @@ public class Indices implements Serializable {
 		if (sample == null || attList == null || xIndices == null || zIndices == null) return null;
 		if (attList.size() < 2 || xIndices.size() < 2 || zIndices.size() < 2) return null;
 		
-		List<double[]> xData = Util.newList();
-		List<double[]> zData = Util.newList();
+		return extractData(ColumnarData.of(sample), xIndices, zIndices, transformer, null); //Sample is scanned once and shared by all models built on it.
+	}
+	
+	
+	/**
+	 * Extracting data as large statistics from columnar data, which does not scan the sample again.
+	 * @param data columnar data extracted from sample.
+	 * @param xIndices indices for X data, including -1 such as (-1, 0 or #x1, 1 or log(#x1), ..., n-1 or xn). So x1 begins with index 1.
+	 * @param zIndices indices for Z data, including -1 such as (-1, z). So z has index 1.
+	 * @param transformer transformer for regressors and response. It can be null.
+	 * @param sharedZData Z data extracted already by other model with the same Z indices and transformer. If it is not null, its rows are shared instead of being extracted again.
+	 * @return data as large statistics extracted from columnar data.
+	 */
+	public static LargeStatistics extractData(ColumnarData data, List<Object[]> xIndices, List<Object[]> zIndices, Transformer transformer, List<double[]> sharedZData) {
+		if (data == null || xIndices == null || zIndices == null) return null;
+		if (xIndices.size() < 2 || zIndices.size() < 2 || data.size() == 0) return null;
+		if (sharedZData != null && sharedZData.size() != data.size()) sharedZData = null;
+		data.load(xIndices, sharedZData != null ? null : zIndices);
+		
+		int N = data.size();
+		List<double[]> xData = Util.newList(N);
+		List<double[]> zData = Util.newList(N);
 		try {
-			while (sample.next()) {
-				Profile profile = sample.pick(); //profile = (x1, x2,..., x(n-1), z)
-				if (profile == null) continue;
-				
+			for (int i = 0; i < N; i++) {
 				double[] xVector = new double[xIndices.size()]; //1, x1, x2,..., x(n-1)
-				double[] zVector = new double[2]; //1, z
 				xVector[0] = 1.0;
-				zVector[0] = 1.0;
-				
-				double lastValue = RMAbstract.extractNumber(extractResponseValue(profile, attList, zIndices));
-				if (!Util.isUsed(lastValue))
-					zVector[1] = Constants.UNUSED;
-				else
-					zVector[1] = transformer != null ? (double)transformer.transformResponse(lastValue, false) : lastValue;
-				
 				for (int j = 1; j < xIndices.size(); j++) {
-					double value = Indices.extractRegressorValue(profile, j, attList, xIndices);
+					double value = data.extractVariableValue(i, xIndices, j);
 					if (!Util.isUsed(value))
 						xVector[j] = Constants.UNUSED;
 					else
 						xVector[j] = transformer != null ? (double)transformer.transformRegressor(value, false) : value;
 				}
-				
-				zData.add(zVector);
 				xData.add(xVector);
+			
+				if (sharedZData != null) {
+					zData.add(sharedZData.get(i)); //Rows of Z data are read-only and so they can be shared.
+					continue;
+				}
+				double[] zVector = new double[2]; //1, z
+				zVector[0] = 1.0;
+				double lastValue = data.extractVariableValue(i, zIndices, 1);
+				if (!Util.isUsed(lastValue))
+					zVector[1] = Constants.UNUSED;
+				else
+					zVector[1] = transformer != null ? (double)transformer.transformResponse(lastValue, false) : lastValue;
+				zData.add(zVector);
 			}
+		
 		}
 		catch (Throwable e) {
 			LogUtil.trace(e);
+			return null;
 		}
-		finally {
-			try {
-				if (sample != null) sample.reset();
-			} catch (Throwable e) {LogUtil.trace(e);}
-		}
-		//End extracting data
 		
-		if (xData.size() == 0 || zData.size() == 0)
-			return null;
-		else
-			return new LargeStatistics(xData, zData);
+		return new LargeStatistics(xData, zData);
 	}
 	
 	
@@ -463,6 +488,58 @@ public class Indices implements Serializable {
 	
 	
 	}
+	
+	
+	/**
+	 * This class represents indices and data prepared already, so that a regression model is set up without parsing and extracting sample again.
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 */
+	public static class Prepared implements Serializable {
+		
+		/**
+		 * Serial version UID for serializable class.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Prepared indices.
+		 */
+		public Indices indices = null;
+		
+		/**
+		 * Prepared data.
+		 */
+		public LargeStatistics data = null;
+		
+		/**
+		 * Constructor with prepared indices and data.
+		 * @param indices prepared indices.
+		 * @param data prepared data.
+		 */
+		public Prepared(Indices indices, LargeStatistics data) {
+			this.indices = indices;
+			this.data = data;
+		}
+		
+	}
+
+
+	/**
+	 * Extracting prepared indices and data from specified information.
+	 * @param info specified information.
+	 * @return prepared indices and data extracted from specified information.
+	 */
+	public static Prepared extractPrepared(Object...info) {
+		if (info == null || info.length == 0) return null;
+		for (Object object : info) {
+			if (object instanceof Prepared) return (Prepared)object;
+		}
+		
+		return null;
+	}
+	
+	
 	/**
 	 * Creating used sequence of indices.
 	 * @param maxIndices the number of elements in X indices (xIndices) or Z indices (zIndices).
@@ -186,6 +186,24 @@ public class LargeStatistics implements Cloneable, Serializable {
 	}
 	
 	
+	/**
+	 * Calculating fingerprint of this large statistics, which is a hash of all values in row order including missing values.
+	 * It is used to match a checkpoint with the training data it was saved from.
+	 * @return fingerprint of this large statistics.
+	 */
+	public long fingerprint() {
+		long hash = 17;
+		if (isEmpty()) return hash;
+		
+		hash = 31 * hash + size();
+		for (int i = 0; i < size(); i++) {
+			for (double value : xData.get(i)) hash = 31 * hash + Double.doubleToLongBits(value);
+			for (double value : zData.get(i)) hash = 31 * hash + Double.doubleToLongBits(value);
+		}
+		return hash;
+	}
+	
+	
 	/**
 	 * Clear data.
 	 */
@@ -21,6 +21,7 @@ import net.hudup.core.data.DataConfig;
 import net.hudup.core.data.Dataset;
 import net.hudup.core.data.Fetcher;
 import net.hudup.core.data.Profile;
+import net.rem.em.SetupEventDispatcher;
 
 /**
  * This is the most abstract class for multiple regression model. It implements partially the interface {@link RM}.
@@ -41,6 +42,18 @@ public abstract class MultipleRMAbstract extends ExecutableAlgAbstract implement
 	 * List of internal regression model as parameter.
 	 */
 	protected List<RM> regressions = Util.newList(); 
+
+
+	/**
+	 * Dispatcher of setup events, which delivers events asynchronously so that learning never blocks on listeners.
+	 */
+	protected transient SetupEventDispatcher eventDispatcher = new SetupEventDispatcher();
+	
+	
+	/**
+	 * Version of the learned model, which changes whenever this model is learned or unset up.
+	 */
+	protected transient volatile long modelVersion = 0;
 	
 	
 	@Override
@@ -138,6 +151,7 @@ public abstract class MultipleRMAbstract extends ExecutableAlgAbstract implement
 	public synchronized void unsetup() throws RemoteException {
 		super.unsetup();
 		this.regressions.clear();
+		modelVersion = RMAbstract.nextModelVersion();
 	}
 
 
@@ -156,6 +170,7 @@ public abstract class MultipleRMAbstract extends ExecutableAlgAbstract implement
 			if (parameter != null)
 				success = true;
 		}
+		modelVersion = RMAbstract.nextModelVersion();
 		if (!success)
 			return null;
 		else
@@ -277,4 +292,17 @@ public abstract class MultipleRMAbstract extends ExecutableAlgAbstract implement
 	}
 
 	
+	@Override
+	public long getModelVersion() throws RemoteException {
+		return modelVersion;
+	}
+
+	
+	@Override
+	public void fireSetupEvent(SetupAlgEvent evt) throws RemoteException {
+		if (eventDispatcher == null) eventDispatcher = new SetupEventDispatcher();
+		eventDispatcher.dispatch(getSetupListeners(), evt);
+	}
+
+
 }
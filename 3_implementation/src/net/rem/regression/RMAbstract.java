@@ -12,6 +12,7 @@ import java.io.Writer;
 import java.rmi.RemoteException;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
 import flanagan.analysis.Regression;
 import flanagan.math.Fmath;
@@ -21,6 +22,7 @@ import net.hudup.core.Util;
 import net.hudup.core.alg.ExecutableAlgAbstract;
 import net.hudup.core.alg.MemoryBasedAlg;
 import net.hudup.core.alg.MemoryBasedAlgRemote;
+import net.hudup.core.alg.SetupAlgEvent;
 import net.hudup.core.data.Attribute;
 import net.hudup.core.data.AttributeList;
 import net.hudup.core.data.DataConfig;
@@ -40,6 +42,7 @@ import net.rem.regression.ui.RMInspector;
 import net.rem.regression.ui.graph.Graph;
 import net.rem.regression.ui.graph.PlotGraphExt;
 import net.rem.regression.ui.graph.PlotGraphExt2;
+import net.rem.em.SetupEventDispatcher;
 
 /**
  * This is the most abstract class for regression model. It implements partially the interface {@link RM}.
@@ -84,6 +87,24 @@ public abstract class RMAbstract extends ExecutableAlgAbstract implements RM, RM
 	protected AttributeList attList = null;
 	
 
+	/**
+	 * Dispatcher of setup events, which delivers events asynchronously so that learning never blocks on listeners.
+	 */
+	protected transient SetupEventDispatcher eventDispatcher = new SetupEventDispatcher();
+
+
+	/**
+	 * Sequence of versions of learned models, which makes versions of all models in this virtual machine distinct.
+	 */
+	private final static AtomicLong modelVersionSequence = new AtomicLong(0);
+
+
+	/**
+	 * Version of the learned model, which changes whenever this model is learned.
+	 */
+	protected transient volatile long modelVersion = 0;
+
+
     /**
      * Default constructor
      */
@@ -109,6 +130,7 @@ public abstract class RMAbstract extends ExecutableAlgAbstract implements RM, RM
 		if (resulted == null)
 			clearInternalData();
 		
+		modelVersion = nextModelVersion();
 		return resulted;
 	}
 
@@ -336,6 +358,45 @@ public abstract class RMAbstract extends ExecutableAlgAbstract implements RM, RM
 	}
 
 
+	@Override
+	public List<Object> executeBatch(List<?> inputs) throws RemoteException {
+		return executeBatch(this, inputs);
+	}
+
+
+	@Override
+	public double[] executeByXStatisticBatch(List<double[]> xStatistics) throws RemoteException {
+		return executeByXStatisticBatch(this, xStatistics);
+	}
+
+
+	@Override
+	public double[][] extractRegressorValuesBatch(List<?> inputs) throws RemoteException {
+		return extractRegressorValuesBatch(this, inputs);
+	}
+
+
+	@Override
+	public RMMetrics calcMetrics() throws RemoteException {
+		return calcMetrics(this, this.getLargeStatistics());
+	}
+
+
+	@Override
+	public long getModelVersion() throws RemoteException {
+		return modelVersion;
+	}
+
+
+	/**
+	 * Getting next version of learned models, which is distinct from all versions obtained before in this virtual machine.
+	 * @return next version of learned models.
+	 */
+	public static long nextModelVersion() {
+		return modelVersionSequence.incrementAndGet();
+	}
+
+
 	@Override
 	public VarWrapper extractResponse() throws RemoteException {
 		return extractVariable(attList, zIndices, 1);
@@ -606,14 +667,31 @@ public abstract class RMAbstract extends ExecutableAlgAbstract implements RM, RM
     public static Graph createResponseGraph(RM rm, LargeStatistics stats) throws RemoteException {
 		if (rm == null || stats == null)
 			return null;
+		else
+			return createResponseGraph(rm, RMDiagnostics.calc(rm, stats));
+    }
+
+
+    /**
+     * Creating graph for response variable from series of diagnostics of regression model, which does not score data again.
+     * @param rm given regression model.
+     * @param diagnostics diagnostics of the regression model.
+     * @return graph for response variable.
+     * @throws RemoteException if any error raises.
+     */
+    public static Graph createResponseGraph(RM rm, RMDiagnostics diagnostics) throws RemoteException {
+		if (rm == null || diagnostics == null)
+			return null;
 		
     	int ncurves = 2;
-    	int npoints = stats.size();
+    	int npoints = diagnostics.size();
     	double[][] data = PlotGraph.data(ncurves, npoints);
 
+    	double[] real = diagnostics.getRealResponses();
+    	double[] estimated = diagnostics.getEstimatedResponses();
     	for(int i = 0; i < npoints; i++) {
-            data[0][i] = (double)rm.transformResponse(stats.getZData().get(i)[1], true);
-            data[1][i] = rm.executeByXStatistic(stats.getXData().get(i));
+            data[0][i] = real[i];
+            data[1][i] = estimated[i];
         }
 
     	Regression regression = new Regression(data[0], data[1]);
@@ -639,10 +717,7 @@ public abstract class RMAbstract extends ExecutableAlgAbstract implements RM, RM
 //				return "R=NaN";
 //			}
 //    	};
-    	String graphFeature = "R=NaN";
-		try {
-			graphFeature = "R=" + MathUtil.format(rm.calcR(), 2);
-		} catch (Exception e) {LogUtil.trace(e);}
+    	String graphFeature = "R=" + MathUtil.format(diagnostics.getR(), 2);
 		PlotGraphExt pg = new PlotGraphExt2(data, graphFeature);
     	
     	
@@ -669,27 +744,35 @@ public abstract class RMAbstract extends ExecutableAlgAbstract implements RM, RM
     public static Graph createErrorGraph(RM rm, LargeStatistics stats) throws RemoteException {
 		if (rm == null || stats == null)
 			return null;
+		else
+			return createErrorGraph(rm, RMDiagnostics.calc(rm, stats));
+    }
+
+
+    /**
+     * Creating error graph for response variable from series of diagnostics of regression model, which does not score data again.
+     * @param rm given regression model.
+     * @param diagnostics diagnostics of the regression model.
+     * @return error graph for response variable.
+     * @throws RemoteException if any error raises.
+     */
+    public static Graph createErrorGraph(RM rm, RMDiagnostics diagnostics) throws RemoteException {
+		if (rm == null || diagnostics == null)
+			return null;
     	
     	int ncurves = 4;
-    	int npoints = stats.size();
+    	int npoints = diagnostics.size();
     	double[][] data = PlotGraph.data(ncurves, npoints);
 
-		double errorMean = 0;
+    	double[] real = diagnostics.getRealResponses();
+    	double[] estimated = diagnostics.getEstimatedResponses();
     	for(int i = 0; i < npoints; i++) {
-            double z = (double)rm.transformResponse(stats.getZData().get(i)[1], true);
-            double zEstimated = rm.executeByXStatistic(stats.getXData().get(i));
-            data[0][i] = ( z + zEstimated ) / 2.0;
-            data[1][i] = zEstimated - z;
-            
-            errorMean += data[1][i];
+            data[0][i] = ( real[i] + estimated[i] ) / 2.0;
+            data[1][i] = estimated[i] - real[i];
         }
-    	errorMean = errorMean / npoints;
-    	double errorSd = 0;
-    	for(int i = 0; i < npoints; i++) {
-    		double d = data[1][i] - errorMean;
-    		errorSd += d*d;
-    	}
-   		errorSd = Math.sqrt(errorSd / npoints); //MLE estimation
+    	double[] error = diagnostics.getError();
+    	double errorMean = error[0];
+   		double errorSd = Math.sqrt(error[1]); //MLE estimation
     		
     	// Mean - 1.96sd
     	data[2][0] = 0;
@@ -872,6 +955,71 @@ public abstract class RMAbstract extends ExecutableAlgAbstract implements RM, RM
 	}
 
 
+	/**
+	 * Executing specified regression model with many inputs.
+	 * @param rm specified regression model.
+	 * @param inputs specified inputs.
+	 * @return list of results, each of which is the result of respective input.
+	 * @throws RemoteException if any error raises.
+	 */
+	public static List<Object> executeBatch(RM rm, List<?> inputs) throws RemoteException {
+		List<Object> results = Util.newList(inputs != null ? inputs.size() : 0);
+		if (rm == null || inputs == null) return results;
+		
+		for (Object input : inputs) results.add(rm.execute(input));
+		return results;
+	}
+
+
+	/**
+	 * Executing specified regression model with many X statistics.
+	 * @param rm specified regression model.
+	 * @param xStatistics specified X statistics.
+	 * @return array of estimated responses, each of which is the response of respective X statistic.
+	 * @throws RemoteException if any error raises.
+	 */
+	public static double[] executeByXStatisticBatch(RM rm, List<double[]> xStatistics) throws RemoteException {
+		if (rm == null || xStatistics == null) return new double[0];
+		
+		double[] results = new double[xStatistics.size()];
+		for (int i = 0; i < results.length; i++) results[i] = rm.executeByXStatistic(xStatistics.get(i));
+		return results;
+	}
+
+
+	/**
+	 * Extracting values of regressors from many inputs with specified regression model.
+	 * @param rm specified regression model.
+	 * @param inputs specified inputs.
+	 * @return matrix whose rows are values of regressors of respective inputs.
+	 * @throws RemoteException if any error raises.
+	 */
+	public static double[][] extractRegressorValuesBatch(RM rm, List<?> inputs) throws RemoteException {
+		if (rm == null || inputs == null) return new double[0][];
+		
+		double[][] results = new double[inputs.size()][];
+		for (int i = 0; i < results.length; i++) results[i] = rm.extractRegressorValues(inputs.get(i));
+		return results;
+	}
+
+
+	/**
+	 * Calculating all metrics of specified regression model, which consists of variance, correlations, and mean and variance of errors.
+	 * @param rm specified regression model.
+	 * @param stats specified large statistics.
+	 * @return all metrics of specified regression model. Return null if the large statistics is empty.
+	 * @throws RemoteException if any error raises.
+	 */
+	public static RMMetrics calcMetrics(RM rm, LargeStatistics stats) throws RemoteException {
+		if (rm == null || stats == null || stats.size() == 0) return null;
+		
+		double[] rs = new double[stats.getXData().get(0).length];
+		for (int index = 0; index < rs.length; index++) rs[index] = rm.calcR(index);
+		
+		return new RMMetrics(rm.calcVariance(), rm.calcR(), rm.calcError(), rs);
+	}
+
+
 	/**
 	 * Saving large statistics at specified URI.
 	 * @param rm specified regression model.
@@ -1102,4 +1250,11 @@ public abstract class RMAbstract extends ExecutableAlgAbstract implements RM, RM
 	}
 
 
+	@Override
+	public void fireSetupEvent(SetupAlgEvent evt) throws RemoteException {
+		if (eventDispatcher == null) eventDispatcher = new SetupEventDispatcher();
+		eventDispatcher.dispatch(getSetupListeners(), evt);
+	}
+
+
 }
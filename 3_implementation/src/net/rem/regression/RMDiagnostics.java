@@ -0,0 +1,421 @@
+/**
+ * SIM: MACHINE LEARNING ALGORITHMS FRAMEWORK
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression;
+
+import java.io.Serializable;
+import java.rmi.RemoteException;
+import java.util.List;
+
+import net.hudup.core.Constants;
+import net.hudup.core.Util;
+
+/**
+ * This class represents diagnostics of a regression model over large statistics, which are calculated in one pass.
+ * Every row is scored only once and then variance, correlations, mean and variance of errors, and graph series of real and estimated responses are accumulated together.
+ * Correlations, mean and variance are accumulated by the numerically stable updating formulas so that data are not scanned again.
+ * Regression models cache diagnostics with their parameter and large statistics so that diagnostics are re-calculated only when models are re-trained.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class RMDiagnostics implements Serializable {
+
+
+	/**
+	 * Serial version UID for serializable class.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Number of accumulated rows.
+	 */
+	protected int count = 0;
+
+
+	/**
+	 * Real responses which are transformed, used as graph series.
+	 */
+	protected double[] realResponses = null;
+
+
+	/**
+	 * Estimated responses, used as graph series.
+	 */
+	protected double[] estimatedResponses = null;
+
+
+	/**
+	 * Sum of squared errors of rows whose real and estimated responses are used.
+	 */
+	protected double squaredErrorSum = 0;
+
+
+	/**
+	 * Number of rows whose real and estimated responses are used.
+	 */
+	protected int usedCount = 0;
+
+
+	/**
+	 * Running mean of estimated responses.
+	 */
+	protected double estimatedMean = 0;
+
+
+	/**
+	 * Running sum of squared deviations of estimated responses.
+	 */
+	protected double estimatedM2 = 0;
+
+
+	/**
+	 * Running mean of real responses.
+	 */
+	protected double realMean = 0;
+
+
+	/**
+	 * Running sum of squared deviations of real responses.
+	 */
+	protected double realM2 = 0;
+
+
+	/**
+	 * Running co-moment of estimated responses and real responses.
+	 */
+	protected double realCoMoment = 0;
+
+
+	/**
+	 * Running means of regressors X = (1, x1, x2,..., x(n-1)).
+	 */
+	protected double[] xMeans = null;
+
+
+	/**
+	 * Running sums of squared deviations of regressors.
+	 */
+	protected double[] xM2s = null;
+
+
+	/**
+	 * Running co-moments of estimated responses and regressors.
+	 */
+	protected double[] xCoMoments = null;
+
+
+	/**
+	 * Running mean of errors.
+	 */
+	protected double errorMean = 0;
+
+
+	/**
+	 * Running sum of squared deviations of errors.
+	 */
+	protected double errorM2 = 0;
+
+
+	/**
+	 * Parameter of the model when diagnostics are calculated. It is not serialized.
+	 */
+	protected transient Object parameterKey = null;
+
+
+	/**
+	 * Large statistics when diagnostics are calculated. It is not serialized.
+	 */
+	protected transient LargeStatistics statsKey = null;
+
+
+	/**
+	 * Flags of configuration of execution when diagnostics are calculated, such as selecting component of mixture model. It is not serialized.
+	 */
+	protected transient int flagsKey = 0;
+
+
+	/**
+	 * Constructor with specified capacity and number of regressors.
+	 * @param capacity number of rows.
+	 * @param n number of regressors including constant 1, which means the length of X = (1, x1, x2,..., x(n-1)).
+	 */
+	public RMDiagnostics(int capacity, int n) {
+		this.realResponses = new double[capacity];
+		this.estimatedResponses = new double[capacity];
+		this.xMeans = new double[n];
+		this.xM2s = new double[n];
+		this.xCoMoments = new double[n];
+	}
+
+
+	/**
+	 * Accumulating a row.
+	 * @param real real response which is transformed.
+	 * @param estimated estimated response.
+	 * @param xVector regressor values X = (1, x1, x2,..., x(n-1)).
+	 */
+	public void add(double real, double estimated, double[] xVector) {
+		if (count < realResponses.length) {
+			realResponses[count] = real;
+			estimatedResponses[count] = estimated;
+		}
+		count++;
+
+		if (Util.isUsed(real) && Util.isUsed(estimated)) {
+			squaredErrorSum += (estimated - real) * (estimated - real);
+			usedCount++;
+		}
+
+		double dEstimated = estimated - estimatedMean;
+		estimatedMean += dEstimated / count;
+		double dEstimated2 = estimated - estimatedMean;
+		estimatedM2 += dEstimated * dEstimated2;
+
+		double dReal = real - realMean;
+		realMean += dReal / count;
+		realM2 += dReal * (real - realMean);
+		realCoMoment += dReal * dEstimated2;
+
+		for (int j = 0; j < xMeans.length && xVector != null && j < xVector.length; j++) {
+			double dx = xVector[j] - xMeans[j];
+			xMeans[j] += dx / count;
+			xM2s[j] += dx * (xVector[j] - xMeans[j]);
+			xCoMoments[j] += dx * dEstimated2;
+		}
+
+		double error = estimated - real;
+		double dError = error - errorMean;
+		errorMean += dError / count;
+		errorM2 += dError * (error - errorMean);
+	}
+
+
+	/**
+	 * Merging other diagnostics calculated over other rows into these diagnostics, as if rows of other diagnostics were accumulated after rows of these diagnostics.
+	 * Means, sums of squared deviations, and co-moments are merged by the pairwise updating formulas so that rows are not scanned again.
+	 * @param other other diagnostics calculated over other rows with the same number of regressors.
+	 */
+	public void merge(RMDiagnostics other) {
+		if (other == null || other.count == 0) return;
+		int size = Math.min(count, realResponses.length), otherSize = Math.min(other.count, other.realResponses.length);
+		realResponses = concat(realResponses, size, other.realResponses, otherSize);
+		estimatedResponses = concat(estimatedResponses, size, other.estimatedResponses, otherSize);
+		squaredErrorSum += other.squaredErrorSum;
+		usedCount += other.usedCount;
+		
+		double n = count + other.count;
+		double factor = (double)count * (double)other.count / n;
+		double dEstimated = other.estimatedMean - estimatedMean;
+		double dReal = other.realMean - realMean;
+		estimatedMean += dEstimated * other.count / n;
+		estimatedM2 += other.estimatedM2 + dEstimated * dEstimated * factor;
+		realMean += dReal * other.count / n;
+		realM2 += other.realM2 + dReal * dReal * factor;
+		realCoMoment += other.realCoMoment + dReal * dEstimated * factor;
+
+		for (int j = 0; j < xMeans.length && j < other.xMeans.length; j++) {
+			double dx = other.xMeans[j] - xMeans[j];
+			xMeans[j] += dx * other.count / n;
+			xM2s[j] += other.xM2s[j] + dx * dx * factor;
+			xCoMoments[j] += other.xCoMoments[j] + dx * dEstimated * factor;
+		}
+
+		double dError = other.errorMean - errorMean;
+		errorMean += dError * other.count / n;
+		errorM2 += other.errorM2 + dError * dError * factor;
+		count += other.count;
+		parameterKey = null;
+		statsKey = null;
+	}
+
+
+	/**
+	 * Concatenating leading parts of two arrays.
+	 * @param a first array.
+	 * @param aSize number of leading values of first array.
+	 * @param b second array.
+	 * @param bSize number of leading values of second array.
+	 * @return concatenated array.
+	 */
+	private static double[] concat(double[] a, int aSize, double[] b, int bSize) {
+		double[] result = new double[aSize + bSize];
+		System.arraycopy(a, 0, result, 0, aSize);
+		System.arraycopy(b, 0, result, aSize, bSize);
+		return result;
+	}
+
+
+	/**
+	 * Getting number of accumulated rows.
+	 * @return number of accumulated rows.
+	 */
+	public int size() {
+		return count;
+	}
+
+
+	/**
+	 * Getting variance which is mean of squared errors.
+	 * @return variance which is mean of squared errors.
+	 */
+	public double getVariance() {
+		return usedCount > 0 ? squaredErrorSum / usedCount : Constants.UNUSED;
+	}
+
+
+	/**
+	 * Getting correlation between estimated response and real response.
+	 * @return correlation between estimated response and real response.
+	 */
+	public double getR() {
+		return corr(estimatedM2, realM2, realCoMoment);
+	}
+
+
+	/**
+	 * Getting correlation between estimated response and real response or real regressor.
+	 * @param index if index < 0, getting the correlation between estimated Z and real Z.
+	 * If index >= 0, getting the correlation between estimated Z and real indexed X; note, X index from 1 because of X = (1, x1, x2,..., x(n-1)).
+	 * @return correlation between estimated response and real response or real regressor.
+	 */
+	public double getR(int index) {
+		if (index < 0)
+			return getR();
+		else if (index < xMeans.length)
+			return corr(estimatedM2, xM2s[index], xCoMoments[index]);
+		else
+			return Constants.UNUSED;
+	}
+
+
+	/**
+	 * Getting mean and variance of errors.
+	 * @return array of mean and variance (MLE estimation) of errors.
+	 */
+	public double[] getError() {
+		if (count == 0)
+			return new double[] {Constants.UNUSED, Constants.UNUSED};
+		else
+			return new double[] {errorMean, errorM2 / count};
+	}
+
+
+	/**
+	 * Getting real responses which are transformed.
+	 * @return real responses which are transformed.
+	 */
+	public double[] getRealResponses() {
+		return realResponses;
+	}
+
+
+	/**
+	 * Getting estimated responses.
+	 * @return estimated responses.
+	 */
+	public double[] getEstimatedResponses() {
+		return estimatedResponses;
+	}
+
+
+	/**
+	 * Converting these diagnostics into metrics.
+	 * @return metrics from these diagnostics.
+	 */
+	public RMMetrics toMetrics() {
+		double[] rs = new double[xMeans.length];
+		for (int index = 0; index < rs.length; index++) rs[index] = getR(index);
+		return new RMMetrics(getVariance(), getR(), getError(), rs);
+	}
+
+
+	/**
+	 * Checking whether these diagnostics were calculated with specified parameter and large statistics.
+	 * @param parameter specified parameter.
+	 * @param stats specified large statistics.
+	 * @return whether these diagnostics were calculated with specified parameter and large statistics.
+	 */
+	public boolean isCalculatedWith(Object parameter, LargeStatistics stats) {
+		return isCalculatedWith(parameter, stats, 0);
+	}
+
+
+	/**
+	 * Checking whether these diagnostics were calculated with specified parameter, large statistics, and flags of configuration of execution.
+	 * @param parameter specified parameter.
+	 * @param stats specified large statistics.
+	 * @param flags flags of configuration of execution.
+	 * @return whether these diagnostics were calculated with specified parameter, large statistics, and flags of configuration of execution.
+	 */
+	public boolean isCalculatedWith(Object parameter, LargeStatistics stats, int flags) {
+		return parameterKey != null && parameterKey == parameter && statsKey == stats && flagsKey == flags;
+	}
+
+
+	/**
+	 * Calculating correlation from sums of squared deviations and co-moment.
+	 * @param m2a sum of squared deviations of first variable.
+	 * @param m2b sum of squared deviations of second variable.
+	 * @param coMoment co-moment of both variables.
+	 * @return correlation from sums of squared deviations and co-moment.
+	 */
+	private static double corr(double m2a, double m2b, double coMoment) {
+		if (m2a == 0 || m2b == 0)
+			return Constants.UNUSED;
+		else
+			return coMoment / Math.sqrt(m2a * m2b);
+	}
+
+
+	/**
+	 * Calculating diagnostics of specified regression model over specified large statistics.
+	 * All rows are scored by one batch call of the model.
+	 * @param rm specified regression model.
+	 * @param stats specified large statistics.
+	 * @return diagnostics of specified regression model over specified large statistics. Return null if the model or large statistics is null.
+	 * @throws RemoteException if any error raises.
+	 */
+	public static RMDiagnostics calc(RM rm, LargeStatistics stats) throws RemoteException {
+		return calc(rm, stats, 0);
+	}
+
+
+	/**
+	 * Calculating diagnostics of specified regression model over specified large statistics with specified flags of configuration of execution.
+	 * The flags are kept so that diagnostics are calculated again when configuration of execution is changed.
+	 * @param rm specified regression model.
+	 * @param stats specified large statistics.
+	 * @param flags flags of configuration of execution.
+	 * @return diagnostics of specified regression model over specified large statistics. Return null if the model or large statistics is null.
+	 * @throws RemoteException if any error raises.
+	 */
+	public static RMDiagnostics calc(RM rm, LargeStatistics stats, int flags) throws RemoteException {
+		if (rm == null || stats == null) return null;
+
+		List<double[]> xData = stats.getXData();
+		List<double[]> zData = stats.getZData();
+		int N = stats.size();
+		RMDiagnostics diagnostics = new RMDiagnostics(N, N > 0 ? xData.get(0).length : 0);
+		diagnostics.parameterKey = rm.getParameter();
+		diagnostics.statsKey = stats;
+		diagnostics.flagsKey = flags;
+		if (N == 0) return diagnostics;
+
+		double[] estimated = rm.executeByXStatisticBatch(xData);
+		for (int i = 0; i < N; i++) {
+			double real = (double)rm.transformResponse(zData.get(i)[1], true);
+			diagnostics.add(real, estimated[i], xData.get(i));
+		}
+
+		return diagnostics;
+	}
+
+
+}
@@ -0,0 +1,123 @@
+/**
+ * SIM: MACHINE LEARNING ALGORITHMS FRAMEWORK
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression;
+
+import java.io.Serializable;
+
+import net.hudup.core.Constants;
+
+/**
+ * This class contains all metrics of a regression model so that they are transferred at once, for example, from remote model to client.
+ * Metrics are variance, correlation between real response and estimated response, error mean and error variance, and correlations between real regressors and estimated response.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class RMMetrics implements Serializable {
+
+
+	/**
+	 * Serial version UID for serializable class.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Variance of estimated response.
+	 */
+	protected double variance = Constants.UNUSED;
+
+
+	/**
+	 * Correlation between real response and estimated response.
+	 */
+	protected double r = Constants.UNUSED;
+
+
+	/**
+	 * Error mean and error variance.
+	 */
+	protected double[] error = null;
+
+
+	/**
+	 * Correlations between real regressors and estimated response. The i-th element is the correlation for the i-th element of X statistic.
+	 */
+	protected double[] rs = null;
+
+
+	/**
+	 * Constructor with specified metrics.
+	 * @param variance variance of estimated response.
+	 * @param r correlation between real response and estimated response.
+	 * @param error error mean and error variance.
+	 * @param rs correlations between real regressors and estimated response.
+	 */
+	public RMMetrics(double variance, double r, double[] error, double[] rs) {
+		this.variance = variance;
+		this.r = r;
+		this.error = error;
+		this.rs = rs;
+	}
+
+
+	/**
+	 * Getting variance of estimated response.
+	 * @return variance of estimated response.
+	 */
+	public double getVariance() {
+		return variance;
+	}
+
+
+	/**
+	 * Getting correlation between real response and estimated response.
+	 * @return correlation between real response and estimated response.
+	 */
+	public double getR() {
+		return r;
+	}
+
+
+	/**
+	 * Getting correlation with real response or real regressor and estimated response.
+	 * @param index if index < 0, getting the correlation between estimated Z and real Z.
+	 * If index >= 0, getting the correlation between real indexed X and estimated Z; note, X index from 1 because of X = (1, x1, x2,..., x(n-1)).
+	 * @return correlation with real response or real regressor and estimated response. Return {@link Constants#UNUSED} if the index is out of range.
+	 */
+	public double getR(int index) {
+		if (index < 0)
+			return r;
+		else if (rs != null && index < rs.length)
+			return rs[index];
+		else
+			return Constants.UNUSED;
+	}
+
+
+	/**
+	 * Checking whether correlation of specified index is available.
+	 * @param index specified index.
+	 * @return whether correlation of specified index is available.
+	 */
+	public boolean hasR(int index) {
+		return index < 0 || (rs != null && index < rs.length);
+	}
+
+
+	/**
+	 * Getting error mean and error variance.
+	 * @return error mean and error variance.
+	 */
+	public double[] getError() {
+		return error;
+	}
+
+
+}
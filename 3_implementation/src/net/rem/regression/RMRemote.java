@@ -113,4 +113,24 @@ public interface RMRemote extends RMRemoteTask, ExecutableAlgRemote {
     boolean saveLargeStatistics(xURI uri, int decimal) throws RemoteException;
 
 
+	@Override
+	List<Object> executeBatch(List<?> inputs) throws RemoteException;
+
+
+	@Override
+	double[] executeByXStatisticBatch(List<double[]> xStatistics) throws RemoteException;
+
+
+	@Override
+	double[][] extractRegressorValuesBatch(List<?> inputs) throws RemoteException;
+
+
+	@Override
+	RMMetrics calcMetrics() throws RemoteException;
+
+
+	@Override
+	long getModelVersion() throws RemoteException;
+
+
 }
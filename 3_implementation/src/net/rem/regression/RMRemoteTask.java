@@ -246,4 +246,48 @@ public interface RMRemoteTask extends ExecutableAlgRemoteTask, Transformer {
     boolean saveLargeStatistics(xURI uri, int decimal) throws RemoteException;
 
 
+    /**
+     * Executing this model with many inputs at once, which is equivalent to calling {@link #execute(Object)} for each input but requires only one remote call.
+     * @param inputs specified inputs.
+     * @return list of results, each of which is the result of respective input. An element is null if its execution is failed.
+     * @throws RemoteException if any error raises.
+     */
+    List<Object> executeBatch(List<?> inputs) throws RemoteException;
+
+
+    /**
+     * Executing this model with many X statistics at once, which is equivalent to calling {@link #executeByXStatistic(double[])} for each X statistic but requires only one remote call.
+     * @param xStatistics specified X statistics.
+     * @return array of estimated responses, each of which is the response of respective X statistic.
+     * @throws RemoteException if any error raises.
+     */
+    double[] executeByXStatisticBatch(List<double[]> xStatistics) throws RemoteException;
+
+
+    /**
+     * Extracting values of regressors from many inputs at once, which is equivalent to calling {@link #extractRegressorValues(Object)} for each input but requires only one remote call.
+     * @param inputs specified inputs.
+     * @return matrix whose rows are values of regressors of respective inputs.
+     * @throws RemoteException if any error raises.
+     */
+    double[][] extractRegressorValuesBatch(List<?> inputs) throws RemoteException;
+
+
+    /**
+     * Calculating all metrics at once, which consists of variance, correlations, and mean and variance of errors.
+     * @return all metrics of this model. Return null if this model is not learned yet.
+     * @throws RemoteException if any error raises.
+     */
+    RMMetrics calcMetrics() throws RemoteException;
+
+
+    /**
+     * Getting version of the learned model, which changes whenever this model is set up again or unset up.
+     * Clients use the version to know whether results fetched from this model, such as metrics, are still valid.
+     * @return version of the learned model, which is only meaningful for comparing with other versions of this model.
+     * @throws RemoteException if any error raises.
+     */
+    long getModelVersion() throws RemoteException;
+
+
 }
@@ -8,12 +8,17 @@
 package net.rem.regression;
 
 import java.rmi.RemoteException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
+import net.hudup.core.Util;
 import net.hudup.core.alg.ExecutableAlgRemoteWrapper;
 import net.hudup.core.data.AttributeList;
 import net.hudup.core.data.DataConfig;
+import net.hudup.core.data.Profile;
 import net.hudup.core.logistic.BaseClass;
+import net.hudup.core.logistic.DSUtil;
 import net.hudup.core.logistic.Inspector;
 import net.hudup.core.logistic.LogUtil;
 import net.hudup.core.logistic.xURI;
@@ -24,6 +29,15 @@ import net.rem.regression.ui.graph.Graph;
  * In fact, RMI mechanism has some troubles or it it affect negatively good architecture.
  * For usage, an algorithm as REM will has a pair: REM stub (remote regression algorithm) and REM wrapper (normal regression algorithm).
  * The server creates REM stub (remote regression algorithm) and the client creates and uses the REM wrapper as normal regression algorithm.
+ * <br>
+ * Because every method call is a network round trip, the wrapper caches results automatically. Large statistics, metrics, variance, and correlations are cached
+ * together with the version of the remote model given by {@link #getModelVersion()}. The version is checked once per short time window given by the system property
+ * <code>rem.remote.batch.ttl</code> in milliseconds (default 1000, non-positive value turns all caching off), so that a cache hit costs no round trip
+ * and results are fetched again within one time window after the remote model is learned again by other clients.
+ * Variance and correlation of the model are fetched one by one, so that a single one of them does not cost the calculation of all metrics.
+ * The first correlation of a regressor fetches all metrics at once, so that a loop over correlations of regressors costs one round trip.
+ * Values of all regressors of the last input are fetched at once so that extracting regressors one by one costs one round trip; they live in the same time window.
+ * Cached results are invalidated when learning starts or configuration changes through this wrapper. Batch methods such as {@link #executeBatch(List)} are forwarded as single calls.
  * 
  * @author Loc Nguyen
  * @version 1.0
@@ -39,6 +53,90 @@ public class RMRemoteWrapper extends ExecutableAlgRemoteWrapper implements RM, R
 	private static final long serialVersionUID = 1L;
 
 	
+	/**
+	 * Default time window of cached regressor values in milliseconds.
+	 */
+	public final static long BATCH_TTL_DEFAULT = 1000;
+	
+	
+	/**
+	 * Time window of cached regressor values in milliseconds. Non-positive value turns caching off.
+	 */
+	public final static long BATCH_TTL = Long.getLong("rem.remote.batch.ttl", BATCH_TTL_DEFAULT);
+	
+	
+	/**
+	 * Time stamp at which cached regressor values start.
+	 */
+	protected transient long cacheTime = 0;
+	
+	
+	/**
+	 * Version of remote model whose results are cached. It is null if no result is cached.
+	 */
+	protected transient Long cachedVersion = null;
+	
+	
+	/**
+	 * Time stamp at which the version of remote model was checked.
+	 */
+	protected transient long versionTime = 0;
+	
+	
+	/**
+	 * Flag to indicate whether large statistics are cached, which may be null.
+	 */
+	protected transient boolean statsCached = false;
+	
+	
+	/**
+	 * Cached large statistics.
+	 */
+	protected transient LargeStatistics cachedStats = null;
+	
+	
+	/**
+	 * Flag to indicate whether metrics are cached, which may be null.
+	 */
+	protected transient boolean metricsCached = false;
+	
+	
+	/**
+	 * Cached metrics.
+	 */
+	protected transient RMMetrics cachedMetrics = null;
+	
+	
+	/**
+	 * Cached variance. It is null if variance is not cached.
+	 */
+	protected transient Double cachedVariance = null;
+	
+	
+	/**
+	 * Cached correlation of the model. It is null if the correlation is not cached.
+	 */
+	protected transient Double cachedR = null;
+	
+	
+	/**
+	 * Cached correlations of regressors, each of which is indexed by index of regressor.
+	 */
+	protected transient Map<Integer, Double> cachedRs = null;
+	
+	
+	/**
+	 * Snapshot of the input whose regressor values are cached.
+	 */
+	protected transient Object[] cachedInput = null;
+	
+	
+	/**
+	 * Cached regressor values of the last input.
+	 */
+	protected transient double[] cachedRegressorValues = null;
+	
+	
 	/**
 	 * Constructor with specified remote regression model.
 	 * @param remoteRM specified remote regression model.
@@ -70,6 +168,95 @@ public class RMRemoteWrapper extends ExecutableAlgRemoteWrapper implements RM, R
 	}
 
 	
+	/**
+	 * Invalidating cached results so that next calls fetch results from remote model again.
+	 */
+	public synchronized void invalidate() {
+		cacheTime = System.currentTimeMillis();
+		cachedVersion = null;
+		statsCached = false;
+		cachedStats = null;
+		metricsCached = false;
+		cachedMetrics = null;
+		cachedVariance = null;
+		cachedR = null;
+		cachedRs = null;
+		cachedInput = null;
+		cachedRegressorValues = null;
+	}
+	
+	
+	/**
+	 * Checking whether caching is enabled. The version of remote model is checked when no result is cached or the time window of the last check is over,
+	 * and cached results of older version of remote model are invalidated.
+	 * @return whether caching is enabled.
+	 * @throws RemoteException if any error raises.
+	 */
+	private synchronized boolean isCaching() throws RemoteException {
+		if (BATCH_TTL <= 0) return false;
+		long now = System.currentTimeMillis();
+		if (cachedVersion != null && now - versionTime <= BATCH_TTL) return true;
+		
+		long version = ((RMRemote)remoteAlg).getModelVersion();
+		if (cachedVersion == null || cachedVersion.longValue() != version) {
+			invalidate();
+			cachedVersion = version;
+		}
+		versionTime = now;
+		return true;
+	}
+	
+	
+	/**
+	 * Checking whether caching regressor values is enabled, which also invalidates cached regressor values whose time window is over.
+	 * @return whether caching regressor values is enabled.
+	 */
+	private synchronized boolean isCachingRegressorValues() {
+		if (BATCH_TTL <= 0) return false;
+		if (System.currentTimeMillis() - cacheTime > BATCH_TTL) {
+			cacheTime = System.currentTimeMillis();
+			cachedInput = null;
+			cachedRegressorValues = null;
+		}
+		return true;
+	}
+	
+	
+	
+	
+	/**
+	 * Taking snapshot of input so that a mutated input is not mistaken for cached one.
+	 * @param input specified input.
+	 * @return snapshot of input.
+	 */
+	private static Object[] snapshot(Object input) {
+		if (input == null)
+			return null;
+		else if (input instanceof Profile) {
+			Profile profile = (Profile)input;
+			Object[] values = new Object[profile.getAttCount()];
+			for (int i = 0; i < values.length; i++) values[i] = profile.getValue(i);
+			return values;
+		}
+		else
+			return DSUtil.toDoubleList(input, false).toArray();
+	}
+
+
+	@Override
+	public Object learnStart(Object... info) throws RemoteException {
+		invalidate();
+		return super.learnStart(info);
+	}
+
+
+	@Override
+	public void putConfig(DataConfig config) throws RemoteException {
+		invalidate();
+		super.putConfig(config);
+	}
+
+
 	@Override
 	public Object extractResponseValue(Object input) throws RemoteException {
 		return ((RMRemote)remoteAlg).extractResponseValue(input);
@@ -77,8 +264,15 @@ public class RMRemoteWrapper extends ExecutableAlgRemoteWrapper implements RM, R
 
 	
 	@Override
-	public LargeStatistics getLargeStatistics() throws RemoteException {
-		return ((RMRemote)remoteAlg).getLargeStatistics();
+	public synchronized LargeStatistics getLargeStatistics() throws RemoteException {
+		if (!isCaching())
+			return ((RMRemote)remoteAlg).getLargeStatistics();
+		
+		if (!statsCached) {
+			cachedStats = ((RMRemote)remoteAlg).getLargeStatistics();
+			statsCached = true;
+		}
+		return cachedStats;
 	}
 
 	
@@ -126,7 +320,22 @@ public class RMRemoteWrapper extends ExecutableAlgRemoteWrapper implements RM, R
 	
 	@Override
 	public double extractRegressorValue(Object input, int index) throws RemoteException {
-		return ((RMRemote)remoteAlg).extractRegressorValue(input, index);
+		double[] values = null;
+		synchronized (this) {
+			if (isCachingRegressorValues() && input != null) {
+				Object[] snapshot = snapshot(input);
+				if (cachedRegressorValues == null || !Arrays.equals(cachedInput, snapshot)) {
+					cachedRegressorValues = ((RMRemote)remoteAlg).extractRegressorValues(input);
+					cachedInput = snapshot;
+				}
+				values = cachedRegressorValues;
+			}
+		}
+		
+		if (values != null && index >= 0 && index < values.length)
+			return values[index];
+		else
+			return ((RMRemote)remoteAlg).extractRegressorValue(input, index);
 	}
 
 	
@@ -173,26 +382,57 @@ public class RMRemoteWrapper extends ExecutableAlgRemoteWrapper implements RM, R
 
 	
 	@Override
-	public double calcVariance() throws RemoteException {
-		return ((RMRemote)remoteAlg).calcVariance();
+	public synchronized double calcVariance() throws RemoteException {
+		if (!isCaching())
+			return ((RMRemote)remoteAlg).calcVariance();
+		else if (cachedMetrics != null)
+			return cachedMetrics.getVariance();
+		
+		if (cachedVariance == null) cachedVariance = ((RMRemote)remoteAlg).calcVariance();
+		return cachedVariance;
 	}
 
 	
 	@Override
-	public double calcR() throws RemoteException {
-		return ((RMRemote)remoteAlg).calcR();
+	public synchronized double calcR() throws RemoteException {
+		if (!isCaching())
+			return ((RMRemote)remoteAlg).calcR();
+		else if (cachedMetrics != null)
+			return cachedMetrics.getR();
+		
+		if (cachedR == null) cachedR = ((RMRemote)remoteAlg).calcR();
+		return cachedR;
 	}
 
 	
+	/**
+	 * The first call fetches all metrics at once and later calls take correlations from the cached metrics.
+	 */
 	@Override
-	public double calcR(int index) throws RemoteException {
-		return ((RMRemote)remoteAlg).calcR(index);
+	public synchronized double calcR(int index) throws RemoteException {
+		if (!isCaching())
+			return ((RMRemote)remoteAlg).calcR(index);
+		
+		RMMetrics metrics = calcMetrics();
+		if (metrics != null && metrics.hasR(index))
+			return metrics.getR(index);
+		
+		if (cachedRs == null) cachedRs = Util.newMap();
+		Double r = cachedRs.get(index);
+		if (r == null) {
+			r = ((RMRemote)remoteAlg).calcR(index);
+			cachedRs.put(index, r);
+		}
+		return r;
 	}
 
 
 	@Override
-	public double[] calcError() throws RemoteException {
-		return ((RMRemote)remoteAlg).calcError();
+	public synchronized double[] calcError() throws RemoteException {
+		if (isCaching() && cachedMetrics != null && cachedMetrics.getError() != null)
+			return Arrays.copyOf(cachedMetrics.getError(), cachedMetrics.getError().length);
+		else
+			return ((RMRemote)remoteAlg).calcError();
 	}
 
 	
@@ -201,6 +441,43 @@ public class RMRemoteWrapper extends ExecutableAlgRemoteWrapper implements RM, R
 		return ((RMRemote)remoteAlg).saveLargeStatistics(uri, decimal);
 	}
 
+
+	@Override
+	public List<Object> executeBatch(List<?> inputs) throws RemoteException {
+		return ((RMRemote)remoteAlg).executeBatch(inputs);
+	}
+
+
+	@Override
+	public double[] executeByXStatisticBatch(List<double[]> xStatistics) throws RemoteException {
+		return ((RMRemote)remoteAlg).executeByXStatisticBatch(xStatistics);
+	}
+
+
+	@Override
+	public double[][] extractRegressorValuesBatch(List<?> inputs) throws RemoteException {
+		return ((RMRemote)remoteAlg).extractRegressorValuesBatch(inputs);
+	}
+
+
+	@Override
+	public synchronized RMMetrics calcMetrics() throws RemoteException {
+		if (!isCaching())
+			return ((RMRemote)remoteAlg).calcMetrics();
+		
+		if (!metricsCached) {
+			cachedMetrics = ((RMRemote)remoteAlg).calcMetrics();
+			metricsCached = true;
+		}
+		return cachedMetrics;
+	}
+
+
+	@Override
+	public long getModelVersion() throws RemoteException {
+		return ((RMRemote)remoteAlg).getModelVersion();
+	}
+
 	
 	@Override
 	public DataConfig createDefaultConfig() {
@@ -0,0 +1,427 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.math3.special.Erf;
+
+import net.hudup.core.Util;
+import net.hudup.core.logistic.LogUtil;
+
+/**
+ * This class generates large regressive data of mixture of linear regression models with Gaussian noise and streams it directly to the text sample format,
+ * whose first line is header such as <code>x1~real,x2~real,z~real</code> and other lines are comma-separated values. Missing value is empty.
+ * Regressors x1, x2,..., xn are uniform in [0, 1]. For every row, a component k is drawn by its probability and z = alpha0 + alpha1*x1 + ... + alphan*xn + e where e ~ N(0, variance k).
+ * Values are missing at random (MAR) with a fixed rate, and missing not at random (MNAR) with probability increasing with the unobserved value itself.
+ * Rows are generated in blocks by parallel threads. Every block has its own random generator split from the seed, and blocks are written in order,
+ * so that the output is identical for the same seed regardless of the number of threads.
+ * <br>
+ * Following is a code snippet to generate 10 million rows of 2-component mixture of 3 regressors:<br>
+ * <br>
+ * <code>
+ * RegressiveDataGenerator generator = RegressiveDataGenerator.createRandom(3, 2, 0.01, 1);<br>
+ * generator.setMissingRates(0.1, 0.05);<br>
+ * generator.generate(new File("hdp_sample.base"), 10000000L);<br>
+ * </code>
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class RegressiveDataGenerator {
+
+
+	/**
+	 * Default number of rows in a block.
+	 */
+	public final static int BLOCK_SIZE = 65536;
+
+
+	/**
+	 * Default number of decimal digits.
+	 */
+	public final static int DECIMAL = 6;
+
+
+	/**
+	 * Regression coefficients of components. Each coefficient array is (alpha0, alpha1,..., alphan).
+	 */
+	protected List<double[]> alphas = Util.newList();
+
+
+	/**
+	 * Cumulative probabilities of components.
+	 */
+	protected double[] cumProbs = new double[0];
+
+
+	/**
+	 * Standard deviations of noise of components.
+	 */
+	protected double[] sds = new double[0];
+
+
+	/**
+	 * Rate of missing at random of every value.
+	 */
+	protected double marRate = 0;
+
+
+	/**
+	 * Average rate of missing not at random of every value.
+	 */
+	protected double mnarRate = 0;
+
+
+	/**
+	 * Seed.
+	 */
+	protected long seed = 0;
+
+
+	/**
+	 * Number of threads.
+	 */
+	protected int threadNumber = Runtime.getRuntime().availableProcessors();
+
+
+	/**
+	 * Number of rows in a block.
+	 */
+	protected int blockSize = BLOCK_SIZE;
+
+
+	/**
+	 * Number of decimal digits. If it is not positive, values are written in full precision.
+	 */
+	protected int decimal = DECIMAL;
+
+
+	/**
+	 * Constructor with specified regression coefficients, probabilities, and variances of components.
+	 * @param alphas regression coefficients of components. Each coefficient array is (alpha0, alpha1,..., alphan) and all arrays have the same length.
+	 * @param probs probabilities of components.
+	 * @param variances variances of noise of components.
+	 * @param seed seed.
+	 */
+	public RegressiveDataGenerator(List<double[]> alphas, List<Double> probs, List<Double> variances, long seed) {
+		if (alphas.size() == 0 || alphas.size() != probs.size() || alphas.size() != variances.size())
+			throw new IllegalArgumentException("Numbers of coefficients, probabilities, and variances are not the same");
+		int n = alphas.get(0).length;
+		for (double[] alpha : alphas) {
+			if (alpha.length != n || n < 2)
+				throw new IllegalArgumentException("Invalid regression coefficients");
+		}
+
+		this.alphas.addAll(alphas);
+		int K = alphas.size();
+		double sum = 0;
+		for (double prob : probs) sum += prob;
+		this.cumProbs = new double[K];
+		this.sds = new double[K];
+		double cum = 0;
+		for (int k = 0; k < K; k++) {
+			cum += probs.get(k) / sum;
+			this.cumProbs[k] = cum;
+			this.sds[k] = Math.sqrt(variances.get(k));
+		}
+		this.cumProbs[K - 1] = 1;
+		this.seed = seed;
+	}
+
+
+	/**
+	 * Creating generator with random regression coefficients in [-1, 1], uniform probabilities, and the same noise variance for all components.
+	 * @param regressorNumber number of regressors.
+	 * @param componentNumber number of components.
+	 * @param variance variance of noise.
+	 * @param seed seed.
+	 * @return generator with random regression coefficients.
+	 */
+	public static RegressiveDataGenerator createRandom(int regressorNumber, int componentNumber, double variance, long seed) {
+		SplittableRandom rnd = new SplittableRandom(seed);
+		List<double[]> alphas = Util.newList(componentNumber);
+		List<Double> probs = Util.newList(componentNumber);
+		List<Double> variances = Util.newList(componentNumber);
+		for (int k = 0; k < componentNumber; k++) {
+			double[] alpha = new double[regressorNumber + 1];
+			for (int j = 0; j < alpha.length; j++) alpha[j] = 2 * rnd.nextDouble() - 1;
+			alphas.add(alpha);
+			probs.add(1.0 / componentNumber);
+			variances.add(variance);
+		}
+
+		return new RegressiveDataGenerator(alphas, probs, variances, seed);
+	}
+
+
+	/**
+	 * Setting missing rates.
+	 * @param marRate rate of missing at random of every value.
+	 * @param mnarRate average rate of missing not at random of every value.
+	 */
+	public void setMissingRates(double marRate, double mnarRate) {
+		this.marRate = Math.max(0, Math.min(1, marRate));
+		this.mnarRate = Math.max(0, Math.min(0.5, mnarRate));
+	}
+
+
+	/**
+	 * Setting number of threads.
+	 * @param threadNumber number of threads.
+	 */
+	public void setThreadNumber(int threadNumber) {
+		this.threadNumber = Math.max(1, threadNumber);
+	}
+
+
+	/**
+	 * Setting number of rows in a block.
+	 * @param blockSize number of rows in a block.
+	 */
+	public void setBlockSize(int blockSize) {
+		this.blockSize = blockSize > 0 ? blockSize : BLOCK_SIZE;
+	}
+
+
+	/**
+	 * Setting number of decimal digits.
+	 * @param decimal number of decimal digits. If it is not positive, values are written in full precision.
+	 */
+	public void setDecimal(int decimal) {
+		this.decimal = decimal;
+	}
+
+
+	/**
+	 * Getting number of regressors.
+	 * @return number of regressors.
+	 */
+	public int getRegressorNumber() {
+		return alphas.get(0).length - 1;
+	}
+
+
+	/**
+	 * Getting regression coefficients of components, which are true parameters to compare with estimated ones.
+	 * @return regression coefficients of components.
+	 */
+	public List<double[]> getAlphas() {
+		return alphas;
+	}
+
+
+	/**
+	 * Generating data to specified file.
+	 * @param file specified file.
+	 * @param size number of rows.
+	 * @return number of generated rows.
+	 * @throws IOException if any error raises.
+	 */
+	public long generate(File file, long size) throws IOException {
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 20)) {
+			return generate(out, size);
+		}
+	}
+
+
+	/**
+	 * Generating data to specified output stream. The stream is not closed.
+	 * @param out specified output stream.
+	 * @param size number of rows.
+	 * @return number of generated rows.
+	 * @throws IOException if any error raises.
+	 */
+	public long generate(OutputStream out, long size) throws IOException {
+		StringBuilder header = new StringBuilder();
+		for (int j = 1; j <= getRegressorNumber(); j++) header.append("x" + j + "~real,");
+		header.append("z~real");
+		out.write(header.toString().getBytes(StandardCharsets.US_ASCII));
+
+		long blocks = (size + blockSize - 1) / blockSize;
+		ExecutorService executor = Executors.newFixedThreadPool(threadNumber);
+		Deque<Future<byte[]>> window = new ArrayDeque<>();
+		try {
+			for (long b = 0; b < blocks; b++) {
+				final long block = b;
+				final int rows = (int)Math.min(blockSize, size - b * blockSize);
+				window.add(executor.submit(new Callable<byte[]>() {
+					@Override
+					public byte[] call() throws Exception {
+						return generateBlock(block, rows);
+					}
+				}));
+
+				//Bounded window keeps memory constant for very large outputs.
+				if (window.size() >= 2 * threadNumber) out.write(window.poll().get());
+			}
+			while (!window.isEmpty()) out.write(window.poll().get());
+		}
+		catch (IOException e) {
+			throw e;
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			throw new IOException(e);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		return Math.max(0, size);
+	}
+
+
+	/**
+	 * Generating a block of rows as text. Every row begins with new line.
+	 * @param block block index.
+	 * @param rows number of rows.
+	 * @return text of block as bytes.
+	 */
+	protected byte[] generateBlock(long block, int rows) {
+		SplittableRandom rnd = new SplittableRandom(mix(seed + block * 0x9E3779B97F4A7C15L));
+		int n = getRegressorNumber();
+		double[] x = new double[n + 1];
+		x[0] = 1;
+		StringBuilder buffer = new StringBuilder(rows * (n + 1) * (decimal > 0 ? decimal + 6 : 20));
+		for (int i = 0; i < rows; i++) {
+			double u = rnd.nextDouble();
+			int k = 0;
+			while (k < cumProbs.length - 1 && u > cumProbs[k]) k++;
+
+			double[] alpha = alphas.get(k);
+			double mean = 0;
+			for (int j = 1; j <= n; j++) x[j] = rnd.nextDouble();
+			for (int j = 0; j <= n; j++) mean += alpha[j] * x[j];
+			double e = nextGaussian(rnd);
+			double z = mean + sds[k] * e;
+
+			buffer.append('\n');
+			for (int j = 1; j <= n; j++) {
+				//The value x is uniform in [0, 1] and so its MNAR probability 2*mnarRate*x has average mnarRate.
+				if (!missing(rnd, 2 * mnarRate * x[j])) append(buffer, x[j]);
+				buffer.append(',');
+			}
+			//The noise e is standard normal and so its MNAR probability 2*mnarRate*Phi(e) has average mnarRate.
+			if (!missing(rnd, 2 * mnarRate * 0.5 * (1 + Erf.erf(e / Math.sqrt(2))))) append(buffer, z);
+		}
+
+		return buffer.toString().getBytes(StandardCharsets.US_ASCII);
+	}
+
+
+	/**
+	 * Testing whether a value is missing. The same number of random values is consumed whatever rates are, which keeps output deterministic.
+	 * @param rnd random generator.
+	 * @param mnarProb probability of missing not at random of the value.
+	 * @return true if the value is missing.
+	 */
+	private boolean missing(SplittableRandom rnd, double mnarProb) {
+		double u1 = rnd.nextDouble(), u2 = rnd.nextDouble();
+		return u1 < marRate || u2 < mnarProb;
+	}
+
+
+	/**
+	 * Appending real value to specified buffer with fixed decimal digits.
+	 * @param buffer specified buffer.
+	 * @param value real value.
+	 */
+	private void append(StringBuilder buffer, double value) {
+		if (decimal <= 0 || decimal > 15 || Math.abs(value) >= 1e12) {
+			buffer.append(value);
+			return;
+		}
+
+		long scale = 1;
+		for (int d = 0; d < decimal; d++) scale *= 10;
+		long scaled = Math.round(Math.abs(value) * scale);
+		if (value < 0 && scaled != 0) buffer.append('-');
+		buffer.append(scaled / scale).append('.');
+		String fraction = Long.toString(scaled % scale);
+		for (int d = fraction.length(); d < decimal; d++) buffer.append('0');
+		buffer.append(fraction);
+	}
+
+
+	/**
+	 * Generating standard Gaussian value by Box-Muller transform so that the result only depends on the random generator.
+	 * @param rnd random generator.
+	 * @return standard Gaussian value.
+	 */
+	private static double nextGaussian(SplittableRandom rnd) {
+		double u1 = 1.0 - rnd.nextDouble(), u2 = rnd.nextDouble();
+		return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+	}
+
+
+	/**
+	 * Mixing bits of specified value (SplitMix64 finalizer) so that seeds of adjacent blocks are not correlated.
+	 * @param value specified value.
+	 * @return mixed value.
+	 */
+	private static long mix(long value) {
+		value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+		value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+		return value ^ (value >>> 31);
+	}
+
+
+	/**
+	 * Main method to generate data from command line.
+	 * @param args arguments <code>-out file -size rows [-regressors n] [-components k] [-variance v] [-mar rate] [-mnar rate] [-seed s] [-threads t] [-decimal d]</code>.
+	 * @throws Exception if any error raises.
+	 */
+	public static void main(String[] args) throws Exception {
+		String out = null;
+		long size = 0, seed = 0;
+		int regressorNumber = 1, componentNumber = 1, threads = Runtime.getRuntime().availableProcessors(), decimal = DECIMAL;
+		double variance = 0.01, mar = 0, mnar = 0;
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			String key = args[i], value = args[i + 1];
+			if (key.equals("-out")) out = value;
+			else if (key.equals("-size")) size = Long.parseLong(value);
+			else if (key.equals("-regressors")) regressorNumber = Integer.parseInt(value);
+			else if (key.equals("-components")) componentNumber = Integer.parseInt(value);
+			else if (key.equals("-variance")) variance = Double.parseDouble(value);
+			else if (key.equals("-mar")) mar = Double.parseDouble(value);
+			else if (key.equals("-mnar")) mnar = Double.parseDouble(value);
+			else if (key.equals("-seed")) seed = Long.parseLong(value);
+			else if (key.equals("-threads")) threads = Integer.parseInt(value);
+			else if (key.equals("-decimal")) decimal = Integer.parseInt(value);
+		}
+		if (out == null || size <= 0) {
+			System.out.println("Usage: RegressiveDataGenerator -out file -size rows [-regressors n] [-components k] [-variance v] [-mar rate] [-mnar rate] [-seed s] [-threads t] [-decimal d]");
+			return;
+		}
+
+		RegressiveDataGenerator generator = createRandom(regressorNumber, componentNumber, variance, seed);
+		generator.setMissingRates(mar, mnar);
+		generator.setThreadNumber(threads);
+		generator.setDecimal(decimal);
+		long time = System.currentTimeMillis();
+		long rows = generator.generate(new File(out), size);
+		System.out.println("Generated " + rows + " rows to " + out + " in " + (System.currentTimeMillis() - time) + " ms");
+	}
+
+
+}
@@ -15,6 +15,7 @@ import java.io.Serializable;
 import java.rmi.RemoteException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import javax.swing.JOptionPane;
 
@@ -42,6 +43,8 @@ import net.rem.regression.LargeStatistics;
 import net.rem.regression.MathAdapter;
 import net.rem.regression.RM;
 import net.rem.regression.RMAbstract;
+import net.rem.regression.RMDiagnostics;
+import net.rem.regression.RMMetrics;
 import net.rem.regression.RMRemote;
 import net.rem.regression.Statistics;
 import net.rem.regression.VarWrapper;
@@ -91,6 +94,19 @@ public abstract class AbstractMixtureREM extends ExponentialEM implements RM, RM
 	protected static final boolean EXECUTE_INCLUDE_ZPROB_DEFAULT = false;
 	
 	
+	/**
+	 * Field of maximum number of cached predictions. If this property is positive, predictions and weights of components are cached for repeated regressor values
+	 * and the least recently used prediction is evicted when the cache is full.
+	 */
+	protected static final String EXECUTE_CACHE_SIZE_FIELD = "mixrem_execute_cache_size";
+	
+	
+	/**
+	 * Default maximum number of cached predictions. Zero turns caching off.
+	 */
+	protected static final int EXECUTE_CACHE_SIZE_DEFAULT = 0;
+	
+	
 	/**
 	 * Field of initialization mode. If this property is true, the mixture model will randomize sample with replacement when initializing parameters.
 	 */
@@ -103,12 +119,54 @@ public abstract class AbstractMixtureREM extends ExponentialEM implements RM, RM
 	protected static final boolean INITIALIZE_GIVEBACK_DEFAULT = false;
 
 	
+	/**
+	 * Field of k-means seeding mode. If this property is true, complete records are clustered by k-means++ in (x, z) space and each component is initialized from its cluster.
+	 */
+	protected static final String INITIALIZE_KMEANS_FIELD = "mixrem_init_kmeans";
+
+	
+	/**
+	 * Default value of k-means seeding mode. If this property is true, complete records are clustered by k-means++ in (x, z) space and each component is initialized from its cluster.
+	 */
+	protected static final boolean INITIALIZE_KMEANS_DEFAULT = false;
+
+	
+	/**
+	 * Field of batch size of k-means seeding. If the number of complete records is larger than this size, mini-batch k-means is used instead of full k-means.
+	 */
+	protected static final String INITIALIZE_KMEANS_BATCH_FIELD = "mixrem_init_kmeans_batch";
+
+	
+	/**
+	 * Default batch size of k-means seeding. If the number of complete records is larger than this size, mini-batch k-means is used instead of full k-means.
+	 */
+	protected static final int INITIALIZE_KMEANS_BATCH_DEFAULT = 1000;
+
+	
+	/**
+	 * Maximum number of iterations of k-means seeding.
+	 */
+	protected static final int KMEANS_MAX_ITERATION = 100;
+
+	
 	/**
 	 * List of internal regression model as parameter.
 	 */
 	protected List<REMImpl> rems = null;
 
 	
+	/**
+	 * Cached diagnostics of this mixture model, which are re-calculated when this model is re-trained.
+	 */
+	protected transient RMDiagnostics diagnostics = null;
+	
+	
+	/**
+	 * Cached predictions and weights of components keyed on regressor values, which are invalidated when this model is re-trained.
+	 */
+	protected transient PredictionCache predictionCache = null;
+	
+	
 	@Override
 	protected Object fetchSample(Dataset dataset) {
 		return dataset != null ? dataset.fetchSample() : null;
@@ -148,15 +206,20 @@ public abstract class AbstractMixtureREM extends ExponentialEM implements RM, RM
 			return null;
 		}
 		
+		if (predictionCache != null) predictionCache.clear(); //Parameters may be adjusted in place.
 		return this.rems;
 	}
 	
 	
 	@Override
-	public synchronized void unsetup() throws RemoteException {
+	public void unsetup() throws RemoteException {
 		super.unsetup();
-		if (this.rems != null) {
-			for (REMImpl rem : this.rems)
+		List<REMImpl> rems;
+		synchronized (this) {
+			rems = this.rems;
+		}
+		if (rems != null) { //Internal models flush their own events, so they are unset up without holding the lock.
+			for (REMImpl rem : rems)
 				rem.unsetup();
 		}
 	}
@@ -206,6 +269,8 @@ public abstract class AbstractMixtureREM extends ExponentialEM implements RM, RM
 			rem.setup(inputSample);
 			if(rem.attList != null) // if rem is set up successfully.
 				this.rems.add(rem);
+			else
+				rem.unsetup();
 		}
 		
 		if (this.rems.size() == 0) {
@@ -256,6 +321,7 @@ public abstract class AbstractMixtureREM extends ExponentialEM implements RM, RM
 		}
 		
 		this.statistics = null;
+		if (this.predictionCache != null) this.predictionCache.clear();
 	}
 
 	
@@ -345,6 +411,55 @@ public abstract class AbstractMixtureREM extends ExponentialEM implements RM, RM
 	}
 
 	
+	/**
+	 * Parameters resumed from checkpoint are distributed to component models like permutation.
+	 */
+	@Override
+	protected void resumeNotify() {
+		super.resumeNotify();
+		permuteNotify();
+	}
+
+	
+	/**
+	 * Signature of mixture model includes signature of its first component, which contains indices of variables.
+	 */
+	@Override
+	protected String getCheckpointSignature() {
+		String signature = super.getCheckpointSignature() + ":" + (this.rems != null ? this.rems.size() : 0);
+		if (this.rems != null && this.rems.size() > 0)
+			signature += ":" + this.rems.get(0).getCheckpointSignature();
+		return signature;
+	}
+
+
+	/**
+	 * Estimation mode changes the maximization step and so it is included in checkpoint signature.
+	 */
+	@Override
+	protected List<String> getCheckpointConfigFields() {
+		List<String> fields = super.getCheckpointConfigFields();
+		fields.add(REMImpl.ESTIMATE_MODE_FIELD);
+		return fields;
+	}
+
+
+	/**
+	 * Warm parameter of mixture model is accepted if it is a list of parameters which are accepted by component models respectively.
+	 */
+	@Override
+	protected boolean acceptWarmParameter(Object parameter) {
+		if (!(parameter instanceof List<?>) || this.rems == null) return false;
+		
+		List<?> parameters = (List<?>)parameter;
+		if (parameters.size() != this.rems.size()) return false;
+		for (int k = 0; k < this.rems.size(); k++) {
+			if (!this.rems.get(k).acceptWarmParameter(parameters.get(k))) return false;
+		}
+		return true;
+	}
+
+	
 	@Override
 	protected void permuteNotify() {
 		super.permuteNotify();
@@ -401,6 +516,162 @@ public abstract class AbstractMixtureREM extends ExponentialEM implements RM, RM
 	}
 
 
+	/**
+	 * Clustering specified complete data in (x, z) space by k-means++ seeding followed by k-means refinement.
+	 * Every dimension is standardized before clustering so that regressors and response have the same scale.
+	 * If the number of records is larger than the batch size, mini-batch k-means is used for refinement.
+	 * @param data specified complete data without missing values.
+	 * @param K the number of clusters.
+	 * @param batchSize batch size. If it is not positive, full k-means is always used.
+	 * @param rnd random generator.
+	 * @return list of K clusters whose records refer to records of specified data. Some clusters can be empty. Return null if clustering is impossible.
+	 */
+	protected static List<LargeStatistics> kmeansClusters(LargeStatistics data, int K, int batchSize, Random rnd) {
+		if (data == null || data.isEmpty() || K <= 0 || data.size() < K) return null;
+		
+		//Building standardized points (x1, x2,..., x(n-1), z).
+		int N = data.size();
+		int n = data.getXData().get(0).length;
+		double[][] points = new double[N][n];
+		for (int i = 0; i < N; i++) {
+			double[] xVector = data.getXData().get(i);
+			for (int j = 1; j < n; j++) points[i][j-1] = xVector[j];
+			points[i][n-1] = data.getZData().get(i)[1];
+		}
+		for (int j = 0; j < n; j++) {
+			double mean = 0, var = 0;
+			for (int i = 0; i < N; i++) mean += points[i][j];
+			mean = mean / N;
+			for (int i = 0; i < N; i++) var += (points[i][j] - mean) * (points[i][j] - mean);
+			double sd = Math.sqrt(var / N);
+			sd = sd > 0 ? sd : 1;
+			for (int i = 0; i < N; i++) points[i][j] = (points[i][j] - mean) / sd;
+		}
+		
+		//Seeding centers by k-means++.
+		double[][] centers = new double[K][];
+		centers[0] = points[rnd.nextInt(N)].clone();
+		double[] dists = new double[N];
+		for (int i = 0; i < N; i++) dists[i] = squaredDistance(points[i], centers[0]);
+		for (int c = 1; c < K; c++) {
+			double sum = 0;
+			for (int i = 0; i < N; i++) sum += dists[i];
+			int selected = N - 1;
+			if (sum > 0) {
+				double r = rnd.nextDouble() * sum;
+				for (int i = 0; i < N; i++) {
+					r -= dists[i];
+					if (r <= 0) {
+						selected = i;
+						break;
+					}
+				}
+			}
+			else
+				selected = rnd.nextInt(N);
+			
+			centers[c] = points[selected].clone();
+			for (int i = 0; i < N; i++) dists[i] = Math.min(dists[i], squaredDistance(points[i], centers[c]));
+		}
+		
+		//Refining centers.
+		int[] assignments = new int[N];
+		if (batchSize <= 0 || N <= batchSize) {
+			Arrays.fill(assignments, -1);
+			for (int iteration = 0; iteration < KMEANS_MAX_ITERATION; iteration++) {
+				boolean changed = false;
+				for (int i = 0; i < N; i++) {
+					int c = nearestCenter(points[i], centers);
+					if (c != assignments[i]) {
+						assignments[i] = c;
+						changed = true;
+					}
+				}
+				if (!changed) break;
+				
+				double[][] sums = new double[K][n];
+				int[] counts = new int[K];
+				for (int i = 0; i < N; i++) {
+					int c = assignments[i];
+					counts[c]++;
+					for (int j = 0; j < n; j++) sums[c][j] += points[i][j];
+				}
+				for (int c = 0; c < K; c++) {
+					if (counts[c] == 0) continue; //Keeping center of empty cluster.
+					for (int j = 0; j < n; j++) centers[c][j] = sums[c][j] / counts[c];
+				}
+			}
+		}
+		else {
+			int[] counts = new int[K];
+			int[] batch = new int[batchSize];
+			int[] batchAssignments = new int[batchSize];
+			for (int iteration = 0; iteration < KMEANS_MAX_ITERATION; iteration++) {
+				for (int b = 0; b < batchSize; b++) {
+					batch[b] = rnd.nextInt(N);
+					batchAssignments[b] = nearestCenter(points[batch[b]], centers);
+				}
+				for (int b = 0; b < batchSize; b++) {
+					int c = batchAssignments[b];
+					counts[c]++;
+					double eta = 1.0 / counts[c];
+					double[] point = points[batch[b]];
+					for (int j = 0; j < n; j++) centers[c][j] = (1 - eta) * centers[c][j] + eta * point[j];
+				}
+			}
+			for (int i = 0; i < N; i++) assignments[i] = nearestCenter(points[i], centers);
+		}
+		
+		List<LargeStatistics> clusters = Util.newList(K);
+		for (int c = 0; c < K; c++) clusters.add(new LargeStatistics(Util.newList(), Util.newList()));
+		for (int i = 0; i < N; i++) {
+			LargeStatistics cluster = clusters.get(assignments[i]);
+			cluster.getXData().add(data.getXData().get(i));
+			cluster.getZData().add(data.getZData().get(i));
+		}
+		
+		return clusters;
+	}
+	
+	
+	/**
+	 * Finding the nearest center of specified point.
+	 * @param point specified point.
+	 * @param centers specified centers.
+	 * @return index of the nearest center of specified point.
+	 */
+	private static int nearestCenter(double[] point, double[][] centers) {
+		int nearest = 0;
+		double minDist = Double.MAX_VALUE;
+		for (int c = 0; c < centers.length; c++) {
+			double dist = squaredDistance(point, centers[c]);
+			if (dist < minDist) {
+				minDist = dist;
+				nearest = c;
+			}
+		}
+		
+		return nearest;
+	}
+	
+	
+	/**
+	 * Calculating squared Euclidean distance between two specified vectors.
+	 * @param a the first vector.
+	 * @param b the second vector.
+	 * @return squared Euclidean distance between two specified vectors.
+	 */
+	private static double squaredDistance(double[] a, double[] b) {
+		double dist = 0;
+		for (int j = 0; j < a.length; j++) {
+			double d = a[j] - b[j];
+			dist += d*d;
+		}
+		
+		return dist;
+	}
+
+
 	@Override
 	protected boolean terminatedCondition(Object estimatedParameter, Object currentParameter, Object previousParameter, Object... info) {
 		if (this.rems == null)
@@ -434,6 +705,40 @@ public abstract class AbstractMixtureREM extends ExponentialEM implements RM, RM
 	}
 
 	
+	/**
+	 * Delta of mixture model is the maximum delta over its components.
+	 */
+	@Override
+	protected double parameterDelta(Object estimatedParameter, Object currentParameter) {
+		if (!(estimatedParameter instanceof List<?>) || !(currentParameter instanceof List<?>))
+			return Constants.UNUSED;
+		List<?> estimatedParameters = (List<?>)estimatedParameter;
+		List<?> currentParameters = (List<?>)currentParameter;
+		if (estimatedParameters.size() != currentParameters.size())
+			return Constants.UNUSED;
+		
+		double delta = Constants.UNUSED;
+		for (int k = 0; k < estimatedParameters.size(); k++) {
+			Object eParameter = estimatedParameters.get(k), cParameter = currentParameters.get(k);
+			if (!(eParameter instanceof ExchangedParameter) || !(cParameter instanceof ExchangedParameter))
+				continue;
+			double kDelta = ((ExchangedParameter)eParameter).delta((ExchangedParameter)cParameter);
+			if (Util.isUsed(kDelta))
+				delta = Util.isUsed(delta) ? Math.max(delta, kDelta) : kDelta;
+		}
+		return delta;
+	}
+
+	
+	@Override
+	protected long imputedRows(Object statistics) {
+		if (rems != null && rems.size() > 0)
+			return rems.get(0).imputedRows(null); //Suppose all REMs have the same internal data.
+		else
+			return -1;
+	}
+
+	
 	@Override
 	public LargeStatistics getLargeStatistics() throws RemoteException {
 		if (rems != null && rems.size() > 0)
@@ -445,13 +750,36 @@ public abstract class AbstractMixtureREM extends ExponentialEM implements RM, RM
 
 	/**
 	 * Re-calculating regression coefficients list of given X statistics. This method is not synchronized because it is called by other methods.
-	 * It is protected in order to be overrided by sub classes.
+	 * Coefficients are taken from prediction cache if caching is on.
 	 * @param xStatistics list of given X statistics.
 	 * @return list of regression coefficients given X statistics.
 	 */
 	protected List<Double> recalcCoeffs(List<double[]> xStatistics) {
 		if (rems == null || rems.size() == 0 || xStatistics == null || xStatistics.size() != rems.size())
 			return null;
+		
+		PredictionCache cache = getPredictionCache();
+		if (cache == null) return recalcCoeffsWithoutCache(xStatistics);
+		
+		PredictionCache.Key key = cache.key(xStatistics);
+		PredictionCache.Entry entry = cache.get(key);
+		if (entry != null) return entry.getCoeffs();
+		
+		List<Double> coeffs = recalcCoeffsWithoutCache(xStatistics);
+		if (coeffs != null) cache.putCoeffs(key, coeffs);
+		return coeffs;
+	}
+	
+	
+	/**
+	 * Re-calculating regression coefficients list of given X statistics without prediction cache. This method is not synchronized because it is called by other methods.
+	 * It is protected in order to be overrided by sub classes.
+	 * @param xStatistics list of given X statistics.
+	 * @return list of regression coefficients given X statistics.
+	 */
+	protected List<Double> recalcCoeffsWithoutCache(List<double[]> xStatistics) {
+		if (rems == null || rems.size() == 0 || xStatistics == null || xStatistics.size() != rems.size())
+			return null;
 
 		List<Double> coeffs = Util.newList(rems.size());
 		double sumCoeff = 0;
@@ -510,7 +838,28 @@ public abstract class AbstractMixtureREM extends ExponentialEM implements RM, RM
 	protected double executeByXStatistic(List<double[]> xStatistics) {
 		if (rems == null || rems.size() == 0 || xStatistics == null || xStatistics.size() != rems.size())
 			return Constants.UNUSED;
-		List<Double> coeffs = recalcCoeffs(xStatistics);
+		
+		PredictionCache cache = getPredictionCache();
+		if (cache == null) return executeByXStatistic(xStatistics, recalcCoeffsWithoutCache(xStatistics));
+		
+		PredictionCache.Key key = cache.key(xStatistics);
+		PredictionCache.Entry entry = cache.get(key);
+		if (entry != null && entry.hasResult()) return entry.getResult();
+		
+		List<Double> coeffs = entry != null ? entry.getCoeffs() : recalcCoeffsWithoutCache(xStatistics);
+		double result = executeByXStatistic(xStatistics, coeffs);
+		if (coeffs != null) cache.put(key, coeffs, result);
+		return result;
+	}
+	
+	
+	/**
+	 * Executing by by list of X statistics and weights of components. This method is not synchronized because it always called by other methods.
+	 * @param xStatistics list of X statistics (regressors). The first element of each X statistics is 1.
+	 * @param coeffs weights of components.
+	 * @return result of execution. Return NaN if execution is failed.
+	 */
+	private double executeByXStatistic(List<double[]> xStatistics, List<Double> coeffs) {
 		if (coeffs == null) return Constants.UNUSED;
 		
 		if (getConfig().getAsBoolean(EXECUTE_SELECT_COMP_FIELD)) {
@@ -550,6 +899,34 @@ public abstract class AbstractMixtureREM extends ExponentialEM implements RM, RM
 	}
 	
 	
+	/**
+	 * Getting prediction cache whose capacity is specified by configuration. The cache is cleared if parameters or configuration of execution are changed.
+	 * This method is not synchronized because it is called by other methods.
+	 * @return prediction cache. Return null if caching is off.
+	 */
+	protected PredictionCache getPredictionCache() {
+		int capacity = getConfig().getAsInt(EXECUTE_CACHE_SIZE_FIELD);
+		if (capacity <= 0) {
+			predictionCache = null;
+			return null;
+		}
+		
+		if (predictionCache == null || predictionCache.getCapacity() != capacity)
+			predictionCache = new PredictionCache(capacity);
+		predictionCache.validate(getEstimatedParameter(), getExecuteFlags());
+		return predictionCache;
+	}
+	
+	
+	/**
+	 * Getting flags of configuration of execution, which change results of execution with the same parameters.
+	 * @return flags of configuration of execution.
+	 */
+	protected int getExecuteFlags() {
+		return (getConfig().getAsBoolean(EXECUTE_INCLUDE_ZPROB_FIELD) ? 1 : 0) | (getConfig().getAsBoolean(EXECUTE_SELECT_COMP_FIELD) ? 2 : 0);
+	}
+	
+	
 	@Override
 	public synchronized double executeByXStatistic(double[] xStatistic) throws RemoteException {
 		if (this.rems == null || this.rems.size() == 0 || xStatistic == null)
@@ -649,6 +1026,7 @@ public abstract class AbstractMixtureREM extends ExponentialEM implements RM, RM
 		tempConfig.put(RM_INDICES_FIELD, RM_INDICES_DEFAULT);
 		tempConfig.put(REMImpl.ESTIMATE_MODE_FIELD, REMImpl.ESTIMATE_MODE_DEFAULT);
 		tempConfig.put(EXECUTE_INCLUDE_ZPROB_FIELD, EXECUTE_INCLUDE_ZPROB_DEFAULT);
+		tempConfig.put(EXECUTE_CACHE_SIZE_FIELD, EXECUTE_CACHE_SIZE_DEFAULT);
 		
 		DataConfig config = new DataConfig() {
 
@@ -859,12 +1237,30 @@ public abstract class AbstractMixtureREM extends ExponentialEM implements RM, RM
 	}
 
 
+	/**
+	 * Getting diagnostics of this mixture model over its large statistics. Diagnostics are calculated in one pass and cached until parameters, large statistics, or configuration of execution are changed.
+	 * @return diagnostics of this mixture model over its large statistics. Return null if there is no component.
+	 * @throws RemoteException if any error raises.
+	 */
+	public synchronized RMDiagnostics getDiagnostics() throws RemoteException {
+		if (this.rems == null || this.rems.size() == 0)
+			return null;
+		
+		Object parameter = this.getParameter();
+		LargeStatistics stats = this.getLargeStatistics(); // Suppose all REMs have the same large statistics.
+		int flags = getExecuteFlags();
+		if (diagnostics == null || !diagnostics.isCalculatedWith(parameter, stats, flags))
+			diagnostics = RMDiagnostics.calc(this, stats, flags);
+		return diagnostics;
+	}
+
+
 	@Override
 	public Graph createResponseGraph() throws RemoteException {
 		if (this.rems == null || this.rems.size() == 0)
 			return null;
 		else
-			return RMAbstract.createResponseGraph(this, this.getLargeStatistics()); // Suppose all REMs have the same large statistics.
+			return RMAbstract.createResponseGraph(this, this.getDiagnostics());
 	}
 
 
@@ -873,7 +1269,7 @@ public abstract class AbstractMixtureREM extends ExponentialEM implements RM, RM
 		if (this.rems == null || this.rems.size() == 0)
 			return null;
 		else
-			return RMAbstract.createErrorGraph(this, this.getLargeStatistics()); // Suppose all REMs have the same large statistics.
+			return RMAbstract.createErrorGraph(this, this.getDiagnostics());
 	}
 
 
@@ -888,37 +1284,29 @@ public abstract class AbstractMixtureREM extends ExponentialEM implements RM, RM
 
 	@Override
 	public double calcVariance() throws RemoteException {
-		if (this.rems == null || this.rems.size() == 0)
-			return Constants.UNUSED;
-		else
-			return RMAbstract.calcVariance(this, this.getLargeStatistics()); // Suppose all REMs have the same large statistics.
+		RMDiagnostics diagnostics = this.getDiagnostics();
+		return diagnostics != null ? diagnostics.getVariance() : Constants.UNUSED;
 	}
 
 
 	@Override
 	public double calcR() throws RemoteException {
-		if (this.rems == null || this.rems.size() == 0)
-			return Constants.UNUSED;
-		else
-			return RMAbstract.calcR(this, this.getLargeStatistics()); // Suppose all REMs have the same large statistics.
+		RMDiagnostics diagnostics = this.getDiagnostics();
+		return diagnostics != null ? diagnostics.getR() : Constants.UNUSED;
 	}
 
 
 	@Override
 	public double calcR(int index) throws RemoteException {
-		if (this.rems == null || this.rems.size() == 0)
-			return Constants.UNUSED;
-		else
-			return RMAbstract.calcR(this, this.getLargeStatistics(), index); // Suppose all REMs have the same large statistics.
+		RMDiagnostics diagnostics = this.getDiagnostics();
+		return diagnostics != null ? diagnostics.getR(index) : Constants.UNUSED;
 	}
 
 
 	@Override
 	public double[] calcError() throws RemoteException {
-		if (this.rems == null || this.rems.size() == 0)
-			return null;
-		else
-			return RMAbstract.calcError(this, this.getLargeStatistics()); // Suppose all REMs have the same large statistics.
+		RMDiagnostics diagnostics = this.getDiagnostics();
+		return diagnostics != null ? diagnostics.getError() : null;
 	}
 
 
@@ -926,6 +1314,31 @@ public abstract class AbstractMixtureREM extends ExponentialEM implements RM, RM
 	public boolean saveLargeStatistics(xURI uri, int decimal) throws RemoteException {
 		return RMAbstract.saveLargeStatistics(this, getLargeStatistics(), uri, decimal);
 	}
+
+
+	@Override
+	public synchronized List<Object> executeBatch(List<?> inputs) throws RemoteException {
+		return RMAbstract.executeBatch(this, inputs);
+	}
+
+
+	@Override
+	public synchronized double[] executeByXStatisticBatch(List<double[]> xStatistics) throws RemoteException {
+		return RMAbstract.executeByXStatisticBatch(this, xStatistics);
+	}
+
+
+	@Override
+	public double[][] extractRegressorValuesBatch(List<?> inputs) throws RemoteException {
+		return RMAbstract.extractRegressorValuesBatch(this, inputs);
+	}
+
+
+	@Override
+	public RMMetrics calcMetrics() throws RemoteException {
+		RMDiagnostics diagnostics = this.getDiagnostics();
+		return diagnostics != null && diagnostics.size() > 0 ? diagnostics.toMetrics() : null;
+	}
 	
 	
 }
@@ -13,6 +13,10 @@ import java.rmi.RemoteException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import net.hudup.core.Constants;
 import net.hudup.core.Util;
@@ -21,6 +25,7 @@ import net.hudup.core.alg.NoteAlg;
 import net.hudup.core.data.AttributeList;
 import net.hudup.core.data.DataConfig;
 import net.hudup.core.data.Fetcher;
+import net.hudup.core.data.Pair;
 import net.hudup.core.data.Profile;
 import net.hudup.core.logistic.DSUtil;
 import net.hudup.core.logistic.LogUtil;
@@ -61,6 +66,55 @@ public class DefaultMixtureREM extends AbstractMixtureREM implements Duplicatabl
 	public final static String PREV_PARAMS_FIELD = "mixrem_prev_parameters";
 
 	
+	/**
+	 * Name of multi-start number field. If this number is greater than 1, many short EM runs are started concurrently from different seeds
+	 * and the best ones in log-likelihood are continued to initialize this model.
+	 */
+	public final static String MULTISTART_NUMBER_FIELD = "mixrem_multistart_number";
+
+	
+	/**
+	 * Default multi-start number. Multi-start mode is disabled by default.
+	 */
+	public final static int MULTISTART_NUMBER_DEFAULT = 1;
+
+	
+	/**
+	 * Name of the field of maximum iteration of each short EM run in multi-start mode.
+	 */
+	public final static String MULTISTART_ITERATION_FIELD = "mixrem_multistart_iteration";
+
+	
+	/**
+	 * Default maximum iteration of each short EM run in multi-start mode.
+	 */
+	public final static int MULTISTART_ITERATION_DEFAULT = 5;
+
+	
+	/**
+	 * Name of the field of the number of best short EM runs which are continued to convergence in multi-start mode.
+	 */
+	public final static String MULTISTART_KEEP_FIELD = "mixrem_multistart_keep";
+
+	
+	/**
+	 * Default number of best short EM runs which are continued to convergence in multi-start mode.
+	 */
+	public final static int MULTISTART_KEEP_DEFAULT = 1;
+
+	
+	/**
+	 * Name of initialization seed field. Negative seed means that initialization is randomized without seed.
+	 */
+	public final static String INITIALIZE_SEED_FIELD = "mixrem_init_seed";
+
+	
+	/**
+	 * Default initialization seed. Negative seed means that initialization is randomized without seed.
+	 */
+	public final static int INITIALIZE_SEED_DEFAULT = -1;
+
+	
 	/**
 	 * Vicinity for calculating probability from probability density function.
 	 */
@@ -92,11 +146,25 @@ public class DefaultMixtureREM extends AbstractMixtureREM implements Duplicatabl
 	protected AttributeList attList = null;
 
 	
+	/**
+	 * Flag to indicate whether internal data is shared with other model. Shared data is detached instead of being cleared.
+	 */
+	protected boolean sharedData = false;
+	
+	
+	/**
+	 * Starting parameters which are used instead of initialized parameters if they are not null. This variable is used in multi-start mode.
+	 */
+	protected List<ExchangedParameter> startParameters = null;
+	
+	
 	@Override
 	protected boolean prepareInternalData(AbstractMixtureREM other) throws RemoteException {
 		if (other instanceof DefaultMixtureREM) {
 			DefaultMixtureREM mixREM = (DefaultMixtureREM)other;
-			return prepareInternalData(mixREM.xIndices, mixREM.zIndices, mixREM.attList, mixREM.data);
+			boolean result = prepareInternalData(mixREM.xIndices, mixREM.zIndices, mixREM.attList, mixREM.data);
+			this.sharedData = result;
+			return result;
 		}
 		else
 			return super.prepareInternalData(other);
@@ -129,7 +197,7 @@ public class DefaultMixtureREM extends AbstractMixtureREM implements Duplicatabl
 	 * @return true if setting successful.
 	 * @throws RemoteException if any error raises.
 	 */
-	private boolean prepareInternalData(List<Object[]> xIndices, List<Object[]> zIndices, AttributeList attList, LargeStatistics data) throws RemoteException {
+	protected boolean prepareInternalData(List<Object[]> xIndices, List<Object[]> zIndices, AttributeList attList, LargeStatistics data) throws RemoteException {
 		clearInternalData();
 		
 		this.xIndices = xIndices;
@@ -152,6 +220,20 @@ public class DefaultMixtureREM extends AbstractMixtureREM implements Duplicatabl
 	
 	@Override
 	protected void clearInternalData() throws RemoteException {
+		if (this.sharedData) {
+			//Detaching shared data so that the other model owning such data is not affected.
+			if (this.rems != null) {
+				for (REMImpl rem : this.rems) {
+					rem.xIndices = rem.zIndices = null; rem.attList = null; rem.data = null;
+				}
+			}
+			this.xIndices = Util.newList();
+			this.zIndices = Util.newList();
+			this.attList = null;
+			this.data = null;
+			this.sharedData = false;
+		}
+		
 		super.clearInternalData();
 		this.xIndices.clear();
 		this.zIndices.clear();
@@ -181,6 +263,7 @@ public class DefaultMixtureREM extends AbstractMixtureREM implements Duplicatabl
 		@SuppressWarnings("unchecked")
 		List<LargeStatistics> stats = (List<LargeStatistics>)super.expectation(currentParameter, info);
 		if (stats == null) return null;
+		componentExpectation(parameters, stats);
 		
 		//Adjusting large statistics.
 		int N = stats.get(0).getZData().size(); //Suppose all models have the same data.
@@ -310,6 +393,17 @@ public class DefaultMixtureREM extends AbstractMixtureREM implements Duplicatabl
 	}
 
 	
+	/**
+	 * This method is called by expectation step with large statistics imputed by every component before they are merged, which does nothing by default.
+	 * Derived classes can reuse these statistics without imputing data again. Note that the list of statistics is changed after this method returns.
+	 * @param parameters current parameters of components.
+	 * @param stats large statistics imputed by components.
+	 */
+	protected void componentExpectation(List<ExchangedParameter> parameters, List<LargeStatistics> stats) {
+		//Do nothing
+	}
+	
+	
 	@Override
 	protected Object maximization(Object currentStatistic, Object... info) throws RemoteException {
 		if (currentStatistic == null) return null;
@@ -357,10 +451,185 @@ public class DefaultMixtureREM extends AbstractMixtureREM implements Duplicatabl
 
 	@Override
 	protected Object initializeParameter() {
+		if (this.startParameters != null && this.startParameters.size() == this.rems.size())
+			return initializeParameter(ExchangedParameter.clone(this.startParameters));
+		
+		int M = getConfig().getAsInt(MULTISTART_NUMBER_FIELD);
+		if (M > 1) {
+			List<ExchangedParameter> parameters = initializeParameterByMultistart(M);
+			if (parameters != null)
+				return initializeParameter(parameters);
+		}
+		
 		return initializeParameter0(config.getAsBoolean(INITIALIZE_GIVEBACK_FIELD));
 	}
 	
 	
+	/**
+	 * Initializing parameter from specified parameters. This method changes internal data.
+	 * @param parameters specified parameters whose size is the number of components.
+	 * @return initialized parameter at the first iteration of EM process.
+	 */
+	protected Object initializeParameter(List<ExchangedParameter> parameters) {
+		for (int k = 0; k < this.rems.size(); k++) {
+			REMImpl rem = this.rems.get(k);
+			ExchangedParameter parameter = parameters.get(k);
+			
+			rem.setEstimatedParameter(parameter);
+			rem.setCurrentParameter(parameter);
+			rem.setPreviousParameter(null);
+			rem.setStatistics(null);
+			rem.setCurrentIteration(this.getCurrentIteration());
+		}
+		
+		return parameters;
+	}
+	
+	
+	/**
+	 * Initializing parameter by multi-start mode. Many short EM runs are started concurrently from different seeds on the data of this model.
+	 * The first run starts from the seed of this model, which is the run of single-start mode.
+	 * The best runs in log-likelihood are continued to convergence and the parameters of the best one are returned.
+	 * If only one best run is kept, its parameters are returned without continuing because this model will continue them.
+	 * @param M the number of short EM runs.
+	 * @return initialized parameters. Return null if all runs are failed.
+	 */
+	private List<ExchangedParameter> initializeParameterByMultistart(int M) {
+		int shortIteration = getConfig().getAsInt(MULTISTART_ITERATION_FIELD);
+		shortIteration = shortIteration < 2 ? MULTISTART_ITERATION_DEFAULT : shortIteration;
+		int keep = getConfig().getAsInt(MULTISTART_KEEP_FIELD);
+		keep = keep < 1 ? 1 : (keep > M ? M : keep);
+		int seed = getConfig().getAsInt(INITIALIZE_SEED_FIELD);
+		Random rnd = seed >= 0 ? new Random(seed) : new Random();
+
+		List<DefaultMixtureREM> candidates = Util.newList(M);
+		for (int i = 0; i < M; i++) {
+			DefaultMixtureREM candidate = createMultistartCandidate();
+			candidate.getConfig().put(EM_MAX_ITERATION_FIELD, shortIteration);
+			int candidateSeed = rnd.nextInt(Integer.MAX_VALUE);
+			candidate.getConfig().put(INITIALIZE_SEED_FIELD, i == 0 && seed >= 0 ? seed : candidateSeed);
+			candidates.add(candidate);
+		}
+		List<List<ExchangedParameter>> results = runMultistartCandidates(candidates);
+		if (results.size() == 0) return null;
+		
+		List<ExchangedParameter> best = results.get(0);
+		if (keep > 1) {
+			List<DefaultMixtureREM> finalists = Util.newList(keep);
+			for (int i = 0; i < keep && i < results.size(); i++) {
+				DefaultMixtureREM finalist = createMultistartCandidate();
+				finalist.startParameters = results.get(i);
+				finalists.add(finalist);
+			}
+			List<List<ExchangedParameter>> finalResults = runMultistartCandidates(finalists);
+			if (finalResults.size() > 0)
+				best = finalResults.get(0);
+		}
+		
+		return best;
+	}
+	
+	
+	/**
+	 * Creating a candidate model for multi-start mode. The candidate has the same configuration as this model except that multi-start mode is disabled.
+	 * @return candidate model for multi-start mode.
+	 */
+	protected DefaultMixtureREM createMultistartCandidate() {
+		DefaultMixtureREM candidate = (DefaultMixtureREM)newInstance();
+		candidate.getConfig().put(MULTISTART_NUMBER_FIELD, 1);
+		candidate.getConfig().remove(PREV_PARAMS_FIELD);
+		candidate.getConfig().put(EM_CHECKPOINT_FILE_FIELD, EM_CHECKPOINT_FILE);
+		return candidate;
+	}
+	
+	
+	/**
+	 * Setting up concurrently the specified candidate models on the data of this model. Every candidate is unset up after its parameters are cloned.
+	 * Candidates are compared by the log-likelihood of their parameters on complete rows of the data of this model, which are the same for all candidates.
+	 * The log-likelihood of a candidate on its own imputed statistics is not used because imputed statistics are different among candidates.
+	 * If there is no complete row, candidates are compared by the log-likelihood on their own statistics.
+	 * @param candidates specified candidate models.
+	 * @return cloned parameters of successful candidate models sorted descending by log-likelihood.
+	 */
+	private List<List<ExchangedParameter>> runMultistartCandidates(List<DefaultMixtureREM> candidates) {
+		LargeStatistics completeData = this.data != null ? REMImpl.getCompleteData(this.data) : null;
+		boolean observed = completeData != null && completeData.size() > 0;
+		
+		List<List<ExchangedParameter>> results = Util.newList(candidates.size());
+		List<Pair> scores = Util.newList(candidates.size());
+		int nThreads = Math.max(1, Math.min(candidates.size(), Runtime.getRuntime().availableProcessors()));
+		ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+		try {
+			List<Future<Object[]>> futures = Util.newList(candidates.size());
+			for (DefaultMixtureREM candidate : candidates) {
+				futures.add(executor.submit(new Callable<Object[]>() {
+					@Override
+					public Object[] call() throws Exception {
+						try {
+							candidate.setup(DefaultMixtureREM.this);
+							return new Object[] {getCandidateParameters(candidate), observed ? null : candidate.getLogLikelihood()};
+						}
+						finally {
+							candidate.unsetup();
+						}
+					}
+				}));
+			}
+			
+			for (int i = 0; i < candidates.size(); i++) {
+				try {
+					Object[] result = futures.get(i).get();
+					@SuppressWarnings("unchecked")
+					List<ExchangedParameter> parameters = (List<ExchangedParameter>)result[0];
+					if (parameters == null) continue;
+					
+					double logLikelihood = observed ? getLogLikelihood(parameters, completeData) : (Double)result[1];
+					if (Util.isUsed(logLikelihood)) {
+						scores.add(new Pair(results.size(), logLikelihood));
+						results.add(parameters);
+					}
+				}
+				catch (Throwable e) {
+					LogUtil.trace(e);
+				}
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		
+		Pair.sort(scores, true);
+		List<List<ExchangedParameter>> sorted = Util.newList(scores.size());
+		for (Pair score : scores) sorted.add(results.get(score.key()));
+		return sorted;
+	}
+	
+	
+	/**
+	 * Getting cloned parameters of specified candidate model in multi-start mode.
+	 * @param candidate specified candidate model.
+	 * @return cloned parameters of specified candidate model. Return null if the candidate is not learned or has different number of components.
+	 */
+	private List<ExchangedParameter> getCandidateParameters(DefaultMixtureREM candidate) {
+		try {
+			@SuppressWarnings("unchecked")
+			List<ExchangedParameter> parameters = (List<ExchangedParameter>)candidate.getParameter();
+			if (parameters == null || this.rems == null || parameters.size() != this.rems.size())
+				return null;
+			for (ExchangedParameter parameter : parameters) {
+				if (parameter == null) return null;
+			}
+			
+			return ExchangedParameter.clone(parameters);
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		
+		return null;
+	}
+	
+	
 	/**
 	 * Initialization method of this class changes internal data.
 	 * This method improves the initialization process so that sub-models do not coincide when regression coefficients are made different.
@@ -375,7 +644,14 @@ public class DefaultMixtureREM extends AbstractMixtureREM implements Duplicatabl
 			prevParameters = (List<ExchangedParameter>)getConfig().get(PREV_PARAMS_FIELD);
 		
 		List<ExchangedParameter> parameters = Util.newList(this.rems.size());
+		int seed = getConfig().getAsInt(INITIALIZE_SEED_FIELD);
+		Random rnd = seed >= 0 ? new Random(seed) : new Random();
 		LargeStatistics completeData = REMImpl.getCompleteData(this.data);
+		List<LargeStatistics> clusters = null;
+		if (completeData != null && getConfig().getAsBoolean(INITIALIZE_KMEANS_FIELD) && this.rems.size() > prevParameters.size()) {
+			clusters = kmeansClusters(completeData, this.rems.size() - prevParameters.size(),
+				getConfig().getAsInt(INITIALIZE_KMEANS_BATCH_FIELD), rnd);
+		}
 		int recordNumber = 0;
 		if (completeData == null)
 			recordNumber = 0;
@@ -391,15 +667,21 @@ public class DefaultMixtureREM extends AbstractMixtureREM implements Duplicatabl
 		for (int k = 0; k < this.rems.size(); k++) {
 			REMImpl rem = this.rems.get(k);
 			ExchangedParameter parameter = null;
+			double coeff = 1.0 / (double)this.rems.size();
 			
 			if (k < prevParameters.size()) {
 				parameter = prevParameters.get(k);
 			}
 			else {
-				if (recordNumber > 0) {
+				if (clusters != null || recordNumber > 0) {
 					try {
-						LargeStatistics compSample = randomSampling(completeData, recordNumber, giveBack);
-						parameter = (ExchangedParameter) rem.maximization(compSample);
+						LargeStatistics compSample = null;
+						if (clusters != null)
+							compSample = clusters.get(k - prevParameters.size());
+						else
+							compSample = randomSampling(completeData, recordNumber, giveBack, rnd);
+						int compSize = compSample.size();
+						parameter = compSize > 0 ? (ExchangedParameter) rem.maximization(compSample) : null;
 						compSample.clear();
 						if (parameter != null) {
 							for (int j = 0; j < k; j++) {
@@ -409,6 +691,9 @@ public class DefaultMixtureREM extends AbstractMixtureREM implements Duplicatabl
 								}
 							}
 						}
+						//Only cluster whose parameter is estimated from its rows is weighted by its size. Empty or failed cluster is reseeded randomly with default weight.
+						if (parameter != null && clusters != null && completeData.size() > 0)
+							coeff = (double)compSize / (double)completeData.size() * (double)(this.rems.size() - prevParameters.size()) / (double)this.rems.size();
 					}
 					catch (Throwable e) {
 						parameter = null;
@@ -421,7 +706,7 @@ public class DefaultMixtureREM extends AbstractMixtureREM implements Duplicatabl
 				
 				if (parameter == null) {
 					while (true) { // This loop avoids same alpha.
-						parameter = rem.initializeParameterWithoutData(this.data.getXData().get(0).length - 1, true);
+						parameter = rem.initializeParameterWithoutData(this.data.getXData().get(0).length - 1, true, rnd);
 						boolean breakhere = true;
 						for (int j = 0; j < k; j++) {
 							if (parameter.alphaEquals(this.rems.get(j).getExchangedParameter())) {
@@ -435,7 +720,7 @@ public class DefaultMixtureREM extends AbstractMixtureREM implements Duplicatabl
 				}
 			}
 			
-			parameter.setCoeff(1.0 / (double)this.rems.size());
+			parameter.setCoeff(coeff);
 			
 			rem.setEstimatedParameter(parameter);
 			rem.setCurrentParameter(parameter);
@@ -446,6 +731,14 @@ public class DefaultMixtureREM extends AbstractMixtureREM implements Duplicatabl
 			parameters.add(parameter);
 		}
 		
+		if (clusters != null) { //Weights of clusters and weights of reseeded components must sum to 1.
+			double sum = 0;
+			for (ExchangedParameter parameter : parameters) sum += parameter.getCoeff();
+			if (sum > 0) {
+				for (ExchangedParameter parameter : parameters) parameter.setCoeff(parameter.getCoeff() / sum);
+			}
+		}
+		
 		return parameters;
 	}
 
@@ -486,6 +779,77 @@ public class DefaultMixtureREM extends AbstractMixtureREM implements Duplicatabl
 	}
 	
 	
+	/**
+	 * Getting the log-likelihood of this model given large statistics, which is the sum of logarithms of mixture densities of responses.
+	 * @param stat given large statistics.
+	 * @return the log-likelihood of this model given large statistics. Return NaN if any error raises.
+	 * @throws RemoteException if any error raises.
+	 */
+	public synchronized double getLogLikelihood(LargeStatistics stat) throws RemoteException {
+		@SuppressWarnings("unchecked")
+		List<ExchangedParameter> parameters = (List<ExchangedParameter>)getParameter();
+		return getLogLikelihood(parameters, stat);
+	}
+	
+	
+	/**
+	 * Getting the log-likelihood of specified parameters given large statistics, which is the sum of logarithms of mixture densities of responses.
+	 * @param parameters specified parameters of components.
+	 * @param stat given large statistics.
+	 * @return the log-likelihood of specified parameters given large statistics. Return NaN if any error raises.
+	 */
+	protected static double getLogLikelihood(List<ExchangedParameter> parameters, LargeStatistics stat) {
+		if (stat == null || parameters == null || parameters.size() == 0)
+			return Constants.UNUSED;
+		
+		int N = stat.getZData().size();
+		if (N == 0) return Constants.UNUSED;
+		double logLikelihood = 0.0;
+		double minLog = Math.log(Double.MIN_VALUE);
+		for (int i = 0; i < N; i++) {
+			double[] xVector = stat.getXData().get(i);
+			double[] zVector = stat.getZData().get(i);
+			
+			List<Double> pdfValues = ExchangedParameter.normalZPDF(parameters, xVector, zVector);
+			double likelihood = 0.0;
+			for (int k = 0; k < pdfValues.size(); k++)
+				likelihood += parameters.get(k).getCoeff() * pdfValues.get(k);
+			
+			if (likelihood > 0 && Util.isUsed(likelihood))
+				logLikelihood += Math.max(Math.log(likelihood), minLog);
+			else
+				logLikelihood += minLog;
+		}
+		
+		return logLikelihood;
+	}
+	
+	
+	@Override
+	protected double logLikelihood(Object estimatedParameter, Object statistics) {
+		try {
+			return getLogLikelihood();
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			return Constants.UNUSED;
+		}
+	}
+
+
+	/**
+	 * Getting the log-likelihood of this model.
+	 * @return the log-likelihood of this model.
+	 * @throws RemoteException if any error raises.
+	 */
+	public synchronized double getLogLikelihood() throws RemoteException {
+		if (this.rems == null || this.rems.size() == 0)
+			return Constants.UNUSED;
+		else
+			return getLogLikelihood(this.getLargeStatistics()); // Because all REMs have the same large statistics.
+	}
+
+	
 	/**
 	 * Getting the fitness criterion of this model.
 	 * @return the fitness criterion of this model.
@@ -599,6 +963,12 @@ public class DefaultMixtureREM extends AbstractMixtureREM implements Duplicatabl
 		DataConfig config = super.createDefaultConfig();
 		config.put(COMP_NUMBER_FIELD, COMP_NUMBER_DEFAULT);
 		config.put(INITIALIZE_GIVEBACK_FIELD, INITIALIZE_GIVEBACK_DEFAULT);
+		config.put(INITIALIZE_SEED_FIELD, INITIALIZE_SEED_DEFAULT);
+		config.put(INITIALIZE_KMEANS_FIELD, INITIALIZE_KMEANS_DEFAULT);
+		config.put(INITIALIZE_KMEANS_BATCH_FIELD, INITIALIZE_KMEANS_BATCH_DEFAULT);
+		config.put(MULTISTART_NUMBER_FIELD, MULTISTART_NUMBER_DEFAULT);
+		config.put(MULTISTART_ITERATION_FIELD, MULTISTART_ITERATION_DEFAULT);
+		config.put(MULTISTART_KEEP_FIELD, MULTISTART_KEEP_DEFAULT);
 		config.put(EXECUTE_SELECT_COMP_FIELD, EXECUTE_SELECT_COMP_DEFAULT);
 		config.addReadOnly(DUPLICATED_ALG_NAME_FIELD);
 		return config;
@@ -610,15 +980,15 @@ public class DefaultMixtureREM extends AbstractMixtureREM implements Duplicatabl
 	 * @param data the specified data.
 	 * @param recordNumber the number of randomized records.
 	 * @param giveBack if true, the random record is given back to original sample.
+	 * @param rnd random generator.
 	 * @return Randomized sample the specified data.
 	 */
-	private static LargeStatistics randomSampling(LargeStatistics data, int recordNumber, boolean giveBack) {
+	private static LargeStatistics randomSampling(LargeStatistics data, int recordNumber, boolean giveBack, Random rnd) {
 		if (data.getZData().size() == 0 || recordNumber <=0 )
 			return null;
 		
 		List<double[]> xData = Util.newList();
 		List<double[]> zData = Util.newList();
-		Random rnd = new Random();
 		for (int i = 0; i < recordNumber; i++) {
 			int N = data.getZData().size();
 			if (N == 0)
@@ -0,0 +1,273 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import java.rmi.RemoteException;
+import java.util.List;
+
+import net.hudup.core.Util;
+import net.hudup.core.data.DataConfig;
+import net.hudup.core.data.Fetcher;
+import net.hudup.core.data.Profile;
+import net.hudup.core.logistic.LogUtil;
+import net.rem.regression.LargeStatistics;
+import net.rem.regression.RMDiagnostics;
+import net.rem.regression.em.REMWorkerRemote.Shard;
+
+/**
+ * This class is the coordinator of data-parallel training of mixture REM. Training data are split into shards held by remote workers {@link REMWorker}.
+ * At every iteration, workers run the expectation step of {@link DefaultMixtureREM} on their shards and return sufficient statistics {@link REMSufficientStatistics}
+ * weighted by conditional probabilities of components, then this coordinator runs the maximization step of every component on merged statistics.
+ * Parameters of many components are initialized by the first worker on its shard alone, which also supports multi-start mode.
+ * Workers are given by the field <code>rem_workers</code>. If the field is empty, this model is the same as {@link DefaultMixtureREM} trained on its own sample.
+ * Diagnostics such as variance, correlations, errors, and response graphs are calculated by workers with the trained parameters and merged before workers are released.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class DistributedMixtureREM extends DefaultMixtureREM {
+
+
+	/**
+	 * Serial version UID for serializable class.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Pool of workers during training.
+	 */
+	protected transient REMWorkerPool pool = null;
+
+
+	/**
+	 * Total number of rows of all shards in last training.
+	 */
+	protected long totalSize = 0;
+
+
+	/**
+	 * Fingerprint of data of all shards in last training.
+	 */
+	protected long fingerprint = 0;
+
+
+	/**
+	 * Diagnostics of the trained model merged from workers, which are kept after workers are released. It is null in local mode.
+	 */
+	protected transient RMDiagnostics workerDiagnostics = null;
+
+
+	/**
+	 * Default constructor.
+	 */
+	public DistributedMixtureREM() {
+		super();
+	}
+
+
+	@Override
+	public Object learnStart(Object... info) throws RemoteException {
+		try {
+			Object resulted = super.learnStart(info);
+			if (resulted != null && pool != null) diagnoseWorkers();
+			return resulted;
+		}
+		finally {
+			closePool();
+		}
+	}
+
+
+	/**
+	 * In distributed mode, internal data are prepared by workers and this method only takes attributes and indices from the first shard.
+	 */
+	@Override
+	protected boolean prepareInternalData(Fetcher<Profile> inputSample) throws RemoteException {
+		workerDiagnostics = null;
+		String workers = getConfig().getAsString(DistributedREM.WORKERS_FIELD);
+		if (workers == null || workers.trim().isEmpty())
+			return super.prepareInternalData(inputSample);
+
+		clearInternalData();
+		closePool();
+		try {
+			pool = REMWorkerPool.connect(workers);
+			List<Shard> shards = pool != null ? pool.prepare(getConfig(), true) : null;
+			if (shards == null || shards.size() == 0) return false;
+
+			Shard shard = shards.get(0);
+			this.totalSize = pool.getTotalSize();
+			this.fingerprint = pool.getFingerprint();
+			return prepareInternalData(shard.xIndices, shard.zIndices, shard.attList,
+				new LargeStatistics(Util.<double[]>newList(), Util.<double[]>newList()));
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			closePool();
+			return false;
+		}
+	}
+
+
+	/**
+	 * In distributed mode, expectation runs on workers and this method returns merged sufficient statistics.
+	 */
+	@Override
+	protected Object expectation(Object currentParameter, Object... info) throws RemoteException {
+		if (pool == null)
+			return super.expectation(currentParameter, info);
+		else
+			return pool.expectation(currentParameter);
+	}
+
+
+	/**
+	 * In distributed mode, maximization of every component runs on merged sufficient statistics.
+	 */
+	@Override
+	protected Object maximization(Object currentStatistic, Object... info) throws RemoteException {
+		if (!(currentStatistic instanceof REMSufficientStatistics))
+			return super.maximization(currentStatistic, info);
+
+		REMSufficientStatistics stats = (REMSufficientStatistics)currentStatistic;
+		@SuppressWarnings("unchecked")
+		List<ExchangedParameter> currentParameters = (List<ExchangedParameter>)getCurrentParameter();
+		String estimateMode = getConfig().getAsString(REMImpl.ESTIMATE_MODE_FIELD);
+		List<ExchangedParameter> parameters = Util.newList(this.rems.size());
+		for (int k = 0; k < this.rems.size(); k++) {
+			ExchangedParameter parameter = stats.maximization(k, currentParameters != null ? currentParameters.get(k) : null, estimateMode, true);
+			if (parameter == null) return null;
+			this.rems.get(k).setEstimatedParameter(parameter);
+			parameters.add(parameter);
+		}
+
+		return parameters;
+	}
+
+
+	/**
+	 * In distributed mode, parameters are initialized by the first worker on its shard.
+	 * Model of one component is initialized by sufficient statistics of complete rows of all shards as {@link DefaultMixtureREM} does on whole sample.
+	 */
+	@Override
+	protected Object initializeParameter() {
+		if (pool == null) return super.initializeParameter();
+
+		try {
+			boolean single = this.rems.size() == 1 && this.startParameters == null
+				&& !getConfig().containsKey(PREV_PARAMS_FIELD) && getConfig().getAsInt(MULTISTART_NUMBER_FIELD) <= 1;
+			REMSufficientStatistics stats = single ? pool.initialize() : null;
+			if (stats != null) {
+				ExchangedParameter parameter = stats.maximization(-1, null, getConfig().getAsString(REMImpl.ESTIMATE_MODE_FIELD), true);
+				if (parameter != null) {
+					parameter.setCoeff(1);
+					List<ExchangedParameter> parameters = Util.newList(1);
+					parameters.add(parameter);
+					return initializeParameter(parameters);
+				}
+			}
+
+			@SuppressWarnings("unchecked")
+			List<ExchangedParameter> parameters = (List<ExchangedParameter>)pool.initializeParameter();
+			if (parameters != null && parameters.size() == this.rems.size())
+				return initializeParameter(parameters);
+			else
+				LogUtil.error("Distributed mixture model fails to initialize parameters on the first worker");
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+
+		return null;
+	}
+
+
+	@Override
+	protected long imputedRows(Object statistics) {
+		if (statistics instanceof REMSufficientStatistics)
+			return ((REMSufficientStatistics)statistics).getImputedCount();
+		else
+			return super.imputedRows(statistics);
+	}
+
+
+	/**
+	 * Signature of distributed mixture REM includes total number of rows and fingerprint of data of all shards.
+	 */
+	@Override
+	protected String getCheckpointSignature() {
+		return super.getCheckpointSignature() + ":" + totalSize + ":" + Long.toHexString(fingerprint);
+	}
+
+
+	@Override
+	public void unsetup() throws RemoteException {
+		super.unsetup();
+		synchronized (this) {
+			closePool();
+			workerDiagnostics = null;
+		}
+	}
+
+
+	/**
+	 * Calculating diagnostics of the trained model on workers before workers are released.
+	 */
+	protected void diagnoseWorkers() {
+		try {
+			workerDiagnostics = pool.diagnose(getParameter());
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			workerDiagnostics = null;
+		}
+	}
+
+
+	/**
+	 * In distributed mode, diagnostics are merged from workers because this coordinator keeps no training data.
+	 */
+	@Override
+	public synchronized RMDiagnostics getDiagnostics() throws RemoteException {
+		if (workerDiagnostics != null)
+			return workerDiagnostics;
+		else
+			return super.getDiagnostics();
+	}
+
+
+	/**
+	 * Releasing workers and closing the pool of workers.
+	 */
+	protected void closePool() {
+		if (pool != null) pool.close();
+		pool = null;
+	}
+
+
+	@Override
+	public String getName() {
+		String name = getConfig().getAsString(DUPLICATED_ALG_NAME_FIELD);
+		if (name != null && !name.isEmpty())
+			return name;
+		else
+			return "mixrem_distributed";
+	}
+
+
+	@Override
+	public DataConfig createDefaultConfig() {
+		DataConfig config = super.createDefaultConfig();
+		config.put(DistributedREM.WORKERS_FIELD, DistributedREM.WORKERS_DEFAULT);
+		return config;
+	}
+
+
+}
@@ -0,0 +1,271 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import java.rmi.RemoteException;
+import java.util.List;
+
+import net.hudup.core.Util;
+import net.hudup.core.data.DataConfig;
+import net.hudup.core.data.Fetcher;
+import net.hudup.core.data.Profile;
+import net.hudup.core.logistic.LogUtil;
+import net.rem.regression.LargeStatistics;
+import net.rem.regression.RMDiagnostics;
+import net.rem.regression.em.REMWorkerRemote.Shard;
+
+/**
+ * This class is the coordinator of data-parallel REM training. Training data are split into shards held by remote workers {@link REMWorker}.
+ * At every iteration, workers run the expectation step on their shards and return sufficient statistics {@link REMSufficientStatistics},
+ * then this coordinator runs the maximization step on merged statistics and the new parameter is sent to workers at next iteration.
+ * Workers are given by the field <code>rem_workers</code> as bind URIs such as <code>rmi://host1:10151/rem_worker, rmi://host2:10151/rem_worker</code>.
+ * If the field is empty, this model is the same as {@link REMImpl} trained on its own sample. In distributed mode, the sample given to setup method is ignored.
+ * The coordinator keeps no training data and so large statistics are not available after training, but the trained model is executed normally.
+ * Diagnostics such as variance, correlations, errors, and response graphs are calculated by workers with the trained parameter and merged before workers are released.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class DistributedREM extends REMImpl {
+
+
+	/**
+	 * Serial version UID for serializable class.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Name of bind URIs of workers.
+	 */
+	public final static String WORKERS_FIELD = "rem_workers";
+
+
+	/**
+	 * Default bind URIs of workers.
+	 */
+	public final static String WORKERS_DEFAULT = "";
+
+
+	/**
+	 * Pool of workers during training.
+	 */
+	protected transient REMWorkerPool pool = null;
+
+
+	/**
+	 * Total number of rows of all shards in last training.
+	 */
+	protected long totalSize = 0;
+
+
+	/**
+	 * Fingerprint of data of all shards in last training.
+	 */
+	protected long fingerprint = 0;
+
+
+	/**
+	 * Diagnostics of the trained model merged from workers, which are kept after workers are released. It is null in local mode.
+	 */
+	protected transient RMDiagnostics workerDiagnostics = null;
+
+
+	/**
+	 * Default constructor.
+	 */
+	public DistributedREM() {
+		super();
+	}
+
+
+	@Override
+	public Object learnStart(Object... info) throws RemoteException {
+		try {
+			Object resulted = super.learnStart(info);
+			if (resulted != null && pool != null) diagnoseWorkers();
+			return resulted;
+		}
+		finally {
+			closePool();
+		}
+	}
+
+
+	/**
+	 * In distributed mode, internal data are prepared by workers and this method only takes attributes and indices from the first shard.
+	 */
+	@Override
+	protected boolean prepareInternalData(Fetcher<Profile> inputSample, int[] xIndicesUsed, int[] zIndicesUsed) {
+		workerDiagnostics = null;
+		String workers = getConfig().getAsString(WORKERS_FIELD);
+		if (workers == null || workers.trim().isEmpty())
+			return super.prepareInternalData(inputSample, xIndicesUsed, zIndicesUsed);
+
+		clearInternalData();
+		closePool();
+		try {
+			pool = REMWorkerPool.connect(workers);
+			List<Shard> shards = pool != null ? pool.prepare(getConfig(), false) : null;
+			if (shards == null || shards.size() == 0) return false;
+
+			Shard shard = shards.get(0);
+			this.attList = shard.attList;
+			this.xIndices = shard.xIndices;
+			this.zIndices = shard.zIndices;
+			this.data = new LargeStatistics(Util.<double[]>newList(), Util.<double[]>newList());
+			this.totalSize = pool.getTotalSize();
+			this.fingerprint = pool.getFingerprint();
+			return true;
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			closePool();
+			return false;
+		}
+	}
+
+
+	/**
+	 * In distributed mode, expectation runs on workers and this method returns merged sufficient statistics.
+	 */
+	@Override
+	protected Object expectation(Object currentParameter, Object... info) throws RemoteException {
+		if (pool == null || (info != null && info.length > 0 && (info[0] instanceof LargeStatistics)))
+			return super.expectation(currentParameter, info);
+		else
+			return pool.expectation(currentParameter);
+	}
+
+
+	/**
+	 * In distributed mode, maximization runs on merged sufficient statistics.
+	 */
+	@Override
+	protected Object maximization(Object currentStatistic, Object... info) throws RemoteException {
+		if (!(currentStatistic instanceof REMSufficientStatistics))
+			return super.maximization(currentStatistic, info);
+
+		return ((REMSufficientStatistics)currentStatistic).maximization(-1,
+			(ExchangedParameter)getCurrentParameter(),
+			getConfig().getAsString(ESTIMATE_MODE_FIELD),
+			getConfig().getAsBoolean(CALC_VARIANCE_FIELD));
+	}
+
+
+	/**
+	 * In distributed mode, parameter is initialized by sufficient statistics of complete rows of all shards.
+	 */
+	@Override
+	protected Object initializeParameter() {
+		if (pool == null) return super.initializeParameter();
+
+		ExchangedParameter parameter0 = initializeParameterWithoutData(this.xIndices.size() - 1, false);
+		try {
+			REMSufficientStatistics stats = pool.initialize();
+			ExchangedParameter parameter = stats != null ? (ExchangedParameter)maximization(stats) : null;
+			return (parameter != null ? parameter : parameter0);
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+
+		return parameter0;
+	}
+
+
+	@Override
+	protected long imputedRows(Object statistics) {
+		if (statistics instanceof REMSufficientStatistics)
+			return ((REMSufficientStatistics)statistics).getImputedCount();
+		else
+			return super.imputedRows(statistics);
+	}
+
+
+	/**
+	 * Signature of distributed REM includes total number of rows and fingerprint of data of all shards.
+	 */
+	@Override
+	protected String getCheckpointSignature() {
+		return super.getCheckpointSignature() + ":" + totalSize + ":" + Long.toHexString(fingerprint);
+	}
+
+
+	@Override
+	public LargeStatistics getLargeStatistics() throws RemoteException {
+		Object statistics = getStatistics();
+		return statistics instanceof LargeStatistics ? (LargeStatistics)statistics : null;
+	}
+
+
+	@Override
+	public void unsetup() throws RemoteException {
+		super.unsetup();
+		synchronized (this) {
+			closePool();
+			workerDiagnostics = null;
+		}
+	}
+
+
+	/**
+	 * Calculating diagnostics of the trained model on workers before workers are released.
+	 */
+	protected void diagnoseWorkers() {
+		try {
+			workerDiagnostics = pool.diagnose(getParameter());
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			workerDiagnostics = null;
+		}
+	}
+
+
+	/**
+	 * In distributed mode, diagnostics are merged from workers because this coordinator keeps no training data.
+	 */
+	@Override
+	public synchronized RMDiagnostics getDiagnostics() throws RemoteException {
+		if (workerDiagnostics != null)
+			return workerDiagnostics;
+		else
+			return super.getDiagnostics();
+	}
+
+
+	/**
+	 * Releasing workers and closing the pool of workers.
+	 */
+	protected void closePool() {
+		if (pool != null) pool.close();
+		pool = null;
+	}
+
+
+	@Override
+	public String getName() {
+		String name = getConfig().getAsString(DUPLICATED_ALG_NAME_FIELD);
+		if (name != null && !name.isEmpty())
+			return name;
+		else
+			return "rem_distributed";
+	}
+
+
+	@Override
+	public DataConfig createDefaultConfig() {
+		DataConfig config = super.createDefaultConfig();
+		config.put(WORKERS_FIELD, WORKERS_DEFAULT);
+		return config;
+	}
+
+
+}
@@ -9,10 +9,16 @@ package net.rem.regression.em;
 
 import static net.rem.regression.RMAbstract.notSatisfy;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.RandomAccess;
 
 import net.hudup.core.Cloneable;
 import net.hudup.core.Constants;
@@ -27,10 +33,13 @@ import net.rem.regression.Statistics;
 
 /**
  * This class represents the exchanged parameter for the REM algorithm.
+ * It is externalized in compact binary format by {@link ParameterCodec}.
+ * Coefficients are stored in primitive arrays so that expectation, maximization, and prediction do not unbox them.
+ * Methods returning lists such as {@link #getAlpha()} and {@link #getBetas()} are adapters of these arrays.
  * @author Loc Nguyen
  * @version 1.0
  */
-public class ExchangedParameter implements Cloneable, Serializable {
+public class ExchangedParameter implements Cloneable, Externalizable {
 
 	
 	/**
@@ -42,15 +51,15 @@ public class ExchangedParameter implements Cloneable, Serializable {
 	/**
 	 * Alpha coefficients for Z statistics.
 	 */
-	protected List<Double> alpha = null;
+	protected double[] alpha = null;
 	
 	
 	/**
-	 * Beta coefficients for X statistics as matrix.
-	 * Each row of the matrix a a list of two beta coefficients for a regressor.
-	 * As a convent, regression 1 also has a list of two beta coefficients.
+	 * Beta coefficients for X statistics as flat array.
+	 * The two beta coefficients for the j-th regressor are betas[2*j] and betas[2*j+1].
+	 * As a convent, regression 1 also has two beta coefficients.
 	 */
-	protected List<double[]> betas = null; 
+	protected double[] betas = null; 
 	
 	
 	/**
@@ -73,9 +82,9 @@ public class ExchangedParameter implements Cloneable, Serializable {
 	
 	
 	/**
-	 * Default constructor.
+	 * Default constructor, which is public for externalization.
 	 */
-	private ExchangedParameter() {
+	public ExchangedParameter() {
 		
 	}
 	
@@ -85,7 +94,7 @@ public class ExchangedParameter implements Cloneable, Serializable {
 	 * @param alpha specified alpha. It must be not null.
 	 */
 	public ExchangedParameter(List<Double> alpha) {
-		this.alpha = alpha;
+		setAlpha(alpha);
 	}
 
 	
@@ -95,6 +104,17 @@ public class ExchangedParameter implements Cloneable, Serializable {
 	 * @param betas specified betas. It must be not null.
 	 */
 	public ExchangedParameter(List<Double> alpha, List<double[]> betas) {
+		setAlpha(alpha);
+		setBetas(betas);
+	}
+
+	
+	/**
+	 * Constructor with specified alpha and betas as primitive arrays. The arrays are not copied.
+	 * @param alpha specified alpha. It must be not null.
+	 * @param betas specified betas as flat array in which two beta coefficients for the j-th regressor are betas[2*j] and betas[2*j+1]. It can be null.
+	 */
+	public ExchangedParameter(double[] alpha, double[] betas) {
 		this.alpha = alpha;
 		this.betas = betas;
 	}
@@ -122,8 +142,8 @@ public class ExchangedParameter implements Cloneable, Serializable {
 	 * Note, X statistics is (1, x1, x2,..., xn) but normal distribution of X variable has x1, x2,..., xn.
 	 */
 	public ExchangedParameter(List<Double> alpha, List<double[]> betas, double coeff, double zVariance, NormalDisParameter xNormalDisParameter) {
-		this.alpha = alpha;
-		this.betas = betas;
+		setAlpha(alpha);
+		setBetas(betas);
 		this.coeff = coeff;
 		this.zVariance = zVariance;
 		this.xNormalDisParameter = xNormalDisParameter;
@@ -134,15 +154,8 @@ public class ExchangedParameter implements Cloneable, Serializable {
 	public Object clone() {
 		ExchangedParameter newParameter = new ExchangedParameter();
 		newParameter.coeff = this.coeff;
-		newParameter.alpha = (this.alpha != null ? DSUtil.toDoubleList(this.alpha) : null);
-		
-		if (this.betas != null) {
-			newParameter.betas = Util.newList(this.betas.size());
-			for (double[] array : this.betas) {
-				newParameter.betas.add(Arrays.copyOf(array, array.length));
-			}
-		}
-		
+		newParameter.alpha = (this.alpha != null ? this.alpha.clone() : null);
+		newParameter.betas = (this.betas != null ? this.betas.clone() : null);
 		newParameter.zVariance = this.zVariance;
 		
 		if (this.xNormalDisParameter != null)
@@ -152,6 +165,20 @@ public class ExchangedParameter implements Cloneable, Serializable {
 	}
 
 	
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		out.writeByte(ParameterCodec.VERSION);
+		ParameterCodec.writeParameter(out, this, false);
+	}
+
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		ParameterCodec.checkVersion(in.readByte());
+		ParameterCodec.readParameter(in, this);
+	}
+
+
 	/**
 	 * Getting coefficient.
 	 * @return coefficient.
@@ -171,38 +198,70 @@ public class ExchangedParameter implements Cloneable, Serializable {
 
 
 	/**
-	 * Getting alpha parameter.
+	 * Getting alpha parameter as list which is a view of the internal array, so that setting its elements changes this parameter.
 	 * @return alpha parameter.
 	 */
 	public List<Double> getAlpha() {
-		return alpha;
+		return alpha != null ? new DoubleArrayList(alpha) : null;
 	}
 	
 	
+	/**
+	 * Getting alpha parameter as the internal array, which is not copied.
+	 * @return alpha parameter as the internal array.
+	 */
+	public double[] getAlphaArray() {
+		return alpha;
+	}
+
+	
 	/**
 	 * Setting alpha parameter.
 	 * @param alpha specified parameter.
 	 */
 	public void setAlpha(List<Double> alpha) {
-		this.alpha = alpha;
+		this.alpha = alpha != null ? DSUtil.toDoubleArray(alpha) : null;
 	}
 
 	
 	/**
-	 * Getting betas.
+	 * Getting betas as list of pairs of beta coefficients. The pairs are copied from the internal array, so that changing them does not change this parameter.
 	 * @return betas.
 	 */
 	public List<double[]> getBetas() {
-		return betas;
+		if (betas == null) return null;
+		
+		List<double[]> list = Util.newList(betas.length / 2);
+		for (int j = 0; j < betas.length / 2; j++) list.add(new double[] {betas[2*j], betas[2*j+1]});
+		return list;
 	}
 	
 	
+	/**
+	 * Getting betas as the internal flat array, which is not copied. The two beta coefficients for the j-th regressor are betas[2*j] and betas[2*j+1].
+	 * @return betas as the internal flat array.
+	 */
+	public double[] getBetaArray() {
+		return betas;
+	}
+
+	
 	/**
 	 * Setting betas parameter.
-	 * @param betas specified betas.
+	 * @param betas specified betas, each of which is a pair of beta coefficients for a regressor.
 	 */
 	public void setBetas(List<double[]> betas) {
-		this.betas = betas;
+		if (betas == null) {
+			this.betas = null;
+			return;
+		}
+		
+		this.betas = new double[2 * betas.size()];
+		for (int j = 0; j < betas.size(); j++) {
+			double[] beta = betas.get(j);
+			this.betas[2*j] = beta != null && beta.length > 0 ? beta[0] : Constants.UNUSED;
+			this.betas[2*j+1] = beta != null && beta.length > 1 ? beta[1] : Constants.UNUSED;
+		}
 	}
 
 	
@@ -347,15 +406,15 @@ public class ExchangedParameter implements Cloneable, Serializable {
 	 * @return true if the terminated condition is satisfied.
 	 */
 	public boolean terminatedCondition(double threshold, ExchangedParameter currentParameter, ExchangedParameter previousParameter, boolean ratioMode) {
-		List<Double> alpha1 = previousParameter != null ? previousParameter.getAlpha() : null;
-		List<Double> alpha2 = currentParameter.getAlpha();
-		List<Double> alpha3 = this.getAlpha();
+		double[] alpha1 = previousParameter != null ? previousParameter.alpha : null;
+		double[] alpha2 = currentParameter.alpha;
+		double[] alpha3 = this.alpha;
 		if (alpha3 != null && alpha2 != null) {
-			for (int i = 0; i < alpha2.size(); i++) {
-				if (notSatisfy(alpha3.get(i), alpha2.get(i), threshold, ratioMode)) {
+			for (int i = 0; i < alpha2.length; i++) {
+				if (notSatisfy(alpha3[i], alpha2[i], threshold, ratioMode)) {
 					if (alpha1 == null)
 						return false;
-					else if (notSatisfy(alpha3.get(i), alpha1.get(i), threshold, ratioMode)) //previous parameter is used to avoid skip-steps in optimization for too acute function.
+					else if (notSatisfy(alpha3[i], alpha1[i], threshold, ratioMode)) //previous parameter is used to avoid skip-steps in optimization for too acute function.
 						return false;
 				}
 			}
@@ -367,6 +426,26 @@ public class ExchangedParameter implements Cloneable, Serializable {
 	}
 	
 	
+	/**
+	 * Calculating delta between this parameter and other parameter, which is the maximum absolute difference of alpha coefficients and mixture coefficients.
+	 * @param other other parameter.
+	 * @return delta between this parameter and other parameter. Return NaN if the delta cannot be calculated.
+	 */
+	public double delta(ExchangedParameter other) {
+		if (other == null) return Constants.UNUSED;
+		double[] alpha1 = this.alpha;
+		double[] alpha2 = other.alpha;
+		if (alpha1 == null || alpha2 == null || alpha1.length != alpha2.length) return Constants.UNUSED;
+		
+		double delta = 0;
+		for (int i = 0; i < alpha1.length; i++)
+			delta = Math.max(delta, Math.abs(alpha1[i] - alpha2[i]));
+		if (Util.isUsed(this.getCoeff()) && Util.isUsed(other.getCoeff()))
+			delta = Math.max(delta, Math.abs(this.getCoeff() - other.getCoeff()));
+		return delta;
+	}
+	
+	
 	/**
 	 * Testing the terminated condition between this parameter (estimated parameter) and other parameter (current parameter).
 	 * This method tests all sub-parameters and so it is currently not used. It is used for backup.
@@ -478,11 +557,11 @@ public class ExchangedParameter implements Cloneable, Serializable {
 			return true;
 		else if (this.alpha == null || other.alpha == null)
 			return false;
-		else if (this.alpha.size() != other.alpha.size())
+		else if (this.alpha.length != other.alpha.length)
 			return false;
 		 
-		for (int j = 0; j < this.alpha.size(); j++) {
-			if (this.alpha.get(j) != other.alpha.get(j))
+		for (int j = 0; j < this.alpha.length; j++) {
+			if (this.alpha[j] != other.alpha[j])
 				return false;
  		}
 		
@@ -495,11 +574,11 @@ public class ExchangedParameter implements Cloneable, Serializable {
 	 * @return true if all alpha coefficients are zero.
 	 */
 	public boolean isNullAlpha() {
-		if (this.alpha == null || this.alpha.size() == 0)
+		if (this.alpha == null || this.alpha.length == 0)
 			return true;
 		
-		for (int j = 0; j < this.alpha.size(); j++) {
-			if (this.alpha.get(j) != 0)
+		for (int j = 0; j < this.alpha.length; j++) {
+			if (this.alpha[j] != 0)
 				return false;
  		}
 		return true;
@@ -512,9 +591,9 @@ public class ExchangedParameter implements Cloneable, Serializable {
 			return "";
 		
 		StringBuffer buffer = new StringBuffer();
-		for (int j = 0; j < this.alpha.size(); j++) {
+		for (int j = 0; j < this.alpha.length; j++) {
 			if (j > 0) buffer.append(", ");
-			buffer.append(MathUtil.format(this.alpha.get(j)));
+			buffer.append(MathUtil.format(this.alpha[j]));
 		}
 		
 		buffer.append(": ");
@@ -538,6 +617,34 @@ public class ExchangedParameter implements Cloneable, Serializable {
 	}
 
 	
+	/**
+	 * Calculating the scalar product of specified coefficients and X variable (regressor).
+	 * @param alpha specified coefficients.
+	 * @param xVector specified X variable (regressor), xVector[0] = 1 always.
+	 * @return the scalar product of specified coefficients and X variable (regressor).
+	 */
+	public static double mean(double[] alpha, double[] xVector) {
+		double mean = 0;
+		if (xVector.length < alpha.length) {
+			double[] xNewVector = new double[alpha.length];
+			Arrays.fill(xNewVector, 1);
+			int start = alpha.length - xVector.length;
+			for (int i = start; i < alpha.length; i++) {
+				xNewVector[start] = xVector[i - start];
+			}
+			xVector = xNewVector;
+		}
+		
+		for (int i = 0; i < alpha.length; i++) {
+			if (Util.isUsed(alpha[i]) && Util.isUsed(xVector[i]))
+				mean += alpha[i] * xVector[i];
+			else
+				return Constants.UNUSED;
+		}
+		return mean;
+	}
+
+	
 	/**
 	 * Calculating the scalar product of specified coefficients and X variable (regressor).
 	 * @param alpha specified coefficients.
@@ -731,10 +838,11 @@ public class ExchangedParameter implements Cloneable, Serializable {
 	
 	/**
 	 * This class represents parameter of multivariate normal distribution.
+	 * Mean is stored as primitive array and variance (co-variance matrix) is stored as packed upper triangle because it is symmetric.
 	 * @author Loc Nguyen
 	 * @version 1.0
 	 */
-	public static class NormalDisParameter implements Cloneable, Serializable {
+	public static class NormalDisParameter implements Cloneable, Externalizable {
 		
 		/**
 		 * Default serial version UID.
@@ -744,26 +852,48 @@ public class ExchangedParameter implements Cloneable, Serializable {
 		/**
 		 * Mean.
 		 */
-		private List<Double> mean = null;
+		private double[] mean = null;
+		
+		/**
+		 * Variance as packed upper triangle in row order, whose length is n*(n+1)/2 where n is the length of mean.
+		 */
+		private double[] variance = null;
 		
 		/**
-		 * Variance.
+		 * Full variance matrix which is created from packed variance when it is requested as list. It is not serialized.
 		 */
-		private List<double[]> variance = null;
+		private transient List<double[]> varianceMatrix = null;
 		
 		/**
-		 * Default constructor.
+		 * Default constructor, which is public for externalization.
 		 */
-		private NormalDisParameter() {
+		public NormalDisParameter() {
 			
 		}
 		
 		/**
 		 * Constructor of specified mean and variance.
 		 * @param mean specified mean.
-		 * @param variance specified variance.
+		 * @param variance specified variance which is symmetric matrix. Only its upper triangle is used.
 		 */
 		public NormalDisParameter(List<Double> mean, List<double[]> variance) {
+			this.mean = mean != null ? DSUtil.toDoubleArray(mean) : null;
+			if (variance == null) return;
+			
+			int n = variance.size();
+			this.variance = new double[n*(n+1)/2];
+			for (int i = 0, index = 0; i < n; i++) {
+				double[] row = variance.get(i);
+				for (int j = i; j < n; j++) this.variance[index++] = row[j];
+			}
+		}
+		
+		/**
+		 * Constructor of specified mean and packed variance. The arrays are not copied.
+		 * @param mean specified mean.
+		 * @param variance specified variance as packed upper triangle in row order.
+		 */
+		public NormalDisParameter(double[] mean, double[] variance) {
 			this.mean = mean;
 			this.variance = variance;
 		}
@@ -773,65 +903,13 @@ public class ExchangedParameter implements Cloneable, Serializable {
 		 * @param stat given a large statistics.
 		 */
 		public NormalDisParameter(LargeStatistics stat) {
-			if (stat == null) return;
-			List<double[]> xData = stat.getXData();
-			if (xData == null || xData.size() == 0) return;
-			
-			int n = xData.get(0).length - 1;
-			if (n <= 0) return;
-			
-			List<Double> xMean = DSUtil.initDoubleList(n, 0);
-			int N = xData.size();
-			for (int i = 0; i < N; i++) {
-				double[] x = xData.get(i);
-				for (int j = 0; j < n; j++) {
-					xMean.set(j, xMean.get(j) + x[j+1]);
-				}
-			}
-			for (int j = 0; j < n; j++) {
-				xMean.set(j, xMean.get(j) / (double)N);
-			}
-			
-			
-			List<double[]> xVariance = Util.newList(n);
-			for (int i = 0; i < n; i++) {
-				double[] x = new double[n];
-				Arrays.fill(x, 0);
-				xVariance.add(x);
-			}
-			
-			for (int i = 0; i < N; i++) {
-				double[] d = xData.get(i);
-				for (int j = 0; j < n; j++) {d[j+1] = d[j+1] - xMean.get(j);}
-				
-				for (int j = 0; j < n; j++) {
-					double[] x = xVariance.get(j);
-					for (int k = 0; k < n; k++) {
-						x[k] = x[k] + d[j+1]*d[k+1];
-					}
-				}
-			}
-			
-			for (int j = 0; j < n; j++) {
-				double[] x = xVariance.get(j);
-				for (int k = 0; k < n; k++) {
-					x[k] = x[k] / (double)N;
-				}
-			}
-			
-			
-//			if (!RMAbstract.matrixIsInvertible(xVariance))
-//				xVariance = createDiagonalVariance(n, 1);
-//			if (xVariance.size() > 0) xVariance.get(0)[0] = Double.MIN_VALUE;
-
-			this.mean = xMean;
-			this.variance = xVariance;
+			this(stat, null);
 		}
 		
 		/**
 		 * Constructor with a large statistics and conditional probabilities.
 		 * @param stat given a large statistics.
-		 * @param kCondProbs conditional probabilities.
+		 * @param kCondProbs conditional probabilities. If it is null, all rows have the same weight.
 		 */
 		public NormalDisParameter(LargeStatistics stat, List<Double> kCondProbs) {
 			if (stat == null) return;
@@ -842,57 +920,55 @@ public class ExchangedParameter implements Cloneable, Serializable {
 			if (n <= 0) return;
 			
 			int N = xData.size();
+			double[] weights = null;
 			double sumCondProbs = 0;
-			for (int i = 0; i < N; i++) {sumCondProbs += kCondProbs.get(i);}
+			if (kCondProbs != null) {
+				weights = new double[N];
+				for (int i = 0; i < N; i++) {
+					weights[i] = kCondProbs.get(i);
+					sumCondProbs += weights[i];
+				}
+				if (sumCondProbs == 0) weights = null;
+			}
 			
-			List<Double> xMean = DSUtil.initDoubleList(n, 0);
+			double[] xMean = new double[n];
 			for (int i = 0; i < N; i++) {
 				double[] x = xData.get(i);
 				for (int j = 0; j < n; j++) {
-					if (sumCondProbs != 0)
-						xMean.set(j, xMean.get(j) + kCondProbs.get(i)*x[j+1]);
+					if (weights != null)
+						xMean[j] = xMean[j] + weights[i]*x[j+1];
 					else
-						xMean.set(j, xMean.get(j) + x[j+1]);
+						xMean[j] = xMean[j] + x[j+1];
 				}
 			}
 			for (int j = 0; j < n; j++) {
-				if (sumCondProbs != 0)
-					xMean.set(j, xMean.get(j)/sumCondProbs);
+				if (weights != null)
+					xMean[j] = xMean[j]/sumCondProbs;
 				else
-					xMean.set(j, xMean.get(j)/N);
-			}
-			
-			
-			List<double[]> xVariance = Util.newList(n);
-			for (int i = 0; i < n; i++) {
-				double[] x = new double[n];
-				Arrays.fill(x, 0);
-				xVariance.add(x);
+					xMean[j] = xMean[j]/N;
 			}
 			
+			double[] xVariance = new double[n*(n+1)/2];
+			double[] d = new double[n]; //Data is not changed here because it can be shared by concurrent models.
 			for (int i = 0; i < N; i++) {
-				double[] d = xData.get(i);
-				for (int j = 0; j < n; j++) {d[j+1] = d[j+1] - xMean.get(j);}
+				double[] xVector = xData.get(i);
+				for (int j = 0; j < n; j++) {d[j] = xVector[j+1] - xMean[j];}
 				
-				for (int j = 0; j < n; j++) {
-					double[] x = xVariance.get(j);
-					for (int k = 0; k < n; k++) {
-						if (sumCondProbs != 0)
-							x[k] = x[k] + kCondProbs.get(i)*d[j+1]*d[k+1];
+				for (int j = 0, index = 0; j < n; j++) {
+					for (int k = j; k < n; k++, index++) {
+						if (weights != null)
+							xVariance[index] = xVariance[index] + weights[i]*d[j]*d[k];
 						else
-							x[k] = x[k] + d[j+1]*d[k+1];
+							xVariance[index] = xVariance[index] + d[j]*d[k];
 					}
 				}
 			}
 			
-			for (int j = 0; j < n; j++) {
-				double[] x = xVariance.get(j);
-				for (int k = 0; k < n; k++) {
-					if (sumCondProbs != 0)
-						x[k] = x[k]/sumCondProbs;
-					else
-						x[k] = x[k]/N;
-				}
+			for (int index = 0; index < xVariance.length; index++) {
+				if (weights != null)
+					xVariance[index] = xVariance[index]/sumCondProbs;
+				else
+					xVariance[index] = xVariance[index]/N;
 			}
 			
 			
@@ -905,20 +981,62 @@ public class ExchangedParameter implements Cloneable, Serializable {
 		}
 
 		/**
-		 * Getting mean.
+		 * Getting mean as list which is a view of the internal array.
 		 * @return mean.
 		 */
 		public List<Double> getMean() {
+			return mean != null ? new DoubleArrayList(mean) : null;
+		}
+		
+		/**
+		 * Getting mean as the internal array, which is not copied.
+		 * @return mean as the internal array.
+		 */
+		public double[] getMeanArray() {
 			return mean;
 		}
 		
 		/**
-		 * Getting variance.
+		 * Getting variance as full matrix which is created from the packed variance once. The matrix should not be changed.
 		 * @return variance.
 		 */
-		public List<double[]> getVariance() {
+		public synchronized List<double[]> getVariance() {
+			if (variance == null) return null;
+			if (varianceMatrix != null) return varianceMatrix;
+			
+			int n = getDimension();
+			List<double[]> matrix = Util.newList(n);
+			for (int i = 0; i < n; i++) matrix.add(new double[n]);
+			for (int i = 0, index = 0; i < n; i++) {
+				for (int j = i; j < n; j++, index++) {
+					matrix.get(i)[j] = variance[index];
+					matrix.get(j)[i] = variance[index];
+				}
+			}
+			
+			return varianceMatrix = matrix;
+		}
+		
+		/**
+		 * Getting variance as the internal packed upper triangle in row order, which is not copied.
+		 * @return variance as the internal packed upper triangle.
+		 */
+		public double[] getVarianceArray() {
 			return variance;
 		}
+		
+		/**
+		 * Getting dimension of this normal distribution.
+		 * @return dimension of this normal distribution.
+		 */
+		public int getDimension() {
+			if (mean != null)
+				return mean.length;
+			else if (variance != null)
+				return (int)Math.round((Math.sqrt(8.0*variance.length + 1) - 1) / 2);
+			else
+				return 0;
+		}
 
 		/**
 		 * Testing the terminated condition between this parameter (estimated parameter) and other parameter (current parameter).
@@ -930,70 +1048,69 @@ public class ExchangedParameter implements Cloneable, Serializable {
 		 * @return true if the terminated condition is satisfied.
 		 */
 		public boolean terminatedCondition(double threshold, NormalDisParameter currentParameter, NormalDisParameter previousParameter, boolean ratioMode) {
-			List<Double> mean1 = previousParameter != null ? previousParameter.getMean() : null;
-			List<Double> mean2 = currentParameter.getMean();
-			List<Double> mean3 = this.getMean();
-			if (mean3 != null && mean2 != null) {
-				for (int i = 0; i < mean2.size(); i++) {
-					if (notSatisfy(mean3.get(i), mean2.get(i), threshold, ratioMode)) {
-						if (mean1 == null)
+			if (!terminatedCondition(threshold, this.mean, currentParameter.mean, previousParameter != null ? previousParameter.mean : null, ratioMode))
+				return false;
+			else
+				return terminatedCondition(threshold, this.variance, currentParameter.variance, previousParameter != null ? previousParameter.variance : null, ratioMode);
+		}
+
+		/**
+		 * Testing the terminated condition between estimated values and current values.
+		 * @param threshold specified threshold
+		 * @param values3 estimated values.
+		 * @param values2 current values.
+		 * @param values1 previous values, which can be null.
+		 * @param ratioMode flag to indicate whether the threshold is for ratio.
+		 * @return true if the terminated condition is satisfied.
+		 */
+		private static boolean terminatedCondition(double threshold, double[] values3, double[] values2, double[] values1, boolean ratioMode) {
+			if (values3 != null && values2 != null) {
+				for (int i = 0; i < values2.length; i++) {
+					if (notSatisfy(values3[i], values2[i], threshold, ratioMode)) {
+						if (values1 == null)
 							return false;
-						else if (notSatisfy(mean3.get(i), mean1.get(i), threshold, ratioMode)) //previous parameter is used to avoid skip-steps in optimization for too acute function.
+						else if (notSatisfy(values3[i], values1[i], threshold, ratioMode)) //previous parameter is used to avoid skip-steps in optimization for too acute function.
 							return false;
 					}
 				}
+				return true;
 			}
-			else if(mean3 != null || mean2 != null)
-				return false;
-			
-			List<double[]> variance1 = previousParameter != null ? previousParameter.getVariance() : null;
-			List<double[]> variance2 = currentParameter.getVariance();
-			List<double[]> variance3 = this.getVariance();
-			if(variance3 != null && variance2 != null) {
-				for (int i = 0; i < variance2.size(); i++) {
-					double[]  v1 = variance1 != null ? variance1.get(i) : null;  
-					double[]  v2 = variance2.get(i);
-					double[]  v3 = variance3.get(i);
-					
-					for (int j = 0; j < v2.length; j++) {
-						if (notSatisfy(v3[j], v2[j], threshold, ratioMode)) {
-							if (v1 == null)
-								return false;
-							else if (notSatisfy(v3[j], v1[j], threshold, ratioMode)) //previous parameter is used to avoid skip-steps in optimization for too acute function.
-								return false;
-						}
-					}
-				}
-			}
-			else if(variance3 != null || variance2 != null)
-				return false;
-			
-			return true;
+			else
+				return values3 == null && values2 == null;
+		}
+
+		@Override
+		public void writeExternal(ObjectOutput out) throws IOException {
+			out.writeByte(ParameterCodec.VERSION);
+			ParameterCodec.writeNormalDisParameter(out, this, false);
+		}
+
+		@Override
+		public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+			ParameterCodec.checkVersion(in.readByte());
+			NormalDisParameter parameter = ParameterCodec.readNormalDisParameter(in);
+			this.mean = parameter.mean;
+			this.variance = parameter.variance;
+			this.varianceMatrix = null;
 		}
 
 		@Override
 		public Object clone() {
 			NormalDisParameter newParameter = new NormalDisParameter();
-			newParameter.mean = (this.mean != null ? DSUtil.toDoubleList(this.mean) : null);
-			
-			if (this.variance != null) {
-				newParameter.variance = Util.newList(this.variance.size());
-				for (double[] array : this.variance) {
-					newParameter.variance.add(Arrays.copyOf(array, array.length));
-				}
-			}
-			
+			newParameter.mean = (this.mean != null ? this.mean.clone() : null);
+			newParameter.variance = (this.variance != null ? this.variance.clone() : null);
 			return newParameter;
 		}
 
 		@Override
 		public String toString() {
-			if (mean == null || mean.size() == 0 || variance == null || variance.size() == 0)
+			List<double[]> variance = getVariance();
+			if (mean == null || mean.length == 0 || variance == null || variance.size() == 0)
 				return "";
 			
 			StringBuffer buffer = new StringBuffer();
 //			buffer.append("mean=(" + DSUtil.shortenVerbalName(TextParserUtil.toTextFormatted(mean, ",")) + "), ");
-			buffer.append("mean=(" + TextParserUtil.toTextFormatted(mean, ",") + "), ");
+			buffer.append("mean=(" + TextParserUtil.toTextFormatted(getMean(), ",") + "), ");
 			buffer.append("variance=(");
 			StringBuffer var = new StringBuffer();
 			for (int i = 0; i < variance.size(); i++) {
@@ -1028,6 +1145,52 @@ public class ExchangedParameter implements Cloneable, Serializable {
 	}
 
 	
+	/**
+	 * This class is a fixed-size list view of an array of real numbers, which is used as adapter of primitive coefficients.
+	 * Setting elements of this list changes the array.
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 */
+	protected static class DoubleArrayList extends AbstractList<Double> implements RandomAccess, Serializable {
+		
+		/**
+		 * Default serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * Internal array.
+		 */
+		private double[] array = null;
+		
+		/**
+		 * Constructor with specified array.
+		 * @param array specified array.
+		 */
+		public DoubleArrayList(double[] array) {
+			this.array = array;
+		}
+		
+		@Override
+		public Double get(int index) {
+			return array[index];
+		}
+		
+		@Override
+		public Double set(int index, Double element) {
+			double old = array[index];
+			array[index] = element;
+			return old;
+		}
+		
+		@Override
+		public int size() {
+			return array.length;
+		}
+		
+	}
+
+	
 }
 
 
@@ -0,0 +1,215 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import net.hudup.core.Util;
+import net.rem.regression.LargeStatistics;
+
+/**
+ * This class groups rows of data by their missing patterns. A missing pattern consists of indices of missing regressors and whether the response is missing.
+ * Because data usually have a few missing patterns, coefficients for imputing missing values can be calculated once per pattern instead of once per row.
+ * Rows are grouped only once because internal data of regression model is not changed during learning.
+ * Values needed for imputation are also copied into columns of every pattern so that imputation kernels {@link REMKernels} can process many rows at once.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class MissingPatterns {
+
+
+	/**
+	 * Data whose rows are grouped.
+	 */
+	protected LargeStatistics data = null;
+
+
+	/**
+	 * Number of rows of data when rows are grouped.
+	 */
+	protected int size = 0;
+
+
+	/**
+	 * List of missing patterns.
+	 */
+	protected List<Pattern> patterns = Util.newList();
+
+
+	/**
+	 * Constructor with specified data.
+	 * @param data specified data. Regressor vector X = (1, x1, x2,..., x(n-1)) and response vector Z = (1, z) of every row.
+	 */
+	public MissingPatterns(LargeStatistics data) {
+		this.data = data;
+		if (data == null) return;
+
+		List<double[]> xData = data.getXData();
+		List<double[]> zData = data.getZData();
+		this.size = zData.size();
+		Map<BitSet, int[]> counts = Util.newMap();
+		BitSet[] keys = new BitSet[size];
+		for (int i = 0; i < size; i++) {
+			double[] xVector = xData.get(i);
+			BitSet key = new BitSet(xVector.length + 1);
+			for (int j = 1; j < xVector.length; j++) {
+				if (!Util.isUsed(xVector[j])) key.set(j);
+			}
+			if (!Util.isUsed(zData.get(i)[1])) key.set(xVector.length);
+
+			int[] count = counts.get(key);
+			if (count == null) {
+				count = new int[] {0};
+				counts.put(key, count);
+			}
+			count[0]++;
+			keys[i] = key;
+		}
+
+		Map<BitSet, Pattern> patternMap = Util.newMap();
+		for (int i = 0; i < size; i++) {
+			Pattern pattern = patternMap.get(keys[i]);
+			if (pattern == null) {
+				pattern = new Pattern(keys[i], xData.get(i).length, counts.get(keys[i])[0]);
+				patternMap.put(keys[i], pattern);
+				patterns.add(pattern);
+			}
+			pattern.add(i, xData.get(i), zData.get(i)[1]);
+		}
+	}
+
+
+	/**
+	 * Getting data whose rows are grouped.
+	 * @return data whose rows are grouped.
+	 */
+	public LargeStatistics getData() {
+		return data;
+	}
+
+
+	/**
+	 * Getting list of missing patterns.
+	 * @return list of missing patterns.
+	 */
+	public List<Pattern> getPatterns() {
+		return patterns;
+	}
+
+
+	/**
+	 * Checking whether rows of specified data are grouped by this object.
+	 * @param data specified data.
+	 * @return whether rows of specified data are grouped by this object.
+	 */
+	public boolean isGroupedFrom(LargeStatistics data) {
+		return data != null && this.data == data && this.size == data.size();
+	}
+
+
+	/**
+	 * This class represents a missing pattern and its rows.
+	 *
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 *
+	 */
+	public static class Pattern {
+
+		/**
+		 * Indices of missing regressors, which start from 1 because X = (1, x1, x2,..., x(n-1)).
+		 */
+		public int[] missing = null;
+
+		/**
+		 * Indices of used regressors, which always include 0 because X = (1, x1, x2,..., x(n-1)).
+		 */
+		public int[] used = null;
+
+		/**
+		 * Whether response is missing.
+		 */
+		public boolean zMissing = false;
+
+		/**
+		 * Indices of rows having this pattern.
+		 */
+		public int[] rows = null;
+
+		/**
+		 * Columns of regressors of rows having this pattern, which are only stored if response is missing because they are used to estimate response.
+		 * Column of constant 1 (index 0) and columns of missing regressors are null.
+		 */
+		public double[][] columns = null;
+
+		/**
+		 * Column of responses of rows having this pattern, which is only stored if response is not missing.
+		 */
+		public double[] z = null;
+
+		/**
+		 * Number of rows having this pattern.
+		 */
+		protected int size = 0;
+
+		/**
+		 * Constructor with key of pattern, length of regressor vector, and number of rows.
+		 * @param key key of pattern whose set bits are indices of missing regressors and the bit at the length of regressor vector indicates missing response.
+		 * @param n length of regressor vector X = (1, x1, x2,..., x(n-1)).
+		 * @param rowCount number of rows having this pattern.
+		 */
+		protected Pattern(BitSet key, int n, int rowCount) {
+			this.zMissing = key.get(n);
+			int missingCount = key.get(1, n).cardinality();
+			this.missing = new int[missingCount];
+			this.used = new int[n - missingCount];
+			for (int j = 0, u = 0, v = 0; j < n; j++) {
+				if (key.get(j))
+					this.missing[u++] = j;
+				else
+					this.used[v++] = j;
+			}
+			this.rows = new int[rowCount];
+			if (this.zMissing) {
+				this.columns = new double[n][];
+				for (int v = 1; v < this.used.length; v++) this.columns[this.used[v]] = new double[rowCount];
+			}
+			else
+				this.z = new double[rowCount];
+		}
+
+		/**
+		 * Adding a row to this pattern.
+		 * @param row index of the row.
+		 * @param xVector regressor vector of the row.
+		 * @param zValue response value of the row.
+		 */
+		protected void add(int row, double[] xVector, double zValue) {
+			if (columns != null) {
+				for (int v = 1; v < used.length; v++) columns[used[v]][size] = xVector[used[v]];
+			}
+			if (z != null) z[size] = zValue;
+			rows[size++] = row;
+		}
+
+		/**
+		 * Getting number of rows having this pattern.
+		 * @return number of rows having this pattern.
+		 */
+		public int size() {
+			return size;
+		}
+
+	}
+
+
+}
@@ -0,0 +1,438 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import net.hudup.core.Util;
+import net.hudup.core.logistic.DSUtil;
+import net.rem.regression.em.ExchangedParameter.NormalDisParameter;
+
+/**
+ * This utility class is versioned compact binary codec of {@link ExchangedParameter} and lists of exchanged parameters of mixture models.
+ * Values are written as flat primitive doubles without boxing, or as 32-bit floats if float precision is requested.
+ * Layout of a parameter is a flag byte followed by coefficient, Z variance, and optionally alpha vector, beta matrix, and normal distribution of X variable.
+ * A vector is its length followed by its values. A matrix is its row number and column number followed by its values, where column number -1 means rows of different lengths, each of which is written as vector.
+ * Column number -2 means packed symmetric matrix whose upper triangle of n(n+1)/2 values is written in row order, which is used for variance of normal distribution since version 2.
+ * Variance written as full symmetric matrix by version 1 is still read. Negative lengths are rejected as invalid data.
+ * The codec is used by externalization of {@link ExchangedParameter} so that remote transfer and storage of trained models are compact.
+ * Externalization always writes double precision because it also serves checkpoints and remote calls of workers, which must be exact.
+ * Float precision is only used when it is requested explicitly by {@link #encode(Object, boolean)} for storing or transferring a trained model.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public final class ParameterCodec {
+
+
+	/**
+	 * Magic number of encoded bytes, which is "REMP" in ASCII.
+	 */
+	public final static int MAGIC = 0x52454D50;
+
+
+	/**
+	 * Version of codec.
+	 */
+	public final static byte VERSION = 2;
+
+
+	/**
+	 * Kind of null parameter.
+	 */
+	private final static byte KIND_NULL = 0;
+
+
+	/**
+	 * Kind of single exchanged parameter.
+	 */
+	private final static byte KIND_PARAMETER = 1;
+
+
+	/**
+	 * Kind of list of exchanged parameters.
+	 */
+	private final static byte KIND_LIST = 2;
+
+
+	/**
+	 * Column number of matrix whose rows have different lengths.
+	 */
+	private final static int COLS_RAGGED = -1;
+
+
+	/**
+	 * Column number of packed symmetric matrix whose upper triangle is written in row order.
+	 */
+	private final static int COLS_PACKED = -2;
+
+
+	/**
+	 * Flag of float precision.
+	 */
+	private final static int FLAG_FLOAT32 = 1;
+
+
+	/**
+	 * Flag of existence of alpha coefficients.
+	 */
+	private final static int FLAG_ALPHA = 2;
+
+
+	/**
+	 * Flag of existence of beta coefficients.
+	 */
+	private final static int FLAG_BETAS = 4;
+
+
+	/**
+	 * Flag of existence of normal distribution of X variable.
+	 */
+	private final static int FLAG_XNORMAL = 8;
+
+
+	/**
+	 * Private constructor.
+	 */
+	private ParameterCodec() {
+
+	}
+
+
+	/**
+	 * Encoding parameter of REM or mixture REM into bytes with header of magic number and version.
+	 * @param parameter parameter which is exchanged parameter, list of exchanged parameters, or null.
+	 * @param float32 flag to indicate whether values are written with float precision.
+	 * @return encoded bytes.
+	 * @throws IOException if any error raises or the parameter is not supported.
+	 */
+	public static byte[] encode(Object parameter, boolean float32) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+		write(out, parameter, float32);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+
+	/**
+	 * Decoding parameter of REM or mixture REM from bytes encoded by {@link #encode(Object, boolean)}.
+	 * @param bytes encoded bytes.
+	 * @return exchanged parameter, list of exchanged parameters, or null.
+	 * @throws IOException if any error raises or the bytes are invalid.
+	 */
+	public static Object decode(byte[] bytes) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+		if (in.readInt() != MAGIC) throw new IOException("Invalid encoded parameter");
+		checkVersion(in.readByte());
+		return read(in);
+	}
+
+
+	/**
+	 * Writing parameter of REM or mixture REM without header.
+	 * @param out data output.
+	 * @param parameter parameter which is exchanged parameter, list of exchanged parameters, or null.
+	 * @param float32 flag to indicate whether values are written with float precision.
+	 * @throws IOException if any error raises or the parameter is not supported.
+	 */
+	public static void write(DataOutput out, Object parameter, boolean float32) throws IOException {
+		if (parameter == null)
+			out.writeByte(KIND_NULL);
+		else if (parameter instanceof ExchangedParameter) {
+			out.writeByte(KIND_PARAMETER);
+			writeParameter(out, (ExchangedParameter)parameter, float32);
+		}
+		else if (parameter instanceof List<?>) {
+			List<?> parameters = (List<?>)parameter;
+			out.writeByte(KIND_LIST);
+			out.writeInt(parameters.size());
+			for (Object element : parameters) {
+				if (!(element instanceof ExchangedParameter))
+					throw new IOException("Element of parameter list is not exchanged parameter");
+				writeParameter(out, (ExchangedParameter)element, float32);
+			}
+		}
+		else
+			throw new IOException("Unsupported parameter " + parameter.getClass().getName());
+	}
+
+
+	/**
+	 * Reading parameter of REM or mixture REM written by {@link #write(DataOutput, Object, boolean)}.
+	 * @param in data input.
+	 * @return exchanged parameter, list of exchanged parameters, or null.
+	 * @throws IOException if any error raises.
+	 */
+	public static Object read(DataInput in) throws IOException {
+		byte kind = in.readByte();
+		if (kind == KIND_NULL)
+			return null;
+		else if (kind == KIND_PARAMETER)
+			return readParameter(in);
+		else if (kind == KIND_LIST) {
+			int size = checkLength(in.readInt());
+			List<ExchangedParameter> parameters = Util.newList(size);
+			for (int k = 0; k < size; k++) parameters.add(readParameter(in));
+			return parameters;
+		}
+		else
+			throw new IOException("Invalid kind of encoded parameter " + kind);
+	}
+
+
+	/**
+	 * Writing exchanged parameter.
+	 * @param out data output.
+	 * @param parameter exchanged parameter.
+	 * @param float32 flag to indicate whether values are written with float precision.
+	 * @throws IOException if any error raises.
+	 */
+	public static void writeParameter(DataOutput out, ExchangedParameter parameter, boolean float32) throws IOException {
+		int flags = (float32 ? FLAG_FLOAT32 : 0)
+			| (parameter.alpha != null ? FLAG_ALPHA : 0)
+			| (parameter.betas != null ? FLAG_BETAS : 0)
+			| (parameter.xNormalDisParameter != null ? FLAG_XNORMAL : 0);
+		out.writeByte(flags);
+		writeValue(out, parameter.coeff, float32);
+		writeValue(out, parameter.zVariance, float32);
+		if (parameter.alpha != null) writeVector(out, parameter.alpha, float32);
+		if (parameter.betas != null) {
+			//Flat betas are the matrix of pairs of beta coefficients in row order.
+			out.writeInt(parameter.betas.length / 2);
+			out.writeInt(2);
+			writeArray(out, parameter.betas, 0, parameter.betas.length / 2 * 2, float32);
+		}
+		if (parameter.xNormalDisParameter != null) writeNormalDisParameter(out, parameter.xNormalDisParameter, float32);
+	}
+
+
+	/**
+	 * Reading exchanged parameter.
+	 * @param in data input.
+	 * @return exchanged parameter.
+	 * @throws IOException if any error raises.
+	 */
+	public static ExchangedParameter readParameter(DataInput in) throws IOException {
+		ExchangedParameter parameter = new ExchangedParameter();
+		readParameter(in, parameter);
+		return parameter;
+	}
+
+
+	/**
+	 * Reading exchanged parameter into specified parameter.
+	 * @param in data input.
+	 * @param parameter specified parameter which receives read values.
+	 * @throws IOException if any error raises.
+	 */
+	static void readParameter(DataInput in, ExchangedParameter parameter) throws IOException {
+		int flags = in.readByte();
+		boolean float32 = (flags & FLAG_FLOAT32) != 0;
+		parameter.coeff = readValue(in, float32);
+		parameter.zVariance = readValue(in, float32);
+		parameter.alpha = (flags & FLAG_ALPHA) != 0 ? readVector(in, float32) : null;
+		parameter.betas = null;
+		if ((flags & FLAG_BETAS) != 0) {
+			int rows = checkLength(in.readInt());
+			int cols = in.readInt();
+			if (cols == 2)
+				parameter.betas = readArray(in, checkLength(2L * rows), float32);
+			else
+				parameter.setBetas(readRows(in, rows, cols, float32));
+		}
+		parameter.xNormalDisParameter = (flags & FLAG_XNORMAL) != 0 ? readNormalDisParameter(in) : null;
+	}
+
+
+	/**
+	 * Writing parameter of normal distribution.
+	 * @param out data output.
+	 * @param parameter parameter of normal distribution.
+	 * @param float32 flag to indicate whether values are written with float precision.
+	 * @throws IOException if any error raises.
+	 */
+	public static void writeNormalDisParameter(DataOutput out, NormalDisParameter parameter, boolean float32) throws IOException {
+		double[] mean = parameter.getMeanArray();
+		double[] variance = parameter.getVarianceArray();
+		out.writeByte((float32 ? FLAG_FLOAT32 : 0) | (mean != null ? FLAG_ALPHA : 0) | (variance != null ? FLAG_BETAS : 0));
+		if (mean != null) writeVector(out, mean, float32);
+		if (variance == null) return;
+		
+		//Packed variance is written as it is, which is upper triangle of symmetric matrix in row order.
+		int n = parameter.getDimension();
+		out.writeInt(n);
+		out.writeInt(COLS_PACKED);
+		writeArray(out, variance, 0, n*(n+1)/2, float32);
+	}
+
+
+	/**
+	 * Reading parameter of normal distribution.
+	 * @param in data input.
+	 * @return parameter of normal distribution.
+	 * @throws IOException if any error raises.
+	 */
+	public static NormalDisParameter readNormalDisParameter(DataInput in) throws IOException {
+		int flags = in.readByte();
+		boolean float32 = (flags & FLAG_FLOAT32) != 0;
+		double[] mean = (flags & FLAG_ALPHA) != 0 ? readVector(in, float32) : null;
+		if ((flags & FLAG_BETAS) == 0) return new NormalDisParameter(mean, null);
+		
+		int rows = checkLength(in.readInt());
+		int cols = in.readInt();
+		if (cols == COLS_PACKED) return new NormalDisParameter(mean, readArray(in, checkLength((long)rows*(rows+1)/2), float32));
+		if (cols != rows) return new NormalDisParameter(mean != null ? DSUtil.toDoubleList(mean) : null, readRows(in, rows, cols, float32));
+		
+		//Full symmetric matrix is written by version 1 and only its upper triangle is kept in packed variance.
+		double[] variance = new double[checkLength((long)rows*(rows+1)/2)];
+		for (int i = 0, index = 0; i < rows; i++) {
+			for (int j = 0; j < rows; j++) {
+				double value = readValue(in, float32);
+				if (j >= i) variance[index++] = value;
+			}
+		}
+		return new NormalDisParameter(mean, variance);
+	}
+
+
+	/**
+	 * Checking version of encoded data.
+	 * @param version version of encoded data.
+	 * @throws IOException if the version is not supported.
+	 */
+	static void checkVersion(byte version) throws IOException {
+		if (version < 1 || version > VERSION)
+			throw new IOException("Unsupported version " + version + " of encoded parameter");
+	}
+
+
+	/**
+	 * Checking length of vector or matrix read from encoded data.
+	 * @param length length read from encoded data or calculated from it.
+	 * @return the length if it is valid.
+	 * @throws IOException if the length is negative or too large for an array.
+	 */
+	private static int checkLength(long length) throws IOException {
+		if (length < 0 || length > Integer.MAX_VALUE - 8) throw new IOException("Invalid length " + length + " of encoded parameter");
+		return (int)length;
+	}
+
+
+	/**
+	 * Writing real value.
+	 * @param out data output.
+	 * @param value real value.
+	 * @param float32 flag to indicate whether the value is written with float precision.
+	 * @throws IOException if any error raises.
+	 */
+	private static void writeValue(DataOutput out, double value, boolean float32) throws IOException {
+		if (float32)
+			out.writeFloat((float)value);
+		else
+			out.writeDouble(value);
+	}
+
+
+	/**
+	 * Reading real value.
+	 * @param in data input.
+	 * @param float32 flag to indicate whether the value is written with float precision.
+	 * @return real value.
+	 * @throws IOException if any error raises.
+	 */
+	private static double readValue(DataInput in, boolean float32) throws IOException {
+		return float32 ? in.readFloat() : in.readDouble();
+	}
+
+
+	/**
+	 * Writing vector.
+	 * @param out data output.
+	 * @param vector vector.
+	 * @param float32 flag to indicate whether values are written with float precision.
+	 * @throws IOException if any error raises.
+	 */
+	private static void writeVector(DataOutput out, double[] vector, boolean float32) throws IOException {
+		out.writeInt(vector.length);
+		writeArray(out, vector, 0, vector.length, float32);
+	}
+
+
+	/**
+	 * Reading vector.
+	 * @param in data input.
+	 * @param float32 flag to indicate whether values are written with float precision.
+	 * @return vector.
+	 * @throws IOException if any error raises.
+	 */
+	private static double[] readVector(DataInput in, boolean float32) throws IOException {
+		return readArray(in, in.readInt(), float32);
+	}
+
+
+	/**
+	 * Writing range of array.
+	 * @param out data output.
+	 * @param array array.
+	 * @param from index of the first value.
+	 * @param to index after the last value.
+	 * @param float32 flag to indicate whether values are written with float precision.
+	 * @throws IOException if any error raises.
+	 */
+	private static void writeArray(DataOutput out, double[] array, int from, int to, boolean float32) throws IOException {
+		for (int i = from; i < to; i++) writeValue(out, array[i], float32);
+	}
+
+
+	/**
+	 * Reading array.
+	 * @param in data input.
+	 * @param n length of array.
+	 * @param float32 flag to indicate whether values are written with float precision.
+	 * @return array.
+	 * @throws IOException if any error raises.
+	 */
+	private static double[] readArray(DataInput in, int n, boolean float32) throws IOException {
+		double[] array = new double[checkLength(n)];
+		for (int i = 0; i < n; i++) array[i] = readValue(in, float32);
+		return array;
+	}
+
+
+	/**
+	 * Reading rows of matrix whose row number and column number are already read, where column number {@link #COLS_RAGGED} means that every row is written as vector.
+	 * @param in data input.
+	 * @param rows row number.
+	 * @param cols column number.
+	 * @param float32 flag to indicate whether values are written with float precision.
+	 * @return rows of matrix.
+	 * @throws IOException if any error raises.
+	 */
+	private static List<double[]> readRows(DataInput in, int rows, int cols, boolean float32) throws IOException {
+		if (rows < 0 || cols < COLS_RAGGED) throw new IOException("Invalid size " + rows + "x" + cols + " of encoded matrix");
+		List<double[]> matrix = Util.newList(rows);
+		for (int i = 0; i < rows; i++) {
+			int n = cols != COLS_RAGGED ? cols : in.readInt();
+			matrix.add(readArray(in, n, float32));
+		}
+		return matrix;
+	}
+
+
+}
@@ -0,0 +1,289 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.hudup.core.Constants;
+import net.hudup.core.Util;
+import net.hudup.core.logistic.DSUtil;
+
+/**
+ * This class is a bounded cache of predictions of mixture regression model, which is used when many inputs have the same regressor values.
+ * Each entry is keyed on regressor values of components together with mask of missing values, and it keeps weights of components and predicted value.
+ * The least recently used entry is evicted when the cache is full. The cache is cleared when the parameter or configuration it was filled with changes.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class PredictionCache {
+
+
+	/**
+	 * Maximum number of entries.
+	 */
+	protected int capacity = 0;
+
+
+	/**
+	 * Entries in access order, which evicts the least recently used entry.
+	 */
+	protected Map<Key, Entry> entries = null;
+
+
+	/**
+	 * Parameter with which entries are calculated.
+	 */
+	protected Object parameter = null;
+
+
+	/**
+	 * Flags of configuration with which entries are calculated.
+	 */
+	protected int flags = 0;
+
+
+	/**
+	 * Constructor with specified capacity.
+	 * @param capacity maximum number of entries, which must be positive.
+	 */
+	@SuppressWarnings("serial")
+	public PredictionCache(int capacity) {
+		this.capacity = capacity;
+		this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+				return size() > PredictionCache.this.capacity;
+			}
+
+		};
+	}
+
+
+	/**
+	 * Getting capacity.
+	 * @return maximum number of entries.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+
+	/**
+	 * Checking whether entries were calculated with specified parameter and flags of configuration. If not, all entries are removed.
+	 * @param parameter specified parameter which is compared by reference.
+	 * @param flags specified flags of configuration.
+	 */
+	public synchronized void validate(Object parameter, int flags) {
+		if (this.parameter == parameter && this.flags == flags) return;
+
+		entries.clear();
+		this.parameter = parameter;
+		this.flags = flags;
+	}
+
+
+	/**
+	 * Creating key of specified regressor values of components.
+	 * @param xStatistics regressor values of components.
+	 * @return key of specified regressor values of components.
+	 */
+	public Key key(List<double[]> xStatistics) {
+		return new Key(xStatistics);
+	}
+
+
+	/**
+	 * Getting entry of specified key.
+	 * @param key specified key.
+	 * @return entry of specified key. Return null if there is no such entry.
+	 */
+	public synchronized Entry get(Key key) {
+		return key != null ? entries.get(key) : null;
+	}
+
+
+	/**
+	 * Putting weights of components of specified key, which keeps predicted value if it was cached.
+	 * @param key specified key.
+	 * @param coeffs weights of components.
+	 * @return entry of specified key.
+	 */
+	public synchronized Entry putCoeffs(Key key, List<Double> coeffs) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			entry = new Entry();
+			entries.put(key, entry);
+		}
+		entry.coeffs = DSUtil.toDoubleArray(coeffs);
+		return entry;
+	}
+
+
+	/**
+	 * Putting weights of components and predicted value of specified key.
+	 * @param key specified key.
+	 * @param coeffs weights of components.
+	 * @param result predicted value.
+	 */
+	public synchronized void put(Key key, List<Double> coeffs, double result) {
+		Entry entry = putCoeffs(key, coeffs);
+		entry.result = result;
+		entry.hasResult = true;
+	}
+
+
+	/**
+	 * Removing all entries.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		parameter = null;
+		flags = 0;
+	}
+
+
+	/**
+	 * Getting number of entries.
+	 * @return number of entries.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+
+	/**
+	 * This class represents key of regressor values of components. Values are copied so that changing regressor values later does not change the key.
+	 *
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 *
+	 */
+	public static class Key {
+
+		/**
+		 * Regressor values of all components in sequence, in which missing values are replaced by zero.
+		 */
+		protected double[] values = null;
+
+		/**
+		 * Lengths of regressor vectors of components.
+		 */
+		protected int[] lengths = null;
+
+		/**
+		 * Mask of missing values.
+		 */
+		protected BitSet missing = new BitSet();
+
+		/**
+		 * Hash code.
+		 */
+		protected int hash = 0;
+
+		/**
+		 * Constructor with specified regressor values of components.
+		 * @param xStatistics regressor values of components.
+		 */
+		protected Key(List<double[]> xStatistics) {
+			int total = 0;
+			lengths = new int[xStatistics.size()];
+			for (int k = 0; k < lengths.length; k++) {
+				lengths[k] = xStatistics.get(k).length;
+				total += lengths[k];
+			}
+
+			values = new double[total];
+			for (int k = 0, index = 0; k < lengths.length; k++) {
+				double[] xStatistic = xStatistics.get(k);
+				for (int j = 0; j < xStatistic.length; j++, index++) {
+					if (Util.isUsed(xStatistic[j]))
+						values[index] = xStatistic[j];
+					else
+						missing.set(index);
+				}
+			}
+
+			hash = 31 * (31 * Arrays.hashCode(values) + Arrays.hashCode(lengths)) + missing.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) return true;
+			if (!(obj instanceof Key)) return false;
+
+			Key other = (Key)obj;
+			return hash == other.hash && Arrays.equals(values, other.values) && Arrays.equals(lengths, other.lengths) && missing.equals(other.missing);
+		}
+
+	}
+
+
+	/**
+	 * This class represents cached weights of components and cached predicted value.
+	 *
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 *
+	 */
+	public static class Entry {
+
+		/**
+		 * Weights of components.
+		 */
+		protected double[] coeffs = null;
+
+		/**
+		 * Predicted value.
+		 */
+		protected double result = Constants.UNUSED;
+
+		/**
+		 * Whether predicted value is cached.
+		 */
+		protected boolean hasResult = false;
+
+		/**
+		 * Getting weights of components as new list.
+		 * @return weights of components.
+		 */
+		public List<Double> getCoeffs() {
+			return DSUtil.toDoubleList(coeffs);
+		}
+
+		/**
+		 * Getting predicted value.
+		 * @return predicted value.
+		 */
+		public double getResult() {
+			return result;
+		}
+
+		/**
+		 * Checking whether predicted value is cached.
+		 * @return whether predicted value is cached.
+		 */
+		public boolean hasResult() {
+			return hasResult;
+		}
+
+	}
+
+
+}
@@ -13,6 +13,7 @@ import java.util.List;
 
 import flanagan.math.Fmath;
 import flanagan.plot.PlotGraph;
+import net.hudup.core.Constants;
 import net.hudup.core.Util;
 import net.hudup.core.alg.MemoryBasedAlg;
 import net.hudup.core.alg.MemoryBasedAlgRemote;
@@ -27,6 +28,8 @@ import net.rem.em.ExponentialEM;
 import net.rem.regression.LargeStatistics;
 import net.rem.regression.MathAdapter;
 import net.rem.regression.RMAbstract;
+import net.rem.regression.RMDiagnostics;
+import net.rem.regression.RMMetrics;
 import net.rem.regression.VarWrapper;
 import net.rem.regression.ui.graph.Graph;
 import net.rem.regression.ui.graph.PlotGraphExt;
@@ -47,6 +50,12 @@ public abstract class REMAbstract extends ExponentialEM implements REM, REMRemot
 	private static final long serialVersionUID = 1L;
 
 	
+	/**
+	 * Cached diagnostics of this model, which are re-calculated when this model is re-trained.
+	 */
+	protected transient RMDiagnostics diagnostics = null;
+	
+	
 	/**
 	 * Default constructor.
 	 */
@@ -198,15 +207,29 @@ public abstract class REMAbstract extends ExponentialEM implements REM, REMRemot
     }
 
     
+	/**
+	 * Getting diagnostics of this model over its large statistics. Diagnostics are calculated in one pass and cached until parameter or large statistics are changed.
+	 * @return diagnostics of this model over its large statistics. Return null if there is no large statistics.
+	 * @throws RemoteException if any error raises.
+	 */
+	public synchronized RMDiagnostics getDiagnostics() throws RemoteException {
+		Object parameter = this.getParameter();
+		LargeStatistics stats = this.getLargeStatistics();
+		if (diagnostics == null || !diagnostics.isCalculatedWith(parameter, stats))
+			diagnostics = RMDiagnostics.calc(this, stats);
+		return diagnostics;
+	}
+	
+	
 	@Override
     public synchronized Graph createResponseGraph() throws RemoteException {
-		return RMAbstract.createResponseGraph(this, this.getLargeStatistics());
+		return RMAbstract.createResponseGraph(this, this.getDiagnostics());
     }
     
     
     @Override
     public synchronized Graph createErrorGraph() throws RemoteException {
-    	return RMAbstract.createErrorGraph(this, this.getLargeStatistics());
+    	return RMAbstract.createErrorGraph(this, this.getDiagnostics());
     }
 
     
@@ -218,25 +241,29 @@ public abstract class REMAbstract extends ExponentialEM implements REM, REMRemot
     
     @Override
     public synchronized double calcVariance() throws RemoteException {
-    	return RMAbstract.calcVariance(this, this.getLargeStatistics());
+    	RMDiagnostics diagnostics = this.getDiagnostics();
+    	return diagnostics != null ? diagnostics.getVariance() : Constants.UNUSED;
     }
     
     
     @Override
     public synchronized double calcR() throws RemoteException {
-    	return RMAbstract.calcR(this, this.getLargeStatistics());
+    	RMDiagnostics diagnostics = this.getDiagnostics();
+    	return diagnostics != null ? diagnostics.getR() : Constants.UNUSED;
     }
     
 
     @Override
 	public synchronized double calcR(int index) throws RemoteException {
-    	return RMAbstract.calcR(this, this.getLargeStatistics(), index);
+    	RMDiagnostics diagnostics = this.getDiagnostics();
+    	return diagnostics != null ? diagnostics.getR(index) : Constants.UNUSED;
 	}
 
 	
 	@Override
     public synchronized double[] calcError() throws RemoteException {
-    	return RMAbstract.calcError(this, this.getLargeStatistics());
+    	RMDiagnostics diagnostics = this.getDiagnostics();
+    	return diagnostics != null ? diagnostics.getError() : null;
     }
 
 
@@ -245,6 +272,31 @@ public abstract class REMAbstract extends ExponentialEM implements REM, REMRemot
 		return RMAbstract.saveLargeStatistics(this, this.getLargeStatistics(), uri, decimal);
 	}
 
+
+	@Override
+	public synchronized List<Object> executeBatch(List<?> inputs) throws RemoteException {
+		return RMAbstract.executeBatch(this, inputs);
+	}
+
+
+	@Override
+	public synchronized double[] executeByXStatisticBatch(List<double[]> xStatistics) throws RemoteException {
+		return RMAbstract.executeByXStatisticBatch(this, xStatistics);
+	}
+
+
+	@Override
+	public synchronized double[][] extractRegressorValuesBatch(List<?> inputs) throws RemoteException {
+		return RMAbstract.extractRegressorValuesBatch(this, inputs);
+	}
+
+
+	@Override
+	public synchronized RMMetrics calcMetrics() throws RemoteException {
+		RMDiagnostics diagnostics = this.getDiagnostics();
+		return diagnostics != null && diagnostics.size() > 0 ? diagnostics.toMetrics() : null;
+	}
+
 	
 	/**
 	 * Calculating coefficients based on regressors X (statistic X) and response variable Z (statistic Z).
@@ -151,6 +151,12 @@ public class REMImpl extends REMAbstract implements DuplicatableAlg {
 	protected AttributeList attList = null;
 	
 	
+	/**
+	 * Rows of internal data grouped by missing patterns, which are grouped once when expectation step is called at the first time.
+	 */
+	protected transient MissingPatterns missingPatterns = null;
+	
+	
 	/**
 	 * Default constructor.
 	 */
@@ -168,8 +174,13 @@ public class REMImpl extends REMAbstract implements DuplicatableAlg {
 	@SuppressWarnings("unchecked")
 	@Override
 	public Object learnStart(Object...info) throws RemoteException {
+		Indices.Prepared preparedData = Indices.extractPrepared(info);
 		Indices.Used usedIndices = Indices.extractUsedIndices(info);
-		boolean prepared = usedIndices != null ? prepareInternalData((Fetcher<Profile>)sample, usedIndices.xIndicesUsed, usedIndices.zIndicesUsed) : prepareInternalData((Fetcher<Profile>)sample);
+		boolean prepared = false;
+		if (preparedData != null)
+			prepared = prepareInternalData(preparedData.indices.xIndices, preparedData.indices.zIndices, preparedData.indices.attList, preparedData.data);
+		else
+			prepared = usedIndices != null ? prepareInternalData((Fetcher<Profile>)sample, usedIndices.xIndicesUsed, usedIndices.zIndicesUsed) : prepareInternalData((Fetcher<Profile>)sample);
 
 		Object resulted = null;
 		if (prepared)
@@ -262,6 +273,7 @@ public class REMImpl extends REMAbstract implements DuplicatableAlg {
 		if (this.data != null)
 			this.data.clear();
 		this.data = null;
+		this.missingPatterns = null;
 	}
 	
 	
@@ -278,23 +290,118 @@ public class REMImpl extends REMAbstract implements DuplicatableAlg {
 		else
 			data = this.data;
 		
-		int N = data.getZData().size();
-		List<double[]> zStatistic = Util.newList(N);
-		List<double[]> xStatistic = Util.newList(N);
-		for (int i = 0; i < N; i++) {
-			Statistics stat0 = new Statistics(data.getZData().get(i)[1], data.getXData().get(i));
-			Statistics stat = estimate(stat0, (ExchangedParameter)currentParameter);
-			if (stat == null)
-				return null;
+		return estimate(getMissingPatterns(data), (ExchangedParameter)currentParameter);
+	}
+
+	
+	/**
+	 * Getting rows of specified data grouped by missing patterns. Rows of internal data are grouped only once.
+	 * @param data specified data.
+	 * @return rows of specified data grouped by missing patterns.
+	 */
+	protected MissingPatterns getMissingPatterns(LargeStatistics data) {
+		if (data != this.data)
+			return new MissingPatterns(data);
+		
+		if (missingPatterns == null || !missingPatterns.isGroupedFrom(data))
+			missingPatterns = new MissingPatterns(data);
+		return missingPatterns;
+	}
+	
+	
+	/**
+	 * Estimating statistics of all rows grouped by missing patterns with specified parameters alpha and beta. This method does not change internal data.
+	 * Results are the same to calling {@link #estimate(Statistics, ExchangedParameter)} row by row but coefficients for imputing missing values are calculated once per pattern.
+	 * @param patterns rows grouped by missing patterns.
+	 * @param parameter current parameter.
+	 * @return estimated statistics of all rows. Return null if any error raises.
+	 */
+	protected LargeStatistics estimate(MissingPatterns patterns, ExchangedParameter parameter) {
+		LargeStatistics data = patterns.getData();
+		List<double[]> xData = data.getXData();
+		List<double[]> zData = data.getZData();
+		int N = zData.size();
+		double[][] xStatistic = new double[N][];
+		double[] zStatistic = new double[N];
+		
+		String estimateMode = getConfig().getAsString(ESTIMATE_MODE_FIELD);
+		boolean reversible = estimateMode.equals(REVERSIBLE);
+		if (!reversible && !estimateMode.equals(GAUSSIAN)) return null;
+		double[] alpha = parameter.getAlphaArray();
+		double[] betas = reversible ? parameter.getBetaArray() : null; //Pair of beta coefficients of regressor j is at 2j and 2j+1.
+		double[] xMean = reversible ? null : parameter.getXNormalDisParameter().getMeanArray();
+		
+		REMKernels kernels = REMKernels.getInstance();
+		for (MissingPatterns.Pattern pattern : patterns.getPatterns()) {
+			int[] U = pattern.missing; //Indices of missing values.
+			int[] used = pattern.used;
+			int size = pattern.size();
+			double[] z = pattern.zMissing ? new double[size] : pattern.z;
+			double[][] imputed = new double[U.length][]; //Columns of imputed regressors.
+			if (reversible) {
+				double a = 0, c = 0;
+				for (int u = 0; u < U.length; u++) {
+					a += alpha[U[u]] * betas[2*U[u]];
+					c += alpha[U[u]] * betas[2*U[u] + 1];
+				}
+				
+				if (pattern.zMissing) { //Estimating missing zi by equation 7, based on current parameter.
+					if (c == 1) {
+						LogUtil.info("Cannot estimate statistic for Z by expectation (#estimate), stop estimating for this statistic here because use of other method is wrong.");
+						return null;
+					}
+					
+					double[] usedAlpha = new double[used.length];
+					double[][] usedColumns = new double[used.length][];
+					for (int v = 0; v < used.length; v++) {
+						usedAlpha[v] = alpha[used[v]];
+						usedColumns[v] = pattern.columns[used[v]];
+					}
+					kernels.linear(usedAlpha, usedColumns, new double[] {1.0}, size, z); //Only the column of constant 1 is null.
+					kernels.shiftDivide(a, 1.0 - c, z, size, z);
+				}
+				
+				//Estimating missing xij by equation 5 and zi, based on current parameter.
+				for (int u = 0; u < U.length; u++) {
+					imputed[u] = new double[size];
+					kernels.affine(betas[2*U[u]], betas[2*U[u] + 1], z, size, imputed[u]);
+				}
+			}
+			else {
+				double[] constants = new double[alpha.length]; //Constant 1 and means of missing regressors.
+				constants[0] = 1;
+				for (int u = 0; u < U.length; u++) {
+					constants[U[u]] = xMean[U[u] - 1];
+					imputed[u] = new double[] {constants[U[u]]};
+				}
+				if (pattern.zMissing) { //Estimating missing zi by mean of regression model with imputed regressors.
+					if (alpha.length != pattern.columns.length) return null;
+					kernels.linear(alpha, pattern.columns, constants, size, z);
+				}
+			}
 			
-			stat = (stat.checkValid() ? stat : null);
-			if (stat == null)
-				return null;
-			zStatistic.add(new double[] {1.0, stat.getZStatistic()});
-			xStatistic.add(stat.getXStatistic());
+			for (int r = 0; r < size; r++) {
+				int i = pattern.rows[r];
+				double[] x = xData.get(i).clone();
+				for (int u = 0; u < U.length; u++) {
+					x[U[u]] = reversible ? imputed[u][r] : imputed[u][0];
+					if (!Util.isUsed(x[U[u]])) return null;
+				}
+				if (!Util.isUsed(z[r])) return null;
+				
+				xStatistic[i] = x;
+				zStatistic[i] = z[r];
+			}
+		}
+		
+		List<double[]> xStatisticList = Util.newList(N);
+		List<double[]> zStatisticList = Util.newList(N);
+		for (int i = 0; i < N; i++) {
+			xStatisticList.add(xStatistic[i]);
+			zStatisticList.add(new double[] {1.0, zStatistic[i]});
 		}
 		
-		return new LargeStatistics(xStatistic, zStatistic);
+		return new LargeStatistics(xStatisticList, zStatisticList);
 	}
 
 	
@@ -429,7 +536,7 @@ public class REMImpl extends REMAbstract implements DuplicatableAlg {
 			
 			double sumZVariance = 0;
 			for (int i = 0; i < N; i++) {
-				double d = zStatistic.get(i)[1] - ExchangedParameter.mean(alpha, xStatistic.get(i));
+				double d = zStatistic.get(i)[1] - newParameter.mean(xStatistic.get(i));
 				sumZVariance += d*d*kCondProbs.get(i);
 			}
 			
@@ -460,8 +567,8 @@ public class REMImpl extends REMAbstract implements DuplicatableAlg {
 
 		String estimateMode = getConfig().getAsString(ESTIMATE_MODE_FIELD);
 		if (estimateMode.equals(REVERSIBLE)) {
-			List<Double> alpha = parameter.getAlpha();
-			List<double[]> betas = parameter.getBetas();
+			double[] alpha = parameter.getAlphaArray();
+			double[] betas = parameter.getBetaArray(); //Pair of beta coefficients of regressor j is at 2j and 2j+1.
 			
 			if (Util.isUsed(zValue)) {
 				zStatistic = zValue;
@@ -471,7 +578,7 @@ public class REMImpl extends REMAbstract implements DuplicatableAlg {
 					if (Util.isUsed(xVector[j]))
 						xStatistic[j] = xVector[j];
 					else
-						xStatistic[j] = betas.get(j)[0] + betas.get(j)[1] * zStatistic;
+						xStatistic[j] = betas[2*j] + betas[2*j + 1] * zStatistic;
 				}
 				
 				return new Statistics(zStatistic, xStatistic);
@@ -482,11 +589,11 @@ public class REMImpl extends REMAbstract implements DuplicatableAlg {
 			List<Integer> U = Util.newList(); //Indices of missing values.
 			for (int j = 0; j < xVector.length; j++) {
 				if (Util.isUsed(xVector[j])) {
-					b += alpha.get(j) * xVector[j];
+					b += alpha[j] * xVector[j];
 				}
 				else {
-					a += alpha.get(j) * betas.get(j)[0];
-					c += alpha.get(j) * betas.get(j)[1];
+					a += alpha[j] * betas[2*j];
+					c += alpha[j] * betas[2*j + 1];
 					U.add(j);
 				}
 			}
@@ -503,20 +610,20 @@ public class REMImpl extends REMAbstract implements DuplicatableAlg {
 				if (Util.isUsed(xVector[j]))
 					xStatistic[j] = xVector[j];
 				else
-					xStatistic[j] = betas.get(j)[0] + betas.get(j)[1] * zStatistic;
+					xStatistic[j] = betas[2*j] + betas[2*j + 1] * zStatistic;
 			}
 			
 			//Balance process is removed because it is not necessary. Balance process is the best in some cases. So list U is not used.
 			return new Statistics(zStatistic, xStatistic);
 		}
 		else if (estimateMode.equals(GAUSSIAN)) {
-			NormalDisParameter xNormalDisParameter = parameter.getXNormalDisParameter();
+			double[] xMean = parameter.getXNormalDisParameter().getMeanArray();
 
 			for (int j = 0; j < xVector.length; j++) {
 				if (j == 0 || Util.isUsed(xVector[j]))
 					xStatistic[j] = xVector[j]; // xVector[j] = 1 always
 				else
-					xStatistic[j] = xNormalDisParameter.getMean().get(j-1);
+					xStatistic[j] = xMean[j-1];
 			}
 
 			if (Util.isUsed(zValue))
@@ -556,8 +663,18 @@ public class REMImpl extends REMAbstract implements DuplicatableAlg {
 
 	@Override
 	protected ExchangedParameter initializeParameterWithoutData(int regressorNumber, boolean random) {
-		Random rnd = new Random();
-		
+		return initializeParameterWithoutData(regressorNumber, random, new Random());
+	}
+	
+	
+	/**
+	 * Initializing parameter without data with specified random generator.
+	 * @param regressorNumber the number of regressors.
+	 * @param random if true, the parameter is randomized.
+	 * @param rnd specified random generator. It is useful to make initialization reproducible with a fixed seed.
+	 * @return initialized parameter.
+	 */
+	protected ExchangedParameter initializeParameterWithoutData(int regressorNumber, boolean random, Random rnd) {
 		List<Double> alpha0 = Util.newList(regressorNumber + 1);
 		for (int j = 0; j < regressorNumber + 1; j++) {
 			alpha0.add(random ? rnd.nextDouble() : 0.0);
@@ -623,6 +740,91 @@ public class REMImpl extends REMAbstract implements DuplicatableAlg {
 	}
 
 
+	/**
+	 * Signature of REM includes indices of regressors and responses and fingerprint of internal data so that a checkpoint of other model or other data is not resumed.
+	 */
+	@Override
+	protected String getCheckpointSignature() {
+		StringBuffer signature = new StringBuffer(super.getCheckpointSignature());
+		if (this.xIndices != null) {
+			for (Object[] index : this.xIndices) signature.append(":" + Arrays.toString(index));
+		}
+		if (this.zIndices != null) {
+			for (Object[] index : this.zIndices) signature.append(":" + Arrays.toString(index));
+		}
+		if (this.data != null && !this.data.isEmpty())
+			signature.append(":" + Long.toHexString(this.data.fingerprint()));
+		return signature.toString();
+	}
+
+
+	/**
+	 * Estimation mode changes the maximization step and so it is included in checkpoint signature.
+	 */
+	@Override
+	protected List<String> getCheckpointConfigFields() {
+		List<String> fields = super.getCheckpointConfigFields();
+		fields.add(ESTIMATE_MODE_FIELD);
+		return fields;
+	}
+
+
+	/**
+	 * Warm parameter of REM is accepted if its regression coefficients fit the regressors.
+	 */
+	@Override
+	protected boolean acceptWarmParameter(Object parameter) {
+		if (!(parameter instanceof ExchangedParameter) || this.xIndices == null) return false;
+		
+		double[] alpha = ((ExchangedParameter)parameter).getAlphaArray();
+		return alpha != null && alpha.length == this.xIndices.size();
+	}
+
+
+	@Override
+	protected double logLikelihood(Object estimatedParameter, Object statistics) {
+		if (!(estimatedParameter instanceof ExchangedParameter) || !(statistics instanceof LargeStatistics))
+			return Constants.UNUSED;
+		else
+			return ((ExchangedParameter)estimatedParameter).likelihood((LargeStatistics)statistics, true);
+	}
+
+
+	@Override
+	protected double parameterDelta(Object estimatedParameter, Object currentParameter) {
+		if (!(estimatedParameter instanceof ExchangedParameter) || !(currentParameter instanceof ExchangedParameter))
+			return Constants.UNUSED;
+		else
+			return ((ExchangedParameter)estimatedParameter).delta((ExchangedParameter)currentParameter);
+	}
+
+
+	/**
+	 * Rows with missing response or missing regressors in internal data are imputed at every iteration.
+	 */
+	@Override
+	protected long imputedRows(Object statistics) {
+		LargeStatistics data = this.data;
+		if (data == null) return -1;
+		
+		long count = 0;
+		List<double[]> xData = data.getXData(), zData = data.getZData();
+		for (int i = 0; i < zData.size(); i++) {
+			if (!Util.isUsed(zData.get(i)[1])) {
+				count++;
+				continue;
+			}
+			for (double x : xData.get(i)) {
+				if (!Util.isUsed(x)) {
+					count++;
+					break;
+				}
+			}
+		}
+		return count;
+	}
+
+
 	@Override
 	public synchronized double executeByXStatistic(double[] xStatistic) throws RemoteException {
 		double value = executeByXStatisticWithoutTransform(xStatistic);
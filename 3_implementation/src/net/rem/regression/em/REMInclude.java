@@ -69,9 +69,9 @@ public abstract class REMInclude extends RMAbstract implements DuplicatableAlg,
 
 	
 	@Override
-	public synchronized void unsetup() throws RemoteException {
+	public void unsetup() throws RemoteException {
 		super.unsetup();
-		rem.unsetup();
+		rem.unsetup(); //Internal model flushes its events without holding the lock of this model.
 	}
 
 
@@ -0,0 +1,130 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import net.hudup.core.logistic.LogUtil;
+
+/**
+ * This class provides kernels for imputing missing values and predicting means of many rows at once. Rows are given as columns of primitive values.
+ * This class is the scalar implementation. If the vector implementation {@link #VECTOR_KERNELS_CLASS} is compiled and the module <code>jdk.incubator.vector</code> is added
+ * to Java virtual machine by the option <code>--add-modules jdk.incubator.vector</code>, the method {@link #getInstance()} returns the vector implementation instead.
+ * Every row is calculated in the same order of operations by both implementations, so their results are the same.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class REMKernels {
+
+
+	/**
+	 * Name of the class of the vector implementation.
+	 */
+	public final static String VECTOR_KERNELS_CLASS = "net.rem.regression.em.REMVectorKernels";
+
+
+	/**
+	 * Shared instance of kernels.
+	 */
+	private static REMKernels instance = null;
+
+
+	/**
+	 * Default constructor.
+	 */
+	public REMKernels() {
+
+	}
+
+
+	/**
+	 * Getting name of this implementation.
+	 * @return name of this implementation.
+	 */
+	public String getName() {
+		return "scalar";
+	}
+
+
+	/**
+	 * Calculating linear combinations of many rows, out[r] = coeffs[0]*value(0, r) + coeffs[1]*value(1, r) + ... in that order,
+	 * where value(j, r) is columns[j][r] if columns[j] is not null and constants[j] otherwise.
+	 * @param coeffs coefficients.
+	 * @param columns columns of values, some of which can be null.
+	 * @param constants values of null columns. It can be null if no column is null.
+	 * @param size number of rows.
+	 * @param out output array of linear combinations, whose length is not less than the number of rows.
+	 */
+	public void linear(double[] coeffs, double[][] columns, double[] constants, int size, double[] out) {
+		for (int r = 0; r < size; r++) out[r] = linear(coeffs, columns, constants, r);
+	}
+
+
+	/**
+	 * Calculating linear combination of specified row.
+	 * @param coeffs coefficients.
+	 * @param columns columns of values, some of which can be null.
+	 * @param constants values of null columns.
+	 * @param r specified row.
+	 * @return linear combination of specified row.
+	 */
+	protected static double linear(double[] coeffs, double[][] columns, double[] constants, int r) {
+		double sum = 0;
+		for (int j = 0; j < coeffs.length; j++) {
+			sum += coeffs[j] * (columns[j] != null ? columns[j][r] : constants[j]);
+		}
+		return sum;
+	}
+
+
+	/**
+	 * Calculating affine function of many values, out[r] = intercept + slope*in[r].
+	 * @param intercept intercept.
+	 * @param slope slope.
+	 * @param in input values.
+	 * @param size number of values.
+	 * @param out output values, which can be the input array.
+	 */
+	public void affine(double intercept, double slope, double[] in, int size, double[] out) {
+		for (int r = 0; r < size; r++) out[r] = intercept + slope * in[r];
+	}
+
+
+	/**
+	 * Shifting and dividing many values, out[r] = (shift + in[r]) / divisor.
+	 * @param shift shift.
+	 * @param divisor divisor.
+	 * @param in input values.
+	 * @param size number of values.
+	 * @param out output values, which can be the input array.
+	 */
+	public void shiftDivide(double shift, double divisor, double[] in, int size, double[] out) {
+		for (int r = 0; r < size; r++) out[r] = (shift + in[r]) / divisor;
+	}
+
+
+	/**
+	 * Getting shared instance of kernels, which is the vector implementation if it is available and the scalar implementation otherwise.
+	 * @return shared instance of kernels.
+	 */
+	public static synchronized REMKernels getInstance() {
+		if (instance != null) return instance;
+
+		try {
+			instance = (REMKernels)Class.forName(VECTOR_KERNELS_CLASS).getDeclaredConstructor().newInstance();
+		}
+		catch (Throwable e) {
+			instance = new REMKernels();
+		}
+		LogUtil.info("REM uses " + instance.getName() + " kernels for imputation");
+
+		return instance;
+	}
+
+
+}
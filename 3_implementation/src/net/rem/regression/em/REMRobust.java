@@ -8,6 +8,7 @@
 package net.rem.regression.em;
 
 import java.awt.Component;
+import java.io.File;
 import java.io.Serializable;
 import java.math.BigInteger;
 import java.rmi.RemoteException;
@@ -33,6 +34,8 @@ import net.hudup.core.logistic.Inspector;
 import net.hudup.core.logistic.LogUtil;
 import net.hudup.core.logistic.MathUtil;
 import net.hudup.core.parser.TextParserUtil;
+import net.rem.em.EMAbstract;
+import net.rem.em.EMCheckpoint;
 import net.rem.regression.Indices;
 import net.rem.regression.LargeStatistics;
 import net.rem.regression.MathAdapter;
@@ -180,6 +183,31 @@ public class REMRobust extends REMInclude implements NoteAlg {
 	public final static int MAXREGVARS_DEFAULT = 0;
 
 	
+	/**
+	 * Name of field for checkpoint file of searching robust regressors. Empty file name means that checkpoint is disabled.
+	 * This field is separated from checkpoint field of EM because internal REM shares configuration with this model.
+	 */
+	public final static String CHECKPOINT_FILE_FIELD = "remro_checkpoint_file";
+	
+	
+	/**
+	 * Default checkpoint file of searching robust regressors.
+	 */
+	public final static String CHECKPOINT_FILE_DEFAULT = "";
+
+	
+	/**
+	 * Name of field for number of searching iterations between two checkpoints.
+	 */
+	public final static String CHECKPOINT_INTERVAL_FIELD = "remro_checkpoint_interval";
+	
+	
+	/**
+	 * Default number of searching iterations between two checkpoints. Each searching iteration sets up many internal models and so checkpoint is saved at every iteration.
+	 */
+	public final static int CHECKPOINT_INTERVAL_DEFAULT = 1;
+
+	
 	/**
 	 * List of robust regressors.
 	 */
@@ -261,6 +289,14 @@ public class REMRobust extends REMInclude implements NoteAlg {
 		
 		int maxIteration = focus.size();
 		int iteration = 0;
+		String signature = getCheckpointSignature(OPTIMAL_MODE_R, focus, free, r);
+		EMCheckpoint checkpoint = loadCheckpoint(signature);
+		if (checkpoint != null) {
+			Object[] progress = (Object[])checkpoint.getProgress();
+			roIndices.addAll((List<Pair>)progress[0]);
+			fitMap.putAll((Map<BitSet, Double>)progress[1]);
+			iteration = checkpoint.getIteration();
+		}
 		learnStarted = true;
 		while (learnStarted && (maxIteration <= 0 || iteration < maxIteration)) {
 			
@@ -314,6 +350,7 @@ public class REMRobust extends REMInclude implements NoteAlg {
 			}
 			
 			iteration ++;
+			checkpoint(signature, iteration, roIndices, fitMap, false);
 
 			//Pseudo-code to fire doing setup event.
 			fireSetupEvent(new SetupAlgEvent(this, Type.doing, getName(), "Setting up is doing: " + getDescription(), iteration, maxIteration));
@@ -329,6 +366,8 @@ public class REMRobust extends REMInclude implements NoteAlg {
 			
 		}
 		
+		checkpointFinish(signature, iteration, roIndices, fitMap, learnStarted);
+		
 		Collections.sort(roIndices, new Comparator<Pair>() {
 			@Override
 			public int compare(Pair o1, Pair o2) {
@@ -426,6 +465,14 @@ public class REMRobust extends REMInclude implements NoteAlg {
 		
 		int maxIteration = focus.size();
 		int iteration = 0;
+		String signature = getCheckpointSignature(OPTIMAL_MODE_CDF, focus, free, r);
+		EMCheckpoint checkpoint = loadCheckpoint(signature);
+		if (checkpoint != null) {
+			Object[] progress = (Object[])checkpoint.getProgress();
+			roIndices.addAll((List<Pair>)progress[0]);
+			fitMap.putAll((Map<BitSet, double[]>)progress[1]);
+			iteration = checkpoint.getIteration();
+		}
 		learnStarted = true;
 		while (learnStarted && (maxIteration <= 0 || iteration < maxIteration)) {
 			
@@ -496,6 +543,7 @@ public class REMRobust extends REMInclude implements NoteAlg {
 			}
 			
 			iteration ++;
+			checkpoint(signature, iteration, roIndices, fitMap, false);
 
 			//Pseudo-code to fire doing setup event.
 			fireSetupEvent(new SetupAlgEvent(this, Type.doing, getName(), "Setting up is doing: " + getDescription(), iteration, maxIteration));
@@ -511,6 +559,8 @@ public class REMRobust extends REMInclude implements NoteAlg {
 			
 		}
 		
+		checkpointFinish(signature, iteration, roIndices, fitMap, learnStarted);
+		
 		Collections.sort(roIndices, new Comparator<Pair>() {
 			@Override
 			public int compare(Pair o1, Pair o2) {
@@ -556,6 +606,103 @@ public class REMRobust extends REMInclude implements NoteAlg {
 	}
 	
 	
+	/**
+	 * Getting checkpoint file of searching robust regressors.
+	 * @return checkpoint file. Return null if checkpoint is disabled.
+	 */
+	private File getCheckpointFile() {
+		String fileName = config.containsKey(CHECKPOINT_FILE_FIELD) ? config.getAsString(CHECKPOINT_FILE_FIELD) : null;
+		return fileName == null || fileName.trim().isEmpty() ? null : new File(fileName.trim());
+	}
+	
+	
+	/**
+	 * Getting signature of searching robust regressors, which prevents checkpoint from being resumed by other search.
+	 * @param mode optimal mode.
+	 * @param focus focused regressors.
+	 * @param free free regressors.
+	 * @param r combination number.
+	 * @return signature of searching robust regressors.
+	 */
+	@SuppressWarnings("unchecked")
+	private String getCheckpointSignature(String mode, List<Integer> focus, List<Integer> free, int r) {
+		int size = -1;
+		try {
+			size = ((Fetcher<Profile>)sample).getMetadata().getSize();
+		} catch (Throwable e) {LogUtil.trace(e);}
+		return getName() + ":" + mode + ":" + size + ":" + focus + ":" + free + ":" + r;
+	}
+	
+	
+	/**
+	 * Loading checkpoint of searching robust regressors if checkpoint is enabled and resuming is allowed.
+	 * @param signature signature of searching robust regressors.
+	 * @return checkpoint of searching robust regressors. Return null if there is no valid checkpoint.
+	 */
+	private EMCheckpoint loadCheckpoint(String signature) {
+		File file = getCheckpointFile();
+		boolean resume = config.containsKey(EMAbstract.EM_RESUME_FIELD) ? config.getAsBoolean(EMAbstract.EM_RESUME_FIELD) : EMAbstract.EM_RESUME;
+		if (file == null || !resume || !file.exists()) return null;
+		
+		try {
+			EMCheckpoint checkpoint = EMCheckpoint.load(file);
+			if (checkpoint != null && checkpoint.getSignature().equals(signature) && checkpoint.getProgress() instanceof Object[]) {
+				LogUtil.info("Algorithm " + getName() + " resumes from checkpoint at iteration " + checkpoint.getIteration());
+				return checkpoint;
+			}
+			else
+				LogUtil.info("Checkpoint " + file + " does not match algorithm " + signature + " and so it is ignored");
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		return null;
+	}
+	
+	
+	/**
+	 * Saving checkpoint of searching robust regressors if checkpoint is enabled and the iteration reaches checkpoint interval.
+	 * @param signature signature of searching robust regressors.
+	 * @param iteration number of finished searching iterations.
+	 * @param roIndices robust regressor indices with their fitness found so far.
+	 * @param fitMap cache of fitness of evaluated models.
+	 * @param force flag to save checkpoint regardless of checkpoint interval.
+	 */
+	private void checkpoint(String signature, int iteration, List<Pair> roIndices, Map<BitSet, ?> fitMap, boolean force) {
+		File file = getCheckpointFile();
+		if (file == null) return;
+		int interval = config.containsKey(CHECKPOINT_INTERVAL_FIELD) ? config.getAsInt(CHECKPOINT_INTERVAL_FIELD) : CHECKPOINT_INTERVAL_DEFAULT;
+		if (!force && (interval <= 0 || iteration % interval != 0)) return;
+		
+		List<Pair> roIndicesCopy = Util.newList(roIndices.size());
+		roIndicesCopy.addAll(roIndices);
+		Map<BitSet, Object> fitMapCopy = Util.newMap();
+		fitMapCopy.putAll(fitMap);
+		try {
+			new EMCheckpoint(signature, iteration, null, null, new Object[] {roIndicesCopy, fitMapCopy}).save(file);
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+	}
+
+	
+	/**
+	 * Finishing checkpoint of searching robust regressors. Checkpoint file is deleted if the search completes, otherwise it is kept for resuming.
+	 * @param signature signature of searching robust regressors.
+	 * @param iteration number of finished searching iterations.
+	 * @param roIndices robust regressor indices with their fitness found so far.
+	 * @param fitMap cache of fitness of evaluated models.
+	 * @param completed flag to indicate whether the search completes.
+	 */
+	private void checkpointFinish(String signature, int iteration, List<Pair> roIndices, Map<BitSet, ?> fitMap, boolean completed) {
+		if (completed)
+			EMCheckpoint.delete(getCheckpointFile());
+		else
+			checkpoint(signature, iteration, roIndices, fitMap, true);
+	}
+	
+	
 	/**
 	 * Extract free X positions.
 	 * For X indices (xIndices), regressors begin from 1 due to X = (1, x1, x2,..., x(n-1)) and so, the first element (0) of xIndices is -1 pointing to 1 value.
@@ -636,6 +783,8 @@ public class REMRobust extends REMInclude implements NoteAlg {
 		tempConfig.put(MAXROGVARS_FIELD, MAXREGVARS_DEFAULT);
 		tempConfig.put(PROPORTION_FIELD, PROPORTION_DEFAULT);
 		tempConfig.put(OPTIMAL_MODE_FIELD, OPTIMAL_MODE_DEFAULT);
+		tempConfig.put(CHECKPOINT_FILE_FIELD, CHECKPOINT_FILE_DEFAULT);
+		tempConfig.put(CHECKPOINT_INTERVAL_FIELD, CHECKPOINT_INTERVAL_DEFAULT);
 		
 		DataConfig config = new DataConfig() {
 
@@ -0,0 +1,324 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import net.hudup.core.Constants;
+import net.hudup.core.Util;
+import net.hudup.core.logistic.DSUtil;
+import net.rem.regression.MathAdapter;
+import net.rem.regression.em.ExchangedParameter.NormalDisParameter;
+
+/**
+ * This class represents sufficient statistics of the maximization step of REM, which are sums over rows of fulfilled data produced by the expectation step.
+ * Let w = (1, x1, x2,..., x(n-1), z) be the row of X statistic and Z statistic. Sufficient statistics are the number of rows, the cross product sum of w,
+ * and, for mixture model, the sum of conditional probabilities of every component and the cross product sums of w weighted by conditional probabilities and by squared conditional probabilities.
+ * Sufficient statistics of data shards are merged by addition so that the expectation step runs where the data are and only these small sums are transferred.
+ * The maximization methods of {@link REMImpl} and {@link DefaultMixtureREM} are re-stated on these sums.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class REMSufficientStatistics implements Serializable {
+
+
+	/**
+	 * Serial version UID for serializable class.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Length of X statistic which is (1, x1, x2,..., x(n-1)).
+	 */
+	protected int n = 0;
+
+
+	/**
+	 * Number of rows.
+	 */
+	protected long count = 0;
+
+
+	/**
+	 * Number of rows whose missing values are imputed.
+	 */
+	protected long imputedCount = 0;
+
+
+	/**
+	 * Cross product sum of rows (1, x1, x2,..., x(n-1), z).
+	 */
+	protected double[][] cross = null;
+
+
+	/**
+	 * Sums of conditional probabilities of components.
+	 */
+	protected double[] weightSums = null;
+
+
+	/**
+	 * Cross product sums of rows weighted by conditional probabilities of components.
+	 */
+	protected double[][][] weightedCross = null;
+
+
+	/**
+	 * Cross product sums of rows weighted by squared conditional probabilities of components.
+	 */
+	protected double[][][] squaredWeightedCross = null;
+
+
+	/**
+	 * Constructor with length of X statistic and number of components.
+	 * @param n length of X statistic which is (1, x1, x2,..., x(n-1)).
+	 * @param K number of components of mixture model. It is 0 for single model.
+	 */
+	public REMSufficientStatistics(int n, int K) {
+		this.n = n;
+		this.cross = new double[n + 1][n + 1];
+		if (K > 0) {
+			this.weightSums = new double[K];
+			this.weightedCross = new double[K][n + 1][n + 1];
+			this.squaredWeightedCross = new double[K][n + 1][n + 1];
+		}
+	}
+
+
+	/**
+	 * Adding a row of fulfilled data.
+	 * @param xVector X statistic (1, x1, x2,..., x(n-1)).
+	 * @param z Z statistic.
+	 * @param condProbs conditional probabilities of components given the row. It is null for single model.
+	 */
+	public void add(double[] xVector, double z, List<Double> condProbs) {
+		double[] w = Arrays.copyOf(xVector, n + 1);
+		w[n] = z;
+		accumulate(cross, w, 1);
+
+		if (weightSums != null && condProbs != null) {
+			for (int k = 0; k < weightSums.length; k++) {
+				double p = condProbs.get(k);
+				weightSums[k] += p;
+				accumulate(weightedCross[k], w, p);
+				accumulate(squaredWeightedCross[k], w, p*p);
+			}
+		}
+
+		count++;
+	}
+
+
+	/**
+	 * Adding number of imputed rows.
+	 * @param imputedCount number of imputed rows.
+	 */
+	public void addImputed(long imputedCount) {
+		if (imputedCount > 0) this.imputedCount += imputedCount;
+	}
+
+
+	/**
+	 * Merging other sufficient statistics into this sufficient statistics.
+	 * @param other other sufficient statistics which have the same dimension.
+	 */
+	public void merge(REMSufficientStatistics other) {
+		if (other == null) return;
+
+		add(cross, other.cross);
+		if (weightSums != null && other.weightSums != null) {
+			for (int k = 0; k < weightSums.length; k++) {
+				weightSums[k] += other.weightSums[k];
+				add(weightedCross[k], other.weightedCross[k]);
+				add(squaredWeightedCross[k], other.squaredWeightedCross[k]);
+			}
+		}
+
+		count += other.count;
+		imputedCount += other.imputedCount;
+	}
+
+
+	/**
+	 * Getting number of rows.
+	 * @return number of rows.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+
+	/**
+	 * Getting number of rows whose missing values are imputed.
+	 * @return number of rows whose missing values are imputed.
+	 */
+	public long getImputedCount() {
+		return imputedCount;
+	}
+
+
+	/**
+	 * Estimating parameter from these sufficient statistics, which is the maximization step of {@link REMImpl} re-stated on sums.
+	 * @param k index of component of mixture model. It is negative for single model.
+	 * @param currentParameter current parameter. It can be null at initialization.
+	 * @param estimateMode estimation mode which is {@link REMImpl#REVERSIBLE}, {@link REMImpl#GAUSSIAN}, or other mode.
+	 * @param calcVariance flag to indicate whether variance of single model is always calculated.
+	 * @return estimated parameter. Return null if there is no row.
+	 */
+	public ExchangedParameter maximization(int k, ExchangedParameter currentParameter, String estimateMode, boolean calcVariance) {
+		if (count == 0) return null;
+		boolean weighted = k >= 0 && weightSums != null;
+		double N = count;
+
+		double[][] S = weighted ? squaredWeightedCross[k] : cross;
+		List<double[]> A = Util.newList(n);
+		List<Double> b = Util.newList(n);
+		for (int i = 0; i < n; i++) {
+			A.add(Arrays.copyOf(S[i], n));
+			b.add(S[i][n]);
+		}
+		List<Double> alpha = MathAdapter.solve(A, b);
+		if (alpha == null || alpha.size() == 0) { //If cannot calculate alpha by matrix calculation.
+			if (currentParameter != null)
+				alpha = DSUtil.toDoubleList(currentParameter.getAlpha()); //clone alpha
+			else { //Used for initialization so that regression model is always determined.
+				alpha = DSUtil.initDoubleList(n, 0.0);
+				alpha.set(0, cross[0][n] / N); //constant function z = c
+			}
+		}
+
+		ExchangedParameter newParameter = null;
+		if (estimateMode.equals(REMImpl.REVERSIBLE)) {
+			List<double[]> betas = Util.newList(n);
+			betas.add(new double[] {1, 0});
+			for (int j = 1; j < n; j++) {
+				//Regressing xj on (1, z) without weights as REMImpl does.
+				List<double[]> Z = Util.newList(2);
+				Z.add(new double[] {cross[0][0], cross[0][n]});
+				Z.add(new double[] {cross[n][0], cross[n][n]});
+				List<Double> x = Util.newList(2);
+				x.add(cross[0][j]);
+				x.add(cross[n][j]);
+
+				List<Double> beta = MathAdapter.solve(Z, x);
+				if (beta == null || beta.size() == 0) {
+					if (currentParameter != null)
+						beta = DSUtil.toDoubleList(currentParameter.getBetas().get(j));
+					else { //Used for initialization so that regression model is always determined.
+						beta = DSUtil.initDoubleList(2, 0);
+						beta.set(0, cross[0][j] / N); //constant function x = c
+					}
+				}
+				betas.add(DSUtil.toDoubleArray(beta));
+			}
+
+			newParameter = new ExchangedParameter(alpha, betas);
+		}
+		else if (estimateMode.equals(REMImpl.GAUSSIAN)) {
+			newParameter = new ExchangedParameter(alpha);
+			if (weighted && weightSums[k] != 0)
+				newParameter.setXNormalDisParameter(normalDisParameter(weightedCross[k], weightSums[k]));
+			else
+				newParameter.setXNormalDisParameter(normalDisParameter(cross, N));
+		}
+		else
+			newParameter = new ExchangedParameter(alpha);
+
+		if (!weighted) {
+			if (currentParameter != null)
+				newParameter.setCoeff(currentParameter.getCoeff());
+			if (calcVariance || (currentParameter != null && Util.isUsed(currentParameter.getZVariance())))
+				newParameter.setZVariance(residualSum(alpha, cross) / N);
+			else
+				newParameter.setZVariance(Constants.UNUSED);
+		}
+		else {
+			double sumCondProb = weightSums[k];
+			newParameter.setCoeff(sumCondProb / N);
+			if (sumCondProb != 0)
+				newParameter.setZVariance(residualSum(alpha, weightedCross[k]) / sumCondProb);
+			else
+				newParameter.setZVariance(residualSum(alpha, cross) / N); //Fixing zero probabilities.
+		}
+
+		return newParameter;
+	}
+
+
+	/**
+	 * Calculating sum of squared residuals (z - alpha*x)^2 from cross product sum.
+	 * @param alpha regression coefficients.
+	 * @param S cross product sum of rows (1, x1, x2,..., x(n-1), z).
+	 * @return sum of squared residuals.
+	 */
+	private double residualSum(List<Double> alpha, double[][] S) {
+		double ss = S[n][n];
+		for (int i = 0; i < n; i++) {
+			double ai = alpha.get(i);
+			ss -= 2 * ai * S[i][n];
+			for (int j = 0; j < n; j++) ss += ai * alpha.get(j) * S[i][j];
+		}
+		return Math.max(ss, 0);
+	}
+
+
+	/**
+	 * Calculating parameter of normal distribution of regressors from cross product sum.
+	 * @param S cross product sum of rows (1, x1, x2,..., x(n-1), z), which can be weighted.
+	 * @param sum sum of weights, which is the number of rows if the cross product sum is not weighted.
+	 * @return parameter of normal distribution of regressors (x1, x2,..., x(n-1)).
+	 */
+	private NormalDisParameter normalDisParameter(double[][] S, double sum) {
+		int m = n - 1;
+		List<Double> mean = Util.newList(m);
+		for (int j = 0; j < m; j++) mean.add(S[0][j+1] / sum);
+
+		List<double[]> variance = Util.newList(m);
+		for (int i = 0; i < m; i++) {
+			double[] row = new double[m];
+			for (int j = 0; j < m; j++) row[j] = S[i+1][j+1] / sum - mean.get(i) * mean.get(j);
+			variance.add(row);
+		}
+
+		return new NormalDisParameter(mean, variance);
+	}
+
+
+	/**
+	 * Accumulating weighted cross product of specified row into specified matrix.
+	 * @param S specified matrix.
+	 * @param w specified row.
+	 * @param weight specified weight.
+	 */
+	private static void accumulate(double[][] S, double[] w, double weight) {
+		for (int i = 0; i < w.length; i++) {
+			double wi = weight * w[i];
+			double[] row = S[i];
+			for (int j = 0; j < w.length; j++) row[j] += wi * w[j];
+		}
+	}
+
+
+	/**
+	 * Adding other matrix into specified matrix.
+	 * @param S specified matrix.
+	 * @param other other matrix.
+	 */
+	private static void add(double[][] S, double[][] other) {
+		for (int i = 0; i < S.length; i++) {
+			for (int j = 0; j < S[i].length; j++) S[i][j] += other[i][j];
+		}
+	}
+
+
+}
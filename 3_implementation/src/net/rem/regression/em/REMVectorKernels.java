@@ -0,0 +1,85 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * This class is the vector implementation of kernels {@link REMKernels} by the Java vector API, in which lanes of a vector are rows.
+ * Every lane is calculated in the same order of operations as the scalar implementation, so their results are the same.
+ * This class is only compiled with Java 16 or later with the option <code>--add-modules jdk.incubator.vector</code>. Please see the compile target of build script.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class REMVectorKernels extends REMKernels {
+
+
+	/**
+	 * Preferred species of vectors of real numbers, whose length depends on hardware.
+	 */
+	private final static VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+
+	/**
+	 * Default constructor.
+	 */
+	public REMVectorKernels() {
+		super();
+	}
+
+
+	@Override
+	public String getName() {
+		return "vector-" + SPECIES.length();
+	}
+
+
+	@Override
+	public void linear(double[] coeffs, double[][] columns, double[] constants, int size, double[] out) {
+		int bound = SPECIES.loopBound(size);
+		int r = 0;
+		for (; r < bound; r += SPECIES.length()) {
+			DoubleVector sum = DoubleVector.zero(SPECIES);
+			for (int j = 0; j < coeffs.length; j++) {
+				if (columns[j] != null)
+					sum = sum.add(DoubleVector.fromArray(SPECIES, columns[j], r).mul(coeffs[j]));
+				else
+					sum = sum.add(coeffs[j] * constants[j]);
+			}
+			sum.intoArray(out, r);
+		}
+		for (; r < size; r++) out[r] = linear(coeffs, columns, constants, r);
+	}
+
+
+	@Override
+	public void affine(double intercept, double slope, double[] in, int size, double[] out) {
+		int bound = SPECIES.loopBound(size);
+		int r = 0;
+		for (; r < bound; r += SPECIES.length()) {
+			DoubleVector.fromArray(SPECIES, in, r).mul(slope).add(intercept).intoArray(out, r);
+		}
+		for (; r < size; r++) out[r] = intercept + slope * in[r];
+	}
+
+
+	@Override
+	public void shiftDivide(double shift, double divisor, double[] in, int size, double[] out) {
+		int bound = SPECIES.loopBound(size);
+		int r = 0;
+		for (; r < bound; r += SPECIES.length()) {
+			DoubleVector.fromArray(SPECIES, in, r).add(shift).div(divisor).intoArray(out, r);
+		}
+		for (; r < size; r++) out[r] = (shift + in[r]) / divisor;
+	}
+
+
+}
@@ -0,0 +1,395 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.Map;
+
+import net.hudup.core.Util;
+import net.hudup.core.data.Attribute;
+import net.hudup.core.data.Attribute.Type;
+import net.hudup.core.data.AttributeList;
+import net.hudup.core.data.DataConfig;
+import net.hudup.core.data.Fetcher;
+import net.hudup.core.data.MemFetcher;
+import net.hudup.core.data.Profile;
+import net.hudup.core.logistic.LogUtil;
+import net.hudup.core.logistic.NetUtil;
+import net.rem.em.EMAbstract;
+import net.rem.regression.LargeStatistics;
+import net.rem.regression.RMDiagnostics;
+
+/**
+ * This class is the worker of distributed REM training, which holds a shard of training data and runs the expectation step of {@link REMImpl} or {@link DefaultMixtureREM} on its shard.
+ * Only sufficient statistics of the maximization step are returned to the coordinator, which is {@link DistributedREM} or {@link DistributedMixtureREM}.
+ * A worker is started in its own process by {@link #main(String[])} which loads the shard from a text file and binds the worker at <code>rmi://localhost:&lt;port&gt;/&lt;name&gt;</code>.
+ * Every training of a coordinator is a session identified by the coordinator, so that many coordinators can train on the same worker at the same time.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class REMWorker implements REMWorkerRemote {
+
+
+	/**
+	 * Default name of worker in RMI registry.
+	 */
+	public final static String NAME_DEFAULT = "rem_worker";
+
+
+	/**
+	 * Shard of training data.
+	 */
+	protected Fetcher<Profile> shard = null;
+
+
+	/**
+	 * This class is a training session of a coordinator on the shard.
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 */
+	protected static class Session {
+
+		/**
+		 * Local model prepared on the shard, which is {@link REMImpl} or {@link DefaultMixtureREM}.
+		 */
+		protected EMAbstract model = null;
+
+		/**
+		 * Fulfilled data of the last expectation step, which is large statistics for single model or list of large statistics for mixture model.
+		 */
+		protected Object statistics = null;
+
+	}
+
+
+	/**
+	 * Training sessions indexed by their identifiers.
+	 */
+	protected Map<String, Session> sessions = Util.newMap();
+
+
+	/**
+	 * Registry and stub of exported worker.
+	 */
+	protected NetUtil.RegistryRemote registryRemote = null;
+
+
+	/**
+	 * Bind URI of exported worker.
+	 */
+	protected String bindUri = null;
+
+
+	/**
+	 * Constructor with specified shard.
+	 * @param shard specified shard of training data.
+	 */
+	public REMWorker(Fetcher<Profile> shard) {
+		this.shard = shard;
+	}
+
+
+	@Override
+	public Shard prepare(String session, DataConfig config, boolean mixture) throws RemoteException {
+		release(session);
+		EMAbstract model = mixture ? new DefaultMixtureREM() : new REMImpl();
+		if (config != null) model.getConfig().putAll(config);
+		model.getConfig().put(EMAbstract.EM_CHECKPOINT_FILE_FIELD, "");
+		model.getConfig().put(EMAbstract.EM_METRICS_FIELD, false);
+		model.getConfig().put(DistributedREM.WORKERS_FIELD, "");
+
+		Shard result = new Shard();
+		synchronized (shard) { //Reading shard is not thread-safe.
+			if (mixture) {
+				DefaultMixtureREM mixREM = (DefaultMixtureREM)model;
+				if (!mixREM.prepareInternalData(shard)) return null;
+				result.size = mixREM.data.size();
+				result.fingerprint = mixREM.data.fingerprint();
+				result.attList = mixREM.attList;
+				result.xIndices = mixREM.xIndices;
+				result.zIndices = mixREM.zIndices;
+			}
+			else {
+				REMImpl rem = (REMImpl)model;
+				if (!rem.prepareInternalData(shard)) return null;
+				result.size = rem.data.size();
+				result.fingerprint = rem.data.fingerprint();
+				result.attList = rem.attList;
+				result.xIndices = rem.xIndices;
+				result.zIndices = rem.zIndices;
+			}
+		}
+
+		Session newSession = new Session();
+		newSession.model = model;
+		synchronized (this) {
+			sessions.put(session, newSession);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Getting training session.
+	 * @param session identifier of training session.
+	 * @return training session. Return null if the session is not prepared.
+	 */
+	protected synchronized Session getSession(String session) {
+		return sessions.get(session);
+	}
+
+
+	@Override
+	public REMSufficientStatistics initialize(String session) throws RemoteException {
+		Session s = getSession(session);
+		if (s == null) return null;
+		
+		LargeStatistics data = null;
+		synchronized (s) {
+			if (s.model instanceof DefaultMixtureREM)
+				data = ((DefaultMixtureREM)s.model).data;
+			else if (s.model instanceof REMImpl)
+				data = ((REMImpl)s.model).data;
+		}
+		LargeStatistics completeData = data != null ? REMImpl.getCompleteData(data) : null;
+		if (completeData == null) return null;
+
+		REMSufficientStatistics stats = new REMSufficientStatistics(completeData.getXData().get(0).length, 0);
+		for (int i = 0; i < completeData.size(); i++)
+			stats.add(completeData.getXData().get(i), completeData.getZData().get(i)[1], null);
+		return stats;
+	}
+
+
+	@Override
+	public Object initializeParameter(String session) throws RemoteException {
+		Session s = getSession(session);
+		if (s == null) return null;
+		
+		synchronized (s) {
+			if (s.model instanceof DefaultMixtureREM) {
+				try {
+					return ((DefaultMixtureREM)s.model).initializeParameter();
+				}
+				catch (Throwable e) {
+					LogUtil.trace(e);
+				}
+			}
+			else if (s.model instanceof REMImpl)
+				return ((REMImpl)s.model).initializeParameter();
+		}
+
+		return null;
+	}
+
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public REMSufficientStatistics expectation(String session, Object parameter) throws RemoteException {
+		Session s = getSession(session);
+		if (s == null || parameter == null) return null;
+
+		LargeStatistics stat = null;
+		List<ExchangedParameter> parameters = null;
+		long imputed = 0;
+		synchronized (s) {
+			if (s.model == null) return null;
+			if (s.model instanceof DefaultMixtureREM) {
+				DefaultMixtureREM mixREM = (DefaultMixtureREM)s.model;
+				parameters = (List<ExchangedParameter>)parameter;
+				List<LargeStatistics> stats = (List<LargeStatistics>)mixREM.expectation(parameters);
+				stat = stats != null && stats.size() > 0 ? stats.get(0) : null; //All regression models have the same large statistics.
+				imputed = mixREM.imputedRows(stats);
+				s.statistics = stats;
+			}
+			else {
+				REMImpl rem = (REMImpl)s.model;
+				stat = (LargeStatistics)rem.expectation(parameter);
+				imputed = rem.imputedRows(stat);
+				s.statistics = stat;
+			}
+		}
+		if (stat == null || stat.isEmpty()) return null;
+
+		REMSufficientStatistics result = new REMSufficientStatistics(stat.getXData().get(0).length, parameters != null ? parameters.size() : 0);
+		for (int i = 0; i < stat.size(); i++) {
+			double[] xVector = stat.getXData().get(i);
+			double[] zVector = stat.getZData().get(i);
+			List<Double> condProbs = parameters != null ? ExchangedParameter.normalZCondProbs(parameters, xVector, zVector) : null;
+			result.add(xVector, zVector[1], condProbs);
+		}
+		result.addImputed(imputed);
+
+		return result;
+	}
+
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public RMDiagnostics diagnose(String session, Object parameter) throws RemoteException {
+		Session s = getSession(session);
+		if (s == null || parameter == null) return null;
+
+		synchronized (s) {
+			if (s.model == null || s.statistics == null) return null;
+			if (s.model instanceof DefaultMixtureREM) {
+				DefaultMixtureREM mixREM = (DefaultMixtureREM)s.model;
+				List<ExchangedParameter> parameters = (List<ExchangedParameter>)parameter;
+				List<LargeStatistics> stats = (List<LargeStatistics>)s.statistics;
+				if (mixREM.rems == null || parameters.size() != mixREM.rems.size() || stats.size() != mixREM.rems.size()) return null;
+				
+				for (int k = 0; k < parameters.size(); k++) {
+					mixREM.rems.get(k).setEstimatedParameter(parameters.get(k));
+					mixREM.rems.get(k).setStatistics(stats.get(k));
+				}
+				mixREM.setEstimatedParameter(parameters);
+				if (mixREM.predictionCache != null) mixREM.predictionCache.clear();
+				return mixREM.getDiagnostics();
+			}
+			else {
+				REMImpl rem = (REMImpl)s.model;
+				rem.setEstimatedParameter(parameter);
+				rem.setStatistics(s.statistics);
+				return rem.getDiagnostics();
+			}
+		}
+	}
+
+
+	@Override
+	public void release(String session) throws RemoteException {
+		Session s = null;
+		synchronized (this) {
+			s = sessions.remove(session);
+		}
+		if (s == null) return;
+		
+		synchronized (s) {
+			if (s.model != null) s.model.unsetup();
+			s.model = null;
+			s.statistics = null;
+		}
+	}
+
+
+	/**
+	 * Exporting and binding this worker at <code>rmi://localhost:&lt;port&gt;/&lt;name&gt;</code>.
+	 * @param port port of RMI registry, which is created if it does not exist.
+	 * @param name name of this worker in RMI registry.
+	 * @return bind URI of this worker. Return null if exporting is failed.
+	 */
+	public synchronized String start(int port, String name) {
+		if (registryRemote != null) return bindUri;
+
+		String uri = "rmi://localhost:" + port + "/" + name;
+		registryRemote = NetUtil.RegistryRemote.registerExportNaming(this, port, uri);
+		bindUri = registryRemote != null ? uri : null;
+		return bindUri;
+	}
+
+
+	/**
+	 * Unbinding and unexporting this worker.
+	 */
+	public synchronized void stop() {
+		List<String> sessionIds = Util.newList();
+		synchronized (this) {
+			sessionIds.addAll(sessions.keySet());
+		}
+		for (String session : sessionIds) {
+			try {
+				release(session);
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+			}
+		}
+
+		if (registryRemote != null)
+			NetUtil.RegistryRemote.unregisterUnexportUnnaming(registryRemote.getRegistry(), this, bindUri);
+		registryRemote = null;
+		bindUri = null;
+	}
+
+
+	/**
+	 * Loading a shard of training data from text file whose first line is header of attributes such as <code>x1~real,x2~real,z~real</code>
+	 * and other lines are comma-separated real values where empty value is missing value. The file can be created by {@link net.rem.regression.RegressiveDataGenerator}.
+	 * Rows are assigned to shards in round-robin order so that every shard has the same distribution.
+	 * @param file specified text file.
+	 * @param shardIndex index of shard from 0.
+	 * @param shardCount number of shards.
+	 * @return shard of training data.
+	 * @throws IOException if any error raises.
+	 */
+	public static Fetcher<Profile> loadShard(File file, int shardIndex, int shardCount) throws IOException {
+		List<Profile> profiles = Util.newList();
+		try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+			String header = reader.readLine();
+			if (header == null) return new MemFetcher<>(profiles);
+
+			AttributeList attList = new AttributeList();
+			for (String field : header.split(",")) {
+				attList.add(new Attribute(field.split("~")[0].trim(), Type.real));
+			}
+
+			String line = null;
+			long row = 0;
+			while ((line = reader.readLine()) != null) {
+				if (line.trim().isEmpty()) continue;
+				if (shardCount > 1 && (row++ % shardCount) != shardIndex) continue;
+
+				String[] values = line.split(",", -1);
+				Profile profile = new Profile(attList);
+				for (int j = 0; j < attList.size(); j++) {
+					String value = j < values.length ? values[j].replace("\"", "").trim() : "";
+					if (value.isEmpty())
+						profile.setMissing(j);
+					else
+						profile.setValue(j, Double.parseDouble(value));
+				}
+				profiles.add(profile);
+			}
+		}
+
+		return new MemFetcher<>(profiles);
+	}
+
+
+	/**
+	 * Main method to start a worker in its own process.
+	 * Arguments are &lt;data file&gt; &lt;shard index&gt; &lt;shard count&gt; &lt;port&gt; [name].
+	 * @param args arguments.
+	 * @throws Exception if any error raises.
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length < 4) {
+			System.out.println("Usage: REMWorker <data file> <shard index> <shard count> <port> [name]");
+			return;
+		}
+
+		Fetcher<Profile> shard = loadShard(new File(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+		REMWorker worker = new REMWorker(shard);
+		String uri = worker.start(Integer.parseInt(args[3]), args.length > 4 ? args[4] : NAME_DEFAULT);
+		if (uri == null) {
+			System.out.println("Failed to start worker");
+			System.exit(1);
+		}
+		else
+			System.out.println("Worker of " + shard.getMetadata().getSize() + " rows is ready at " + uri);
+	}
+
+
+}
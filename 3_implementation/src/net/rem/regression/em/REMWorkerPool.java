@@ -0,0 +1,338 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import java.rmi.Naming;
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.hudup.core.Util;
+import net.hudup.core.data.DataConfig;
+import net.hudup.core.logistic.LogUtil;
+import net.rem.regression.RMDiagnostics;
+import net.rem.regression.em.REMWorkerRemote.Shard;
+
+/**
+ * This class is the coordinator side of distributed REM training. It connects to remote workers and calls them concurrently,
+ * merging their sufficient statistics so that one call of the pool is one parallel round trip to all workers.
+ * Every pool is a training session with its own identifier on workers, so that coordinators sharing workers do not disturb each other.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class REMWorkerPool {
+
+
+	/**
+	 * This interface represents a call to a worker.
+	 * @param <T> type of result.
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 */
+	private interface WorkerCall<T> {
+
+		/**
+		 * Calling specified worker.
+		 * @param worker specified worker.
+		 * @return result of the call.
+		 * @throws RemoteException if any error raises.
+		 */
+		T call(REMWorkerRemote worker) throws RemoteException;
+
+	}
+
+
+	/**
+	 * Remote workers.
+	 */
+	protected List<REMWorkerRemote> workers = Util.newList();
+
+
+	/**
+	 * Executor calling workers concurrently.
+	 */
+	protected ExecutorService executor = null;
+
+
+	/**
+	 * Identifier of training session of this pool on workers.
+	 */
+	protected String session = UUID.randomUUID().toString();
+
+
+	/**
+	 * Shards of workers after preparation.
+	 */
+	protected List<Shard> shards = null;
+
+
+	/**
+	 * Constructor with specified workers.
+	 * @param workers specified workers.
+	 */
+	public REMWorkerPool(List<REMWorkerRemote> workers) {
+		this.workers.addAll(workers);
+		this.executor = Executors.newFixedThreadPool(Math.max(1, workers.size()));
+	}
+
+
+	/**
+	 * Connecting to workers given their bind URIs such as <code>rmi://host1:10151/rem_worker, rmi://host2:10151/rem_worker</code>.
+	 * @param uris bind URIs of workers separated by comma, semicolon, or white space.
+	 * @return pool of workers. Return null if there is no URI.
+	 * @throws RemoteException if any worker cannot be connected.
+	 */
+	public static REMWorkerPool connect(String uris) throws RemoteException {
+		if (uris == null || uris.trim().isEmpty()) return null;
+
+		List<REMWorkerRemote> workers = Util.newList();
+		for (String uri : uris.trim().split("[,;\\s]+")) {
+			if (uri.isEmpty()) continue;
+			try {
+				workers.add((REMWorkerRemote)Naming.lookup(uri.startsWith("rmi:") ? uri : "rmi://" + uri));
+			}
+			catch (RemoteException e) {
+				throw e;
+			}
+			catch (Exception e) {
+				throw new RemoteException("Cannot connect to worker " + uri, e);
+			}
+		}
+
+		return workers.size() > 0 ? new REMWorkerPool(workers) : null;
+	}
+
+
+	/**
+	 * Getting number of workers.
+	 * @return number of workers.
+	 */
+	public int size() {
+		return workers.size();
+	}
+
+
+	/**
+	 * Preparing internal data of all workers with specified configuration.
+	 * @param config configuration of the coordinator.
+	 * @param mixture flag to indicate whether the coordinator is mixture model.
+	 * @return shards of workers. Return null if preparation of any worker is failed.
+	 * @throws RemoteException if any error raises.
+	 */
+	public List<Shard> prepare(final DataConfig config, final boolean mixture) throws RemoteException {
+		List<Shard> shards = invokeAll(new WorkerCall<Shard>() {
+			@Override
+			public Shard call(REMWorkerRemote worker) throws RemoteException {
+				return worker.prepare(session, config, mixture);
+			}
+		});
+
+		for (Shard shard : shards) {
+			if (shard == null) return null;
+		}
+		this.shards = shards;
+		return shards;
+	}
+
+
+	/**
+	 * Getting shards of workers after preparation.
+	 * @return shards of workers. Return null if workers are not prepared.
+	 */
+	public List<Shard> getShards() {
+		return shards;
+	}
+
+
+	/**
+	 * Getting total number of rows of all shards.
+	 * @return total number of rows of all shards.
+	 */
+	public long getTotalSize() {
+		long total = 0;
+		if (shards != null) {
+			for (Shard shard : shards) total += shard.size;
+		}
+		return total;
+	}
+
+
+	/**
+	 * Getting fingerprint of data of all shards, which combines fingerprints of shards in order of workers.
+	 * @return fingerprint of data of all shards.
+	 */
+	public long getFingerprint() {
+		long hash = 17;
+		if (shards != null) {
+			for (Shard shard : shards) hash = 31 * hash + shard.fingerprint;
+		}
+		return hash;
+	}
+
+
+	/**
+	 * Calculating sufficient statistics of complete rows of all shards.
+	 * @return merged sufficient statistics of complete rows. Return null if no shard has complete rows.
+	 * @throws RemoteException if any error raises.
+	 */
+	public REMSufficientStatistics initialize() throws RemoteException {
+		return merge(invokeAll(new WorkerCall<REMSufficientStatistics>() {
+			@Override
+			public REMSufficientStatistics call(REMWorkerRemote worker) throws RemoteException {
+				return worker.initialize(session);
+			}
+		}));
+	}
+
+
+	/**
+	 * Initializing parameter on the shard of the first worker.
+	 * @return initialized parameter. Return null if initialization is failed.
+	 * @throws RemoteException if any error raises.
+	 */
+	public Object initializeParameter() throws RemoteException {
+		return workers.get(0).initializeParameter(session);
+	}
+
+
+	/**
+	 * Running the expectation step on all shards with specified parameter.
+	 * @param parameter specified parameter.
+	 * @return merged sufficient statistics of all shards. Return null if expectation of any worker is failed.
+	 * @throws RemoteException if any error raises.
+	 */
+	public REMSufficientStatistics expectation(final Object parameter) throws RemoteException {
+		List<REMSufficientStatistics> stats = invokeAll(new WorkerCall<REMSufficientStatistics>() {
+			@Override
+			public REMSufficientStatistics call(REMWorkerRemote worker) throws RemoteException {
+				return worker.expectation(session, parameter);
+			}
+		});
+
+		for (REMSufficientStatistics stat : stats) {
+			if (stat == null) return null;
+		}
+		return merge(stats);
+	}
+
+
+	/**
+	 * Calculating diagnostics of specified trained parameter over fulfilled data of all shards from the last expectation step.
+	 * @param parameter specified trained parameter.
+	 * @return diagnostics of all shards merged in order of workers. Return null if diagnostics of any worker is failed.
+	 * @throws RemoteException if any error raises.
+	 */
+	public RMDiagnostics diagnose(final Object parameter) throws RemoteException {
+		List<RMDiagnostics> diagnosticsList = invokeAll(new WorkerCall<RMDiagnostics>() {
+			@Override
+			public RMDiagnostics call(REMWorkerRemote worker) throws RemoteException {
+				return worker.diagnose(session, parameter);
+			}
+		});
+
+		RMDiagnostics result = null;
+		for (RMDiagnostics diagnostics : diagnosticsList) {
+			if (diagnostics == null)
+				return null;
+			else if (result == null)
+				result = diagnostics;
+			else
+				result.merge(diagnostics);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Releasing internal data of all workers and shutting down this pool.
+	 */
+	public void close() {
+		try {
+			invokeAll(new WorkerCall<Object>() {
+				@Override
+				public Object call(REMWorkerRemote worker) throws RemoteException {
+					worker.release(session);
+					return null;
+				}
+			});
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+
+		executor.shutdown();
+		shards = null;
+	}
+
+
+	/**
+	 * Merging sufficient statistics.
+	 * @param stats list of sufficient statistics, some of which can be null.
+	 * @return merged sufficient statistics. Return null if all of them are null.
+	 */
+	private static REMSufficientStatistics merge(List<REMSufficientStatistics> stats) {
+		REMSufficientStatistics result = null;
+		for (REMSufficientStatistics stat : stats) {
+			if (stat == null)
+				continue;
+			else if (result == null)
+				result = stat;
+			else
+				result.merge(stat);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Calling all workers concurrently.
+	 * @param <T> type of result.
+	 * @param call specified call.
+	 * @return results of workers in order of workers.
+	 * @throws RemoteException if any call is failed.
+	 */
+	private <T> List<T> invokeAll(final WorkerCall<T> call) throws RemoteException {
+		List<Future<T>> futures = Util.newList(workers.size());
+		for (final REMWorkerRemote worker : workers) {
+			futures.add(executor.submit(new Callable<T>() {
+				@Override
+				public T call() throws Exception {
+					return call.call(worker);
+				}
+			}));
+		}
+
+		List<T> results = Util.newList(workers.size());
+		for (Future<T> future : futures) {
+			try {
+				results.add(future.get());
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RemoteException("Distributed call is interrupted", e);
+			}
+			catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof RemoteException)
+					throw (RemoteException)cause;
+				else
+					throw new RemoteException("Distributed call is failed", cause);
+			}
+		}
+		return results;
+	}
+
+
+}
@@ -0,0 +1,128 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import java.io.Serializable;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.List;
+
+import net.hudup.core.data.AttributeList;
+import net.hudup.core.data.DataConfig;
+import net.rem.regression.RMDiagnostics;
+
+/**
+ * This interface represents remote worker of distributed REM training. A worker holds a shard of training data, runs the expectation step on its shard,
+ * and returns only sufficient statistics to the coordinator which runs the maximization step.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public interface REMWorkerRemote extends Remote {
+
+
+	/**
+	 * This class describes the shard of a worker after preparation.
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 */
+	class Shard implements Serializable {
+
+		/**
+		 * Serial version UID for serializable class.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Number of rows of the shard.
+		 */
+		public int size = 0;
+
+		/**
+		 * Fingerprint of prepared data of the shard, see {@link net.rem.regression.LargeStatistics#fingerprint()}.
+		 */
+		public long fingerprint = 0;
+
+		/**
+		 * Attribute list of the shard.
+		 */
+		public AttributeList attList = null;
+
+		/**
+		 * X indices parsed from the shard.
+		 */
+		public List<Object[]> xIndices = null;
+
+		/**
+		 * Z indices parsed from the shard.
+		 */
+		public List<Object[]> zIndices = null;
+
+	}
+
+
+	/**
+	 * Preparing internal data of the shard with specified configuration of the coordinator.
+	 * Every training of a coordinator is a session so that many coordinators can use the same worker at the same time, and preparing an existing session restarts it.
+	 * @param session identifier of training session, which is generated by the coordinator.
+	 * @param config configuration of the coordinator.
+	 * @param mixture flag to indicate whether the coordinator is mixture model.
+	 * @return description of the shard. Return null if preparation is failed.
+	 * @throws RemoteException if any error raises.
+	 */
+	Shard prepare(String session, DataConfig config, boolean mixture) throws RemoteException;
+
+
+	/**
+	 * Calculating sufficient statistics of complete rows of the shard, which are used to initialize parameter of single model or mixture model of one component.
+	 * @param session identifier of training session.
+	 * @return sufficient statistics of complete rows of the shard. Return null if the session is not prepared.
+	 * @throws RemoteException if any error raises.
+	 */
+	REMSufficientStatistics initialize(String session) throws RemoteException;
+
+
+	/**
+	 * Initializing parameter on the shard alone, which is used to initialize parameters of mixture model.
+	 * @param session identifier of training session.
+	 * @return initialized parameter on the shard. Return null if initialization is failed.
+	 * @throws RemoteException if any error raises.
+	 */
+	Object initializeParameter(String session) throws RemoteException;
+
+
+	/**
+	 * Running the expectation step on the shard with specified parameter.
+	 * @param session identifier of training session.
+	 * @param parameter specified parameter which is exchanged parameter for single model or list of exchanged parameters for mixture model.
+	 * @return sufficient statistics of fulfilled data of the shard. Return null if expectation is failed.
+	 * @throws RemoteException if any error raises.
+	 */
+	REMSufficientStatistics expectation(String session, Object parameter) throws RemoteException;
+
+
+	/**
+	 * Calculating diagnostics of specified trained parameter over fulfilled data of the shard from the last expectation step, so that the coordinator keeps metrics and graph series after training.
+	 * @param session identifier of training session.
+	 * @param parameter specified trained parameter which is exchanged parameter for single model or list of exchanged parameters for mixture model.
+	 * @return diagnostics of the shard. Return null if there is no expectation step before.
+	 * @throws RemoteException if any error raises.
+	 */
+	RMDiagnostics diagnose(String session, Object parameter) throws RemoteException;
+
+
+	/**
+	 * Releasing internal data prepared for training session. The shard itself is kept for next training.
+	 * @param session identifier of training session.
+	 * @throws RemoteException if any error raises.
+	 */
+	void release(String session) throws RemoteException;
+
+
+}
@@ -11,8 +11,9 @@ import static net.rem.regression.em.REMImpl.CALC_VARIANCE_FIELD;
 
 import java.awt.Color;
 import java.rmi.RemoteException;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import flanagan.analysis.Regression;
 import flanagan.math.Fmath;
@@ -28,8 +29,11 @@ import net.hudup.core.data.Profile;
 import net.hudup.core.logistic.LogUtil;
 import net.hudup.core.logistic.MathUtil;
 import net.hudup.core.logistic.Vector2;
+import net.rem.regression.ColumnarData;
 import net.rem.regression.Indices;
 import net.rem.regression.LargeStatistics;
+import net.rem.regression.MathAdapter;
+import net.rem.regression.RMMetrics;
 import net.rem.regression.VarWrapper;
 import net.rem.regression.ui.graph.Graph;
 import net.rem.regression.ui.graph.PlotGraphExt;
@@ -88,14 +92,32 @@ public class SemiMixtureREM extends AbstractMixtureREM implements DuplicatableAl
 	protected final static boolean UNIFORM_MODE_DEFAULT = false;
 
 	
+	/**
+	 * Minimum number of rows processed by one parallel task when calculating responsibilities.
+	 */
+	protected final static int RESPONSIBILITY_ROWS_THRESHOLD = 1024;
+	
+	
+	/**
+	 * Shared NxK buffer in row-major order, which holds either means or posteriors (responsibilities) of components for every row.
+	 * It is re-used across iterations by both expectation in mutual mode and adjustment of mixture parameters.
+	 */
+	protected transient double[] responsibilities = null;
+	
+	
 	@Override
 	protected boolean prepareInternalData(Fetcher<Profile> inputSample) throws RemoteException {
 		clearInternalData();
 		DataConfig thisConfig = this.getConfig();
 		
+		//All attributes are extracted once and shared by sub-models instead of each sub-model scanning the sample.
+		ColumnarData columnarData = ColumnarData.of(inputSample);
+		if (columnarData == null || columnarData.size() == 0)
+			return false;
+		
 		List<String> indicesList = Indices.splitIndices(thisConfig.getAsString(RM_INDICES_FIELD));
 		if (indicesList.size() == 0) {
-			AttributeList attList = getSampleAttributeList(inputSample);
+			AttributeList attList = columnarData.getAttributeList();
 			if (attList.size() < 2)
 				return false;
 			
@@ -118,12 +140,28 @@ public class SemiMixtureREM extends AbstractMixtureREM implements DuplicatableAl
 		}
 		
 		this.rems = Util.newList(indicesList.size());
+		List<double[]> sharedZData = null; //Rows of response are shared by sub-models having the same response.
+		Object sharedZIndex = null;
 		for (int i = 0; i < indicesList.size(); i++) {
 			REMImpl rem = createREM();
 			rem.getConfig().put(RM_INDICES_FIELD, indicesList.get(i));
-			rem.setup(inputSample);
+			Indices indices = Indices.parse(indicesList.get(i), columnarData);
+			if (indices == null) continue;
+			
+			Object zIndex = indices.zIndices.get(1)[0];
+			boolean shared = sharedZData != null && zIndex.equals(sharedZIndex);
+			LargeStatistics data = Indices.extractData(columnarData, indices.xIndices, indices.zIndices, rem, shared ? sharedZData : null);
+			if (data == null) continue;
+			if (sharedZData == null) {
+				sharedZData = data.getZData();
+				sharedZIndex = zIndex;
+			}
+			
+			rem.setup(inputSample, new Indices.Prepared(indices, data));
 			if(rem.attList != null) // if rem is set up successfully.
 				this.rems.add(rem);
+			else
+				rem.unsetup();
 		}
 		
 		if (this.rems.size() == 0) {
@@ -165,17 +203,19 @@ public class SemiMixtureREM extends AbstractMixtureREM implements DuplicatableAl
 					return null;
 			}
 			
+			int K = this.rems.size();
+			List<ExchangedParameter> parameterList = Util.newList(K);
+			for (REMImpl rem : this.rems) parameterList.add(rem.getExchangedParameter());
+			double[] means = calcResponsibilities(parameterList, N, null);
+			
 			//Calculating average value of Z in mutual mode. For instance, the estimated value of Z is the average over all sub-models.
 			for (int i = 0; i < N; i++) {
 				double mean0 = 0;
 				double coeffSum = 0;
-				for (REMImpl rem : this.rems) {
-					ExchangedParameter parameter = rem.getExchangedParameter();
-					LargeStatistics stat = rem.getLargeStatistics();
-					double mean = parameter.mean(stat.getXData().get(i));
-					double coeff = parameter.getCoeff();
+				for (int k = 0; k < K; k++) {
+					double coeff = parameterList.get(k).getCoeff();
 					coeff = Util.isUsed(coeff) ? coeff : 1;
-					mean0 += coeff * mean;
+					mean0 += coeff * means[i*K + k];
 					coeffSum += coeff;
 				}
 				mean0 = mean0 / coeffSum;
@@ -226,25 +266,20 @@ public class SemiMixtureREM extends AbstractMixtureREM implements DuplicatableAl
 		}
 		
 		this.currentIteration++;
-		for (int k = 0; k < this.rems.size(); k++) {
+		int K = this.rems.size();
+		List<double[]> zData = this.rems.get(0).getData().getZData(); //By default, all models have the same original Z variables.
+		double[] posteriors = calcResponsibilities(parameterList, zData.size(), zData);
+		for (int k = 0; k < K; k++) {
 			REMImpl rem = this.rems.get(k);
 			ExchangedParameter parameter = rem.getExchangedParameter();
 			
 			double condProbSum = 0;
 			int N = 0;
-			List<double[]> zData = rem.getData().getZData(); //By default, all models have the same original Z variables.
 			for (int i = 0; i < zData.size(); i++) {
-				double zValue = zData.get(i)[1];
-				if (!Util.isUsed(zValue))
+				if (!Util.isUsed(zData.get(i)[1]))
 					continue;
 				
-				List<double[]> XList = Util.newList(this.rems.size());
-				for (REMImpl rem2 : this.rems) {
-					XList.add(rem2.getLargeStatistics().getXData().get(i));
-				}
-				
-				List<Double> condProbs = ExchangedParameter.normalZCondProbs(parameterList, XList, Arrays.asList(new double[] {1, zValue}));
-				condProbSum += condProbs.get(k);
+				condProbSum += posteriors[i*K + k];
 				N++;
 			}
 			if (condProbSum == 0)
@@ -259,6 +294,158 @@ public class SemiMixtureREM extends AbstractMixtureREM implements DuplicatableAl
 	}
 	
 	
+	/**
+	 * Calculating NxK matrix of means or posteriors (responsibilities) of components for all rows once, in parallel over rows.
+	 * The matrix is stored in the shared buffer {@link #responsibilities} in row-major order.
+	 * @param parameterList parameters of K components.
+	 * @param N number of rows.
+	 * @param zData original Z data. If it is null, the matrix contains means of components given their regressors.
+	 * Otherwise, the matrix contains posteriors of components given regressors and response, which are normal conditional probabilities as {@link ExchangedParameter#normalZCondProbs(List, List, List)};
+	 * rows of missing response are not calculated.
+	 * @return NxK matrix of means or posteriors in row-major order.
+	 * @throws RemoteException if any error raises.
+	 */
+	protected double[] calcResponsibilities(List<ExchangedParameter> parameterList, int N, List<double[]> zData) throws RemoteException {
+		int K = parameterList.size();
+		if (responsibilities == null || responsibilities.length != N*K)
+			responsibilities = new double[N*K];
+		
+		List<List<double[]>> xDataList = Util.newList(K);
+		for (REMImpl rem : this.rems) xDataList.add(rem.getLargeStatistics().getXData());
+		
+		ResponsibilityTask task = new ResponsibilityTask(parameterList, xDataList, zData, responsibilities, 0, N);
+		if (N > RESPONSIBILITY_ROWS_THRESHOLD)
+			ForkJoinPool.commonPool().invoke(task);
+		else
+			task.compute();
+		
+		if (task.getZeroCount() > 0)
+			LogUtil.warn("Reset uniform conditional probability of component due to zero denominator in " + task.getZeroCount() + " rows");
+		return responsibilities;
+	}
+	
+	
+	/**
+	 * This class is the parallel task to calculate rows of means or posteriors of components.
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 */
+	private static class ResponsibilityTask extends RecursiveAction {
+		
+		/**
+		 * Serial version UID for serializable class.
+		 */
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * Parameters of components.
+		 */
+		private List<ExchangedParameter> parameterList;
+		
+		/**
+		 * X data of components.
+		 */
+		private List<List<double[]>> xDataList;
+		
+		/**
+		 * Original Z data. If it is null, means are calculated.
+		 */
+		private List<double[]> zData;
+		
+		/**
+		 * Output buffer in row-major order.
+		 */
+		private double[] buffer;
+		
+		/**
+		 * Starting row (inclusive).
+		 */
+		private int from;
+		
+		/**
+		 * Ending row (exclusive).
+		 */
+		private int to;
+		
+		/**
+		 * Number of rows whose posteriors are reset uniformly due to zero denominator.
+		 */
+		private int zeroCount = 0;
+		
+		/**
+		 * Constructor with parameters, data, buffer, and range of rows.
+		 * @param parameterList parameters of components.
+		 * @param xDataList X data of components.
+		 * @param zData original Z data, which can be null.
+		 * @param buffer output buffer.
+		 * @param from starting row (inclusive).
+		 * @param to ending row (exclusive).
+		 */
+		public ResponsibilityTask(List<ExchangedParameter> parameterList, List<List<double[]>> xDataList, List<double[]> zData, double[] buffer, int from, int to) {
+			this.parameterList = parameterList;
+			this.xDataList = xDataList;
+			this.zData = zData;
+			this.buffer = buffer;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if (to - from > RESPONSIBILITY_ROWS_THRESHOLD) {
+				int middle = (from + to) >>> 1;
+				ResponsibilityTask left = new ResponsibilityTask(parameterList, xDataList, zData, buffer, from, middle);
+				ResponsibilityTask right = new ResponsibilityTask(parameterList, xDataList, zData, buffer, middle, to);
+				invokeAll(left, right);
+				zeroCount = left.zeroCount + right.zeroCount;
+				return;
+			}
+			
+			int K = parameterList.size();
+			for (int i = from; i < to; i++) {
+				int offset = i*K;
+				if (zData == null) {
+					for (int k = 0; k < K; k++)
+						buffer[offset + k] = parameterList.get(k).mean(xDataList.get(k).get(i));
+					continue;
+				}
+				
+				double zValue = zData.get(i)[1];
+				if (!Util.isUsed(zValue)) {
+					for (int k = 0; k < K; k++) buffer[offset + k] = Constants.UNUSED;
+					continue;
+				}
+				
+				double denominator = 0;
+				for (int k = 0; k < K; k++) {
+					ExchangedParameter parameter = parameterList.get(k);
+					double zMean = parameter.mean(xDataList.get(k).get(i));
+					double product = parameter.getCoeff() * MathAdapter.normalPDF(zValue, zMean, parameter.getZVariance());
+					buffer[offset + k] = product;
+					denominator += product;
+				}
+				
+				if (denominator != 0 && Util.isUsed(denominator)) {
+					for (int k = 0; k < K; k++) buffer[offset + k] /= denominator;
+				}
+				else {
+					for (int k = 0; k < K; k++) buffer[offset + k] = 1.0 / (double)K;
+					zeroCount++;
+				}
+			}
+		}
+		
+		/**
+		 * Getting number of rows whose posteriors are reset uniformly due to zero denominator.
+		 * @return number of rows whose posteriors are reset uniformly.
+		 */
+		public int getZeroCount() {
+			return zeroCount;
+		}
+		
+	}
+	
+	
 	@Override
 	public synchronized LargeStatistics getLargeStatistics() throws RemoteException {
 		if (this.rems == null || this.rems.size() == 0)
@@ -696,6 +883,28 @@ public class SemiMixtureREM extends AbstractMixtureREM implements DuplicatableAl
 	}
 
 
+	/**
+	 * Metrics of semi-mixture model are calculated by its own methods because its responses are mixed over components.
+	 * Correlations with regressors are calculated only for indices shared by all components.
+	 */
+	@Override
+	public RMMetrics calcMetrics() throws RemoteException {
+		if (this.rems == null || this.rems.size() == 0)
+			return null;
+		
+		int n = Integer.MAX_VALUE;
+		for (REMImpl rem : this.rems) {
+			LargeStatistics stats = rem.getLargeStatistics();
+			if (stats == null || stats.size() == 0) return null;
+			n = Math.min(n, stats.getXData().get(0).length);
+		}
+		
+		double[] rs = new double[n];
+		for (int index = 0; index < n; index++) rs[index] = calcR(index);
+		return new RMMetrics(calcVariance(), calcR(), calcError(), rs);
+	}
+
+
 //	/**
 //	 * Adjusting specified parameters based on specified statistics according to mixture model for many iterations.
 //	 * This method is replaced by {@link #adjustMixtureParameters()} method.
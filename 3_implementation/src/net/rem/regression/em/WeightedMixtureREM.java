@@ -8,7 +8,9 @@
 package net.rem.regression.em;
 
 import java.rmi.RemoteException;
+import java.util.List;
 
+import net.hudup.core.Util;
 import net.hudup.core.data.DataConfig;
 import net.hudup.core.logistic.LogUtil;
 import net.rem.regression.LargeStatistics;
@@ -40,27 +42,81 @@ public class WeightedMixtureREM extends DefaultMixtureREM {
 	}
 
 
+	/**
+	 * Large statistics imputed by components in the last expectation step. They are used to estimate distributions of regressors without imputing data again.
+	 */
+	protected transient List<LargeStatistics> componentStats = null;
+	
+	
+	/**
+	 * Parameters of components with which data was imputed in the last expectation step.
+	 */
+	protected transient List<ExchangedParameter> componentParameters = null;
+	
+	
+	@Override
+	protected void componentExpectation(List<ExchangedParameter> parameters, List<LargeStatistics> stats) {
+		this.componentStats = Util.newList(stats.size());
+		this.componentStats.addAll(stats);
+		this.componentParameters = parameters;
+	}
+
+
+	/**
+	 * Distribution of regressors of every component is estimated from data imputed by this component in the last expectation step if learning converged.
+	 * Data is imputed again by the component in one extra pass if learning was stopped before convergence, for example, by the maximum number of iterations {@link #EM_MAX_ITERATION_FIELD},
+	 * because the last expectation step used parameters of the previous iteration. Data is also imputed again if the last expectation step is not available, for example, when parameters are given without learning.
+	 */
 	@Override
 	protected boolean adjustMixtureParameters() throws RemoteException {
 		super.adjustMixtureParameters();
 		
-		for (REMImpl rem : rems) {
+		boolean reused = isComponentStatsReusable();
+		for (int k = 0; k < rems.size(); k++) {
+			REMImpl rem = rems.get(k);
 			ExchangedParameter parameter = null;
 			LargeStatistics stat = null;
 			try {
 				parameter = (ExchangedParameter)rem.getParameter();
-				stat = (LargeStatistics) rem.expectation(parameter, this.data);
+				stat = reused ? componentStats.get(k) : null;
+				if (stat == null)
+					stat = (LargeStatistics) rem.expectation(parameter, this.data);
 			} 
 			catch (Exception e) {LogUtil.trace(e);}
 			
 			NormalDisParameter xNormalDisParameter = new NormalDisParameter(stat);
 			parameter.setXNormalDisParameter(xNormalDisParameter);
 		}
+		componentStats = null;
+		componentParameters = null;
 		
 		return true;
 	}
 
 
+	/**
+	 * Checking whether data imputed in the last expectation step can be reused to estimate distributions of regressors,
+	 * which means that parameters of that step converged to the learned parameters according to {@link #terminatedCondition(Object, Object, Object, Object...)}.
+	 * @return whether data imputed in the last expectation step can be reused.
+	 * @throws RemoteException if any error raises.
+	 */
+	protected boolean isComponentStatsReusable() throws RemoteException {
+		if (componentStats == null || componentParameters == null || componentStats.size() != rems.size())
+			return false;
+		
+		Object parameter = getParameter();
+		return parameter == componentParameters || (parameter != null && terminatedCondition(parameter, componentParameters, null));
+	}
+
+
+	@Override
+	protected void clearInternalData() throws RemoteException {
+		super.clearInternalData();
+		componentStats = null;
+		componentParameters = null;
+	}
+
+
 	@Override
 	public String getName() {
 		String name = getConfig().getAsString(DUPLICATED_ALG_NAME_FIELD);
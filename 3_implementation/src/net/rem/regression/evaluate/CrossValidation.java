@@ -0,0 +1,474 @@
+/**
+ * SIM: MACHINE LEARNING ALGORITHMS FRAMEWORK
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.evaluate;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.hudup.core.Constants;
+import net.hudup.core.Util;
+import net.hudup.core.data.DataConfig;
+import net.hudup.core.data.Fetcher;
+import net.hudup.core.data.Profile;
+import net.hudup.core.logistic.LogUtil;
+import net.hudup.core.logistic.MathUtil;
+import net.hudup.core.logistic.Vector2;
+import net.rem.em.EMAbstract;
+import net.rem.regression.ColumnarData;
+import net.rem.regression.ColumnarFetcher;
+import net.rem.regression.RM;
+import net.rem.regression.RMAbstract;
+import net.rem.regression.em.ExchangedParameter;
+import net.rem.regression.em.REMRobust;
+
+/**
+ * This class performs k-fold cross-validation and repeated holdout validation of a regression model.
+ * Every fold is learned by a new instance of the prototype model with the same configuration, and folds are learned concurrently.
+ * Training rows and testing rows of folds are views of the columnar data {@link ColumnarData} of the sample, so profiles of the sample are not copied.
+ * If warm start is enabled and the prototype model is an EM model, every fold resumes from the parameter learned from whole sample instead of initializing parameter.
+ * Warm start is disabled by default because the warm parameter is learned from testing rows too, so that testing rows leak into training and the results are optimistically biased.
+ * It only shortens learning of folds and it should not be enabled when results are reported as estimates of generalization error.
+ * Folds which fail are kept in the results with their errors, see {@link FoldResult#error}, so that they are not silently dropped.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class CrossValidation {
+
+
+	/**
+	 * Prototype model whose new instances learn folds.
+	 */
+	protected RM prototype = null;
+
+
+	/**
+	 * Flag to indicate whether folds resume from the parameter learned from whole sample. It is false by default because testing rows leak into training with warm start.
+	 */
+	protected boolean warmStart = false;
+
+
+	/**
+	 * Number of threads learning folds concurrently. Non-positive number means the number of processors.
+	 */
+	protected int threads = 0;
+
+
+	/**
+	 * Constructor with specified prototype model.
+	 * @param prototype specified prototype model whose new instances learn folds.
+	 */
+	public CrossValidation(RM prototype) {
+		this.prototype = prototype;
+	}
+
+
+	/**
+	 * Setting whether folds resume from the parameter learned from whole sample. Note that the whole sample includes testing rows of every fold, so warm start biases the results optimistically.
+	 * @param warmStart flag to indicate whether folds resume from the parameter learned from whole sample.
+	 */
+	public void setWarmStart(boolean warmStart) {
+		this.warmStart = warmStart;
+	}
+
+
+	/**
+	 * Setting number of threads learning folds concurrently.
+	 * @param threads number of threads. Non-positive number means the number of processors.
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+
+	/**
+	 * Performing k-fold cross-validation. Rows of specified sample are shuffled and divided into k folds; every fold is tested by the model learned from the other folds.
+	 * @param sample specified sample.
+	 * @param k number of folds which is at least 2 and at most the number of rows.
+	 * @param seed seed of shuffling rows.
+	 * @return results of folds. Return null if the sample or the number of folds is invalid.
+	 */
+	public List<FoldResult> kFold(Fetcher<Profile> sample, int k, long seed) {
+		ColumnarData data = ColumnarData.of(sample);
+		int N = data != null ? data.size() : 0;
+		if (k < 2 || k > N) return null;
+
+		int[] permutation = shuffle(N, new Random(seed));
+		List<int[]> trains = Util.newList(k);
+		List<int[]> tests = Util.newList(k);
+		for (int i = 0; i < k; i++) {
+			int from = (int) ((long)i * N / k);
+			int to = (int) ((long)(i + 1) * N / k);
+			tests.add(sort(Arrays.copyOfRange(permutation, from, to)));
+
+			int[] train = new int[N - (to - from)];
+			System.arraycopy(permutation, 0, train, 0, from);
+			System.arraycopy(permutation, to, train, from, N - to);
+			trains.add(sort(train));
+		}
+
+		return run(sample, data, trains, tests);
+	}
+
+
+	/**
+	 * Performing repeated holdout validation. In every repetition, rows of specified sample are shuffled and a ratio of them is held out for testing the model learned from the others.
+	 * @param sample specified sample.
+	 * @param repeats number of repetitions.
+	 * @param testRatio ratio of testing rows in (0, 1).
+	 * @param seed seed of shuffling rows.
+	 * @return results of repetitions. Return null if the sample, the number of repetitions, or the ratio is invalid.
+	 */
+	public List<FoldResult> repeatedHoldout(Fetcher<Profile> sample, int repeats, double testRatio, long seed) {
+		ColumnarData data = ColumnarData.of(sample);
+		int N = data != null ? data.size() : 0;
+		if (repeats < 1 || N < 2 || testRatio <= 0 || testRatio >= 1) return null;
+
+		int testSize = Math.max(1, Math.min(N - 1, (int)Math.round(testRatio * N)));
+		Random rnd = new Random(seed);
+		List<int[]> trains = Util.newList(repeats);
+		List<int[]> tests = Util.newList(repeats);
+		for (int i = 0; i < repeats; i++) {
+			int[] permutation = shuffle(N, rnd);
+			tests.add(sort(Arrays.copyOfRange(permutation, 0, testSize)));
+			trains.add(sort(Arrays.copyOfRange(permutation, testSize, N)));
+		}
+
+		return run(sample, data, trains, tests);
+	}
+
+
+	/**
+	 * Learning and testing folds concurrently.
+	 * @param sample specified sample.
+	 * @param data columnar data of specified sample.
+	 * @param trains indices of training rows of folds.
+	 * @param tests indices of testing rows of folds.
+	 * @return results of folds, whose order is the order of folds. Failed folds are included with their errors and without scores.
+	 */
+	protected List<FoldResult> run(Fetcher<Profile> sample, ColumnarData data, List<int[]> trains, List<int[]> tests) {
+		Object warmParameter = warmStart ? learnWarmParameter(sample) : null;
+
+		int nThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		nThreads = Math.max(1, Math.min(trains.size(), nThreads));
+		ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+		List<Future<FoldResult>> futures = Util.newList(trains.size());
+		for (int i = 0; i < trains.size(); i++) {
+			final int fold = i;
+			futures.add(executor.submit(new Callable<FoldResult>() {
+				@Override
+				public FoldResult call() throws Exception {
+					return runFold(fold, data.view(trains.get(fold)), data.view(tests.get(fold)), cloneParameter(warmParameter));
+				}
+			}));
+		}
+
+		List<FoldResult> results = Util.newList(trains.size());
+		for (int i = 0; i < futures.size(); i++) {
+			FoldResult result = null;
+			String error = "Fold cannot be learned";
+			try {
+				result = futures.get(i).get();
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+				Throwable cause = e.getCause() != null ? e.getCause() : e;
+				error = cause.getMessage() != null ? cause.getClass().getSimpleName() + ": " + cause.getMessage() : cause.getClass().getSimpleName();
+			}
+			
+			if (result == null) {
+				result = new FoldResult();
+				result.fold = i;
+				result.trainSize = trains.get(i).length;
+				result.testSize = tests.get(i).length;
+				result.error = error;
+			}
+			results.add(result);
+		}
+		executor.shutdown();
+
+		return results;
+	}
+
+
+	/**
+	 * Learning a fold from its training rows and testing it on its testing rows.
+	 * @param fold index of the fold.
+	 * @param train view of training rows.
+	 * @param test view of testing rows.
+	 * @param warmParameter warm parameter of the fold. It can be null.
+	 * @return result of the fold. Return null if the fold cannot be learned.
+	 * @throws Exception if any error raises.
+	 */
+	protected FoldResult runFold(int fold, ColumnarData train, ColumnarData test, Object warmParameter) throws Exception {
+		RM model = createModel();
+		if (model == null) return null;
+		if (warmParameter != null && model instanceof EMAbstract)
+			((EMAbstract)model).setWarmParameter(warmParameter);
+
+		FoldResult result = new FoldResult();
+		result.fold = fold;
+		result.trainSize = train.size();
+		result.testSize = test.size();
+
+		long time = System.currentTimeMillis();
+		model.setup(new ColumnarFetcher(train));
+		result.trainTime = System.currentTimeMillis() - time;
+		if (model instanceof EMAbstract)
+			result.iterations = ((EMAbstract)model).getCurrentIteration();
+
+		double[] real = new double[test.size()];
+		double[] estimated = new double[test.size()];
+		int n = 0;
+		double ss = 0;
+		ColumnarFetcher testFetcher = new ColumnarFetcher(test);
+		while (testFetcher.next()) {
+			Profile profile = testFetcher.pick();
+			double z = RMAbstract.extractNumber(model.extractResponseValue(profile));
+			double zEstimated = RMAbstract.extractNumber(model.execute(profile));
+			if (!Util.isUsed(z) || !Util.isUsed(zEstimated)) continue;
+
+			real[n] = z;
+			estimated[n] = zEstimated;
+			ss += (zEstimated - z) * (zEstimated - z);
+			n++;
+		}
+		testFetcher.close();
+		model.unsetup();
+
+		result.scoredSize = n;
+		if (n > 0) {
+			result.mse = ss / n;
+			Vector2 zVector = new Vector2(n, 0);
+			Vector2 zEstimatedVector = new Vector2(n, 0);
+			for (int i = 0; i < n; i++) {
+				zVector.set(i, real[i]);
+				zEstimatedVector.set(i, estimated[i]);
+			}
+			result.r = zEstimatedVector.corr(zVector);
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Creating new instance of the prototype model with the same configuration. Checkpoint is disabled because folds must not resume from checkpoint of whole sample or of each other.
+	 * @return new instance of the prototype model.
+	 */
+	protected RM createModel() {
+		try {
+			RM model = (RM)prototype.newInstance();
+			model.getConfig().putAll((DataConfig)prototype.getConfig().clone());
+			model.getConfig().put(EMAbstract.EM_CHECKPOINT_FILE_FIELD, "");
+			model.getConfig().put(REMRobust.CHECKPOINT_FILE_FIELD, REMRobust.CHECKPOINT_FILE_DEFAULT);
+			return model;
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+
+		return null;
+	}
+
+
+	/**
+	 * Getting the parameter learned from whole sample by a new instance of the prototype model.
+	 * The parameter of the prototype model itself is not used because it may be learned from another sample.
+	 * Only EM models have warm parameter, for example, {@link REMRobust} is not EM model and so its folds are learned from scratch.
+	 * @param sample whole sample.
+	 * @return the parameter learned from whole sample. Return null if the prototype model is not EM model or learning is failed.
+	 */
+	protected Object learnWarmParameter(Fetcher<Profile> sample) {
+		if (!(prototype instanceof EMAbstract)) return null;
+
+		try {
+			RM model = createModel();
+			if (model == null) return null;
+			model.setup(sample);
+			Object parameter = cloneParameter(((EMAbstract)model).getParameter());
+			model.unsetup();
+			return parameter;
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+
+		return null;
+	}
+
+
+	/**
+	 * Cloning specified parameter so that folds do not share parameter.
+	 * @param parameter specified parameter.
+	 * @return cloned parameter. Return null if the parameter is null or it cannot be cloned.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Object cloneParameter(Object parameter) {
+		if (parameter instanceof ExchangedParameter)
+			return ((ExchangedParameter)parameter).clone();
+		else if (parameter instanceof Collection<?>)
+			return ExchangedParameter.clone((Collection<ExchangedParameter>)parameter);
+		else
+			return null;
+	}
+
+
+	/**
+	 * Creating random permutation of specified number of indices.
+	 * @param N specified number of indices.
+	 * @param rnd random generator.
+	 * @return random permutation of indices from 0 to N-1.
+	 */
+	private static int[] shuffle(int N, Random rnd) {
+		int[] permutation = new int[N];
+		for (int i = 0; i < N; i++) permutation[i] = i;
+		for (int i = N - 1; i > 0; i--) {
+			int j = rnd.nextInt(i + 1);
+			int temp = permutation[i];
+			permutation[i] = permutation[j];
+			permutation[j] = temp;
+		}
+		return permutation;
+	}
+
+
+	/**
+	 * Sorting specified indices so that rows of a view keep the order of the sample.
+	 * @param indices specified indices.
+	 * @return the specified indices which are sorted.
+	 */
+	private static int[] sort(int[] indices) {
+		Arrays.sort(indices);
+		return indices;
+	}
+
+
+	/**
+	 * Calculating mean correlation of specified results.
+	 * @param results specified results.
+	 * @return mean correlation of specified results. Return {@link Constants#UNUSED} if there is no correlation.
+	 */
+	public static double meanR(List<FoldResult> results) {
+		double sum = 0;
+		int n = 0;
+		for (FoldResult result : results) {
+			if (Util.isUsed(result.r)) {
+				sum += result.r;
+				n++;
+			}
+		}
+		return n > 0 ? sum / n : Constants.UNUSED;
+	}
+
+
+	/**
+	 * Calculating mean of mean squared errors of specified results.
+	 * @param results specified results.
+	 * @return mean of mean squared errors of specified results. Return {@link Constants#UNUSED} if there is no mean squared error.
+	 */
+	public static double meanMSE(List<FoldResult> results) {
+		double sum = 0;
+		int n = 0;
+		for (FoldResult result : results) {
+			if (Util.isUsed(result.mse)) {
+				sum += result.mse;
+				n++;
+			}
+		}
+		return n > 0 ? sum / n : Constants.UNUSED;
+	}
+
+
+	/**
+	 * This class represents result of a fold, which is a repetition in repeated holdout validation.
+	 *
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 *
+	 */
+	public static class FoldResult implements Serializable {
+
+		/**
+		 * Serial version UID for serializable class.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Index of the fold.
+		 */
+		public int fold = 0;
+
+		/**
+		 * Number of training rows.
+		 */
+		public int trainSize = 0;
+
+		/**
+		 * Number of testing rows.
+		 */
+		public int testSize = 0;
+
+		/**
+		 * Number of testing rows whose real response and estimated response are not missing.
+		 */
+		public int scoredSize = 0;
+
+		/**
+		 * Correlation between real response and estimated response of testing rows.
+		 */
+		public double r = Constants.UNUSED;
+
+		/**
+		 * Mean squared error of testing rows.
+		 */
+		public double mse = Constants.UNUSED;
+
+		/**
+		 * Training time in milliseconds.
+		 */
+		public long trainTime = 0;
+
+		/**
+		 * Number of iterations of EM model. It is zero for other models.
+		 */
+		public int iterations = 0;
+
+		/**
+		 * Error of the fold if it failed, which is null if the fold is learned and tested.
+		 */
+		public String error = null;
+
+		/**
+		 * Checking whether the fold failed.
+		 * @return whether the fold failed.
+		 */
+		public boolean isFailed() {
+			return error != null;
+		}
+
+		@Override
+		public String toString() {
+			if (isFailed()) return "fold " + fold + ": train=" + trainSize + ", test=" + testSize + ", failed: " + error;
+			return "fold " + fold + ": train=" + trainSize + ", test=" + testSize + ", scored=" + scoredSize
+				+ ", R=" + MathUtil.format(r, 4) + ", MSE=" + MathUtil.format(mse, 4)
+				+ ", time=" + trainTime + "ms, iterations=" + iterations;
+		}
+
+	}
+
+
+}
@@ -7,10 +7,13 @@
  */
 package net.rem.soco;
 
+import java.io.File;
 import java.rmi.RemoteException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import net.hudup.core.Constants;
 import net.hudup.core.Util;
@@ -22,6 +25,7 @@ import net.hudup.core.data.Rating;
 import net.hudup.core.data.RatingVector;
 import net.hudup.core.logistic.BaseClass;
 import net.hudup.core.logistic.DSUtil;
+import net.hudup.core.logistic.LogUtil;
 import net.rem.em.ExponentialEM;
 
 /**
@@ -60,6 +64,61 @@ public class Soco extends ExponentialEM {
 	public final static boolean USER_RATING_MATRIX_DEEFAULT = true;
 
 	
+	/**
+	 * Field of single precision of similarity store.
+	 */
+	public final static String SIM_FLOAT_PRECISION_FIELD = "soco_sim_float_precision";
+
+	
+	/**
+	 * Default single precision of similarity store.
+	 */
+	public final static boolean SIM_FLOAT_PRECISION_DEFAULT = false;
+
+	
+	/**
+	 * Field of the number of kept similarities of every identifier. Non-positive value means that all similarities are kept.
+	 */
+	public final static String SIM_TOPK_FIELD = "soco_sim_topk";
+
+	
+	/**
+	 * Default number of kept similarities of every identifier.
+	 */
+	public final static int SIM_TOPK_DEFAULT = 0;
+
+	
+	/**
+	 * Field of parallel computation of similarities.
+	 */
+	public final static String PARALLEL_FIELD = "soco_parallel";
+
+	
+	/**
+	 * Default parallel computation of similarities.
+	 */
+	public final static boolean PARALLEL_DEFAULT = true;
+
+	
+	/**
+	 * Field of file of similarity store. If it is not empty, learned row similarities are saved to this file and column similarities are saved to this file with suffix {@link #COLUMN_STORE_SUFFIX} by memory-mapped regions.
+	 * Saved column similarities whose identifiers are the same as current columns are loaded as initial column similarities of the next learning process instead of cosine similarities.
+	 */
+	public final static String SIM_STORE_FILE_FIELD = "soco_sim_store_file";
+
+	
+	/**
+	 * Default file of similarity store, which is empty so that similarities are not persisted.
+	 */
+	public final static String SIM_STORE_FILE_DEFAULT = "";
+
+	
+	/**
+	 * Suffix of file of column similarity store.
+	 */
+	public final static String COLUMN_STORE_SUFFIX = ".column";
+
+	
 	/**
 	 * Internal matrix.
 	 */
@@ -72,6 +131,18 @@ public class Soco extends ExponentialEM {
 	protected  Map<Integer, RatingVector> transposedMatrix = Util.newMap();
 
 	
+	/**
+	 * Internal sparse matrix in CSR format, built from internal matrix.
+	 */
+	protected SocoMatrix sparseMatrix = null;
+	
+	
+	/**
+	 * Internal sparse transposed matrix in CSR format, which is CSC format of internal sparse matrix.
+	 */
+	protected SocoMatrix sparseTransposedMatrix = null;
+
+	
 	/**
 	 * Default constructor.
 	 */
@@ -99,8 +170,54 @@ public class Soco extends ExponentialEM {
 			clearInternalData();
 			return null;
 		}
+		
+		this.sparseMatrix = SocoMatrix.create(this.matrix, this.transposedMatrix.keySet());
+		this.sparseTransposedMatrix = this.sparseMatrix.transpose();
+
+		Object parameter = super.learnStart(info);
+		if (parameter instanceof SocoParameter) saveStores((SocoParameter)parameter);
+		return parameter;
+	}
 
-		return super.learnStart(info);
+
+	/**
+	 * Getting file of similarity store.
+	 * @return file of similarity store. Return null if similarities are not persisted.
+	 */
+	protected File getStoreFile() {
+		String fileName = config.containsKey(SIM_STORE_FILE_FIELD) ? config.getAsString(SIM_STORE_FILE_FIELD) : null;
+		return fileName == null || fileName.trim().isEmpty() ? null : new File(fileName.trim());
+	}
+	
+	
+	/**
+	 * Saving row similarities and column similarities of specified parameter to file of similarity store if it is configured.
+	 * @param parameter specified parameter.
+	 */
+	protected void saveStores(SocoParameter parameter) {
+		File file = getStoreFile();
+		if (file == null || parameter == null) return;
+		
+		if (!parameter.rowStat.save(file) || !parameter.columnStat.save(new File(file.getPath() + COLUMN_STORE_SUFFIX)))
+			LogUtil.error("Soco fails to save similarity store to " + file);
+	}
+	
+	
+	/**
+	 * Loading saved column similarities from file of similarity store if it is configured.
+	 * @return saved column similarities. Return null if there is no saved similarities or their identifiers are not the same as current columns.
+	 */
+	protected SocoStatistics loadColumnStore() {
+		File file = getStoreFile();
+		if (file == null) return null;
+		file = new File(file.getPath() + COLUMN_STORE_SUFFIX);
+		if (!file.exists()) return null;
+		
+		SocoStatistics columnStat = SocoStatistics.load(file);
+		if (columnStat == null || !Arrays.equals(columnStat.getStore().getIds(), this.sparseTransposedMatrix.getRowIds()))
+			return null;
+		else
+			return columnStat;
 	}
 
 
@@ -213,6 +330,8 @@ public class Soco extends ExponentialEM {
 		if (this.transposedMatrix != null)
 			this.transposedMatrix.clear();
 		this.transposedMatrix = null;
+		
+		this.sparseMatrix = this.sparseTransposedMatrix = null;
 	}
 
 	
@@ -228,7 +347,7 @@ public class Soco extends ExponentialEM {
 			int id1 = ids.get(i);
 			RatingVector v1 = matrix.get(id1);
 			
-			for (int j = 0; j < ids.size(); j++) {
+			for (int j = i; j < ids.size(); j++) {
 				int id2 = ids.get(j);
 				RatingVector v2 = matrix.get(id2);
 				double sim = sim(v1, v2);
@@ -252,74 +371,32 @@ public class Soco extends ExponentialEM {
 	
 	
 	/**
-	 * Calculating soft cosine given rating vector matrix and dual statistics.
-	 * @param matrix given rating vector matrix.
-	 * @param columnIds column identifiers.
+	 * Calculating soft cosine given sparse rating matrix and dual statistics.
+	 * @param sparseMatrix given sparse rating matrix.
 	 * @param dualStat dual statistics.
-	 * @return statistics as soft cosine given rating vector matrix and dual statistics.
+	 * @return statistics as soft cosine given sparse rating matrix and dual statistics.
 	 */
-	private static SocoStatistics softCosine(Map<Integer, RatingVector> matrix, Set<Integer> columnIds, SocoStatistics dualStat) {
-		if (matrix == null || matrix.size() == 0 || dualStat == null || dualStat.size() == 0 || columnIds.size() == 0)
+	private SocoStatistics softCosine(SocoMatrix sparseMatrix, SocoStatistics dualStat) {
+		if (sparseMatrix == null || dualStat == null)
 			return null;
-		List<Integer> rowIds = Util.newList();
-		rowIds.addAll(matrix.keySet());
-		
-		SocoStatistics stat = new SocoStatistics();
-		Set<Integer> columnIds1 = columnIds;
-		Set<Integer> columnIds2 = Util.newSet(columnIds.size());
-		columnIds2.addAll(columnIds);
-		for (int i = 0; i < rowIds.size(); i++) {
-			int rowId1 = rowIds.get(i);
-			RatingVector vRating1 = matrix.get(rowId1);
-			
-			for (int j = i; j < rowIds.size(); j++) {
-				int rowId2 = rowIds.get(j);
-				RatingVector vRating2 = matrix.get(rowId2);
-				
-				double product = 0;
-				double length1 = 0;
-				double length2 = 0;
-				for (int columnId1 : columnIds1) {
-					double value11 = vRating1.isRated(columnId1) ? vRating1.get(columnId1).value : Constants.UNUSED;
-					double value21 = vRating2.isRated(columnId1) ? vRating2.get(columnId1).value : Constants.UNUSED;
-					for (int columnId2 : columnIds2) {
-						double value12 = vRating1.isRated(columnId2) ? vRating1.get(columnId2).value : Constants.UNUSED;
-						double value22 = vRating2.isRated(columnId2) ? vRating2.get(columnId2).value : Constants.UNUSED;
-						
-						double sim = dualStat.getSim(columnId1, columnId2);
-						if (Util.isUsed(value11) && Util.isUsed(value22))
-							product += sim*value11*value22;
-						
-						if (Util.isUsed(value11) && Util.isUsed(value12))
-							length1 += sim*value11*value12;
-						
-						if (Util.isUsed(value21) && Util.isUsed(value22))
-							length2 += sim*value21*value22;
-					}
-				}
-				
-				double sim = product / Math.sqrt(length1*length2);				
-				sim = Util.isUsed(sim)? sim : 0;
-				stat.setSim(rowId1, rowId2, sim);
-			}
-			
-		}
-		
-		return stat;
+		else
+			return sparseMatrix.softCosine(dualStat, SocoMatrix.BLOCK_SIZE,
+				getConfig().getAsBoolean(SIM_FLOAT_PRECISION_FIELD), getConfig().getAsInt(SIM_TOPK_FIELD),
+				getConfig().getAsBoolean(PARALLEL_FIELD) ? ForkJoinPool.commonPool() : null);
 	}
 	
 	
 	@Override
 	protected Object expectation(Object currentParameter, Object... info) throws RemoteException {
 		SocoStatistics rowStat = ((SocoParameter)currentParameter).rowStat;
-		SocoStatistics columnStat = softCosine(this.transposedMatrix, rowIds(), rowStat);
+		SocoStatistics columnStat = softCosine(this.sparseTransposedMatrix, rowStat);
 		return columnStat;
 	}
 
 	
 	@Override
 	protected Object maximization(Object currentStatistic, Object... info) throws RemoteException {
-		SocoStatistics rowStat = softCosine(this.matrix, columnIds(), (SocoStatistics)currentStatistic);
+		SocoStatistics rowStat = softCosine(this.sparseMatrix, (SocoStatistics)currentStatistic);
 		if (rowStat == null)
 			return null;
 		else
@@ -329,10 +406,14 @@ public class Soco extends ExponentialEM {
 	
 	@Override
 	protected Object initializeParameter() {
-		this.statistics = new SocoStatistics();
-		sim(this.transposedMatrix, (SocoStatistics)this.statistics);
+		this.statistics = loadColumnStore();
+		if (this.statistics == null) {
+			this.statistics = new SocoStatistics(this.sparseTransposedMatrix.getRowIds(),
+					getConfig().getAsBoolean(SIM_FLOAT_PRECISION_FIELD), getConfig().getAsInt(SIM_TOPK_FIELD));
+			sim(this.transposedMatrix, (SocoStatistics)this.statistics);
+		}
 
-		SocoStatistics rowStat = softCosine(this.matrix, columnIds(), (SocoStatistics)this.statistics);
+		SocoStatistics rowStat = softCosine(this.sparseMatrix, (SocoStatistics)this.statistics);
 		if (rowStat == null)
 			return null;
 		else
@@ -444,6 +525,10 @@ public class Soco extends ExponentialEM {
 			config.put(DataConfig.MAIN_UNIT, MAIN_UNIT_DEEFAULT);
 		
 		config.put(USER_RATING_MATRIX_FIELD, USER_RATING_MATRIX_DEEFAULT);
+		config.put(SIM_FLOAT_PRECISION_FIELD, SIM_FLOAT_PRECISION_DEFAULT);
+		config.put(SIM_TOPK_FIELD, SIM_TOPK_DEFAULT);
+		config.put(PARALLEL_FIELD, PARALLEL_DEFAULT);
+		config.put(SIM_STORE_FILE_FIELD, SIM_STORE_FILE_DEFAULT);
 		
 		return config;
 	}
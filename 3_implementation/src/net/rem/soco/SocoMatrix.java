@@ -0,0 +1,685 @@
+/**
+ * SIM: MACHINE LEARNING ALGORITHMS FRAMEWORK
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.soco;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import net.hudup.core.Constants;
+import net.hudup.core.Util;
+import net.hudup.core.data.RatingVector;
+
+/**
+ * This class represents a sparse rating matrix of Soco algorithm in compressed sparse row (CSR) format.
+ * The transposed matrix in CSR format is the compressed sparse column (CSC) format of this matrix.
+ * Soft cosine similarities between rows are computed by blocked products over only the rated support of rows.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+@Deprecated
+public class SocoMatrix implements Serializable {
+
+
+	/**
+	 * Default serial version UID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Default number of rows in a block when computing soft cosine similarities.
+	 */
+	public final static int BLOCK_SIZE = 64;
+
+
+	/**
+	 * Default number of other rows in a tile when computing soft cosine similarities.
+	 */
+	public final static int TILE_WIDTH = 4 * BLOCK_SIZE;
+
+
+	/**
+	 * Sorted row identifiers.
+	 */
+	protected int[] rowIds = new int[0];
+
+
+	/**
+	 * Sorted column identifiers.
+	 */
+	protected int[] columnIds = new int[0];
+
+
+	/**
+	 * Row pointers. Ratings of the i-th row are in the range [rowPointers[i], rowPointers[i+1]).
+	 */
+	protected int[] rowPointers = new int[] {0};
+
+
+	/**
+	 * Column indices (not column identifiers) of ratings.
+	 */
+	protected int[] columnIndices = new int[0];
+
+
+	/**
+	 * Rating values.
+	 */
+	protected double[] values = new double[0];
+
+
+	/**
+	 * Default constructor.
+	 */
+	private SocoMatrix() {
+
+	}
+
+
+	/**
+	 * Creating sparse matrix from specified rating vector matrix.
+	 * @param matrix specified rating vector matrix whose keys are row identifiers.
+	 * @param columnIds specified column identifiers. Ratings of other columns are ignored.
+	 * @return sparse matrix created from specified rating vector matrix.
+	 */
+	public static SocoMatrix create(Map<Integer, RatingVector> matrix, Collection<Integer> columnIds) {
+		SocoMatrix sparse = new SocoMatrix();
+		sparse.rowIds = toSortedArray(matrix.keySet());
+		sparse.columnIds = toSortedArray(columnIds);
+
+		int R = sparse.rowIds.length;
+		sparse.rowPointers = new int[R + 1];
+		int nnz = 0;
+		for (int i = 0; i < R; i++) {
+			RatingVector vRating = matrix.get(sparse.rowIds[i]);
+			for (int columnId : vRating.fieldIds()) {
+				if (vRating.isRated(columnId) && Arrays.binarySearch(sparse.columnIds, columnId) >= 0) nnz++;
+			}
+		}
+
+		sparse.columnIndices = new int[nnz];
+		sparse.values = new double[nnz];
+		int p = 0;
+		for (int i = 0; i < R; i++) {
+			sparse.rowPointers[i] = p;
+			RatingVector vRating = matrix.get(sparse.rowIds[i]);
+			int[] rowColumnIds = toSortedArray(vRating.fieldIds());
+			for (int columnId : rowColumnIds) {
+				int c = Arrays.binarySearch(sparse.columnIds, columnId);
+				if (c < 0 || !vRating.isRated(columnId)) continue;
+				sparse.columnIndices[p] = c;
+				sparse.values[p] = vRating.get(columnId).value;
+				p++;
+			}
+		}
+		sparse.rowPointers[R] = p;
+
+		return sparse;
+	}
+
+
+	/**
+	 * Transposing this matrix. The transposed matrix in CSR format is the CSC format of this matrix.
+	 * @return transposed matrix.
+	 */
+	public SocoMatrix transpose() {
+		SocoMatrix transposed = new SocoMatrix();
+		transposed.rowIds = columnIds.clone();
+		transposed.columnIds = rowIds.clone();
+
+		int C = columnIds.length;
+		int nnz = values.length;
+		transposed.rowPointers = new int[C + 1];
+		for (int p = 0; p < nnz; p++) transposed.rowPointers[columnIndices[p] + 1]++;
+		for (int c = 0; c < C; c++) transposed.rowPointers[c + 1] += transposed.rowPointers[c];
+
+		transposed.columnIndices = new int[nnz];
+		transposed.values = new double[nnz];
+		int[] next = Arrays.copyOf(transposed.rowPointers, C);
+		for (int i = 0; i < rowIds.length; i++) {
+			for (int p = rowPointers[i]; p < rowPointers[i + 1]; p++) {
+				int q = next[columnIndices[p]]++;
+				transposed.columnIndices[q] = i;
+				transposed.values[q] = values[p];
+			}
+		}
+
+		return transposed;
+	}
+
+
+	/**
+	 * Getting the number of rows.
+	 * @return the number of rows.
+	 */
+	public int rowCount() {
+		return rowIds.length;
+	}
+
+
+	/**
+	 * Getting the number of columns.
+	 * @return the number of columns.
+	 */
+	public int columnCount() {
+		return columnIds.length;
+	}
+
+
+	/**
+	 * Getting the number of ratings.
+	 * @return the number of ratings.
+	 */
+	public int nonzeroCount() {
+		return values.length;
+	}
+
+
+	/**
+	 * Getting sorted row identifiers.
+	 * @return sorted row identifiers.
+	 */
+	public int[] getRowIds() {
+		return rowIds;
+	}
+
+
+	/**
+	 * Getting sorted column identifiers.
+	 * @return sorted column identifiers.
+	 */
+	public int[] getColumnIds() {
+		return columnIds;
+	}
+
+
+	/**
+	 * Calculating soft cosine similarities of rows given column statistics.
+	 * The similarity of rows a and b is a'Sb / sqrt(a'Sa * b'Sb) where S is the column similarity matrix and products run over rated columns only.
+	 * Rows are processed in blocks and every block is split into tiles of other rows: for every tile, vectors Sa of rows of the block are computed
+	 * over columns rated in the tile only and then dotted with the rated support of rows of the tile, so that the full column similarity matrix is never allocated.
+	 * @param columnStat column statistics as dual statistics.
+	 * @return statistics of soft cosine similarities of rows. Return null if this matrix or the column statistics is empty.
+	 */
+	public SocoStatistics softCosine(SocoStatistics columnStat) {
+		return softCosine(columnStat, BLOCK_SIZE);
+	}
+
+
+	/**
+	 * Calculating soft cosine similarities of rows given column statistics.
+	 * @param columnStat column statistics as dual statistics.
+	 * @param blockSize the number of rows in a block.
+	 * @return statistics of soft cosine similarities of rows. Return null if this matrix or the column statistics is empty.
+	 */
+	public SocoStatistics softCosine(SocoStatistics columnStat, int blockSize) {
+		return softCosine(columnStat, blockSize, false, 0);
+	}
+
+
+	/**
+	 * Calculating soft cosine similarities of rows given column statistics. Similarities are written directly into a primitive store of row identifiers.
+	 * @param columnStat column statistics as dual statistics.
+	 * @param blockSize the number of rows in a block.
+	 * @param floatPrecision if true, similarities are stored in single precision.
+	 * @param topK if positive, only top-k similarities of every row are kept.
+	 * @return statistics of soft cosine similarities of rows. Return null if this matrix or the column statistics is empty.
+	 */
+	public SocoStatistics softCosine(SocoStatistics columnStat, int blockSize, boolean floatPrecision, int topK) {
+		return softCosine(columnStat, blockSize, floatPrecision, topK, null);
+	}
+
+
+	/**
+	 * Calculating soft cosine similarities of rows given column statistics in parallel.
+	 * The pair space of rows is split into tiles, each of which is a block of rows and a range of other rows, and every tile computes vectors Sa of rows of its block over its own columns.
+	 * Tiles are scheduled by work-stealing pool and every thread reuses its own scratch arrays, so that memory is bounded by tile size and the number of threads.
+	 * Output is deterministic because every similarity is computed by the same arithmetic in one tile and, when the store is not a packed store,
+	 * similarities of a wave of tiles are buffered per tile and put into the store in the same tile order as sequential computation.
+	 * @param columnStat column statistics as dual statistics.
+	 * @param blockSize the number of rows in a block.
+	 * @param floatPrecision if true, similarities are stored in single precision.
+	 * @param topK if positive, only top-k similarities of every row are kept.
+	 * @param pool work-stealing pool. If it is null, similarities are computed sequentially.
+	 * @return statistics of soft cosine similarities of rows. Return null if this matrix or the column statistics is empty.
+	 */
+	public SocoStatistics softCosine(SocoStatistics columnStat, int blockSize, boolean floatPrecision, int topK, ForkJoinPool pool) {
+		int R = rowIds.length, C = columnIds.length;
+		if (R == 0 || C == 0 || columnStat == null || columnStat.size() == 0)
+			return null;
+		blockSize = blockSize <= 0 ? BLOCK_SIZE : blockSize;
+
+		ColumnSim S = new ColumnSim(columnStat);
+		double[] lengths = new double[R];
+		for (int i = 0; i < R; i++) lengths[i] = selfProduct(i, S);
+
+		SocoSimStore store = SocoSimStore.create(rowIds, floatPrecision, topK);
+		SocoSimStore.PackedStore packed = store instanceof SocoSimStore.PackedStore ? (SocoSimStore.PackedStore)store : null;
+		ThreadLocal<Scratch> scratches = new ThreadLocal<Scratch>() {
+			@Override
+			protected Scratch initialValue() {
+				return new Scratch(columnIds.length);
+			}
+		};
+
+		int tileWidth = Math.max(blockSize, TILE_WIDTH);
+		List<TileTask> tiles = Util.newList();
+		for (int i0 = 0; i0 < R; i0 += blockSize) {
+			int i1 = Math.min(R, i0 + blockSize);
+			for (int j0 = i0; j0 < R; j0 += tileWidth)
+				tiles.add(new TileTask(S, lengths, store, packed, scratches, i0, i1, j0, Math.min(R, j0 + tileWidth)));
+		}
+
+		if (pool == null) {
+			for (TileTask tile : tiles) tile.compute();
+		}
+		else if (packed != null) {
+			pool.invoke(new TilesTask(tiles));
+		}
+		else {
+			int wave = Math.max(1, 2 * pool.getParallelism());
+			double[][] buffers = new double[Math.min(wave, tiles.size())][];
+			for (int b = 0; b < buffers.length; b++) buffers[b] = new double[blockSize * tileWidth];
+			for (int w = 0; w < tiles.size(); w += wave) {
+				List<TileTask> waveTiles = tiles.subList(w, Math.min(tiles.size(), w + wave));
+				for (int t = 0; t < waveTiles.size(); t++) waveTiles.get(t).buffer = buffers[t];
+				pool.invoke(new TilesTask(waveTiles));
+				for (TileTask tile : waveTiles) tile.flush();
+			}
+		}
+		if (packed != null) packed.assignAll();
+
+		return new SocoStatistics(store);
+	}
+
+
+	/**
+	 * This class is a task which runs a list of tile tasks in parallel.
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 */
+	private static class TilesTask extends RecursiveAction {
+
+		/**
+		 * Default serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Tile tasks.
+		 */
+		private List<TileTask> tiles = null;
+
+		/**
+		 * Constructor with tile tasks.
+		 * @param tiles tile tasks.
+		 */
+		public TilesTask(List<TileTask> tiles) {
+			this.tiles = tiles;
+		}
+
+		@Override
+		protected void compute() {
+			invokeAll(tiles);
+		}
+
+	}
+
+
+	/**
+	 * This class represents scratch arrays of a thread, which are reused by all tiles computed by the thread.
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 */
+	private static class Scratch {
+
+		/**
+		 * Marks of rated columns.
+		 */
+		private boolean[] rated = null;
+
+		/**
+		 * Sorted column indices rated by rows of a block.
+		 */
+		private int[] blockColumns = null;
+
+		/**
+		 * Local positions of columns in sorted column indices rated by rows of a block.
+		 */
+		private int[] blockLocal = null;
+
+		/**
+		 * Sorted column indices rated by rows of a range.
+		 */
+		private int[] tileColumns = null;
+
+		/**
+		 * Local positions of columns in sorted column indices rated by rows of a range.
+		 */
+		private int[] tileLocal = null;
+
+		/**
+		 * Column similarities of columns of a block and columns of a range.
+		 */
+		private double[] tileS = new double[0];
+
+		/**
+		 * Vectors Sa of rows of a block over columns of a range.
+		 */
+		private double[] U = new double[0];
+
+		/**
+		 * Constructor with the number of columns.
+		 * @param C the number of columns.
+		 */
+		public Scratch(int C) {
+			rated = new boolean[C];
+			blockColumns = new int[C];
+			blockLocal = new int[C];
+			tileColumns = new int[C];
+			tileLocal = new int[C];
+		}
+
+		/**
+		 * Getting column similarities of specified size, which are not cleared.
+		 * @param size specified size.
+		 * @return column similarities of specified size.
+		 */
+		public double[] tileS(int size) {
+			if (tileS.length < size) tileS = new double[size];
+			return tileS;
+		}
+
+		/**
+		 * Getting vectors Sa of specified size, which are cleared to zero.
+		 * @param size specified size.
+		 * @return vectors Sa of specified size.
+		 */
+		public double[] U(int size) {
+			if (U.length < size)
+				U = new double[size];
+			else
+				Arrays.fill(U, 0, size, 0);
+			return U;
+		}
+
+	}
+
+
+	/**
+	 * This class is a tile task which computes soft cosine similarities of rows of a block with rows in a range.
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 */
+	private class TileTask extends RecursiveAction {
+
+		/**
+		 * Default serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Column similarities.
+		 */
+		private ColumnSim S = null;
+
+		/**
+		 * Products a'Sa of rows.
+		 */
+		private double[] lengths = null;
+
+		/**
+		 * Output store.
+		 */
+		private SocoSimStore store = null;
+
+		/**
+		 * Output store as packed store, into which similarities are written directly. It is null if the output store is not a packed store.
+		 */
+		private SocoSimStore.PackedStore packed = null;
+
+		/**
+		 * Scratch arrays of threads.
+		 */
+		private ThreadLocal<Scratch> scratches = null;
+
+		/**
+		 * First row of the block.
+		 */
+		private int i0 = 0;
+
+		/**
+		 * Row after the last row of the block.
+		 */
+		private int i1 = 0;
+
+		/**
+		 * First row of the range.
+		 */
+		private int j0 = 0;
+
+		/**
+		 * Row after the last row of the range.
+		 */
+		private int j1 = 0;
+
+		/**
+		 * Buffer of similarities of this tile, which is null if similarities are put into the store when they are computed.
+		 */
+		private double[] buffer = null;
+
+		/**
+		 * Constructor with specified parameters.
+		 * @param S column similarities.
+		 * @param lengths products a'Sa of rows.
+		 * @param store output store.
+		 * @param packed output store as packed store, which can be null.
+		 * @param scratches scratch arrays of threads.
+		 * @param i0 first row of the block.
+		 * @param i1 row after the last row of the block.
+		 * @param j0 first row of the range.
+		 * @param j1 row after the last row of the range.
+		 */
+		public TileTask(ColumnSim S, double[] lengths, SocoSimStore store, SocoSimStore.PackedStore packed, ThreadLocal<Scratch> scratches,
+				int i0, int i1, int j0, int j1) {
+			this.S = S;
+			this.lengths = lengths;
+			this.store = store;
+			this.packed = packed;
+			this.scratches = scratches;
+			this.i0 = i0;
+			this.i1 = i1;
+			this.j0 = j0;
+			this.j1 = j1;
+		}
+
+		/**
+		 * Computing similarities of rows of the block with rows of the range.
+		 * Column similarities are filled only for columns rated by rows of the block and columns rated by rows of the range,
+		 * and vectors Sa of rows of the block are computed only over columns rated by rows of the range.
+		 */
+		@Override
+		protected void compute() {
+			Scratch scratch = scratches.get();
+			int B = ratedColumns(i0, i1, scratch.rated, scratch.blockColumns);
+			int[] blockColumns = scratch.blockColumns, blockLocal = scratch.blockLocal;
+			for (int b = 0; b < B; b++) blockLocal[blockColumns[b]] = b;
+			int T = ratedColumns(Math.max(i0, j0), j1, scratch.rated, scratch.tileColumns);
+			int[] tileColumns = scratch.tileColumns, local = scratch.tileLocal;
+			for (int t = 0; t < T; t++) local[tileColumns[t]] = t;
+
+			double[] tileS = scratch.tileS(B * T);
+			for (int b = 0; b < B; b++) {
+				for (int t = 0; t < T; t++) tileS[b*T + t] = S.get(blockColumns[b], tileColumns[t]);
+			}
+
+			double[] U = scratch.U((i1 - i0) * T);
+			for (int i = i0; i < i1; i++) {
+				int base = (i - i0) * T;
+				for (int p = rowPointers[i]; p < rowPointers[i + 1]; p++) {
+					double value = values[p];
+					int sBase = blockLocal[columnIndices[p]] * T;
+					for (int t = 0; t < T; t++) U[base + t] += value * tileS[sBase + t];
+				}
+			}
+
+			int width = j1 - j0;
+			for (int i = i0; i < i1; i++) {
+				int base = (i - i0) * T;
+				for (int j = Math.max(i, j0); j < j1; j++) {
+					double product = 0;
+					for (int q = rowPointers[j]; q < rowPointers[j + 1]; q++)
+						product += U[base + local[columnIndices[q]]] * values[q];
+
+					double sim = product / Math.sqrt(lengths[i]*lengths[j]);
+					sim = Util.isUsed(sim)? sim : 0;
+					if (buffer != null)
+						buffer[(i - i0) * width + (j - j0)] = sim;
+					else if (packed != null)
+						packed.putSimByIndex(i, j, sim);
+					else
+						store.setSimByIndex(i, j, sim);
+				}
+			}
+		}
+
+		/**
+		 * Putting buffered similarities into the store in row order and releasing the buffer.
+		 */
+		private void flush() {
+			if (buffer == null) return;
+			int width = j1 - j0;
+			for (int i = i0; i < i1; i++) {
+				for (int j = Math.max(i, j0); j < j1; j++)
+					store.setSimByIndex(i, j, buffer[(i - i0) * width + (j - j0)]);
+			}
+			buffer = null;
+		}
+
+	}
+
+
+	/**
+	 * Calculating product a'Sa of specified row a over its rated columns.
+	 * @param i row index.
+	 * @param S column similarities.
+	 * @return product a'Sa of specified row a.
+	 */
+	private double selfProduct(int i, ColumnSim S) {
+		double product = 0;
+		for (int p = rowPointers[i]; p < rowPointers[i + 1]; p++) {
+			int c = columnIndices[p];
+			double value = values[p];
+			for (int q = rowPointers[i]; q < rowPointers[i + 1]; q++)
+				product += value * S.get(c, columnIndices[q]) * values[q];
+		}
+
+		return product;
+	}
+
+
+	/**
+	 * Getting sorted column indices rated by rows in specified range.
+	 * @param j0 first row of the range.
+	 * @param j1 row after the last row of the range.
+	 * @param rated marks of rated columns, which are all false before and after calling this method.
+	 * @param columns output array of sorted column indices rated by rows in specified range.
+	 * @return the number of column indices rated by rows in specified range.
+	 */
+	private int ratedColumns(int j0, int j1, boolean[] rated, int[] columns) {
+		int count = 0;
+		for (int p = rowPointers[j0]; p < rowPointers[j1]; p++) {
+			if (rated[columnIndices[p]]) continue;
+			rated[columnIndices[p]] = true;
+			columns[count++] = columnIndices[p];
+		}
+
+		Arrays.sort(columns, 0, count);
+		for (int k = 0; k < count; k++) rated[columns[k]] = false;
+		return count;
+	}
+
+
+	/**
+	 * This class looks up similarities of columns by column indices (not column identifiers) from column statistics.
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 */
+	private class ColumnSim {
+
+		/**
+		 * Column statistics.
+		 */
+		private SocoStatistics columnStat = null;
+
+		/**
+		 * Primitive store of column statistics. It is null if similarities are kept in a map.
+		 */
+		private SocoSimStore store = null;
+
+		/**
+		 * Indices of columns in the primitive store.
+		 */
+		private int[] indices = null;
+
+		/**
+		 * Constructor with column statistics.
+		 * @param columnStat column statistics.
+		 */
+		public ColumnSim(SocoStatistics columnStat) {
+			this.columnStat = columnStat;
+			this.store = columnStat.getStore();
+			if (store == null) return;
+
+			indices = new int[columnIds.length];
+			for (int c = 0; c < indices.length; c++) indices[c] = store.indexOf(columnIds[c]);
+		}
+
+		/**
+		 * Getting similarity of column index 1 and column index 2.
+		 * A similarity which is absent from the primitive store, for example pruned from top-k lists, is zero so that it does not spread {@link Constants#UNUSED} into products.
+		 * @param c1 column index 1.
+		 * @param c2 column index 2.
+		 * @return similarity of column index 1 and column index 2. Return {@link Constants#UNUSED} if column index 1 or column index 2 does not exist in column statistics.
+		 */
+		public double get(int c1, int c2) {
+			if (c1 > c2) {int t = c1; c1 = c2; c2 = t;}
+			if (store == null)
+				return columnStat.getSim(columnIds[c1], columnIds[c2]);
+
+			int i = indices[c1], j = indices[c2];
+			if (i < 0 || j < 0) return Constants.UNUSED;
+			double sim = store.getSimByIndex(i, j);
+			return Util.isUsed(sim) || store.containsSimByIndex(i, j) ? sim : 0;
+		}
+
+	}
+
+
+	/**
+	 * Converting specified collection of integers to sorted array.
+	 * @param collection specified collection of integers.
+	 * @return sorted array of integers.
+	 */
+	private static int[] toSortedArray(Collection<Integer> collection) {
+		int[] array = new int[collection.size()];
+		int i = 0;
+		for (int value : collection) array[i++] = value;
+		Arrays.sort(array);
+		return array;
+	}
+
+
+}
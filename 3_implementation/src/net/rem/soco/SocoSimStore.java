@@ -0,0 +1,943 @@
+/**
+ * SIM: MACHINE LEARNING ALGORITHMS FRAMEWORK
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.soco;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+
+import net.hudup.core.Constants;
+import net.hudup.core.Util;
+import net.hudup.core.logistic.LogUtil;
+
+/**
+ * This abstract class represents a primitive store of symmetric similarities indexed by identifiers.
+ * Identifiers are declared when the store is created and every identifier is mapped to an index in O(1) time.
+ * A missing similarity is {@link Constants#UNUSED}.
+ * Snapshots share internal arrays (copy-on-write) so that taking a snapshot between iterations costs nothing until the store is changed.
+ * A store can be saved to and loaded from a file by memory-mapped regions.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+@Deprecated
+public abstract class SocoSimStore implements Serializable {
+
+
+	/**
+	 * Default serial version UID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Magic number of persistent file.
+	 */
+	protected final static int MAGIC = 0x536F436F;
+
+
+	/**
+	 * Version of persistent file. Version 2 keeps bit sets of assigned similarities.
+	 */
+	protected final static int VERSION = 2;
+
+
+	/**
+	 * Size of header of persistent file, which consists of magic number, version, type, parameter, and the number of identifiers.
+	 */
+	protected final static int HEADER_BYTES = 5 * 4;
+
+
+	/**
+	 * Maximum number of bytes of a memory-mapped region.
+	 */
+	protected final static long MAP_CHUNK = 1L << 30;
+
+
+	/**
+	 * Sorted identifiers.
+	 */
+	protected int[] ids = new int[0];
+
+
+	/**
+	 * Direct index table from identifier to index, which is used when identifiers are non-negative and not too sparse. It can be null.
+	 */
+	protected int[] indexTable = null;
+
+
+	/**
+	 * Flag to indicate whether internal arrays are shared with other snapshots.
+	 */
+	protected boolean shared = false;
+
+
+	/**
+	 * Constructor with specified identifiers.
+	 * @param ids specified identifiers.
+	 */
+	protected SocoSimStore(int[] ids) {
+		setIds(ids);
+	}
+
+
+	/**
+	 * Setting identifiers and building index table.
+	 * @param ids specified identifiers.
+	 */
+	private void setIds(int[] ids) {
+		this.ids = ids.clone();
+		Arrays.sort(this.ids);
+		this.indexTable = null;
+		int n = this.ids.length;
+		if (n == 0 || this.ids[0] < 0) return;
+
+		long maxId = this.ids[n - 1];
+		if (maxId >= 4L * n + 1024) return; //Too sparse for direct table.
+		this.indexTable = new int[(int)maxId + 1];
+		Arrays.fill(this.indexTable, -1);
+		for (int i = 0; i < n; i++) this.indexTable[this.ids[i]] = i;
+	}
+
+
+	/**
+	 * Creating a store with specified identifiers.
+	 * @param ids specified identifiers.
+	 * @param floatPrecision if true, similarities are stored in single precision.
+	 * @param topK if positive, only top-k similarities in absolute value of every identifier are kept.
+	 * @return store with specified identifiers.
+	 */
+	public static SocoSimStore create(int[] ids, boolean floatPrecision, int topK) {
+		if (topK > 0 && topK < ids.length)
+			return new TopKStore(ids, topK, floatPrecision);
+		else
+			return new PackedStore(ids, floatPrecision);
+	}
+
+
+	/**
+	 * Getting index of specified identifier.
+	 * @param id specified identifier.
+	 * @return index of specified identifier. Return -1 if the identifier does not exist.
+	 */
+	public int indexOf(int id) {
+		if (indexTable != null)
+			return id >= 0 && id < indexTable.length ? indexTable[id] : -1;
+		int index = Arrays.binarySearch(ids, id);
+		return index >= 0 ? index : -1;
+	}
+
+
+	/**
+	 * Getting sorted identifiers. The returned array must not be changed.
+	 * @return sorted identifiers.
+	 */
+	public int[] getIds() {
+		return ids;
+	}
+
+
+	/**
+	 * Getting the number of identifiers.
+	 * @return the number of identifiers.
+	 */
+	public int size() {
+		return ids.length;
+	}
+
+
+	/**
+	 * Checking whether this store has the same identifiers as other store.
+	 * @param other other store.
+	 * @return whether this store has the same identifiers as other store.
+	 */
+	public boolean sameIds(SocoSimStore other) {
+		return other != null && (other.ids == this.ids || Arrays.equals(other.ids, this.ids));
+	}
+
+
+	/**
+	 * Getting similarity at id 1 and id 2.
+	 * @param id1 id 1.
+	 * @param id2 id 2.
+	 * @return similarity at id 1 and id 2. Return {@link Constants#UNUSED} if id 1 or id 2 does not exist.
+	 */
+	public double getSim(int id1, int id2) {
+		int i = indexOf(id1), j = indexOf(id2);
+		return i < 0 || j < 0 ? Constants.UNUSED : getSimByIndex(i, j);
+	}
+
+
+	/**
+	 * Setting similarity at id 1 and id 2.
+	 * @param id1 id 1.
+	 * @param id2 id 2.
+	 * @param sim specified similarity.
+	 * @return true if setting is successful. Return false if id 1 or id 2 does not exist.
+	 */
+	public boolean setSim(int id1, int id2, double sim) {
+		int i = indexOf(id1), j = indexOf(id2);
+		if (i < 0 || j < 0) return false;
+
+		if (shared) {
+			copyOnWrite();
+			shared = false;
+		}
+		setSimByIndex(i, j, sim);
+		return true;
+	}
+
+
+	/**
+	 * Checking whether the similarity at id 1 and id 2 was set, even if it was set to {@link Constants#UNUSED}.
+	 * @param id1 id 1.
+	 * @param id2 id 2.
+	 * @return whether the similarity at id 1 and id 2 was set. Return false if id 1 or id 2 does not exist.
+	 */
+	public boolean containsSim(int id1, int id2) {
+		int i = indexOf(id1), j = indexOf(id2);
+		return i >= 0 && j >= 0 && containsSimByIndex(i, j);
+	}
+
+
+	/**
+	 * Checking whether the similarity at index 1 and index 2 was set.
+	 * @param i index 1.
+	 * @param j index 2.
+	 * @return whether the similarity at index 1 and index 2 was set.
+	 */
+	public abstract boolean containsSimByIndex(int i, int j);
+
+
+	/**
+	 * Getting similarity at index 1 and index 2.
+	 * @param i index 1.
+	 * @param j index 2.
+	 * @return similarity at index 1 and index 2.
+	 */
+	public abstract double getSimByIndex(int i, int j);
+
+
+	/**
+	 * Setting similarity at index 1 and index 2. This method does not take care of shared arrays.
+	 * @param i index 1.
+	 * @param j index 2.
+	 * @param sim specified similarity.
+	 */
+	protected abstract void setSimByIndex(int i, int j, double sim);
+
+
+	/**
+	 * Copying internal arrays before changing them when they are shared with other snapshots.
+	 */
+	protected abstract void copyOnWrite();
+
+
+	/**
+	 * Taking a snapshot of this store. The snapshot shares internal arrays with this store until one of them is changed.
+	 * @return snapshot of this store.
+	 */
+	public abstract SocoSimStore snapshot();
+
+
+	/**
+	 * Clearing this store so that all similarities are missing.
+	 */
+	public abstract void clear();
+
+
+	/**
+	 * Getting the type code of this store used in persistent file.
+	 * @return the type code of this store.
+	 */
+	protected abstract int typeCode();
+
+
+	/**
+	 * Getting parameter of this store used in persistent file, for example, k of top-k store.
+	 * @return parameter of this store.
+	 */
+	protected abstract int parameterCode();
+
+
+	/**
+	 * Getting bit set of assigned similarities, which is saved together with values.
+	 * @return bit set of assigned similarities.
+	 */
+	protected abstract long[] assignedBits();
+
+
+	/**
+	 * Getting the number of stored values.
+	 * @return the number of stored values.
+	 */
+	protected abstract long valueCount();
+
+
+	/**
+	 * Getting the number of bytes of each stored value.
+	 * @return the number of bytes of each stored value.
+	 */
+	protected abstract int valueBytes();
+
+
+	/**
+	 * Writing stored values to specified buffer.
+	 * @param buffer specified buffer.
+	 * @param from index of the first value.
+	 * @param count the number of values.
+	 */
+	protected abstract void writeValues(ByteBuffer buffer, long from, int count);
+
+
+	/**
+	 * Reading stored values from specified buffer.
+	 * @param buffer specified buffer.
+	 * @param from index of the first value.
+	 * @param count the number of values.
+	 */
+	protected abstract void readValues(ByteBuffer buffer, long from, int count);
+
+
+	/**
+	 * Saving this store to specified file by memory-mapped regions.
+	 * The file layout is header (magic, version, type, parameter, size), identifiers, bit set of assigned similarities, and values.
+	 * @param file specified file.
+	 * @return true if saving is successful.
+	 */
+	public boolean save(File file) {
+		long[] assigned = assignedBits();
+		long headerBytes = HEADER_BYTES + 4L * ids.length + 8L * assigned.length;
+		long total = headerBytes + valueCount() * valueBytes();
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+			raf.setLength(total);
+			MappedByteBuffer header = channel.map(MapMode.READ_WRITE, 0, headerBytes);
+			header.putInt(MAGIC).putInt(VERSION).putInt(typeCode()).putInt(parameterCode()).putInt(ids.length);
+			for (int id : ids) header.putInt(id);
+			LongBuffer bits = header.asLongBuffer();
+			bits.put(assigned);
+			header.force();
+
+			transfer(channel, MapMode.READ_WRITE, headerBytes, true);
+			return true;
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+
+		return false;
+	}
+
+
+	/**
+	 * Loading store from specified file by memory-mapped regions.
+	 * @param file specified file.
+	 * @return store loaded from specified file. Return null if loading is failed.
+	 */
+	public static SocoSimStore load(File file) {
+		if (file == null || !file.exists()) return null;
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+			if (channel.size() < HEADER_BYTES) {
+				LogUtil.error("Invalid similarity store file");
+				return null;
+			}
+			MappedByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_BYTES);
+			if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+				LogUtil.error("Invalid similarity store file");
+				return null;
+			}
+			int type = header.getInt(), parameter = header.getInt(), n = header.getInt();
+			if (n < 0 || HEADER_BYTES + 4L * n > channel.size()) {
+				LogUtil.error("Invalid similarity store file");
+				return null;
+			}
+
+			MappedByteBuffer idBuffer = channel.map(MapMode.READ_ONLY, HEADER_BYTES, 4L * n);
+			int[] ids = new int[n];
+			for (int i = 0; i < n; i++) ids[i] = idBuffer.getInt();
+
+			SocoSimStore store = null;
+			if (type == PackedStore.TYPE_DOUBLE || type == PackedStore.TYPE_FLOAT)
+				store = new PackedStore(ids, type == PackedStore.TYPE_FLOAT);
+			else if (type == TopKStore.TYPE_DOUBLE || type == TopKStore.TYPE_FLOAT)
+				store = new TopKStore(ids, parameter, type == TopKStore.TYPE_FLOAT);
+			else {
+				LogUtil.error("Unknown similarity store type " + type);
+				return null;
+			}
+
+			long[] assigned = store.assignedBits();
+			long offset = HEADER_BYTES + 4L * n;
+			long headerBytes = offset + 8L * assigned.length;
+			if (headerBytes + store.valueCount() * store.valueBytes() != channel.size()) {
+				LogUtil.error("Invalid size of similarity store file");
+				return null;
+			}
+			if (assigned.length > 0)
+				channel.map(MapMode.READ_ONLY, offset, 8L * assigned.length).asLongBuffer().get(assigned);
+
+			store.transfer(channel, MapMode.READ_ONLY, headerBytes, false);
+			return store;
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+
+		return null;
+	}
+
+
+	/**
+	 * Transferring stored values between this store and specified channel by memory-mapped regions.
+	 * @param channel specified channel.
+	 * @param mode map mode.
+	 * @param offset offset of values in channel.
+	 * @param write if true, values are written to channel. Otherwise, values are read from channel.
+	 * @throws IOException if any error raises.
+	 */
+	private void transfer(FileChannel channel, MapMode mode, long offset, boolean write) throws IOException {
+		long count = valueCount();
+		int bytes = valueBytes();
+		long chunkValues = MAP_CHUNK / bytes;
+		for (long from = 0; from < count; from += chunkValues) {
+			int n = (int)Math.min(chunkValues, count - from);
+			MappedByteBuffer buffer = channel.map(mode, offset + from * bytes, (long)n * bytes);
+			if (write) {
+				writeValues(buffer, from, n);
+				buffer.force();
+			}
+			else
+				readValues(buffer, from, n);
+		}
+	}
+
+
+	/**
+	 * Testing whether the deviation between this store and current store at every common similarity is satisfied a threshold in ratio.
+	 * Both stores must have the same identifiers.
+	 * @param threshold specified threshold.
+	 * @param current current store.
+	 * @return true if all deviations are satisfied.
+	 */
+	public boolean terminatedCondition(double threshold, SocoSimStore current) {
+		int n = ids.length;
+		for (int i = 0; i < n; i++) {
+			for (int j = i; j < n; j++) {
+				double estimatedSim = getSimByIndex(i, j);
+				if (!Util.isUsed(estimatedSim)) continue;
+				double currentSim = current.getSimByIndex(i, j);
+				if (!Util.isUsed(currentSim)) continue;
+
+				if (Math.abs(estimatedSim - currentSim) > threshold * Math.abs(currentSim))
+					return false;
+			}
+		}
+
+		return true;
+	}
+
+
+	/**
+	 * This class represents store of all similarities in packed upper-triangular array.
+	 * The similarity of indices i &lt;= j is at position i*n - i*(i-1)/2 + (j-i).
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 */
+	public static class PackedStore extends SocoSimStore {
+
+		/**
+		 * Default serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Type code of double precision.
+		 */
+		protected final static int TYPE_DOUBLE = 1;
+
+		/**
+		 * Type code of single precision.
+		 */
+		protected final static int TYPE_FLOAT = 2;
+
+		/**
+		 * Packed similarities in double precision. It is null in single precision.
+		 */
+		protected double[] dvalues = null;
+
+		/**
+		 * Packed similarities in single precision. It is null in double precision.
+		 */
+		protected float[] fvalues = null;
+
+		/**
+		 * Bit set of packed positions whose similarities were set.
+		 */
+		protected long[] assigned = null;
+
+		/**
+		 * Constructor with specified identifiers and precision.
+		 * @param ids specified identifiers.
+		 * @param floatPrecision if true, similarities are stored in single precision.
+		 */
+		public PackedStore(int[] ids, boolean floatPrecision) {
+			super(ids);
+			long length = (long)this.ids.length * (this.ids.length + 1) / 2;
+			if (length > Integer.MAX_VALUE - 8)
+				throw new IllegalArgumentException("Too many identifiers for packed similarity store, please use top-k store");
+			if (floatPrecision) {
+				fvalues = new float[(int)length];
+				Arrays.fill(fvalues, Float.NaN);
+			}
+			else {
+				dvalues = new double[(int)length];
+				Arrays.fill(dvalues, Constants.UNUSED);
+			}
+			assigned = new long[(int)((length + 63) >>> 6)];
+		}
+
+		/**
+		 * Calculating position of similarity at index 1 and index 2 in packed array.
+		 * @param i index 1.
+		 * @param j index 2.
+		 * @return position of similarity at index 1 and index 2 in packed array.
+		 */
+		private int position(int i, int j) {
+			if (i > j) {int t = i; i = j; j = t;}
+			long n = ids.length;
+			return (int)(i*n - (long)i*(i-1)/2 + (j-i));
+		}
+
+		@Override
+		public double getSimByIndex(int i, int j) {
+			int p = position(i, j);
+			return dvalues != null ? dvalues[p] : fvalues[p];
+		}
+
+		@Override
+		public boolean containsSimByIndex(int i, int j) {
+			int p = position(i, j);
+			return (assigned[p >>> 6] & (1L << p)) != 0;
+		}
+
+		@Override
+		protected void setSimByIndex(int i, int j, double sim) {
+			int p = position(i, j);
+			if (dvalues != null)
+				dvalues[p] = sim;
+			else
+				fvalues[p] = (float)sim;
+			assigned[p >>> 6] |= 1L << p;
+		}
+
+		/**
+		 * Putting similarity at index 1 and index 2 without marking it as assigned, which is safe for concurrent writers of different positions.
+		 * This method does not take care of shared arrays and {@link #assignAll()} must be called after all similarities are put.
+		 * @param i index 1.
+		 * @param j index 2.
+		 * @param sim specified similarity.
+		 */
+		protected void putSimByIndex(int i, int j, double sim) {
+			int p = position(i, j);
+			if (dvalues != null)
+				dvalues[p] = sim;
+			else
+				fvalues[p] = (float)sim;
+		}
+
+		/**
+		 * Marking all similarities as assigned.
+		 */
+		protected void assignAll() {
+			long length = valueCount();
+			Arrays.fill(assigned, -1L);
+			if ((length & 63) != 0) assigned[assigned.length - 1] = (1L << (length & 63)) - 1;
+		}
+
+		@Override
+		protected void copyOnWrite() {
+			if (dvalues != null) dvalues = dvalues.clone();
+			if (fvalues != null) fvalues = fvalues.clone();
+			assigned = assigned.clone();
+		}
+
+		@Override
+		public SocoSimStore snapshot() {
+			PackedStore snapshot = new PackedStore(new int[0], fvalues != null);
+			snapshot.ids = this.ids;
+			snapshot.indexTable = this.indexTable;
+			snapshot.dvalues = this.dvalues;
+			snapshot.fvalues = this.fvalues;
+			snapshot.assigned = this.assigned;
+			snapshot.shared = this.shared = true;
+			return snapshot;
+		}
+
+		@Override
+		public void clear() {
+			if (shared) {
+				if (dvalues != null) dvalues = new double[dvalues.length];
+				if (fvalues != null) fvalues = new float[fvalues.length];
+				assigned = new long[assigned.length];
+				shared = false;
+			}
+			if (dvalues != null) Arrays.fill(dvalues, Constants.UNUSED);
+			if (fvalues != null) Arrays.fill(fvalues, Float.NaN);
+			Arrays.fill(assigned, 0);
+		}
+
+		@Override
+		protected int typeCode() {
+			return dvalues != null ? TYPE_DOUBLE : TYPE_FLOAT;
+		}
+
+		@Override
+		protected int parameterCode() {
+			return 0;
+		}
+
+		@Override
+		protected long[] assignedBits() {
+			return assigned;
+		}
+
+		@Override
+		protected long valueCount() {
+			return dvalues != null ? dvalues.length : fvalues.length;
+		}
+
+		@Override
+		protected int valueBytes() {
+			return dvalues != null ? 8 : 4;
+		}
+
+		@Override
+		protected void writeValues(ByteBuffer buffer, long from, int count) {
+			if (dvalues != null)
+				buffer.asDoubleBuffer().put(dvalues, (int)from, count);
+			else
+				buffer.asFloatBuffer().put(fvalues, (int)from, count);
+		}
+
+		@Override
+		protected void readValues(ByteBuffer buffer, long from, int count) {
+			if (dvalues != null)
+				buffer.asDoubleBuffer().get(dvalues, (int)from, count);
+			else
+				buffer.asFloatBuffer().get(fvalues, (int)from, count);
+		}
+
+		@Override
+		public boolean terminatedCondition(double threshold, SocoSimStore current) {
+			if (!(current instanceof PackedStore) || this.dvalues == null || ((PackedStore)current).dvalues == null)
+				return super.terminatedCondition(threshold, current);
+
+			double[] estimated = this.dvalues, currents = ((PackedStore)current).dvalues;
+			for (int p = 0; p < estimated.length; p++) {
+				double estimatedSim = estimated[p], currentSim = currents[p];
+				if (!Util.isUsed(estimatedSim) || !Util.isUsed(currentSim)) continue;
+				if (Math.abs(estimatedSim - currentSim) > threshold * Math.abs(currentSim))
+					return false;
+			}
+			return true;
+		}
+
+	}
+
+
+	/**
+	 * This class represents sparsified store which keeps only top-k similarities in absolute value of every identifier, except self-similarities which are always kept.
+	 * A similarity of indices i and j is kept if it is in top-k list of i or top-k list of j. Looking up a similarity costs O(k).
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 */
+	public static class TopKStore extends SocoSimStore {
+
+		/**
+		 * Default serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Type code of double precision.
+		 */
+		protected final static int TYPE_DOUBLE = 3;
+
+		/**
+		 * Type code of single precision.
+		 */
+		protected final static int TYPE_FLOAT = 4;
+
+		/**
+		 * The number k of kept similarities of every identifier.
+		 */
+		protected int k = 0;
+
+		/**
+		 * Self-similarities, which are rounded to single precision in single precision store.
+		 */
+		protected double[] selfs = null;
+
+		/**
+		 * Bit set of indices whose self-similarities were set.
+		 */
+		protected long[] selfAssigned = null;
+
+		/**
+		 * Neighbor indices in n*k array. Unused slots are -1.
+		 */
+		protected int[] neighbors = null;
+
+		/**
+		 * Neighbor similarities in double precision in n*k array. It is null in single precision.
+		 */
+		protected double[] dvalues = null;
+
+		/**
+		 * Neighbor similarities in single precision in n*k array. It is null in double precision.
+		 */
+		protected float[] fvalues = null;
+
+		/**
+		 * Constructor with specified identifiers, k, and precision.
+		 * @param ids specified identifiers.
+		 * @param k the number of kept similarities of every identifier.
+		 * @param floatPrecision if true, similarities are stored in single precision.
+		 */
+		public TopKStore(int[] ids, int k, boolean floatPrecision) {
+			super(ids);
+			this.k = Math.max(1, k);
+			int n = this.ids.length;
+			long length = (long)n * this.k;
+			if (length > Integer.MAX_VALUE - 8)
+				throw new IllegalArgumentException("Too large k for top-k similarity store");
+			selfs = new double[n];
+			selfAssigned = new long[(n + 63) >>> 6];
+			neighbors = new int[(int)length];
+			if (floatPrecision)
+				fvalues = new float[(int)length];
+			else
+				dvalues = new double[(int)length];
+			clear0();
+		}
+
+		/**
+		 * Resetting all arrays so that all similarities are missing.
+		 */
+		private void clear0() {
+			Arrays.fill(selfs, Constants.UNUSED);
+			Arrays.fill(selfAssigned, 0);
+			Arrays.fill(neighbors, -1);
+			if (dvalues != null) Arrays.fill(dvalues, Constants.UNUSED);
+			if (fvalues != null) Arrays.fill(fvalues, Float.NaN);
+		}
+
+		/**
+		 * Getting similarity value at specified slot.
+		 * @param slot specified slot.
+		 * @return similarity value at specified slot.
+		 */
+		private double value(int slot) {
+			return dvalues != null ? dvalues[slot] : fvalues[slot];
+		}
+
+		/**
+		 * Finding slot of neighbor j in top-k list of i.
+		 * @param i index i.
+		 * @param j index j.
+		 * @return slot of neighbor j in top-k list of i. Return -1 if not found.
+		 */
+		private int find(int i, int j) {
+			int base = i * k;
+			for (int s = base; s < base + k; s++) {
+				if (neighbors[s] == j) return s;
+			}
+			return -1;
+		}
+
+		@Override
+		public double getSimByIndex(int i, int j) {
+			if (i == j) return selfs[i];
+			int s = find(i, j);
+			if (s >= 0) return value(s);
+			s = find(j, i);
+			return s >= 0 ? value(s) : Constants.UNUSED;
+		}
+
+		/**
+		 * A similarity of different indices is contained if it is kept in top-k list of one of them.
+		 */
+		@Override
+		public boolean containsSimByIndex(int i, int j) {
+			if (i == j) return (selfAssigned[i >>> 6] & (1L << i)) != 0;
+			return find(i, j) >= 0 || find(j, i) >= 0;
+		}
+
+		/**
+		 * Offering similarity of neighbor j to top-k list of i.
+		 * @param i index i.
+		 * @param j index j.
+		 * @param sim similarity.
+		 */
+		private void offer(int i, int j, double sim) {
+			int base = i * k;
+			int slot = find(i, j);
+			if (slot < 0 && !Util.isUsed(sim)) return;
+			if (slot < 0) {
+				double minAbs = Double.MAX_VALUE;
+				for (int s = base; s < base + k; s++) {
+					if (neighbors[s] < 0) {
+						slot = s;
+						break;
+					}
+					double abs = Math.abs(value(s));
+					if (!Util.isUsed(abs) || abs < minAbs) {
+						minAbs = Util.isUsed(abs) ? abs : -1;
+						slot = s;
+					}
+				}
+				if (Util.isUsed(sim) && neighbors[slot] >= 0 && Math.abs(sim) <= minAbs) return;
+			}
+
+			neighbors[slot] = j;
+			if (dvalues != null)
+				dvalues[slot] = sim;
+			else
+				fvalues[slot] = (float)sim;
+		}
+
+		@Override
+		protected void setSimByIndex(int i, int j, double sim) {
+			if (i == j) {
+				selfs[i] = fvalues != null ? (float)sim : sim;
+				selfAssigned[i >>> 6] |= 1L << i;
+			}
+			else {
+				offer(i, j, sim);
+				offer(j, i, sim);
+			}
+		}
+
+		@Override
+		protected void copyOnWrite() {
+			selfs = selfs.clone();
+			selfAssigned = selfAssigned.clone();
+			neighbors = neighbors.clone();
+			if (dvalues != null) dvalues = dvalues.clone();
+			if (fvalues != null) fvalues = fvalues.clone();
+		}
+
+		@Override
+		protected int typeCode() {
+			return dvalues != null ? TYPE_DOUBLE : TYPE_FLOAT;
+		}
+
+		@Override
+		protected int parameterCode() {
+			return k;
+		}
+
+		@Override
+		protected long[] assignedBits() {
+			return selfAssigned;
+		}
+
+		@Override
+		protected long valueCount() {
+			return (long)selfs.length + neighbors.length;
+		}
+
+		@Override
+		protected int valueBytes() {
+			return 4 + (dvalues != null ? 8 : 4);
+		}
+
+		/**
+		 * Values are self-similarities followed by neighbor slots. Every value is a pair of neighbor index (-1 for self-similarity) and similarity.
+		 */
+		@Override
+		protected void writeValues(ByteBuffer buffer, long from, int count) {
+			int n = selfs.length;
+			for (long v = from; v < from + count; v++) {
+				if (v < n) {
+					buffer.putInt(-1);
+					if (dvalues != null)
+						buffer.putDouble(selfs[(int)v]);
+					else
+						buffer.putFloat((float)selfs[(int)v]);
+					continue;
+				}
+
+				int s = (int)(v - n);
+				buffer.putInt(neighbors[s]);
+				if (dvalues != null)
+					buffer.putDouble(dvalues[s]);
+				else
+					buffer.putFloat(fvalues[s]);
+			}
+		}
+
+		@Override
+		protected void readValues(ByteBuffer buffer, long from, int count) {
+			int n = selfs.length;
+			for (long v = from; v < from + count; v++) {
+				int neighbor = buffer.getInt();
+				double value = dvalues != null ? buffer.getDouble() : buffer.getFloat();
+				if (v < n) {
+					selfs[(int)v] = value;
+					continue;
+				}
+
+				int s = (int)(v - n);
+				neighbors[s] = neighbor < n ? neighbor : -1;
+				if (dvalues != null)
+					dvalues[s] = value;
+				else
+					fvalues[s] = (float)value;
+			}
+		}
+
+		@Override
+		public SocoSimStore snapshot() {
+			TopKStore snapshot = new TopKStore(new int[0], k, fvalues != null);
+			snapshot.ids = this.ids;
+			snapshot.indexTable = this.indexTable;
+			snapshot.selfs = this.selfs;
+			snapshot.selfAssigned = this.selfAssigned;
+			snapshot.neighbors = this.neighbors;
+			snapshot.dvalues = this.dvalues;
+			snapshot.fvalues = this.fvalues;
+			snapshot.shared = this.shared = true;
+			return snapshot;
+		}
+
+		@Override
+		public void clear() {
+			if (shared) {
+				selfs = new double[selfs.length];
+				selfAssigned = new long[selfAssigned.length];
+				neighbors = new int[neighbors.length];
+				if (dvalues != null) dvalues = new double[dvalues.length];
+				if (fvalues != null) fvalues = new float[fvalues.length];
+				shared = false;
+			}
+			clear0();
+		}
+
+	}
+
+
+}
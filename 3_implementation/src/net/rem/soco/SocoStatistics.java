@@ -7,6 +7,7 @@
  */
 package net.rem.soco;
 
+import java.io.File;
 import java.io.Serializable;
 import java.util.Map;
 import java.util.Set;
@@ -17,6 +18,7 @@ import net.hudup.core.Util;
 
 /**
  * This class represents statistics of Soco algorithm.
+ * If identifiers are declared in advance, similarities are kept in a primitive store {@link SocoSimStore}. Otherwise, they are kept in a map.
  * 
  * @author Loc Nguyen
  * @version 1.0
@@ -38,6 +40,12 @@ public class SocoStatistics implements Cloneable, Serializable {
 	protected Map<Integer, Map<Integer, Double>> simap = Util.newMap();
 	
 	
+	/**
+	 * Primitive store of similarities. If it is not null, the map of similarities is not used.
+	 */
+	protected SocoSimStore store = null;
+	
+	
 	/**
 	 * Default constructor.
 	 */
@@ -45,6 +53,56 @@ public class SocoStatistics implements Cloneable, Serializable {
 		// TODO Auto-generated constructor stub
 	}
 	
+	
+	/**
+	 * Constructor with specified primitive store.
+	 * @param store specified primitive store.
+	 */
+	public SocoStatistics(SocoSimStore store) {
+		this.store = store;
+	}
+	
+	
+	/**
+	 * Constructor with declared identifiers.
+	 * @param ids declared identifiers.
+	 * @param floatPrecision if true, similarities are stored in single precision.
+	 * @param topK if positive, only top-k similarities of every identifier are kept.
+	 */
+	public SocoStatistics(int[] ids, boolean floatPrecision, int topK) {
+		this(SocoSimStore.create(ids, floatPrecision, topK));
+	}
+	
+	
+	/**
+	 * Getting primitive store.
+	 * @return primitive store. It can be null if similarities are kept in map.
+	 */
+	public SocoSimStore getStore() {
+		return store;
+	}
+	
+
+	/**
+	 * Saving this statistics to specified file by memory-mapped regions. Only statistics kept in a primitive store can be saved.
+	 * @param file specified file.
+	 * @return true if saving is successful.
+	 */
+	public boolean save(File file) {
+		return store != null && store.save(file);
+	}
+	
+	
+	/**
+	 * Loading statistics from specified file by memory-mapped regions.
+	 * @param file specified file.
+	 * @return statistics loaded from specified file. Return null if loading is failed.
+	 */
+	public static SocoStatistics load(File file) {
+		SocoSimStore store = SocoSimStore.load(file);
+		return store != null ? new SocoStatistics(store) : null;
+	}
+	
 
 	/**
 	 * Getting similarity at id 1 and id 2.
@@ -53,6 +111,7 @@ public class SocoStatistics implements Cloneable, Serializable {
 	 * @return similarity at id 1 and id 2. Return {@link Constants#UNUSED} if id 1 or id 2 does not exist. 
 	 */
 	public double getSim(int id1, int id2) {
+		if (store != null) return store.getSim(id1, id2);
 		if (!simap.containsKey(id1)) return Constants.UNUSED;
 		
 		Map<Integer, Double> map = simap.get(id1);
@@ -64,12 +123,17 @@ public class SocoStatistics implements Cloneable, Serializable {
 	
 	
 	/**
-	 * Getting similarity at id 1 and id 2.
+	 * Setting similarity at id 1 and id 2. If the primitive store is used, similarities of undeclared identifiers are ignored.
 	 * @param id1 id 1.
 	 * @param id2 id 2.
 	 * @param sim specified similarity.
 	 */
 	public void setSim(int id1, int id2, double sim) {
+		if (store != null) {
+			store.setSim(id1, id2, sim);
+			return;
+		}
+		
 		Map<Integer, Double> map = null;
 		if (simap.containsKey(id1))
 			map = simap.get(id1);
@@ -93,13 +157,15 @@ public class SocoStatistics implements Cloneable, Serializable {
 
 
 	/**
-	 * Checking whether the similarity at id 1 and id 2 exists.
+	 * Checking whether the similarity at id 1 and id 2 exists, even if it is {@link Constants#UNUSED}.
 	 * @param id1 id 1.
 	 * @param id2 id 2.
 	 * @return whether the similarity at id 1 and id 2 exists.
 	 */
 	public boolean containsSim(int id1, int id2) {
-		if (!simap.containsKey(id1))
+		if (store != null)
+			return store.containsSim(id1, id2);
+		else if (!simap.containsKey(id1))
 			return false;
 		else
 			return simap.get(id1).containsKey(id2);
@@ -111,7 +177,12 @@ public class SocoStatistics implements Cloneable, Serializable {
 	 * @return set of id (s).
 	 */
 	public Set<Integer> ids() {
-		return simap.keySet();
+		if (store == null) return simap.keySet();
+		
+		int[] storeIds = store.getIds();
+		Set<Integer> ids = Util.newSet(storeIds.length);
+		for (int id : storeIds) ids.add(id);
+		return ids;
 	}
 	
 	
@@ -120,7 +191,7 @@ public class SocoStatistics implements Cloneable, Serializable {
 	 * @return size of statistics.
 	 */
 	public int size() {
-		return simap.size();
+		return store != null ? store.size() : simap.size();
 	}
 	
 	
@@ -128,12 +199,17 @@ public class SocoStatistics implements Cloneable, Serializable {
 	 * Clearing this statistics.
 	 */
 	public void clear() {
-		simap.clear();
+		if (store != null)
+			store.clear();
+		else
+			simap.clear();
 	}
 	
 	
 	@Override
 	public Object clone() {
+		if (store != null) return new SocoStatistics(store.snapshot());
+		
 		SocoStatistics newStat = new SocoStatistics();
 		Set<Integer> ids1 = this.simap.keySet();
 		for (int id1 : ids1) {
@@ -158,6 +234,9 @@ public class SocoStatistics implements Cloneable, Serializable {
 	 * @return whether terminated condition is satisfied with this statistics (as estimated statistics) and current statistics (specified statistics).
 	 */
 	protected boolean terminatedCondition(double threshold, SocoStatistics currentStat) {
+		if (store != null && store.sameIds(currentStat.store))
+			return store.terminatedCondition(threshold, currentStat.store);
+		
 		Set<Integer> ids1 = ids();
 		Set<Integer> ids2 = Util.newSet(ids1.size());
 		ids2.addAll(ids1);
@@ -196,6 +275,7 @@ public class SocoStatistics implements Cloneable, Serializable {
 	 */
 	protected void assignFrom(SocoStatistics other) {
 		this.simap = other.simap;
+		this.store = other.store != null ? other.store.snapshot() : null;
 	}
 	
 	
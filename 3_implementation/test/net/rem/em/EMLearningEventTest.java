@@ -0,0 +1,146 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.em;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import net.hudup.core.Util;
+import net.hudup.core.alg.SetupAlgEvent;
+import net.hudup.core.alg.SetupAlgEvent.Type;
+import net.hudup.core.alg.SetupAlgListener;
+import net.rem.regression.TestSamples;
+import net.rem.regression.em.REMImpl;
+
+/**
+ * Tests of asynchronous delivery of learning events of {@link EMAbstract}.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class EMLearningEventTest {
+
+
+	/**
+	 * Slow listener receives all events before setting up returns, and parameters of events are not live references of the model.
+	 * Statistics are passed by reference because every expectation step creates new statistics.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testFlushedAndSnapshot() throws Exception {
+		final List<SetupAlgEvent> events = Util.newList();
+		SetupAlgListener listener = new SetupAlgListener() {
+
+			@Override
+			public void receivedSetup(SetupAlgEvent evt) throws RemoteException {
+				try {
+					Thread.sleep(5);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				synchronized (events) {
+					events.add(evt);
+				}
+			}
+
+			@Override
+			public boolean classPathContains(String className) throws RemoteException {
+				return getClass().getName().equals(className);
+			}
+
+			@Override
+			public boolean ping() throws RemoteException {
+				return true;
+			}
+
+		};
+
+		REMImpl model = new REMImpl();
+		model.getConfig().put(EMAbstract.EM_EVENT_DETAIL_FIELD, EM.EM_EVENT_DETAIL_FULL);
+		model.addSetupListener(listener);
+		model.setup(TestSamples.generate(2, 1, 0.01, 0.2, 500, 5));
+
+		List<SetupAlgEvent> received = Util.newList();
+		synchronized (events) {
+			received.addAll(events);
+		}
+		assertTrue(received.size() >= 3);
+		assertEquals(Type.done, received.get(received.size() - 1).getType());
+		assertEquals(Type.done, received.get(received.size() - 2).getType());
+
+		int learningEvents = 0;
+		for (SetupAlgEvent evt : received) {
+			if (!(evt instanceof EMLearningEvent)) continue;
+			EMLearningEvent learningEvt = (EMLearningEvent)evt;
+			assertNotNull(learningEvt.currentStatistics);
+			assertNotNull(learningEvt.estimatedParameter);
+			assertNotSame(model.getParameter(), learningEvt.estimatedParameter);
+			learningEvents++;
+		}
+		assertTrue(learningEvents >= 2);
+		model.unsetup();
+	}
+
+
+	/**
+	 * Unsetting up does not hold the lock of the model while flushing events, so that listener calling synchronized methods of the model does not wait for the flush timeout.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testUnsetupFlushesWithoutLock() throws Exception {
+		final REMImpl model = new REMImpl();
+		model.setup(TestSamples.generate(2, 1, 0.01, 0.2, 200, 7));
+		final CountDownLatch received = new CountDownLatch(1);
+		final int[] iterations = {-1};
+		model.addSetupListener(new SetupAlgListener() {
+
+			@Override
+			public void receivedSetup(SetupAlgEvent evt) throws RemoteException {
+				received.countDown();
+				try {
+					Thread.sleep(200);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				iterations[0] = model.getCurrentIteration();
+			}
+
+			@Override
+			public boolean classPathContains(String className) throws RemoteException {
+				return getClass().getName().equals(className);
+			}
+
+			@Override
+			public boolean ping() throws RemoteException {
+				return true;
+			}
+
+		});
+
+		model.fireSetupEvent(new SetupAlgEvent(model, Type.doing, model.getName(), null));
+		assertTrue(received.await(EM.EM_EVENT_FLUSH_TIMEOUT, TimeUnit.MILLISECONDS));
+		long start = System.currentTimeMillis();
+		model.unsetup();
+		assertTrue(System.currentTimeMillis() - start < EM.EM_EVENT_FLUSH_TIMEOUT / 2);
+		assertTrue(iterations[0] >= 0);
+	}
+
+
+}
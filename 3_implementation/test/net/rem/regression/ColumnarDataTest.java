@@ -0,0 +1,87 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import net.hudup.core.Util;
+import net.hudup.core.data.Fetcher;
+import net.hudup.core.data.Profile;
+
+/**
+ * Tests of lazy extraction and sharing of {@link ColumnarData}.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class ColumnarDataTest {
+
+
+	/**
+	 * Columns are extracted only when they are used, and they are equal to columns extracted eagerly.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testLazyColumns() throws Exception {
+		Fetcher<Profile> sample = TestSamples.generate(3, 1, 0.01, 0.1, 300, 1);
+		ColumnarData expected = ColumnarData.extract(sample);
+		ColumnarData data = ColumnarData.of(sample);
+		assertNotNull(data);
+		assertSame(data, ColumnarData.of(sample));
+		assertEquals(expected.size(), data.size());
+		int n = data.getAttributeList().size();
+		for (int j = 0; j < n; j++) assertFalse(data.isLoaded(j));
+
+		List<Object[]> xIndices = Util.newList();
+		xIndices.add(new Object[] {-1});
+		xIndices.add(new Object[] {1});
+		data.load(xIndices, null);
+		for (int j = 0; j < n; j++) assertEquals(j == 1, data.isLoaded(j));
+		assertArrayEquals(expected.getColumn(1), data.getColumn(1), 0);
+		assertEquals(expected.getMissing(1), data.getMissing(1));
+
+		ColumnarData view = data.view(new int[] {5, 3, 1});
+		assertArrayEquals(expected.getRow(3), view.getRow(1), 0);
+		assertTrue(data.isLoaded());
+		for (int j = 0; j < n; j++) assertArrayEquals(expected.getColumn(j), data.getColumn(j), 0);
+	}
+
+
+	/**
+	 * Shared columnar data is created again if values of the sample are changed without changing its size.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testChangedSample() throws Exception {
+		Fetcher<Profile> sample = TestSamples.generate(2, 1, 0.01, 0, 100, 2);
+		ColumnarData data = ColumnarData.of(sample);
+		double value = data.getValue(0, 0);
+
+		sample.next();
+		sample.pick().setValue(0, value + 1);
+		sample.reset();
+		ColumnarData changed = ColumnarData.of(sample);
+		assertNotSame(data, changed);
+		assertEquals(data.size(), changed.size());
+		assertEquals(value + 1, changed.getValue(0, 0), 0);
+		assertSame(changed, ColumnarData.of(sample));
+	}
+
+
+}
@@ -0,0 +1,144 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import org.junit.Test;
+
+import net.hudup.core.Util;
+import net.rem.regression.em.REMImpl;
+
+/**
+ * Tests of cached results of {@link RMRemoteWrapper}.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class RMRemoteWrapperTest {
+
+
+	/**
+	 * Counts of calls of remote methods, each of which is indexed by method name.
+	 */
+	private Map<String, Integer> counts = Util.newMap();
+
+
+	/**
+	 * Creating stub of specified model which counts calls of remote methods.
+	 * @param model specified model.
+	 * @return stub of specified model.
+	 */
+	private RMRemote createStub(final RMRemote model) {
+		return (RMRemote)Proxy.newProxyInstance(RMRemote.class.getClassLoader(), new Class<?>[] {RMRemote.class},
+			new InvocationHandler() {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					synchronized (counts) {
+						Integer count = counts.get(method.getName());
+						counts.put(method.getName(), count != null ? count + 1 : 1);
+					}
+					try {
+						return method.invoke(model, args);
+					}
+					catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				}
+			});
+	}
+
+
+	/**
+	 * Getting count of calls of specified remote method.
+	 * @param methodName name of specified remote method.
+	 * @return count of calls of specified remote method.
+	 */
+	private int count(String methodName) {
+		synchronized (counts) {
+			Integer count = counts.get(methodName);
+			return count != null ? count : 0;
+		}
+	}
+
+
+	/**
+	 * Cache hits cost no round trip, the version is checked once per time window, and correlations of regressors are fetched in one call of metrics.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testRoundTrips() throws Exception {
+		assumeTrue(RMRemoteWrapper.BATCH_TTL > 0);
+		REMImpl model = new REMImpl();
+		model.setup(TestSamples.generate(3, 1, 0.01, 0.1, 500, 3));
+		RMRemoteWrapper wrapper = new RMRemoteWrapper(createStub(model));
+		counts.clear();
+
+		int n = model.getLargeStatistics().getXData().get(0).length;
+		for (int k = 0; k < 3; k++) {
+			for (int index = 0; index < n; index++) assertEquals(model.calcR(index), wrapper.calcR(index), 0);
+			assertEquals(model.calcVariance(), wrapper.calcVariance(), 0);
+			assertEquals(model.calcR(), wrapper.calcR(), 0);
+		}
+		assertEquals(1, count("getModelVersion"));
+		assertEquals(1, count("calcMetrics"));
+		assertEquals(0, count("calcR"));
+		assertEquals(0, count("calcVariance"));
+
+		wrapper.putConfig(model.getConfig());
+		assertEquals(model.calcR(1), wrapper.calcR(1), 0);
+		assertEquals(2, count("getModelVersion"));
+		assertEquals(2, count("calcMetrics"));
+
+		model.unsetup();
+	}
+
+
+	/**
+	 * Cached results follow the version of the model, so that a model learned again is not served stale after the time window.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testCacheFollowsModelVersion() throws Exception {
+		REMImpl model = new REMImpl();
+		RMRemoteWrapper wrapper = new RMRemoteWrapper(createStub(model));
+		assertNull(wrapper.calcMetrics());
+
+		model.setup(TestSamples.generate(2, 1, 0.01, 0.1, 500, 1));
+		wrapper.invalidate(); //Model is learned directly, not through the wrapper.
+		double variance = model.calcVariance();
+		double r = model.calcR();
+		assertEquals(variance, wrapper.calcVariance(), 0);
+		assertEquals(r, wrapper.calcR(), 0);
+		assertEquals(model.calcR(1), wrapper.calcR(1), 0);
+		assertEquals(model.calcMetrics().getVariance(), wrapper.calcMetrics().getVariance(), 0);
+
+		long version = wrapper.getModelVersion();
+		model.setup(TestSamples.generate(2, 1, 0.5, 0.1, 500, 2));
+		assertNotEquals(version, wrapper.getModelVersion());
+		assertNotEquals(variance, model.calcVariance(), 0);
+		Thread.sleep(Math.max(0, RMRemoteWrapper.BATCH_TTL) + 50);
+		assertEquals(model.calcVariance(), wrapper.calcVariance(), 0);
+		assertEquals(model.calcR(), wrapper.calcR(), 0);
+		assertEquals(model.calcMetrics().getR(), wrapper.calcMetrics().getR(), 0);
+
+		model.unsetup();
+	}
+
+
+}
@@ -0,0 +1,83 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests of seed determinism of {@link RegressiveDataGenerator}.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class RegressiveDataGeneratorTest {
+
+
+	/**
+	 * Generating rows with specified seed, number of threads, and block size.
+	 * @param seed seed of generator.
+	 * @param threadNumber number of threads.
+	 * @param blockSize number of rows in a block.
+	 * @return generated bytes.
+	 * @throws IOException if any error raises.
+	 */
+	private static byte[] generate(long seed, int threadNumber, int blockSize) throws IOException {
+		RegressiveDataGenerator generator = RegressiveDataGenerator.createRandom(3, 2, 0.5, seed);
+		generator.setMissingRates(0.1, 0.05);
+		generator.setThreadNumber(threadNumber);
+		generator.setBlockSize(blockSize);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		generator.generate(out, 5000);
+		return out.toByteArray();
+	}
+
+
+	/**
+	 * The same seed produces the same bytes regardless of the number of threads.
+	 * @throws IOException if any error raises.
+	 */
+	@Test
+	public void testSameSeedSameBytes() throws IOException {
+		byte[] sequential = generate(11, 1, 1000);
+		assertArrayEquals(sequential, generate(11, 1, 1000));
+		assertArrayEquals(sequential, generate(11, 4, 1000));
+		assertArrayEquals(sequential, generate(11, 7, 1000));
+	}
+
+
+	/**
+	 * Different seeds produce different bytes.
+	 * @throws IOException if any error raises.
+	 */
+	@Test
+	public void testDifferentSeedDifferentBytes() throws IOException {
+		assertFalse(Arrays.equals(generate(11, 2, 1000), generate(12, 2, 1000)));
+	}
+
+
+	/**
+	 * Generated sample has header and the requested number of rows.
+	 * @throws IOException if any error raises.
+	 */
+	@Test
+	public void testRowCount() throws IOException {
+		String text = new String(generate(11, 3, 1000), "US-ASCII");
+		assertEquals(5001, text.split("\n").length);
+	}
+
+
+}
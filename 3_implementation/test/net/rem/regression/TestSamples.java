@@ -0,0 +1,119 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import net.hudup.core.Util;
+import net.hudup.core.data.Attribute;
+import net.hudup.core.data.Attribute.Type;
+import net.hudup.core.data.AttributeList;
+import net.hudup.core.data.Fetcher;
+import net.hudup.core.data.MemFetcher;
+import net.hudup.core.data.Profile;
+
+/**
+ * This utility class provides samples for tests, which are generated by {@link RegressiveDataGenerator} in memory or read from the datasets directory.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public final class TestSamples {
+
+
+	/**
+	 * Sample of CCPP dataset with 30 percent of missing values, which is relative to the working directory of tests.
+	 */
+	public final static String CCPP_MISSING = "datasets/ccpp-0.5/hdp_sample.base.0.3.miss";
+
+
+	/**
+	 * Private constructor.
+	 */
+	private TestSamples() {
+
+	}
+
+
+	/**
+	 * Generating sample of mixture of linear regression models in memory.
+	 * @param regressorNumber number of regressors.
+	 * @param componentNumber number of components.
+	 * @param variance variance of noise.
+	 * @param marRate rate of values missing at random.
+	 * @param size number of rows.
+	 * @param seed seed of generator.
+	 * @return generated sample.
+	 * @throws IOException if any error raises.
+	 */
+	public static Fetcher<Profile> generate(int regressorNumber, int componentNumber, double variance, double marRate, long size, long seed) throws IOException {
+		RegressiveDataGenerator generator = RegressiveDataGenerator.createRandom(regressorNumber, componentNumber, variance, seed);
+		generator.setMissingRates(marRate, 0);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		generator.generate(out, size);
+		return read(new StringReader(new String(out.toByteArray(), StandardCharsets.US_ASCII)));
+	}
+
+
+	/**
+	 * Loading sample of CCPP dataset with missing values.
+	 * @return sample of CCPP dataset with missing values.
+	 * @throws IOException if any error raises.
+	 */
+	public static Fetcher<Profile> loadCCPP() throws IOException {
+		try (Reader reader = new FileReader(new File(CCPP_MISSING))) {
+			return read(reader);
+		}
+	}
+
+
+	/**
+	 * Reading sample in text format whose first line is header of attributes and other lines are comma-separated values. Missing value is empty.
+	 * @param reader specified reader.
+	 * @return sample in memory.
+	 * @throws IOException if any error raises.
+	 */
+	public static Fetcher<Profile> read(Reader reader) throws IOException {
+		BufferedReader buffer = new BufferedReader(reader);
+		String header = buffer.readLine();
+		List<Profile> profiles = Util.newList();
+		if (header == null) return new MemFetcher<Profile>(profiles);
+
+		AttributeList attList = new AttributeList();
+		for (String field : header.split(",")) {
+			attList.add(new Attribute(field.split("~")[0].trim(), Type.real));
+		}
+
+		String line = null;
+		while ((line = buffer.readLine()) != null) {
+			if (line.trim().isEmpty()) continue;
+			String[] values = line.split(",", -1);
+			Profile profile = new Profile(attList);
+			for (int j = 0; j < attList.size(); j++) {
+				String value = j < values.length ? values[j].trim() : "";
+				if (value.isEmpty())
+					profile.setMissing(j);
+				else
+					profile.setValue(j, Double.parseDouble(value));
+			}
+			profiles.add(profile);
+		}
+		return new MemFetcher<Profile>(profiles);
+	}
+
+
+}
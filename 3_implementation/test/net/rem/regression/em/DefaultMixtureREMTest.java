@@ -0,0 +1,175 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.hudup.core.Util;
+import net.hudup.core.data.Fetcher;
+import net.hudup.core.data.Profile;
+import net.rem.regression.LargeStatistics;
+import net.rem.regression.RMDiagnostics;
+import net.rem.regression.TestSamples;
+
+/**
+ * Tests of initialization of {@link DefaultMixtureREM}.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class DefaultMixtureREMTest {
+
+
+	/**
+	 * Sample of two-component mixture with missing values.
+	 */
+	private static Fetcher<Profile> sample = null;
+
+
+	/**
+	 * Generating sample.
+	 * @throws Exception if any error raises.
+	 */
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		sample = TestSamples.generate(2, 2, 0.01, 0.1, 2000, 1);
+	}
+
+
+	/**
+	 * Creating mixture model with fixed seed.
+	 * @param multistart number of runs of multi-start mode.
+	 * @return mixture model with fixed seed.
+	 */
+	private static DefaultMixtureREM create(int multistart) {
+		DefaultMixtureREM model = new DefaultMixtureREM();
+		model.getConfig().put(DefaultMixtureREM.COMP_NUMBER_FIELD, 2);
+		model.getConfig().put(DefaultMixtureREM.INITIALIZE_SEED_FIELD, 7);
+		model.getConfig().put(DefaultMixtureREM.MULTISTART_NUMBER_FIELD, multistart);
+		return model;
+	}
+
+
+	/**
+	 * Getting log-likelihood of learned parameters of specified model on complete rows of its data.
+	 * @param model specified model.
+	 * @return log-likelihood of learned parameters on complete rows.
+	 * @throws Exception if any error raises.
+	 */
+	@SuppressWarnings("unchecked")
+	private static double observedLogLikelihood(DefaultMixtureREM model) throws Exception {
+		LargeStatistics completeData = REMImpl.getCompleteData(model.data);
+		return DefaultMixtureREM.getLogLikelihood((List<ExchangedParameter>)model.getParameter(), completeData);
+	}
+
+
+	/**
+	 * Multi-start mode with fixed seed learns the same parameters every time.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testMultistartDeterministic() throws Exception {
+		DefaultMixtureREM model1 = create(4);
+		model1.setup(sample);
+		DefaultMixtureREM model2 = create(4);
+		model2.setup(sample);
+
+		assertNotNull(model1.getParameter());
+		assertEquals(model1.getParameter().toString(), model2.getParameter().toString());
+		model1.unsetup();
+		model2.unsetup();
+	}
+
+
+	/**
+	 * Multi-start mode is not worse than single-start mode with the same seed in log-likelihood of complete rows.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testMultistartNotWorseThanSingleStart() throws Exception {
+		DefaultMixtureREM single = create(1);
+		single.setup(sample);
+		double singleLogLikelihood = observedLogLikelihood(single);
+		single.unsetup();
+
+		DefaultMixtureREM multi = create(4);
+		multi.getConfig().put(DefaultMixtureREM.MULTISTART_KEEP_FIELD, 4);
+		multi.setup(sample);
+		double multiLogLikelihood = observedLogLikelihood(multi);
+		multi.unsetup();
+
+		assertTrue(multiLogLikelihood + " < " + singleLogLikelihood, multiLogLikelihood >= singleLogLikelihood - 1e-6 * Math.abs(singleLogLikelihood));
+	}
+
+
+
+	/**
+	 * Weights of components initialized by k-means sum to 1 when a cluster is empty.
+	 * Complete rows have only two distinct values, so the third center of k-means++ duplicates another center and its cluster is empty.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testKmeansEmptyClusterWeights() throws Exception {
+		StringBuilder text = new StringBuilder("x1~real,z~real");
+		for (int i = 0; i < 50; i++) text.append("\n0.1,1.0\n0.9,3.0");
+		Fetcher<Profile> twoPoints = TestSamples.read(new StringReader(text.toString()));
+
+		DefaultMixtureREM model = create(1);
+		model.getConfig().put(DefaultMixtureREM.COMP_NUMBER_FIELD, 3);
+		model.getConfig().put(AbstractMixtureREM.INITIALIZE_KMEANS_FIELD, true);
+		assertTrue(model.prepareInternalData(twoPoints));
+		List<LargeStatistics> clusters = AbstractMixtureREM.kmeansClusters(REMImpl.getCompleteData(model.data), 3, 0, new Random(7));
+		assertEquals(0, clusters.get(2).size());
+
+		@SuppressWarnings("unchecked")
+		List<ExchangedParameter> parameters = (List<ExchangedParameter>)model.initializeParameter();
+		assertEquals(3, parameters.size());
+		double sum = 0;
+		for (ExchangedParameter parameter : parameters) {
+			assertTrue(Util.isUsed(parameter.getCoeff()) && parameter.getCoeff() > 0);
+			sum += parameter.getCoeff();
+		}
+		assertEquals(1.0, sum, 1e-12);
+		model.unsetup();
+	}
+
+	/**
+	 * Diagnostics are calculated again when configuration of execution is changed after learning.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testDiagnosticsFollowExecuteConfig() throws Exception {
+		DefaultMixtureREM model = create(1);
+		model.setup(sample);
+		double r = model.calcR();
+		assertEquals(Double.doubleToLongBits(r), Double.doubleToLongBits(model.calcR()));
+
+		model.getConfig().put(AbstractMixtureREM.EXECUTE_SELECT_COMP_FIELD, true);
+		RMDiagnostics expected = RMDiagnostics.calc(model, model.getLargeStatistics());
+		assertNotEquals(r, expected.getR(), 0);
+		assertEquals(Double.doubleToLongBits(expected.getR()), Double.doubleToLongBits(model.calcR()));
+		assertEquals(Double.doubleToLongBits(expected.getVariance()), Double.doubleToLongBits(model.calcVariance()));
+
+		model.getConfig().put(AbstractMixtureREM.EXECUTE_SELECT_COMP_FIELD, false);
+		assertEquals(Double.doubleToLongBits(r), Double.doubleToLongBits(model.calcR()));
+		model.unsetup();
+	}
+
+
+}
@@ -0,0 +1,193 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.hudup.core.Util;
+import net.hudup.core.data.MemFetcher;
+import net.hudup.core.data.Profile;
+import net.rem.regression.RegressiveDataGenerator;
+
+/**
+ * Tests of distributed REM training with workers exported in this process and connected through RMI loopback.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class DistributedREMTest {
+
+
+	/**
+	 * Number of workers.
+	 */
+	private final static int WORKER_NUMBER = 3;
+
+
+	/**
+	 * Text file of sample.
+	 */
+	private static File file = null;
+
+
+	/**
+	 * Workers.
+	 */
+	private static List<REMWorker> workers = Util.newList();
+
+
+	/**
+	 * Registry of workers.
+	 */
+	private static Registry registry = null;
+
+
+	/**
+	 * Bind URIs of workers separated by comma.
+	 */
+	private static String uris = null;
+
+
+	/**
+	 * Generating sample file and starting workers on its shards.
+	 * @throws Exception if any error raises.
+	 */
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		file = File.createTempFile("rem_distributed", ".csv");
+		file.deleteOnExit();
+		RegressiveDataGenerator generator = RegressiveDataGenerator.createRandom(2, 1, 0.01, 7);
+		generator.setMissingRates(0.1, 0);
+		try (OutputStream out = new FileOutputStream(file)) {
+			generator.generate(out, 900);
+		}
+
+		//Only one registry can be created in a virtual machine and so all workers are bound to the same registry.
+		int port = 20000 + new Random().nextInt(20000);
+		registry = LocateRegistry.createRegistry(port);
+		StringBuilder buffer = new StringBuilder();
+		for (int i = 0; i < WORKER_NUMBER; i++) {
+			REMWorker worker = new REMWorker(REMWorker.loadShard(file, i, WORKER_NUMBER));
+			String name = REMWorker.NAME_DEFAULT + i;
+			registry.rebind(name, UnicastRemoteObject.exportObject(worker, 0));
+			workers.add(worker);
+			buffer.append(i > 0 ? "," : "").append("rmi://localhost:" + port + "/" + name);
+		}
+		uris = buffer.toString();
+	}
+
+
+	/**
+	 * Stopping workers and registry.
+	 * @throws Exception if any error raises.
+	 */
+	@AfterClass
+	public static void tearDownClass() throws Exception {
+		for (int i = 0; i < workers.size(); i++) {
+			registry.unbind(REMWorker.NAME_DEFAULT + i);
+			UnicastRemoteObject.unexportObject(workers.get(i), true);
+		}
+		workers.clear();
+		UnicastRemoteObject.unexportObject(registry, true);
+	}
+
+
+	/**
+	 * Distributed model is trained as local model on the whole sample, and its diagnostics are kept after workers are released.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testLoopbackEquivalence() throws Exception {
+		REMImpl local = new REMImpl();
+		local.setup(REMWorker.loadShard(file, 0, 1));
+
+		DistributedREM distributed = new DistributedREM();
+		distributed.getConfig().put(DistributedREM.WORKERS_FIELD, uris);
+		distributed.setup(new MemFetcher<Profile>(Util.<Profile>newList()));
+
+		assertEquals(local.getCurrentIteration(), distributed.getCurrentIteration());
+		ExchangedParameter localParameter = (ExchangedParameter)local.getParameter();
+		ExchangedParameter distributedParameter = (ExchangedParameter)distributed.getParameter();
+		assertArrayEquals(localParameter.getAlphaArray(), distributedParameter.getAlphaArray(), 1e-9);
+		assertArrayEquals(localParameter.getBetaArray(), distributedParameter.getBetaArray(), 1e-9);
+
+		assertEquals(local.calcVariance(), distributed.calcVariance(), 1e-9);
+		assertEquals(local.calcR(), distributed.calcR(), 1e-9);
+		assertEquals(local.calcR(1), distributed.calcR(1), 1e-9);
+		assertArrayEquals(local.calcError(), distributed.calcError(), 1e-9);
+		assertEquals(local.getDiagnostics().size(), distributed.getDiagnostics().size());
+		assertNotNull(distributed.createResponseGraph());
+
+		local.unsetup();
+		distributed.unsetup();
+	}
+
+
+	/**
+	 * Distributed mixture model keeps diagnostics after workers are released.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testMixtureDiagnostics() throws Exception {
+		DistributedMixtureREM distributed = new DistributedMixtureREM();
+		distributed.getConfig().put(DistributedREM.WORKERS_FIELD, uris);
+		distributed.setup(new MemFetcher<Profile>(Util.<Profile>newList()));
+		assertNotNull(distributed.getParameter());
+
+		assertNotNull(distributed.calcMetrics());
+		assertTrue(Util.isUsed(distributed.calcVariance()));
+		assertTrue(Util.isUsed(distributed.calcR()));
+		assertEquals(900, distributed.getDiagnostics().size());
+		distributed.unsetup();
+	}
+
+
+	/**
+	 * Sessions of two pools on the same workers do not disturb each other.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testSessions() throws Exception {
+		List<REMWorkerRemote> remotes = Util.newList();
+		for (REMWorker worker : workers) remotes.add(worker);
+		REMWorkerPool pool1 = new REMWorkerPool(remotes);
+		REMWorkerPool pool2 = new REMWorkerPool(remotes);
+
+		REMImpl model = new REMImpl();
+		model.getConfig().put(DistributedREM.WORKERS_FIELD, "");
+		assertNotNull(pool1.prepare(model.getConfig(), false));
+		assertNotNull(pool2.prepare(model.getConfig(), false));
+		ExchangedParameter parameter = (ExchangedParameter)pool1.initializeParameter();
+		assertNotNull(parameter);
+
+		pool2.close();
+		REMSufficientStatistics stats = pool1.expectation(parameter);
+		assertNotNull(stats);
+		assertNotNull(pool1.diagnose(parameter));
+		pool1.close();
+	}
+
+
+}
@@ -0,0 +1,90 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.hudup.core.data.Fetcher;
+import net.hudup.core.data.Profile;
+import net.rem.em.EMAbstract;
+import net.rem.em.EMMetricsRegistry;
+import net.rem.regression.TestSamples;
+
+/**
+ * Tests that collectors of metrics in {@link EMMetricsRegistry} do not outlive their models.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class EMMetricsRegistryTest {
+
+
+	/**
+	 * Sample of two-component mixture with missing values.
+	 */
+	private static Fetcher<Profile> sample = null;
+
+
+	/**
+	 * Generating sample.
+	 * @throws Exception if any error raises.
+	 */
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		sample = TestSamples.generate(2, 2, 0.01, 0.1, 1000, 3);
+	}
+
+
+	/**
+	 * Metrics are not collected by default.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testOffByDefault() throws Exception {
+		int count = EMMetricsRegistry.getKeys().size();
+		REMImpl model = new REMImpl();
+		model.setup(sample);
+		assertNull(model.getMetrics());
+		assertNull(EMMetricsRegistry.get(model.getMetricsKey()));
+		assertEquals(count, EMMetricsRegistry.getKeys().size());
+		model.unsetup();
+	}
+
+
+	/**
+	 * Multi-start candidates leave no collector and the collector of the model is removed when the model is unset up.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testUnregisteredAfterUnsetup() throws Exception {
+		int count = EMMetricsRegistry.getKeys().size();
+		DefaultMixtureREM model = new DefaultMixtureREM();
+		model.getConfig().put(EMAbstract.EM_METRICS_FIELD, true);
+		model.getConfig().put(DefaultMixtureREM.COMP_NUMBER_FIELD, 2);
+		model.getConfig().put(DefaultMixtureREM.MULTISTART_NUMBER_FIELD, 3);
+		model.setup(sample);
+
+		assertNotNull(model.getMetrics());
+		assertTrue(model.getMetrics().getIterations() > 0);
+		assertNotNull(EMMetricsRegistry.get(model.getMetricsKey()));
+		assertEquals(count + 1, EMMetricsRegistry.getKeys().size());
+
+		model.unsetup();
+		assertNull(EMMetricsRegistry.get(model.getMetricsKey()));
+		assertEquals(count, EMMetricsRegistry.getKeys().size());
+	}
+
+
+}
@@ -0,0 +1,177 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.hudup.core.Util;
+import net.rem.regression.LargeStatistics;
+import net.rem.regression.em.ExchangedParameter.NormalDisParameter;
+
+/**
+ * Tests that primitive storage of {@link ExchangedParameter} gives the same results as boxed lists.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class ExchangedParameterTest {
+
+
+	/**
+	 * Creating random large statistics whose X statistics begin with 1.
+	 * @param rnd random generator.
+	 * @param N number of rows.
+	 * @param n number of regressors excluding constant 1.
+	 * @return random large statistics.
+	 */
+	private static LargeStatistics random(Random rnd, int N, int n) {
+		List<double[]> xData = Util.newList(N);
+		List<double[]> zData = Util.newList(N);
+		for (int i = 0; i < N; i++) {
+			double[] x = new double[n + 1];
+			x[0] = 1;
+			for (int j = 1; j <= n; j++) x[j] = rnd.nextGaussian() * j + j;
+			xData.add(x);
+			zData.add(new double[] {1, rnd.nextGaussian()});
+		}
+		return new LargeStatistics(xData, zData);
+	}
+
+
+	/**
+	 * Calculating full variance matrix with boxed mean in the same order of operations as before primitive storage.
+	 * @param stat large statistics.
+	 * @param weights weights of rows, which can be null.
+	 * @return full variance matrix.
+	 */
+	private static double[][] boxedVariance(LargeStatistics stat, double[] weights) {
+		List<double[]> xData = stat.getXData();
+		int N = xData.size(), n = xData.get(0).length - 1;
+		double sumWeights = 0;
+		for (int i = 0; weights != null && i < N; i++) sumWeights += weights[i];
+
+		List<Double> mean = Util.newList(n);
+		for (int j = 0; j < n; j++) mean.add(0.0);
+		for (int i = 0; i < N; i++) {
+			for (int j = 0; j < n; j++)
+				mean.set(j, mean.get(j) + (weights != null ? weights[i]*xData.get(i)[j+1] : xData.get(i)[j+1]));
+		}
+		for (int j = 0; j < n; j++) mean.set(j, mean.get(j) / (weights != null ? sumWeights : N));
+
+		double[][] variance = new double[n][n];
+		for (int i = 0; i < N; i++) {
+			double[] d = new double[n];
+			for (int j = 0; j < n; j++) d[j] = xData.get(i)[j+1] - mean.get(j);
+			for (int j = 0; j < n; j++) {
+				for (int k = 0; k < n; k++)
+					variance[j][k] = variance[j][k] + (weights != null ? weights[i]*d[j]*d[k] : d[j]*d[k]);
+			}
+		}
+		for (int j = 0; j < n; j++) {
+			for (int k = 0; k < n; k++) variance[j][k] = variance[j][k] / (weights != null ? sumWeights : N);
+		}
+		return variance;
+	}
+
+
+	/**
+	 * Asserting that packed variance of specified parameter is bit-identical to upper triangle of boxed variance and that full variance is symmetric.
+	 * @param parameter specified parameter.
+	 * @param expected boxed variance.
+	 */
+	private static void assertVarianceEquals(NormalDisParameter parameter, double[][] expected) {
+		int n = expected.length;
+		assertEquals(n, parameter.getDimension());
+		double[] packed = parameter.getVarianceArray();
+		assertEquals(n*(n+1)/2, packed.length);
+		List<double[]> full = parameter.getVariance();
+		for (int j = 0, index = 0; j < n; j++) {
+			for (int k = 0; k < n; k++) {
+				if (k >= j) {
+					assertEquals(Double.doubleToLongBits(expected[j][k]), Double.doubleToLongBits(packed[index]));
+					assertEquals(Double.doubleToLongBits(expected[j][k]), Double.doubleToLongBits(full.get(j)[k]));
+					index++;
+				}
+				else //Boxed lower triangle can differ in the last bit with weights because (w*d[j])*d[k] and (w*d[k])*d[j] round differently.
+					assertEquals(Double.doubleToLongBits(full.get(k)[j]), Double.doubleToLongBits(full.get(j)[k]));
+			}
+		}
+	}
+
+
+	/**
+	 * Mean of primitive alpha is bit-identical to mean of boxed alpha.
+	 */
+	@Test
+	public void testMean() {
+		Random rnd = new Random(17);
+		for (int t = 0; t < 100; t++) {
+			int n = 1 + rnd.nextInt(6);
+			double[] alpha = new double[n + 1];
+			for (int j = 0; j < alpha.length; j++) alpha[j] = rnd.nextGaussian();
+			double[] x = new double[n + 1];
+			x[0] = 1;
+			for (int j = 1; j <= n; j++) x[j] = rnd.nextGaussian() * 100;
+
+			ExchangedParameter parameter = new ExchangedParameter(alpha, null);
+			double expected = ExchangedParameter.mean(parameter.getAlpha(), x);
+			assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(ExchangedParameter.mean(alpha, x)));
+			assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(parameter.mean(x)));
+		}
+	}
+
+
+	/**
+	 * List accessors are consistent with primitive arrays.
+	 */
+	@Test
+	public void testListAccessors() {
+		double[] alpha = {0.5, -1.25, 2};
+		double[] betas = {1, 2, 3, 4};
+		ExchangedParameter parameter = new ExchangedParameter(alpha, betas);
+		assertEquals(alpha.length, parameter.getAlpha().size());
+		for (int j = 0; j < alpha.length; j++) assertEquals(alpha[j], parameter.getAlpha().get(j), 0);
+		List<double[]> pairs = parameter.getBetas();
+		assertEquals(2, pairs.size());
+		assertArrayEquals(new double[] {3, 4}, pairs.get(1), 0);
+
+		ExchangedParameter copy = new ExchangedParameter();
+		copy.setAlpha(parameter.getAlpha());
+		copy.setBetas(pairs);
+		assertArrayEquals(alpha, copy.getAlphaArray(), 0);
+		assertArrayEquals(betas, copy.getBetaArray(), 0);
+	}
+
+
+	/**
+	 * Packed variance is bit-identical to full variance calculated with boxed mean, with and without weights.
+	 */
+	@Test
+	public void testPackedVariance() {
+		Random rnd = new Random(19);
+		LargeStatistics stat = random(rnd, 500, 4);
+		assertVarianceEquals(new NormalDisParameter(stat), boxedVariance(stat, null));
+
+		double[] weights = new double[stat.size()];
+		List<Double> kCondProbs = Util.newList(weights.length);
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] = rnd.nextDouble();
+			kCondProbs.add(weights[i]);
+		}
+		assertVarianceEquals(new NormalDisParameter(stat, kCondProbs), boxedVariance(stat, weights));
+	}
+
+
+}
@@ -0,0 +1,198 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.rem.regression.em.ExchangedParameter.NormalDisParameter;
+
+/**
+ * Tests of {@link ParameterCodec}.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class ParameterCodecTest {
+
+
+	/**
+	 * Creating parameter with random values.
+	 * @param n number of regressors.
+	 * @param seed seed of random values.
+	 * @return parameter with random values.
+	 */
+	private static ExchangedParameter create(int n, long seed) {
+		Random rnd = new Random(seed);
+		double[] alpha = new double[n + 1];
+		for (int i = 0; i < alpha.length; i++) alpha[i] = rnd.nextGaussian() / 3.0;
+		double[] betas = new double[2 * n];
+		for (int j = 0; j < betas.length; j++) betas[j] = rnd.nextGaussian() / 7.0;
+		double[] mean = new double[n];
+		for (int i = 0; i < n; i++) mean[i] = rnd.nextGaussian();
+		double[] variance = new double[n*(n+1)/2];
+		for (int i = 0; i < variance.length; i++) variance[i] = rnd.nextDouble() / 11.0;
+
+		ExchangedParameter parameter = new ExchangedParameter(alpha, betas);
+		parameter.setCoeff(rnd.nextDouble() / 13.0);
+		parameter.setZVariance(rnd.nextDouble() / 17.0);
+		parameter.setXNormalDisParameter(new NormalDisParameter(mean, variance));
+		return parameter;
+	}
+
+
+	/**
+	 * Asserting that two parameters are equal within specified tolerance.
+	 * @param expected expected parameter.
+	 * @param actual actual parameter.
+	 * @param delta tolerance, which is 0 for exact equality.
+	 */
+	private static void assertParameterEquals(ExchangedParameter expected, ExchangedParameter actual, double delta) {
+		assertEquals(expected.getCoeff(), actual.getCoeff(), delta);
+		assertEquals(expected.getZVariance(), actual.getZVariance(), delta);
+		assertArrayEquals(expected.getAlphaArray(), actual.getAlphaArray(), delta);
+		assertArrayEquals(expected.getBetaArray(), actual.getBetaArray(), delta);
+		assertArrayEquals(expected.getXNormalDisParameter().getMeanArray(), actual.getXNormalDisParameter().getMeanArray(), delta);
+		assertArrayEquals(expected.getXNormalDisParameter().getVarianceArray(), actual.getXNormalDisParameter().getVarianceArray(), delta);
+	}
+
+
+	/**
+	 * Encoding with double precision is exact.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testRoundTrip() throws Exception {
+		ExchangedParameter parameter = create(5, 1);
+		ExchangedParameter decoded = (ExchangedParameter)ParameterCodec.decode(ParameterCodec.encode(parameter, false));
+		assertParameterEquals(parameter, decoded, 0);
+
+		ExchangedParameter empty = (ExchangedParameter)ParameterCodec.decode(ParameterCodec.encode(new ExchangedParameter(), false));
+		assertNull(empty.getAlphaArray());
+		assertNull(empty.getBetaArray());
+		assertNull(empty.getXNormalDisParameter());
+	}
+
+
+	/**
+	 * Encoding with float precision is used only when requested and keeps float precision.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testFloat32() throws Exception {
+		ExchangedParameter parameter = create(5, 2);
+		byte[] full = ParameterCodec.encode(parameter, false);
+		byte[] compact = ParameterCodec.encode(parameter, true);
+		assertEquals(full.length - 4 * (2 + 6 + 10 + 5 + 15), compact.length);
+
+		ExchangedParameter decoded = (ExchangedParameter)ParameterCodec.decode(compact);
+		assertParameterEquals(parameter, decoded, 1e-6);
+		assertEquals((double)(float)parameter.getAlphaArray()[0], decoded.getAlphaArray()[0], 0);
+	}
+
+
+	/**
+	 * Variance of normal distribution is written as packed upper triangle instead of full matrix.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testPackedVariance() throws Exception {
+		int n = 6;
+		ExchangedParameter parameter = create(n, 4);
+		ExchangedParameter withoutVariance = create(n, 4);
+		withoutVariance.setXNormalDisParameter(new NormalDisParameter(parameter.getXNormalDisParameter().getMeanArray(), null));
+		int packed = ParameterCodec.encode(parameter, false).length - ParameterCodec.encode(withoutVariance, false).length;
+		assertEquals(2 * 4 + 8 * n*(n+1)/2, packed);
+	}
+
+
+	/**
+	 * Variance written as full symmetric matrix by version 1 is still read.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testFullVarianceOfVersion1() throws Exception {
+		double[] mean = {1, 2, 3};
+		double[][] full = {{4, 0.5, 0.25}, {0.5, 5, 0.125}, {0.25, 0.125, 6}};
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(ParameterCodec.MAGIC);
+		out.writeByte(1);
+		out.writeByte(1); //Single parameter.
+		out.writeByte(8); //Only normal distribution of X variable.
+		out.writeDouble(0.5);
+		out.writeDouble(0.25);
+		out.writeByte(2 | 4); //Mean and variance.
+		out.writeInt(mean.length);
+		for (double value : mean) out.writeDouble(value);
+		out.writeInt(3);
+		out.writeInt(3);
+		for (double[] row : full) {
+			for (double value : row) out.writeDouble(value);
+		}
+		out.flush();
+
+		ExchangedParameter decoded = (ExchangedParameter)ParameterCodec.decode(bytes.toByteArray());
+		assertArrayEquals(mean, decoded.getXNormalDisParameter().getMeanArray(), 0);
+		assertArrayEquals(new double[] {4, 0.5, 0.25, 5, 0.125, 6}, decoded.getXNormalDisParameter().getVarianceArray(), 0);
+	}
+
+
+	/**
+	 * Negative lengths in corrupted data are rejected by {@link IOException} instead of runtime exceptions.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testNegativeLength() throws Exception {
+		byte[] bytes = ParameterCodec.encode(create(3, 5), false);
+		int offset = 4 + 1 + 1 + 1 + 8 + 8; //Length of alpha follows magic, version, kind, flags, coefficient, and Z variance.
+		bytes[offset] = (byte)0xFF;
+		try {
+			ParameterCodec.decode(bytes);
+			fail("Negative length is accepted");
+		}
+		catch (IOException e) {
+			assertTrue(e.getMessage().startsWith("Invalid length -"));
+		}
+	}
+
+
+	/**
+	 * Externalization, which serves checkpoints and remote calls, is always exact.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testExternalizationExact() throws Exception {
+		ExchangedParameter parameter = create(4, 3);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(parameter);
+		out.close();
+
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		ExchangedParameter decoded = (ExchangedParameter)in.readObject();
+		in.close();
+		assertParameterEquals(parameter, decoded, 0);
+	}
+
+
+}
@@ -0,0 +1,60 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import net.hudup.core.data.Fetcher;
+import net.hudup.core.data.Profile;
+import net.rem.regression.TestSamples;
+
+/**
+ * Tests of checkpoint signature of {@link REMImpl}.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class REMCheckpointTest {
+
+
+	/**
+	 * Getting checkpoint signature of model prepared on specified sample.
+	 * @param sample specified sample.
+	 * @param estimateMode estimation mode.
+	 * @return checkpoint signature of model prepared on specified sample.
+	 */
+	private static String signature(Fetcher<Profile> sample, String estimateMode) {
+		REMImpl model = new REMImpl();
+		model.getConfig().put(REMImpl.ESTIMATE_MODE_FIELD, estimateMode);
+		assertTrue(model.prepareInternalData(sample));
+		return model.getCheckpointSignature();
+	}
+
+
+	/**
+	 * Signature depends on content of data and estimation mode, not only on size of data.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testSignature() throws Exception {
+		Fetcher<Profile> sample1 = TestSamples.generate(2, 1, 0.01, 0.1, 300, 1);
+		Fetcher<Profile> sample2 = TestSamples.generate(2, 1, 0.01, 0.1, 300, 2);
+
+		String signature = signature(sample1, REMImpl.REVERSIBLE);
+		assertEquals(signature, signature(sample1, REMImpl.REVERSIBLE));
+		assertNotEquals(signature, signature(sample2, REMImpl.REVERSIBLE));
+		assertNotEquals(signature, signature(sample1, REMImpl.GAUSSIAN));
+	}
+
+
+}
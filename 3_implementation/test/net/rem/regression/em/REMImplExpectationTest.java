@@ -0,0 +1,110 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.hudup.core.Util;
+import net.hudup.core.data.Fetcher;
+import net.hudup.core.data.Profile;
+import net.rem.regression.LargeStatistics;
+import net.rem.regression.Statistics;
+import net.rem.regression.TestSamples;
+
+/**
+ * Tests that expectation of {@link REMImpl} by missing-pattern groups is the same as estimating rows one by one.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class REMImplExpectationTest {
+
+
+	/**
+	 * Sample with missing regressors and missing responses.
+	 */
+	private static Fetcher<Profile> sample = null;
+
+
+	/**
+	 * Generating sample.
+	 * @throws Exception if any error raises.
+	 */
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		sample = TestSamples.generate(3, 1, 0.01, 0.2, 2000, 9);
+	}
+
+
+	/**
+	 * Asserting that grouped expectation is bit-identical to estimating rows one by one with the trained parameter.
+	 * @param estimateMode estimation mode.
+	 * @throws Exception if any error raises.
+	 */
+	private static void assertGroupedEqualsPerRow(String estimateMode) throws Exception {
+		REMImpl rem = new REMImpl();
+		rem.getConfig().put(REMImpl.ESTIMATE_MODE_FIELD, estimateMode);
+		rem.setup(sample);
+		ExchangedParameter parameter = (ExchangedParameter)rem.getParameter();
+		assertNotNull(parameter);
+
+		List<double[]> xData = rem.data.getXData();
+		List<double[]> zData = rem.data.getZData();
+		LargeStatistics grouped = (LargeStatistics)rem.expectation(parameter);
+		assertEquals(zData.size(), grouped.size());
+
+		int missingX = 0, missingZ = 0;
+		for (int i = 0; i < zData.size(); i++) {
+			if (!Util.isUsed(zData.get(i)[1])) missingZ++;
+			for (double x : xData.get(i)) {
+				if (!Util.isUsed(x)) missingX++;
+			}
+
+			Statistics stat = rem.estimate(new Statistics(zData.get(i)[1], xData.get(i)), parameter);
+			assertEquals(Double.doubleToLongBits(stat.getZStatistic()), Double.doubleToLongBits(grouped.getZData().get(i)[1]));
+			double[] xStatistic = stat.getXStatistic();
+			double[] xGrouped = grouped.getXData().get(i);
+			assertEquals(xStatistic.length, xGrouped.length);
+			for (int j = 0; j < xStatistic.length; j++)
+				assertEquals(Double.doubleToLongBits(xStatistic[j]), Double.doubleToLongBits(xGrouped[j]));
+		}
+		assertTrue(missingX > 0);
+		assertTrue(missingZ > 0);
+		rem.unsetup();
+	}
+
+
+	/**
+	 * Grouped expectation in reversible mode.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testReversible() throws Exception {
+		assertGroupedEqualsPerRow(REMImpl.REVERSIBLE);
+	}
+
+
+	/**
+	 * Grouped expectation in Gaussian mode.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testGaussian() throws Exception {
+		assertGroupedEqualsPerRow(REMImpl.GAUSSIAN);
+	}
+
+
+}
@@ -0,0 +1,133 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeNotNull;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests that kernels of {@link REMKernels} and its vector implementation give the same results as calculating rows one by one.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class REMKernelsTest {
+
+
+	/**
+	 * Numbers of rows, some of which are not multiples of vector length.
+	 */
+	private final static int[] SIZES = {0, 1, 3, 8, 17, 64, 1001};
+
+
+	/**
+	 * Creating vector kernels.
+	 * @return vector kernels. Return null if the vector implementation is not available in this virtual machine.
+	 */
+	private static REMKernels createVectorKernels() {
+		try {
+			return (REMKernels)Class.forName(REMKernels.VECTOR_KERNELS_CLASS).getDeclaredConstructor().newInstance();
+		}
+		catch (Throwable e) {
+			return null;
+		}
+	}
+
+
+	/**
+	 * Creating array of random values.
+	 * @param rnd random generator.
+	 * @param size size of array.
+	 * @return array of random values.
+	 */
+	private static double[] random(Random rnd, int size) {
+		double[] values = new double[size];
+		for (int i = 0; i < size; i++) values[i] = rnd.nextGaussian() * 10;
+		return values;
+	}
+
+
+	/**
+	 * Asserting that two arrays have the same bits in the first specified number of values.
+	 * @param expected expected array.
+	 * @param actual actual array.
+	 * @param size number of compared values.
+	 */
+	private static void assertBitEquals(double[] expected, double[] actual, int size) {
+		for (int r = 0; r < size; r++)
+			assertEquals("row " + r, Double.doubleToLongBits(expected[r]), Double.doubleToLongBits(actual[r]));
+	}
+
+
+	/**
+	 * Asserting that specified kernels give the same results as calculating rows one by one.
+	 * @param kernels specified kernels.
+	 */
+	private static void assertKernelsEqualPerRow(REMKernels kernels) {
+		Random rnd = new Random(13);
+		for (int size : SIZES) {
+			double[] coeffs = random(rnd, 4);
+			double[][] columns = {random(rnd, size), null, random(rnd, size), null};
+			double[] constants = {0, 1, 0, rnd.nextGaussian()};
+			double[] out = new double[size];
+			kernels.linear(coeffs, columns, constants, size, out);
+			double[] expected = new double[size];
+			for (int r = 0; r < size; r++) {
+				double sum = 0;
+				sum += coeffs[0] * columns[0][r];
+				sum += coeffs[1] * constants[1];
+				sum += coeffs[2] * columns[2][r];
+				sum += coeffs[3] * constants[3];
+				expected[r] = sum;
+			}
+			assertBitEquals(expected, out, size);
+
+			double intercept = rnd.nextGaussian(), slope = rnd.nextGaussian();
+			double[] in = random(rnd, size);
+			kernels.affine(intercept, slope, in, size, out);
+			for (int r = 0; r < size; r++) expected[r] = intercept + slope * in[r];
+			assertBitEquals(expected, out, size);
+
+			double shift = rnd.nextGaussian(), divisor = 1 + rnd.nextDouble();
+			kernels.shiftDivide(shift, divisor, in, size, out);
+			for (int r = 0; r < size; r++) expected[r] = (shift + in[r]) / divisor;
+			assertBitEquals(expected, out, size);
+
+			for (int r = 0; r < size; r++) expected[r] = intercept + slope * in[r];
+			kernels.affine(intercept, slope, in, size, in); //Output can be the input array.
+			assertBitEquals(expected, in, size);
+		}
+	}
+
+
+	/**
+	 * Scalar kernels give the same results as calculating rows one by one.
+	 */
+	@Test
+	public void testScalar() {
+		assertKernelsEqualPerRow(new REMKernels());
+	}
+
+
+	/**
+	 * Vector kernels give the same results as calculating rows one by one. The test is skipped if the module <code>jdk.incubator.vector</code> is not added.
+	 */
+	@Test
+	public void testVector() {
+		REMKernels kernels = createVectorKernels();
+		assumeNotNull(kernels);
+		assertKernelsEqualPerRow(kernels);
+	}
+
+
+}
@@ -0,0 +1,140 @@
+/**
+ * REM: REGRESSION MODELS BASED ON EXPECTATION MAXIMIZATION ALGORITHM
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.em;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.rmi.RemoteException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.hudup.core.Util;
+import net.rem.regression.LargeStatistics;
+import net.rem.regression.TestSamples;
+import net.rem.regression.em.ExchangedParameter.NormalDisParameter;
+
+/**
+ * Tests of distributions of regressors estimated by {@link WeightedMixtureREM}.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class WeightedMixtureREMTest {
+
+
+	/**
+	 * Weighted mixture model which keeps data imputed in the last expectation step of learning, which is used by the old refit.
+	 *
+	 * @author Loc Nguyen
+	 * @version 1.0
+	 *
+	 */
+	private static class Model extends WeightedMixtureREM {
+
+		/**
+		 * Serial version UID for serializable class.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Data imputed by components in the last expectation step of learning.
+		 */
+		private List<LargeStatistics> lastStats = null;
+
+		/**
+		 * Flag indicating whether data imputed in the last expectation step was reused.
+		 */
+		private boolean reused = false;
+
+		@Override
+		protected boolean adjustMixtureParameters() throws RemoteException {
+			if (componentStats != null) {
+				lastStats = Util.newList(componentStats.size());
+				lastStats.addAll(componentStats);
+			}
+			reused = isComponentStatsReusable();
+			return super.adjustMixtureParameters();
+		}
+
+	}
+
+
+	/**
+	 * Creating weighted mixture model with specified maximum number of iterations and learning it.
+	 * @param maxIteration specified maximum number of iterations.
+	 * @return learned weighted mixture model.
+	 * @throws Exception if any error raises.
+	 */
+	private static Model learn(int maxIteration) throws Exception {
+		Model model = new Model();
+		model.getConfig().put(DefaultMixtureREM.COMP_NUMBER_FIELD, 2);
+		model.getConfig().put(DefaultMixtureREM.INITIALIZE_SEED_FIELD, 7);
+		model.getConfig().put(DefaultMixtureREM.EM_MAX_ITERATION_FIELD, maxIteration);
+		model.setup(TestSamples.generate(2, 2, 0.01, 0.2, 1000, 3));
+		assertNotNull(model.getParameter());
+		return model;
+	}
+
+
+	/**
+	 * Learning stopped by the maximum number of iterations estimates distributions of regressors from data imputed again with the learned parameters,
+	 * whereas the old refit from data imputed in the last expectation step gives different distributions.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRefitAfterIterationCap() throws Exception {
+		Model model = learn(3);
+		assertFalse(model.reused);
+		assertNotNull(model.lastStats);
+
+		boolean differs = false;
+		List<ExchangedParameter> parameters = (List<ExchangedParameter>)model.getParameter();
+		for (int k = 0; k < parameters.size(); k++) {
+			ExchangedParameter parameter = parameters.get(k);
+			LargeStatistics stat = (LargeStatistics)model.rems.get(k).expectation(parameter, model.data);
+			NormalDisParameter expected = new NormalDisParameter(stat);
+			NormalDisParameter actual = parameter.getXNormalDisParameter();
+			assertArrayEquals(expected.getMeanArray(), actual.getMeanArray(), 0);
+			assertArrayEquals(expected.getVarianceArray(), actual.getVarianceArray(), 0);
+
+			NormalDisParameter old = new NormalDisParameter(model.lastStats.get(k));
+			differs = differs || !Arrays.equals(old.getMeanArray(), actual.getMeanArray());
+		}
+		assertTrue(differs);
+		model.unsetup();
+	}
+
+
+	/**
+	 * Learning which converges reuses data imputed in the last expectation step as the old refit does.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testReuseAfterConvergence() throws Exception {
+		Model model = learn(1000);
+		assertTrue(model.getCurrentIteration() < 1000);
+		assertTrue(model.reused);
+
+		List<ExchangedParameter> parameters = (List<ExchangedParameter>)model.getParameter();
+		for (int k = 0; k < parameters.size(); k++) {
+			NormalDisParameter old = new NormalDisParameter(model.lastStats.get(k));
+			assertArrayEquals(old.getMeanArray(), parameters.get(k).getXNormalDisParameter().getMeanArray(), 0);
+		}
+		model.unsetup();
+	}
+
+
+}
@@ -0,0 +1,73 @@
+/**
+ * SIM: MACHINE LEARNING ALGORITHMS FRAMEWORK
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.regression.evaluate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import net.hudup.core.Util;
+import net.rem.regression.ColumnarData;
+import net.rem.regression.TestSamples;
+import net.rem.regression.em.REMImpl;
+import net.rem.regression.evaluate.CrossValidation.FoldResult;
+
+/**
+ * Tests of {@link CrossValidation}.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+public class CrossValidationTest {
+
+
+	/**
+	 * Failed folds are kept in the results with their errors and they are ignored by mean scores.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testFailedFolds() throws Exception {
+		CrossValidation validation = new CrossValidation(new REMImpl()) {
+
+			@Override
+			protected FoldResult runFold(int fold, ColumnarData train, ColumnarData test, Object warmParameter) throws Exception {
+				assertNull(warmParameter); //Warm start is disabled by default.
+				if (fold == 1) throw new IllegalStateException("broken fold");
+				return fold == 2 ? null : super.runFold(fold, train, test, warmParameter);
+			}
+
+		};
+		validation.setThreads(2);
+
+		List<FoldResult> results = validation.kFold(TestSamples.generate(2, 1, 0.01, 0.1, 300, 4), 3, 1);
+		assertNotNull(results);
+		assertEquals(3, results.size());
+		for (int i = 0; i < results.size(); i++) {
+			assertEquals(i, results.get(i).fold);
+			assertEquals(100, results.get(i).testSize);
+		}
+		assertFalse(results.get(0).isFailed());
+		assertTrue(results.get(1).isFailed());
+		assertTrue(results.get(1).error.contains("broken fold"));
+		assertTrue(results.get(2).isFailed());
+		assertFalse(Util.isUsed(results.get(1).r));
+
+		assertTrue(Util.isUsed(results.get(0).r));
+		assertEquals(results.get(0).r, CrossValidation.meanR(results), 0);
+		assertEquals(results.get(0).mse, CrossValidation.meanMSE(results), 0);
+	}
+
+
+}
@@ -0,0 +1,277 @@
+/**
+ * SIM: MACHINE LEARNING ALGORITHMS FRAMEWORK
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: sim.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.rem.soco;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import net.hudup.core.Util;
+import net.hudup.core.data.DataConfig;
+import net.hudup.core.data.Rating;
+import net.hudup.core.data.RatingVector;
+import net.rem.regression.TestSamples;
+
+/**
+ * Tests of soft cosine similarities computed by {@link SocoMatrix} with primitive similarity stores.
+ *
+ * @author Loc Nguyen
+ * @version 1.0
+ *
+ */
+@SuppressWarnings("deprecation")
+public class SocoMatrixTest {
+
+
+	/**
+	 * Number of rows.
+	 */
+	private final static int ROWS = 40;
+
+
+	/**
+	 * Number of rows of large matrix, which spans several tiles.
+	 */
+	private final static int LARGE_ROWS = 600;
+
+
+	/**
+	 * Number of columns.
+	 */
+	private final static int COLUMNS = 7;
+
+
+	/**
+	 * Creating random sparse matrix.
+	 * @param rnd random generator.
+	 * @return random sparse matrix.
+	 */
+	private static SocoMatrix randomMatrix(Random rnd) {
+		return randomMatrix(rnd, ROWS);
+	}
+
+
+	/**
+	 * Creating random sparse matrix with specified number of rows.
+	 * @param rnd random generator.
+	 * @param rows specified number of rows.
+	 * @return random sparse matrix.
+	 */
+	private static SocoMatrix randomMatrix(Random rnd, int rows) {
+		Map<Integer, RatingVector> matrix = Util.newMap();
+		for (int i = 0; i < rows; i++) {
+			RatingVector vRating = new RatingVector(i + 1);
+			for (int c = 0; c < COLUMNS; c++) {
+				if (c == i % COLUMNS || rnd.nextDouble() < 0.6) vRating.put(c, new Rating(1 + rnd.nextInt(5)));
+			}
+			matrix.put(vRating.id(), vRating);
+		}
+
+		Map<Integer, RatingVector> transposed = Util.newMap();
+		for (int c = 0; c < COLUMNS; c++) transposed.put(c, new RatingVector(c));
+		return SocoMatrix.create(matrix, transposed.keySet());
+	}
+
+
+	/**
+	 * Filling specified column statistics with random symmetric similarities whose self-similarities are 1.
+	 * @param columnStat specified column statistics.
+	 * @param rnd random generator.
+	 */
+	private static void fill(SocoStatistics columnStat, Random rnd) {
+		for (int c1 = 0; c1 < COLUMNS; c1++) {
+			for (int c2 = c1; c2 < COLUMNS; c2++)
+				columnStat.setSim(c1, c2, c1 == c2 ? 1 : rnd.nextDouble());
+		}
+	}
+
+
+	/**
+	 * Column statistics in top-k store which keeps all similarities give the same row similarities as column statistics in dense store.
+	 */
+	@Test
+	public void testTopKKeepingAllEqualsDense() {
+		SocoMatrix matrix = randomMatrix(new Random(3));
+		int[] columnIds = matrix.getColumnIds();
+		SocoStatistics dense = new SocoStatistics(SocoSimStore.create(columnIds, false, 0));
+		SocoStatistics topK = new SocoStatistics(new SocoSimStore.TopKStore(columnIds, COLUMNS, false));
+		fill(dense, new Random(5));
+		fill(topK, new Random(5));
+
+		SocoStatistics expected = matrix.softCosine(dense);
+		SocoStatistics actual = matrix.softCosine(topK);
+		for (int id1 : matrix.getRowIds()) {
+			for (int id2 : matrix.getRowIds())
+				assertEquals(Double.doubleToLongBits(expected.getSim(id1, id2)), Double.doubleToLongBits(actual.getSim(id1, id2)));
+		}
+	}
+
+
+	/**
+	 * Column similarities pruned from top-k lists are zero in products, as in dense store whose pruned similarities are zero.
+	 */
+	@Test
+	public void testPrunedColumnSims() {
+		SocoMatrix matrix = randomMatrix(new Random(7));
+		int[] columnIds = matrix.getColumnIds();
+		SocoStatistics topK = new SocoStatistics(new SocoSimStore.TopKStore(columnIds, 2, false));
+		fill(topK, new Random(9));
+		SocoStatistics dense = new SocoStatistics(SocoSimStore.create(columnIds, false, 0));
+		int pruned = 0;
+		for (int c1 = 0; c1 < COLUMNS; c1++) {
+			for (int c2 = c1; c2 < COLUMNS; c2++) {
+				double sim = topK.getSim(c1, c2);
+				if (!Util.isUsed(sim)) pruned++;
+				dense.setSim(c1, c2, Util.isUsed(sim) ? sim : 0);
+			}
+		}
+		assertTrue(pruned > 0);
+
+		SocoStatistics expected = matrix.softCosine(dense);
+		SocoStatistics actual = matrix.softCosine(topK);
+		for (int id1 : matrix.getRowIds()) {
+			for (int id2 : matrix.getRowIds())
+				assertEquals(Double.doubleToLongBits(expected.getSim(id1, id2)), Double.doubleToLongBits(actual.getSim(id1, id2)));
+		}
+	}
+
+
+	/**
+	 * Soco learned with top-k stores keeps nonzero similarities of most kept pairs of rows.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testSocoTopK() throws Exception {
+		Soco soco = new Soco();
+		soco.getConfig().put(DataConfig.MAIN_UNIT, DataConfig.SAMPLE_UNIT);
+		soco.getConfig().put(Soco.SIM_TOPK_FIELD, 3);
+		soco.setup(TestSamples.generate(3, 1, 0.01, 0.1, 50, 11));
+		assertNotNull(soco.getParameter());
+
+		int kept = 0, nonzero = 0;
+		for (int id1 : soco.rowIds()) {
+			for (int id2 : soco.rowIds()) {
+				double sim = soco.getRowSim(id1, id2);
+				if (id1 == id2 || !Util.isUsed(sim)) continue;
+				kept++;
+				if (sim != 0) nonzero++;
+			}
+		}
+		assertTrue(kept > 0);
+		assertTrue(nonzero > kept / 2);
+		soco.unsetup();
+	}
+
+	/**
+	 * Parallel computation over tiles gives the same similarities as sequential computation, with packed store and top-k store.
+	 */
+	@Test
+	public void testParallelEqualsSerial() {
+		SocoMatrix matrix = randomMatrix(new Random(17), LARGE_ROWS);
+		SocoStatistics columnStat = new SocoStatistics(SocoSimStore.create(matrix.getColumnIds(), false, 0));
+		fill(columnStat, new Random(19));
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (int topK : new int[] {0, 5}) {
+				SocoStatistics expected = matrix.softCosine(columnStat, 16, false, topK, null);
+				SocoStatistics actual = matrix.softCosine(columnStat, 16, false, topK, pool);
+				assertEquals(expected.getStore().getClass(), actual.getStore().getClass());
+				for (int id1 : matrix.getRowIds()) {
+					for (int id2 : matrix.getRowIds()) {
+						assertEquals(Double.doubleToLongBits(expected.getSim(id1, id2)), Double.doubleToLongBits(actual.getSim(id1, id2)));
+						assertEquals(expected.containsSim(id1, id2), actual.containsSim(id1, id2));
+					}
+				}
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+
+	/**
+	 * Asserting that two stores have the same identifiers and the same similarities, including missing ones.
+	 * @param expected expected store.
+	 * @param actual actual store.
+	 */
+	private static void assertStoreEquals(SocoSimStore expected, SocoSimStore actual) {
+		assertNotNull(actual);
+		assertEquals(expected.getClass(), actual.getClass());
+		assertArrayEquals(expected.getIds(), actual.getIds());
+		for (int i = 0; i < expected.size(); i++) {
+			for (int j = 0; j < expected.size(); j++) {
+				assertEquals(Double.doubleToLongBits(expected.getSimByIndex(i, j)), Double.doubleToLongBits(actual.getSimByIndex(i, j)));
+				assertEquals(expected.containsSimByIndex(i, j), actual.containsSimByIndex(i, j));
+			}
+		}
+	}
+
+
+	/**
+	 * Packed and top-k stores in both precisions are saved and loaded by memory-mapped regions without changes.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testStorePersistence() throws Exception {
+		File file = File.createTempFile("soco_store", ".bin");
+		file.deleteOnExit();
+		int[] ids = {3, 5, 8, 13, 21, 34};
+		SocoSimStore[] stores = {new SocoSimStore.PackedStore(ids, false), new SocoSimStore.PackedStore(ids, true),
+				new SocoSimStore.TopKStore(ids, 2, false), new SocoSimStore.TopKStore(ids, 2, true)};
+		for (SocoSimStore store : stores) {
+			Random rnd = new Random(1);
+			for (int i = 0; i < ids.length; i++) {
+				for (int j = i; j < ids.length; j++) {
+					if (rnd.nextDouble() < 0.8) store.setSim(ids[i], ids[j], rnd.nextGaussian());
+				}
+			}
+			assertTrue(store.save(file));
+			assertStoreEquals(store, SocoSimStore.load(file));
+		}
+	}
+
+
+	/**
+	 * Soco saves learned similarities to configured store file and starts from saved column similarities in the next learning process.
+	 * @throws Exception if any error raises.
+	 */
+	@Test
+	public void testSocoStoreFile() throws Exception {
+		File file = File.createTempFile("soco_store", ".bin");
+		File columnFile = new File(file.getPath() + Soco.COLUMN_STORE_SUFFIX);
+		file.deleteOnExit();
+		columnFile.deleteOnExit();
+		file.delete();
+
+		Soco soco = new Soco();
+		soco.getConfig().put(DataConfig.MAIN_UNIT, DataConfig.SAMPLE_UNIT);
+		soco.getConfig().put(Soco.SIM_STORE_FILE_FIELD, file.getPath());
+		soco.setup(TestSamples.generate(3, 1, 0.01, 0.1, 50, 13));
+		SocoParameter parameter = (SocoParameter)soco.getParameter();
+		assertNotNull(parameter);
+		assertStoreEquals(parameter.rowStat.getStore(), SocoSimStore.load(file));
+		assertStoreEquals(parameter.columnStat.getStore(), SocoSimStore.load(columnFile));
+
+		SocoStatistics saved = soco.loadColumnStore();
+		assertNotNull(saved);
+		assertStoreEquals(parameter.columnStat.getStore(), saved.getStore());
+		soco.unsetup();
+	}
+
+
+}